@@ -0,0 +1,182 @@
+/**
+ * CacheBenchmark.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.niolex.commons.collection.Cache;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The JMH benchmark of all the cache implementations. Every operation reads one key from the
+ * workload trace, and puts it into the cache if missing; the writes in the trace always put.
+ * The hits and misses are reported as secondary results, so the hit rate under concurrency is
+ * {@code hits / (hits + misses)}.
+ * <br>
+ * Run {@link #main(String[])} to measure the throughput and the latency percentiles with
+ * 1, 2, 4 ... up to the number of processors threads. Or use the JMH command line, e.g.
+ * {@code java -jar target/benchmarks.jar CacheBenchmark -t 8 -p workload=ZIPFIAN -bm sample -tu ns}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    /**
+     * The mask of the trace length, the trace length must be power of 2.
+     */
+    private static final int TRACE_MASK = (1 << 20) - 1;
+
+    /**
+     * The cache and the trace shared by all the threads.
+     */
+    @State(Scope.Benchmark)
+    public static class CacheState {
+
+        @Param
+        public CacheType cacheType;
+
+        @Param
+        public Workload workload;
+
+        @Param("10000")
+        public int maxSize;
+
+        Cache<Integer, Integer> cache;
+        int[] trace;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            cache = cacheType.create(maxSize);
+            trace = workload.generate(maxSize * 10, TRACE_MASK + 1, HitRateReport.SEED);
+            // Warm up the cache, so we measure the steady state.
+            HitRateReport.replay(cache, trace);
+        }
+    }
+
+    /**
+     * The position of every thread in the trace.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int index;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // Every thread starts from a different position.
+            index = ThreadLocalRandom.current().nextInt(TRACE_MASK + 1);
+        }
+    }
+
+    /**
+     * The hit counters of every thread, reported as secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HitCounter {
+
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            hits = misses = 0;
+        }
+    }
+
+    /**
+     * Read the next key in the trace, and put it if missing.
+     *
+     * @param s the shared cache state
+     * @param c the trace cursor of the current thread
+     * @param t the hit counters of the current thread
+     * @return the value read, returned to avoid dead code elimination
+     */
+    @Benchmark
+    public Integer cacheAside(CacheState s, Cursor c, HitCounter t) {
+        int key = s.trace[c.index++ & TRACE_MASK];
+        if (key < 0) {
+            return s.cache.put(~key, key);
+        }
+        Integer v = s.cache.get(key);
+        if (v != null) {
+            ++t.hits;
+        } else {
+            ++t.misses;
+            s.cache.put(key, key);
+        }
+        return v;
+    }
+
+    /**
+     * Run the benchmark with 1, 2, 4 ... up to the number of processors threads, measure both the
+     * throughput in ops/s and the latency percentiles in nanoseconds.
+     *
+     * @param args the JMH include pattern, defaults to this class
+     * @throws RunnerException if failed to run JMH
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : CacheBenchmark.class.getSimpleName();
+        int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads <<= 1) {
+            threads = Math.min(threads, max);
+            run(include, threads, Mode.Throughput, TimeUnit.SECONDS);
+            run(include, threads, Mode.SampleTime, TimeUnit.NANOSECONDS);
+            if (threads == max) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Run the benchmarks with the specified options.
+     *
+     * @param include the JMH include pattern
+     * @param threads the number of threads
+     * @param mode the benchmark mode
+     * @param unit the output time unit
+     * @throws RunnerException if failed to run JMH
+     */
+    private static void run(String include, int threads, Mode mode, TimeUnit unit) throws RunnerException {
+        new Runner(new OptionsBuilder().include(include).threads(threads).mode(mode).timeUnit(unit).build()).run();
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * CacheType.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.niolex.commons.collection.Cache;
+import org.apache.niolex.commons.collection.ConcurrentLRUCache;
+import org.apache.niolex.commons.collection.IntObjectCache;
+import org.apache.niolex.commons.collection.LRUHashMap;
+import org.apache.niolex.commons.collection.MapAsCache;
+import org.apache.niolex.commons.collection.SegmentLFUCache;
+
+/**
+ * The cache implementations under benchmark.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public enum CacheType {
+
+    /**
+     * The {@link LRUHashMap} guarded by a synchronized wrapper, because it's not thread safe.
+     */
+    LRU_HASH_MAP {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return MapAsCache.newInstance(Collections.synchronizedMap(new LRUHashMap<Integer, Integer>(maxSize)));
+        }
+    },
+
+    /**
+     * The {@link MapAsCache} backed by an unbounded {@link ConcurrentHashMap}, used as the baseline.
+     * It never evicts anything, so the hit rate is the upper bound.
+     */
+    MAP_AS_CACHE {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return MapAsCache.newInstance(new ConcurrentHashMap<Integer, Integer>(maxSize));
+        }
+    },
+
+    CONCURRENT_LRU {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return new ConcurrentLRUCache<Integer, Integer>(maxSize);
+        }
+    },
+
+    CONCURRENT_LRU_ADMISSION {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return new ConcurrentLRUCache<Integer, Integer>(maxSize, true);
+        }
+    },
+
+    SEGMENT_LFU {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return new SegmentLFUCache<Integer, Integer>(maxSize, 16);
+        }
+    },
+
+    SEGMENT_LFU_ADMISSION {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return new SegmentLFUCache<Integer, Integer>(maxSize, 16, true);
+        }
+    },
+
+    SEGMENT_LFU_READ_BUFFER {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(maxSize, 16);
+            c.setReadBuffer(true);
+            return c;
+        }
+    },
+
+    INT_OBJECT {
+        @Override
+        public Cache<Integer, Integer> create(int maxSize) {
+            return new IntObjectCache<Integer>(maxSize);
+        }
+    };
+
+    /**
+     * Create a new cache instance.
+     *
+     * @param maxSize the max number of items
+     * @return the cache
+     */
+    public abstract Cache<Integer, Integer> create(int maxSize);
+
+}
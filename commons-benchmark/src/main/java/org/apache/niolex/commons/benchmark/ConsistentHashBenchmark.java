@@ -0,0 +1,174 @@
+/**
+ * ConsistentHashBenchmark.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.niolex.commons.hash.ConsistentHash;
+import org.apache.niolex.commons.hash.ConsistentHash.HashFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The JMH benchmark of the consistent hash ring lookup. We compare the array based ring in
+ * {@link ConsistentHash} with the tree map ring it used before, built from the same positions.
+ * The keys are hashed before the benchmark, so only the ring lookup is measured.
+ * <br>
+ * Use the JMH command line to select the number of nodes and threads, e.g.
+ * {@code java -jar target/benchmarks.jar ConsistentHashBenchmark -t 4 -p nodes=1000}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsistentHashBenchmark {
+
+    /**
+     * The mask of the number of keys, the number of keys must be power of 2.
+     */
+    private static final int KEY_MASK = (1 << 16) - 1;
+
+    /**
+     * The number of replicas per node.
+     */
+    private static final int REPLICAS = 100;
+
+    /**
+     * The hash function return the key itself for integers, so the lookup benchmark does not
+     * measure the hash cost.
+     */
+    private static final HashFunction HASH = new HashFunction() {
+
+        @Override
+        public int hashCode(Object o) {
+            return o instanceof Integer ? (Integer) o : ConsistentHash.GuavaHash.INSTANCE.hashCode(o);
+        }
+
+        @Override
+        public int hashCode(Object o, int seed) {
+            return ConsistentHash.GuavaHash.INSTANCE.hashCode(o, seed);
+        }
+    };
+
+    /**
+     * The rings and the keys shared by all the threads.
+     */
+    @State(Scope.Benchmark)
+    public static class RingState {
+
+        @Param({"10", "100", "1000"})
+        public int nodes;
+
+        ConsistentHash<String> arrayRing;
+        TreeMap<Integer, String> treeRing;
+        Integer[] keys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<String> list = new ArrayList<String>(nodes);
+            for (int i = 0; i < nodes; ++i) {
+                list.add("10.1." + (i >> 8) + "." + (i & 255) + ":8080");
+            }
+            arrayRing = new ConsistentHash<String>(HASH, REPLICAS, list);
+            treeRing = new TreeMap<Integer, String>();
+            for (String node : list) {
+                // The same positions as the consistent hash, see ConsistentHash#findStart.
+                int start = HASH.hashCode(node);
+                start = start > Integer.MAX_VALUE - REPLICAS ? start - REPLICAS * 79 : start;
+                for (int i = start; i < start + REPLICAS; ++i) {
+                    treeRing.put(HASH.hashCode(node, i), node);
+                }
+            }
+            keys = new Integer[KEY_MASK + 1];
+            Random rand = new Random(HitRateReport.SEED);
+            for (int i = 0; i < keys.length; ++i) {
+                keys[i] = rand.nextInt();
+            }
+        }
+    }
+
+    /**
+     * The position of every thread in the keys.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int index;
+    }
+
+    /**
+     * Lookup by the array based ring.
+     *
+     * @param s the shared rings
+     * @param c the cursor of the current thread
+     * @return the node found, returned to avoid dead code elimination
+     */
+    @Benchmark
+    public String arrayRing(RingState s, Cursor c) {
+        return s.arrayRing.getNode(s.keys[c.index++ & KEY_MASK]);
+    }
+
+    /**
+     * Lookup by the tree map ring.
+     *
+     * @param s the shared rings
+     * @param c the cursor of the current thread
+     * @return the node found, returned to avoid dead code elimination
+     */
+    @Benchmark
+    public String treeMapRing(RingState s, Cursor c) {
+        Map.Entry<Integer, String> en = s.treeRing.ceilingEntry(s.keys[c.index++ & KEY_MASK]);
+        return en == null ? s.treeRing.firstEntry().getValue() : en.getValue();
+    }
+
+    /**
+     * Run the benchmark with one thread and with all the processors.
+     *
+     * @param args not used
+     * @throws RunnerException if failed to run JMH
+     */
+    public static void main(String[] args) throws RunnerException {
+        int max = Runtime.getRuntime().availableProcessors();
+        new Runner(new OptionsBuilder().include(ConsistentHashBenchmark.class.getSimpleName()).threads(1).build()).run();
+        new Runner(new OptionsBuilder().include(ConsistentHashBenchmark.class.getSimpleName()).threads(max).build()).run();
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * HitRateReport.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import org.apache.niolex.commons.collection.Cache;
+
+/**
+ * Replay the workload traces on every cache type in one thread, and report the hit rate.
+ * The hit rate does not depend on timing, so we do not need JMH to measure it, and the result
+ * is reproducible for the same seed.
+ * <br>
+ * Usage: {@code java -cp benchmarks.jar org.apache.niolex.commons.benchmark.HitRateReport [maxSize] [keySpace] [length]}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class HitRateReport {
+
+    /**
+     * The seed used to generate all the traces.
+     */
+    public static final long SEED = 20261018L;
+
+    /**
+     * Replay the trace on the cache in the cache-aside pattern: read the key, put it if missing.
+     * The writes in the trace always put the key.
+     *
+     * @param cache the cache
+     * @param trace the operation trace
+     * @return the number of hits
+     */
+    public static long replay(Cache<Integer, Integer> cache, int[] trace) {
+        long hits = 0;
+        for (int key : trace) {
+            if (key < 0) {
+                cache.put(~key, key);
+                continue;
+            }
+            if (cache.get(key) != null) {
+                ++hits;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Count the number of reads in the trace.
+     *
+     * @param trace the operation trace
+     * @return the number of reads
+     */
+    public static long reads(int[] trace) {
+        long reads = 0;
+        for (int key : trace) {
+            if (key >= 0) {
+                ++reads;
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * The main entry.
+     *
+     * @param args [maxSize] [keySpace] [length]
+     */
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int keySpace = args.length > 1 ? Integer.parseInt(args[1]) : maxSize * 10;
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : keySpace * 20;
+
+        System.out.printf("maxSize=%d keySpace=%d length=%d%n", maxSize, keySpace, length);
+        System.out.printf("%-26s", "cache \\ workload");
+        for (Workload w : Workload.values()) {
+            System.out.printf("%12s", w);
+        }
+        System.out.println();
+        int[][] traces = new int[Workload.values().length][];
+        for (Workload w : Workload.values()) {
+            traces[w.ordinal()] = w.generate(keySpace, length, SEED);
+        }
+        for (CacheType t : CacheType.values()) {
+            System.out.printf("%-26s", t);
+            for (Workload w : Workload.values()) {
+                int[] trace = traces[w.ordinal()];
+                long hits = replay(t.create(maxSize), trace);
+                System.out.printf("%11.2f%%", hits * 100.0 / reads(trace));
+            }
+            System.out.println();
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * NodeRouterBenchmark.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.niolex.commons.hash.NodeRouter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The JMH benchmark of the lookup time of all the node placement algorithms. The key hashes
+ * are generated before the benchmark, so only the routing is measured.
+ * <br>
+ * The memory and the balance do not depend on timing, see {@link RouterReport}. Use the JMH
+ * command line to select the algorithms, e.g.
+ * {@code java -jar target/benchmarks.jar NodeRouterBenchmark -p routerType=JUMP_HASH,MAGLEV_HASH}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeRouterBenchmark {
+
+    /**
+     * The mask of the number of keys, the number of keys must be power of 2.
+     */
+    private static final int KEY_MASK = (1 << 16) - 1;
+
+    /**
+     * The router and the key hashes shared by all the threads.
+     */
+    @State(Scope.Benchmark)
+    public static class RouterState {
+
+        @Param
+        public RouterType routerType;
+
+        @Param({"10", "100", "1000"})
+        public int nodes;
+
+        NodeRouter<String> router;
+        long[] hashes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            router = routerType.create(RouterType.nodes(nodes));
+            hashes = new long[KEY_MASK + 1];
+            Random rand = new Random(HitRateReport.SEED);
+            for (int i = 0; i < hashes.length; ++i) {
+                hashes[i] = rand.nextLong();
+            }
+        }
+    }
+
+    /**
+     * The position of every thread in the key hashes.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int index;
+    }
+
+    /**
+     * Route the next key.
+     *
+     * @param s the shared router state
+     * @param c the cursor of the current thread
+     * @return the node found, returned to avoid dead code elimination
+     */
+    @Benchmark
+    public String route(RouterState s, Cursor c) {
+        return s.router.route(s.hashes[c.index++ & KEY_MASK]);
+    }
+
+    /**
+     * Run the benchmark in one thread.
+     *
+     * @param args not used
+     * @throws RunnerException if failed to run JMH
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NodeRouterBenchmark.class.getSimpleName()).threads(1).build()).run();
+    }
+
+}
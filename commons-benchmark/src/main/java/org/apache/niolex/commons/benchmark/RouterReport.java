@@ -0,0 +1,119 @@
+/**
+ * RouterReport.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.niolex.commons.bean.Pair;
+import org.apache.niolex.commons.hash.NodeRouter;
+import org.apache.niolex.commons.util.MathUtil;
+
+/**
+ * Report the memory used and the load balance of all the node placement algorithms at 10, 100
+ * and 1000 nodes. The balance is the standard deviation of the number of keys per node divided
+ * by the average, the lower the better. The memory is measured by the heap used after building
+ * many routers, so it's an approximation.
+ * <br>
+ * Usage: {@code java -cp benchmarks.jar org.apache.niolex.commons.benchmark.RouterReport [keys]}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class RouterReport {
+
+    /**
+     * The number of routers built to measure the memory.
+     */
+    private static final int COPIES = 20;
+
+    /**
+     * Route the random keys and calculate the standard deviation of the keys per node.
+     *
+     * @param router the router
+     * @param nodes the server nodes
+     * @param keys the number of keys
+     * @return the relative standard deviation, i.e. the standard deviation divided by the average
+     */
+    public static double balance(NodeRouter<String> router, List<String> nodes, int keys) {
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (String node : nodes) {
+            map.put(node, 0);
+        }
+        Random rand = new Random(HitRateReport.SEED);
+        for (int i = 0; i < keys; ++i) {
+            String node = router.route(rand.nextLong());
+            map.put(node, map.get(node) + 1);
+        }
+        Pair<Integer, Double> p = MathUtil.calcStandardDeviation(map.values());
+        return p.b / p.a;
+    }
+
+    /**
+     * Measure the heap used by one router.
+     *
+     * @param type the router type
+     * @param nodes the server nodes
+     * @return the approximate bytes used
+     */
+    public static long memory(RouterType type, List<String> nodes) {
+        Object[] keep = new Object[COPIES];
+        long before = usedMemory();
+        for (int i = 0; i < COPIES; ++i) {
+            keep[i] = type.create(nodes);
+        }
+        long after = usedMemory();
+        if (keep[COPIES - 1] == null) {
+            throw new IllegalStateException("Never happen.");
+        }
+        return Math.max(0, after - before) / COPIES;
+    }
+
+    /**
+     * @return the heap used after full gc
+     */
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    /**
+     * The main entry.
+     *
+     * @param args [keys]
+     */
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        System.out.printf("keys=%d%n", keys);
+        System.out.printf("%-18s%8s%14s%14s%n", "router", "nodes", "memory(KB)", "stddev/avg");
+        for (RouterType t : RouterType.values()) {
+            for (int n : new int[] {10, 100, 1000}) {
+                List<String> nodes = RouterType.nodes(n);
+                System.out.printf("%-18s%8d%14d%13.2f%%%n", t, n, memory(t, nodes) / 1024,
+                        balance(t.create(nodes), nodes, keys) * 100);
+            }
+        }
+    }
+
+}
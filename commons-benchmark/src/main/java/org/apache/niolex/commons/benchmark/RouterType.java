@@ -0,0 +1,98 @@
+/**
+ * RouterType.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.niolex.commons.hash.ConsistentHash;
+import org.apache.niolex.commons.hash.JumpHash;
+import org.apache.niolex.commons.hash.MaglevHash;
+import org.apache.niolex.commons.hash.NodeRouter;
+import org.apache.niolex.commons.hash.RendezvousHash;
+
+/**
+ * The node placement algorithms under benchmark.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public enum RouterType {
+
+    /**
+     * The {@link ConsistentHash} ring with 100 virtual nodes per node.
+     */
+    CONSISTENT_HASH {
+        @Override
+        public NodeRouter<String> create(List<String> nodes) {
+            return new ConsistentHash<String>(ConsistentHash.GuavaHash.INSTANCE, 100, nodes);
+        }
+    },
+
+    JUMP_HASH {
+        @Override
+        public NodeRouter<String> create(List<String> nodes) {
+            return new JumpHash<String>(nodes);
+        }
+    },
+
+    RENDEZVOUS_HASH {
+        @Override
+        public NodeRouter<String> create(List<String> nodes) {
+            return new RendezvousHash<String>(nodes);
+        }
+    },
+
+    /**
+     * The {@link MaglevHash} with the table size at least 100 times of the number of nodes.
+     */
+    MAGLEV_HASH {
+        @Override
+        public NodeRouter<String> create(List<String> nodes) {
+            int size = Math.max(MaglevHash.DEFAULT_TABLE_SIZE, nodes.size() * 100);
+            while (!MaglevHash.isPrime(size)) {
+                ++size;
+            }
+            return new MaglevHash<String>(nodes, size);
+        }
+    };
+
+    /**
+     * Create a router with these nodes.
+     *
+     * @param nodes the server nodes
+     * @return the router
+     */
+    public abstract NodeRouter<String> create(List<String> nodes);
+
+    /**
+     * Generate the server nodes like IP and port.
+     *
+     * @param n the number of nodes
+     * @return the nodes
+     */
+    public static List<String> nodes(int n) {
+        List<String> list = new ArrayList<String>(n);
+        for (int i = 0; i < n; ++i) {
+            list.add("10.1." + (i >> 8) + "." + (i & 255) + ":8080");
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Workload.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.Random;
+
+/**
+ * The key distributions used to benchmark caches. Every workload generates a trace of operations,
+ * a non-negative element means reading that key, and a negative element {@code ~key} means writing
+ * that key.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public enum Workload {
+
+    /**
+     * Read keys uniformly distributed in the key space.
+     */
+    UNIFORM {
+        @Override
+        public int[] generate(int keySpace, int length, long seed) {
+            Random rand = new Random(seed);
+            int[] trace = new int[length];
+            for (int i = 0; i < length; ++i) {
+                trace[i] = rand.nextInt(keySpace);
+            }
+            return trace;
+        }
+    },
+
+    /**
+     * Read keys follow the Zipfian distribution, a few keys are very hot.
+     */
+    ZIPFIAN {
+        @Override
+        public int[] generate(int keySpace, int length, long seed) {
+            ZipfianGenerator zipf = new ZipfianGenerator(keySpace, seed);
+            int[] trace = new int[length];
+            for (int i = 0; i < length; ++i) {
+                trace[i] = zipf.next();
+            }
+            return trace;
+        }
+    },
+
+    /**
+     * The Zipfian reads are interrupted by long sequential scans of the keys never read again,
+     * one third of the reads are scans. This is used to check whether the hot keys survive.
+     */
+    SCAN {
+        @Override
+        public int[] generate(int keySpace, int length, long seed) {
+            ZipfianGenerator zipf = new ZipfianGenerator(keySpace, seed);
+            int[] trace = new int[length];
+            int scan = keySpace;
+            for (int i = 0; i < length; ++i) {
+                if ((i / SCAN_LENGTH) % 3 == 2) {
+                    trace[i] = scan;
+                    scan = scan == Integer.MAX_VALUE ? keySpace : scan + 1;
+                } else {
+                    trace[i] = zipf.next();
+                }
+            }
+            return trace;
+        }
+    },
+
+    /**
+     * The keys follow the Zipfian distribution, and one quarter of the operations are writes.
+     */
+    MIXED {
+        @Override
+        public int[] generate(int keySpace, int length, long seed) {
+            int[] trace = ZIPFIAN.generate(keySpace, length, seed);
+            Random rand = new Random(seed + 1);
+            for (int i = 0; i < length; ++i) {
+                if (rand.nextInt(100) < 25) {
+                    trace[i] = ~trace[i];
+                }
+            }
+            return trace;
+        }
+    };
+
+    /**
+     * The number of keys in one sequential scan.
+     */
+    public static final int SCAN_LENGTH = 1000;
+
+    /**
+     * Generate the operation trace.
+     *
+     * @param keySpace the number of distinct keys in the hot part of this workload
+     * @param length the number of operations
+     * @param seed the random seed
+     * @return the trace, a negative element {@code ~key} means writing that key
+     */
+    public abstract int[] generate(int keySpace, int length, long seed);
+
+}
@@ -0,0 +1,117 @@
+/**
+ * ZipfianGenerator.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import java.util.Random;
+
+/**
+ * Generate integers in [0, n) follow the Zipfian distribution, the smaller number is more popular.
+ * We use the algorithm from "Quickly Generating Billion-Record Synthetic Databases" by Gray et al,
+ * which is also used by YCSB, so every number is generated in O(1) after the O(n) initialization.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class ZipfianGenerator {
+
+    /**
+     * The default skew used by YCSB.
+     */
+    public static final double DEFAULT_THETA = 0.99;
+
+    private final Random rand;
+    private final int items;
+    private final double theta;
+    private final double zetan;
+    private final double alpha;
+    private final double eta;
+    private final double half;
+
+    /**
+     * Create a generator with the default skew.
+     *
+     * @param items the number of items
+     * @param seed the random seed
+     */
+    public ZipfianGenerator(int items, long seed) {
+        this(items, DEFAULT_THETA, seed);
+    }
+
+    /**
+     * Create a generator with the specified skew.
+     *
+     * @param items the number of items
+     * @param theta the skew, must be in (0, 1)
+     * @param seed the random seed
+     */
+    public ZipfianGenerator(int items, double theta, long seed) {
+        if (items < 2) {
+            throw new IllegalArgumentException("The parameter 'items' must greater than 1.");
+        }
+        if (theta <= 0 || theta >= 1) {
+            throw new IllegalArgumentException("The parameter 'theta' must be in (0, 1).");
+        }
+        this.rand = new Random(seed);
+        this.items = items;
+        this.theta = theta;
+        this.zetan = zeta(items, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+        this.half = 1 + Math.pow(0.5, theta);
+    }
+
+    /**
+     * Calculate the zeta function.
+     *
+     * @param n the number of items
+     * @param theta the skew
+     * @return the sum of 1 / i^theta for i in [1, n]
+     */
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; ++i) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+
+    /**
+     * @return the next number
+     */
+    public int next() {
+        double u = rand.nextDouble();
+        double uz = u * zetan;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < half) {
+            return 1;
+        }
+        int r = (int) (items * Math.pow(eta * u - eta + 1, alpha));
+        return r < items ? r : items - 1;
+    }
+
+    /**
+     * @return the skew
+     */
+    public double getTheta() {
+        return theta;
+    }
+
+}
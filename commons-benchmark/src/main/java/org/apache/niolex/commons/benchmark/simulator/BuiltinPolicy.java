@@ -0,0 +1,95 @@
+/**
+ * BuiltinPolicy.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+import org.apache.niolex.commons.collection.ConcurrentLRUCache;
+import org.apache.niolex.commons.collection.LRUHashMap;
+import org.apache.niolex.commons.collection.LongObjectCache;
+import org.apache.niolex.commons.collection.MapAsCache;
+import org.apache.niolex.commons.collection.SegmentLFUCache;
+
+/**
+ * The policies of the cache implementations in commons-core.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public enum BuiltinPolicy implements PolicyFactory {
+
+    /**
+     * The exact LRU policy of {@link LRUHashMap}.
+     */
+    LRU_HASH_MAP {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(MapAsCache.newInstance(new LRUHashMap<Long, Boolean>(maxSize)));
+        }
+    },
+
+    /**
+     * The 3Q policy of {@link ConcurrentLRUCache}.
+     */
+    CONCURRENT_LRU {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(new ConcurrentLRUCache<Long, Boolean>(maxSize));
+        }
+    },
+
+    /**
+     * The 3Q policy of {@link ConcurrentLRUCache} with the W-TinyLFU admission.
+     */
+    CONCURRENT_LRU_ADMISSION {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(new ConcurrentLRUCache<Long, Boolean>(maxSize, true));
+        }
+    },
+
+    /**
+     * The LFU policy of {@link SegmentLFUCache}.
+     */
+    SEGMENT_LFU {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(new SegmentLFUCache<Long, Boolean>(maxSize, 16));
+        }
+    },
+
+    /**
+     * The LFU policy of {@link SegmentLFUCache} with the TinyLFU admission.
+     */
+    SEGMENT_LFU_ADMISSION {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(new SegmentLFUCache<Long, Boolean>(maxSize, 16, true));
+        }
+    },
+
+    /**
+     * The clock policy of {@link LongObjectCache}.
+     */
+    LONG_OBJECT {
+        @Override
+        public Policy create(int maxSize) {
+            return new CachePolicy(new LongObjectCache<Boolean>(maxSize));
+        }
+    };
+
+}
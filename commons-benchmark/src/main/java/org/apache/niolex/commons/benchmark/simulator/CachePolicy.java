@@ -0,0 +1,58 @@
+/**
+ * CachePolicy.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+import org.apache.niolex.commons.collection.Cache;
+
+/**
+ * The policy backed by a {@link Cache} implementation, in the cache-aside pattern: get the key,
+ * and put it if missing.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CachePolicy implements Policy {
+
+    private final Cache<Long, Boolean> cache;
+
+    /**
+     * Create a policy backed by the specified cache.
+     *
+     * @param cache the cache
+     */
+    public CachePolicy(Cache<Long, Boolean> cache) {
+        super();
+        this.cache = cache;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.benchmark.simulator.Policy#access(long)
+     */
+    @Override
+    public boolean access(long key) {
+        Long k = key;
+        if (cache.get(k) != null) {
+            return true;
+        }
+        cache.put(k, Boolean.TRUE);
+        return false;
+    }
+
+}
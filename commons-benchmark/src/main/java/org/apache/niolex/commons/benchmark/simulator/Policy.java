@@ -0,0 +1,41 @@
+/**
+ * Policy.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+/**
+ * The cache eviction policy under simulation. The simulator only replays keys, so a policy
+ * only needs to track the keys it holds, not the values.
+ * <br>
+ * A policy instance is used by one thread, so it needs not be thread safe.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public interface Policy {
+
+    /**
+     * Access the key. If the key is not in the cache, the policy should decide whether to admit
+     * it and which key to evict.
+     *
+     * @param key the key
+     * @return true if the key is in the cache, false if missed
+     */
+    public boolean access(long key);
+
+}
@@ -0,0 +1,47 @@
+/**
+ * PolicyFactory.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+/**
+ * The factory used to create policy instances, this is the SPI of the simulator.
+ * <br>
+ * Besides the {@link BuiltinPolicy}, the simulator loads all the factories registered in
+ * {@code META-INF/services/org.apache.niolex.commons.benchmark.simulator.PolicyFactory} by
+ * {@link java.util.ServiceLoader}. So user can evaluate a new policy by putting its jar into the classpath.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public interface PolicyFactory {
+
+    /**
+     * @return the policy name shown in the report
+     */
+    public String name();
+
+    /**
+     * Create a new policy instance.
+     *
+     * @param maxSize the max number of keys the policy can hold
+     * @return the policy
+     * @throws IllegalArgumentException if the policy does not support this size
+     */
+    public Policy create(int maxSize);
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Simulator.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Replay the recorded key trace through every policy at several cache sizes, and report the
+ * hit rate curves. The simulation runs in one thread and the result does not depend on timing,
+ * so the policies can be compared offline on large traces in seconds.
+ * <br>
+ * Usage: {@code java -cp benchmarks.jar org.apache.niolex.commons.benchmark.simulator.Simulator
+ * traceFile size1,size2,... [column]}
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class Simulator {
+
+    /**
+     * Means the policy does not support this size.
+     */
+    public static final double NOT_SUPPORTED = -1;
+
+    /**
+     * The key trace.
+     */
+    private final long[] trace;
+
+    /**
+     * Create a simulator of the specified key trace.
+     *
+     * @param trace the key trace
+     */
+    public Simulator(long[] trace) {
+        super();
+        this.trace = trace;
+    }
+
+    /**
+     * Replay the trace through a new policy instance.
+     *
+     * @param factory the policy factory
+     * @param maxSize the cache size
+     * @return the number of hits, or -1 if the policy does not support this size
+     */
+    public long hits(PolicyFactory factory, int maxSize) {
+        Policy policy;
+        try {
+            policy = factory.create(maxSize);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        long hits = 0;
+        for (long key : trace) {
+            if (policy.access(key)) {
+                ++hits;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Replay the trace through a new policy instance.
+     *
+     * @param factory the policy factory
+     * @param maxSize the cache size
+     * @return the hit rate between 0 and 1, or {@link #NOT_SUPPORTED} if the policy does not support this size
+     */
+    public double hitRate(PolicyFactory factory, int maxSize) {
+        long hits = hits(factory, maxSize);
+        if (hits < 0) {
+            return NOT_SUPPORTED;
+        }
+        return trace.length == 0 ? 0 : (double) hits / trace.length;
+    }
+
+    /**
+     * Replay the trace through all the policies at all the sizes.
+     *
+     * @param factories the policy factories
+     * @param sizes the cache sizes
+     * @return the hit rates, indexed by [policy][size]
+     */
+    public double[][] run(List<PolicyFactory> factories, int[] sizes) {
+        double[][] rates = new double[factories.size()][sizes.length];
+        for (int i = 0; i < factories.size(); ++i) {
+            for (int j = 0; j < sizes.length; ++j) {
+                rates[i][j] = hitRate(factories.get(i), sizes[j]);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * @return the number of distinct keys in the trace, i.e. the cache size needed to hit every repeated key
+     */
+    public int distinctKeys() {
+        long[] sorted = trace.clone();
+        Arrays.sort(sorted);
+        int cnt = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                ++cnt;
+            }
+        }
+        return cnt;
+    }
+
+    /**
+     * @return the length of the trace
+     */
+    public int length() {
+        return trace.length;
+    }
+
+    /**
+     * @return the built in policies and the policies registered by {@link ServiceLoader}
+     */
+    public static List<PolicyFactory> loadFactories() {
+        List<PolicyFactory> list = new ArrayList<PolicyFactory>();
+        list.addAll(Arrays.asList(BuiltinPolicy.values()));
+        for (PolicyFactory f : ServiceLoader.load(PolicyFactory.class)) {
+            list.add(f);
+        }
+        return list;
+    }
+
+    /**
+     * Parse the comma separated cache sizes.
+     *
+     * @param s the sizes string
+     * @return the sizes
+     */
+    public static int[] parseSizes(String s) {
+        String[] arr = s.split(",");
+        int[] sizes = new int[arr.length];
+        for (int i = 0; i < arr.length; ++i) {
+            sizes[i] = Integer.parseInt(arr[i].trim());
+        }
+        return sizes;
+    }
+
+    /**
+     * The main entry.
+     *
+     * @param args traceFile size1,size2,... [column]
+     * @throws IOException if failed to read the trace file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: Simulator traceFile size1,size2,... [column]");
+            return;
+        }
+        int column = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long start = System.currentTimeMillis();
+        Simulator sim = new Simulator(TraceReader.read(new File(args[0]), column));
+        int[] sizes = parseSizes(args[1]);
+        System.out.printf("trace=%s length=%d distinct=%d loaded in %dms%n", args[0], sim.length(),
+                sim.distinctKeys(), System.currentTimeMillis() - start);
+
+        System.out.printf("%-26s", "policy \\ size");
+        for (int size : sizes) {
+            System.out.printf("%12d", size);
+        }
+        System.out.printf("%10s%n", "time");
+        for (PolicyFactory f : loadFactories()) {
+            start = System.currentTimeMillis();
+            System.out.printf("%-26s", f.name());
+            for (int size : sizes) {
+                double rate = sim.hitRate(f, size);
+                if (rate == NOT_SUPPORTED) {
+                    System.out.printf("%12s", "n/a");
+                } else {
+                    System.out.printf("%11.2f%%", rate * 100);
+                }
+            }
+            System.out.printf("%8dms%n", System.currentTimeMillis() - start);
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * TraceReader.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Read the recorded key trace into a long array, so it can be replayed many times quickly.
+ * <br>
+ * Two formats are supported:
+ * <ul>
+ * <li>The text format: one access per line, the columns are separated by white spaces or commas.
+ * The key in the specified column could be a decimal number, a hex number started with {@code 0x},
+ * or any other string, which is hashed into 64 bits. Empty lines and lines started with {@code #}
+ * are skipped.</li>
+ * <li>The binary format: every key is a 8 bytes big endian long, the file name ends with {@code .bin}.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public abstract class TraceReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Read the trace file, the format is decided by the file name.
+     *
+     * @param file the trace file
+     * @param column the column index of key in the text format, starts from 0
+     * @return the keys
+     * @throws IOException if failed to read the file
+     */
+    public static long[] read(File file, int column) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            if (file.getName().endsWith(".bin")) {
+                return readBinary(in);
+            } else {
+                return readText(new InputStreamReader(in, Charset.forName("UTF-8")), column);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Read the keys in the binary format.
+     *
+     * @param in the input stream
+     * @return the keys
+     * @throws IOException if failed to read the stream
+     */
+    public static long[] readBinary(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(in);
+        long[] keys = new long[1024];
+        int size = 0;
+        while (true) {
+            long key;
+            try {
+                key = din.readLong();
+            } catch (EOFException e) {
+                break;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Read the keys in the text format.
+     *
+     * @param reader the reader
+     * @param column the column index of key, starts from 0
+     * @return the keys
+     * @throws IOException if failed to read or the column is missing
+     */
+    public static long[] readText(Reader reader, int column) throws IOException {
+        BufferedReader br = new BufferedReader(reader, BUFFER_SIZE);
+        long[] keys = new long[1024];
+        int size = 0;
+        int lineNo = 0;
+        String line;
+        while ((line = br.readLine()) != null) {
+            ++lineNo;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] cols = line.split("[\\s,]+");
+            if (cols.length <= column) {
+                throw new IOException("Column " + column + " not found at line " + lineNo + ".");
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = parseKey(cols[column]);
+        }
+        return Arrays.copyOf(keys, size);
+    }
+
+    /**
+     * Parse the key from string.
+     *
+     * @param s the key string
+     * @return the key
+     */
+    public static long parseKey(String s) {
+        try {
+            if (s.startsWith("0x") || s.startsWith("0X")) {
+                return new BigInteger(s.substring(2), 16).longValue();
+            }
+            return Long.parseLong(s);
+        } catch (NumberFormatException e) {
+            return hash(s);
+        }
+    }
+
+    /**
+     * The 64 bits FNV-1a hash of the string.
+     *
+     * @param s the string
+     * @return the hash
+     */
+    public static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); ++i) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * WorkloadTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.niolex.commons.collection.Cache;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class WorkloadTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZipfianInvalidItems() throws Exception {
+        new ZipfianGenerator(1, 1);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZipfianInvalidTheta() throws Exception {
+        new ZipfianGenerator(100, 1.0, 1);
+    }
+
+    @Test
+    public void testZipfian() throws Exception {
+        ZipfianGenerator zipf = new ZipfianGenerator(1000, 1);
+        int[] counts = new int[1000];
+        for (int i = 0; i < 100000; ++i) {
+            ++counts[zipf.next()];
+        }
+        // The most popular item takes about 1 / zeta(1000) of all.
+        assertTrue(counts[0] > 12000 && counts[0] < 15000);
+        assertTrue(counts[0] > counts[1]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[10] > counts[900]);
+        assertEquals(0.99, zipf.getTheta(), 0.0001);
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+        for (Workload w : Workload.values()) {
+            int[] trace = w.generate(1000, 10000, 5);
+            assertEquals(10000, trace.length);
+            assertArrayEquals(trace, w.generate(1000, 10000, 5));
+            for (int k : trace) {
+                int key = k < 0 ? ~k : k;
+                if (w != Workload.SCAN) {
+                    assertTrue(key < 1000);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        int[] trace = Workload.SCAN.generate(1000, 3 * Workload.SCAN_LENGTH, 5);
+        for (int i = 0; i < Workload.SCAN_LENGTH; ++i) {
+            assertTrue(trace[i] < 1000);
+            assertEquals(1000 + i, trace[2 * Workload.SCAN_LENGTH + i]);
+        }
+    }
+
+    @Test
+    public void testMixed() throws Exception {
+        int writes = 0;
+        for (int k : Workload.MIXED.generate(1000, 10000, 5)) {
+            if (k < 0) {
+                ++writes;
+            }
+        }
+        assertTrue(writes > 2200 && writes < 2800);
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        int[] trace = Workload.ZIPFIAN.generate(50000, 100000, 5);
+        Cache<Integer, Integer> c = CacheType.MAP_AS_CACHE.create(1000);
+        long hits = HitRateReport.replay(c, trace);
+        assertEquals(HitRateReport.reads(trace), hits + c.size());
+        for (CacheType t : CacheType.values()) {
+            Cache<Integer, Integer> cache = t.create(5000);
+            assertTrue(HitRateReport.replay(cache, trace) <= hits);
+            if (t != CacheType.MAP_AS_CACHE) {
+                assertTrue(cache.size() <= 5000);
+            }
+        }
+    }
+
+}
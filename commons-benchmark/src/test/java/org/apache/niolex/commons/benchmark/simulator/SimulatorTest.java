@@ -0,0 +1,154 @@
+/**
+ * SimulatorTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.benchmark.simulator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class SimulatorTest {
+
+    /**
+     * The policy which never caches anything.
+     */
+    public static class NoCacheFactory implements PolicyFactory {
+        @Override
+        public String name() {
+            return "NO_CACHE";
+        }
+
+        @Override
+        public Policy create(int maxSize) {
+            return new Policy() {
+                @Override
+                public boolean access(long key) {
+                    return false;
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testReadText() throws Exception {
+        String s = "# time key\n1 100\n2, 0x1F\n\n3 abc\n4 -5 extra\n";
+        long[] keys = TraceReader.readText(new StringReader(s), 1);
+        assertArrayEquals(new long[] {100, 31, TraceReader.hash("abc"), -5}, keys);
+        assertEquals(-1L, TraceReader.parseKey("0xFFFFFFFFFFFFFFFF"));
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadTextNoColumn() throws Exception {
+        TraceReader.readText(new StringReader("1 2\n3\n"), 1);
+    }
+
+    @Test
+    public void testReadBinary() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bos);
+        for (int i = 0; i < 3000; ++i) {
+            out.writeLong(i * 7L);
+        }
+        out.close();
+        long[] keys = TraceReader.readBinary(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(3000, keys.length);
+        assertEquals(7 * 2999L, keys[2999]);
+    }
+
+    @Test
+    public void testReadFile() throws Exception {
+        File f = File.createTempFile("trace", ".bin");
+        try {
+            DataOutputStream out = new DataOutputStream(new FileOutputStream(f));
+            out.writeLong(5);
+            out.writeLong(6);
+            out.close();
+            assertArrayEquals(new long[] {5, 6}, TraceReader.read(f, 0));
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testLoopTrace() throws Exception {
+        // 1000 keys in a loop, every policy with enough space hits all but the first round.
+        long[] trace = new long[10000];
+        for (int i = 0; i < trace.length; ++i) {
+            trace[i] = i % 1000;
+        }
+        Simulator sim = new Simulator(trace);
+        assertEquals(1000, sim.distinctKeys());
+        assertEquals(10000, sim.length());
+        for (BuiltinPolicy p : BuiltinPolicy.values()) {
+            assertEquals(p.name(), 9000, sim.hits(p, 4000));
+        }
+        // Exact LRU always misses a loop larger than the cache.
+        assertEquals(0, sim.hits(BuiltinPolicy.LRU_HASH_MAP, 600));
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        long[] trace = new long[10000];
+        for (int i = 0; i < trace.length; ++i) {
+            trace[i] = i % 3 == 0 ? i : i % 50;
+        }
+        Simulator sim = new Simulator(trace);
+        List<PolicyFactory> list = Arrays.<PolicyFactory>asList(BuiltinPolicy.CONCURRENT_LRU, new NoCacheFactory());
+        double[][] rates = sim.run(list, new int[] {10, 1000, 5000});
+        assertEquals(Simulator.NOT_SUPPORTED, rates[0][0], 0.0001);
+        assertTrue(rates[0][2] > 0.6);
+        assertTrue(rates[0][2] >= rates[0][1]);
+        assertEquals(0, rates[1][2], 0.0001);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Simulator sim = new Simulator(new long[0]);
+        assertEquals(0, sim.hitRate(BuiltinPolicy.SEGMENT_LFU, 10000), 0.0001);
+        assertEquals(0, sim.distinctKeys());
+    }
+
+    @Test
+    public void testLoadFactories() throws Exception {
+        List<PolicyFactory> list = Simulator.loadFactories();
+        assertTrue(list.size() >= BuiltinPolicy.values().length);
+        assertEquals(BuiltinPolicy.LRU_HASH_MAP, list.get(0));
+    }
+
+    @Test
+    public void testParseSizes() throws Exception {
+        assertArrayEquals(new int[] {100, 2000}, Simulator.parseSizes("100, 2000"));
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * CacheCodec.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import org.apache.niolex.commons.codec.StringUtil;
+
+/**
+ * The codec used to translate cache keys or values into bytes and back. Equal objects
+ * must be encoded into equal bytes.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the object type
+ */
+public interface CacheCodec<T> {
+
+    /**
+     * Encode the object into bytes.
+     *
+     * @param obj the object to be encoded
+     * @return the encoded bytes
+     */
+    public byte[] encode(T obj);
+
+    /**
+     * Decode the bytes back into object.
+     *
+     * @param data the encoded bytes
+     * @return the decoded object
+     */
+    public T decode(byte[] data);
+
+    /**
+     * The codec for string, encoded in UTF-8.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static class StringCodec implements CacheCodec<String> {
+        public static final StringCodec INSTANCE = new StringCodec();
+
+        @Override
+        public byte[] encode(String obj) {
+            return StringUtil.strToUtf8Byte(obj);
+        }
+
+        @Override
+        public String decode(byte[] data) {
+            return StringUtil.utf8ByteToStr(data);
+        }
+    }
+
+    /**
+     * The codec for long, encoded in 8 bytes big endian.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static class LongCodec implements CacheCodec<Long> {
+        public static final LongCodec INSTANCE = new LongCodec();
+
+        @Override
+        public byte[] encode(Long obj) {
+            long v = obj.longValue();
+            byte[] data = new byte[8];
+            for (int i = 7; i >= 0; --i) {
+                data[i] = (byte) v;
+                v >>>= 8;
+            }
+            return data;
+        }
+
+        @Override
+        public Long decode(byte[] data) {
+            long v = 0;
+            for (int i = 0; i < 8; ++i) {
+                v = (v << 8) | (data[i] & 0xff);
+            }
+            return v;
+        }
+    }
+
+    /**
+     * The codec for byte array, nothing is changed.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static class BytesCodec implements CacheCodec<byte[]> {
+        public static final BytesCodec INSTANCE = new BytesCodec();
+
+        @Override
+        public byte[] encode(byte[] obj) {
+            return obj;
+        }
+
+        @Override
+        public byte[] decode(byte[] data) {
+            return data;
+        }
+    }
+
+}
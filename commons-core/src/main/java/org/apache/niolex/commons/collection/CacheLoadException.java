@@ -0,0 +1,54 @@
+/**
+ * CacheLoadException.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * The exception thrown from {@link LoadingCache} when the loader failed. The exception thrown
+ * from the loader is set as the cause.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CacheLoadException extends RuntimeException {
+
+    /**
+     * Generated UID.
+     */
+    private static final long serialVersionUID = 2867017366460928316L;
+
+    /**
+     * Constructs a new cache load exception with the specified detail message and
+     * cause.
+     * <p>
+     * Note that the detail message associated with
+     * <code>cause</code> is <i>not</i> automatically incorporated in
+     * this runtime exception's detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval
+     *            by the {@link #getMessage()} method).
+     * @param cause the cause (which is saved for later retrieval by the
+     *            {@link #getCause()} method). (A <tt>null</tt> value is
+     *            permitted, and indicates that the cause is nonexistent or
+     *            unknown.)
+     */
+    public CacheLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * CacheSnapshot.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.niolex.commons.stream.StreamUtil;
+
+/**
+ * Save the cache items into a compact binary snapshot and load them back, used to warm up
+ * a cache after restart.
+ * <br>
+ * The snapshot format is: the magic number, the format version, the number of items, and then
+ * the key and value of every item, each as a variable length size followed by the bytes encoded
+ * by the {@link CacheCodec}. The items are stored in the eviction priority order, so loading them
+ * in the file order keeps the hottest items most recently used.
+ * <br>
+ * All the file operations are sequential and buffered. The expiration time of items is not saved,
+ * the loaded items use the default expire policy of the target cache.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public abstract class CacheSnapshot {
+
+    /**
+     * The magic number at the head of the snapshot.
+     */
+    public static final int MAGIC = 0x4E435331;
+
+    /**
+     * The current version of the snapshot format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The buffer size used to read and write snapshot files.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Save the hottest items of the cache into the specified file. We write into a temporary file
+     * first and then rename it over the old snapshot atomically, so the old snapshot is kept if we
+     * failed, and the temporary file is deleted.
+     *
+     * @param cache the cache to be saved
+     * @param limit the max number of items to save
+     * @param file the snapshot file
+     * @param keyCodec the codec used to encode keys
+     * @param valueCodec the codec used to encode values
+     * @return the number of items saved
+     * @throws IOException if failed to write the file
+     */
+    public static <K, V> int dump(ConcurrentLRUCache<K, V> cache, int limit, File file,
+            CacheCodec<K> keyCodec, CacheCodec<V> valueCodec) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        boolean done = false;
+        try {
+            OutputStream out = new FileOutputStream(tmp);
+            int cnt;
+            try {
+                cnt = dump(cache.hottestEntries(limit), out, keyCodec, valueCodec);
+            } finally {
+                StreamUtil.closeStream(out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            done = true;
+            return cnt;
+        } finally {
+            if (!done) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Save the items into the output stream in the iteration order of the collection.
+     * The stream is not closed, but flushed.
+     *
+     * @param items the items to be saved, in the eviction priority order
+     * @param out the output stream
+     * @param keyCodec the codec used to encode keys
+     * @param valueCodec the codec used to encode values
+     * @return the number of items saved
+     * @throws IOException if failed to write the stream
+     */
+    public static <K, V> int dump(Collection<Map.Entry<K, V>> items, OutputStream out,
+            CacheCodec<K> keyCodec, CacheCodec<V> valueCodec) throws IOException {
+        DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+        dout.writeInt(MAGIC);
+        dout.writeInt(VERSION);
+        dout.writeInt(items.size());
+        int cnt = 0;
+        for (Map.Entry<K, V> en : items) {
+            writeBytes(dout, keyCodec.encode(en.getKey()));
+            writeBytes(dout, valueCodec.encode(en.getValue()));
+            ++cnt;
+        }
+        if (cnt != items.size()) {
+            throw new IOException("The items changed while saving.");
+        }
+        dout.flush();
+        return cnt;
+    }
+
+    /**
+     * Load the items from the snapshot file into the cache.
+     *
+     * @param cache the cache to store items
+     * @param file the snapshot file
+     * @param keyCodec the codec used to decode keys
+     * @param valueCodec the codec used to decode values
+     * @return the number of items loaded
+     * @throws IOException if failed to read the file or the file is corrupted
+     */
+    public static <K, V> int load(Cache<K, V> cache, File file,
+            CacheCodec<K> keyCodec, CacheCodec<V> valueCodec) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return load(cache, in, keyCodec, valueCodec);
+        } finally {
+            StreamUtil.closeStream(in);
+        }
+    }
+
+    /**
+     * Load the items from the input stream into the cache in the stream order. If the stream is
+     * corrupted, the items before the corrupted point are still in the cache.
+     * The stream is not closed.
+     *
+     * @param cache the cache to store items
+     * @param in the input stream
+     * @param keyCodec the codec used to decode keys
+     * @param valueCodec the codec used to decode values
+     * @return the number of items loaded
+     * @throws IOException if failed to read the stream or the stream is corrupted
+     */
+    public static <K, V> int load(Cache<K, V> cache, InputStream in,
+            CacheCodec<K> keyCodec, CacheCodec<V> valueCodec) throws IOException {
+        DataInputStream din = new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+        if (din.readInt() != MAGIC) {
+            throw new IOException("Invalid cache snapshot magic number.");
+        }
+        int version = din.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported cache snapshot version " + version + ".");
+        }
+        int total = din.readInt();
+        if (total < 0) {
+            throw new IOException("Invalid cache snapshot item count " + total + ".");
+        }
+        for (int i = 0; i < total; ++i) {
+            K key = keyCodec.decode(readBytes(din));
+            V value = valueCodec.decode(readBytes(din));
+            cache.put(key, value);
+        }
+        return total;
+    }
+
+    /**
+     * Write the size in variable length format and then the bytes.
+     *
+     * @param out the output stream
+     * @param data the bytes
+     * @throws IOException if failed to write
+     */
+    protected static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        int len = data.length;
+        while ((len & ~0x7F) != 0) {
+            out.writeByte((len & 0x7F) | 0x80);
+            len >>>= 7;
+        }
+        out.writeByte(len);
+        out.write(data);
+    }
+
+    /**
+     * Read the size in variable length format and then the bytes.
+     *
+     * @param in the input stream
+     * @return the bytes
+     * @throws IOException if failed to read or the size is invalid
+     */
+    protected static byte[] readBytes(DataInputStream in) throws IOException {
+        int len = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (shift > 28) {
+                throw new IOException("Invalid cache snapshot item size.");
+            }
+            int b = in.readUnsignedByte();
+            len |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        if (len < 0) {
+            throw new IOException("Invalid cache snapshot item size.");
+        }
+        byte[] data = new byte[len];
+        in.readFully(data);
+        return data;
+    }
+
+}
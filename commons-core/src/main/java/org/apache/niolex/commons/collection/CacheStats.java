@@ -0,0 +1,315 @@
+/**
+ * CacheStats.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The statistics recorder of cache. It counts hits, misses, puts, evictions, eviction weight and
+ * load time.
+ * <br>
+ * We use striped counters to record, every thread updates the stripe selected by its thread id, and
+ * every stripe occupies its own cache line, so the recording is cheap enough to be left enabled on
+ * the hot {@code get} path. The counters are summed up when user takes a {@link Snapshot}.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CacheStats {
+
+    /**
+     * The immutable snapshot of the cache statistics.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static class Snapshot {
+        private final long[] counts;
+
+        /**
+         * Create a snapshot with the specified counts.
+         *
+         * @param counts the counts indexed by the counter types
+         */
+        protected Snapshot(long[] counts) {
+            super();
+            this.counts = counts;
+        }
+
+        /**
+         * @return the number of times the cache returned the cached value
+         */
+        public long hitCount() {
+            return counts[HIT];
+        }
+
+        /**
+         * @return the number of times the cache returned {@code null}
+         */
+        public long missCount() {
+            return counts[MISS];
+        }
+
+        /**
+         * @return the number of times the cache was visited, i.e. hits + misses
+         */
+        public long requestCount() {
+            return counts[HIT] + counts[MISS];
+        }
+
+        /**
+         * @return the ratio of hits in all the requests, 1.0 if there is no request
+         */
+        public double hitRate() {
+            long request = requestCount();
+            return request == 0 ? 1.0 : (double) counts[HIT] / request;
+        }
+
+        /**
+         * @return the number of values put into the cache
+         */
+        public long putCount() {
+            return counts[PUT];
+        }
+
+        /**
+         * @return the number of entries evicted by the cache
+         */
+        public long evictionCount() {
+            return counts[EVICTION];
+        }
+
+        /**
+         * @return the total weight of the entries evicted by the cache
+         */
+        public long evictionWeight() {
+            return counts[EVICTION_WEIGHT];
+        }
+
+        /**
+         * @return the number of successful loads
+         */
+        public long loadSuccessCount() {
+            return counts[LOAD_SUCCESS];
+        }
+
+        /**
+         * @return the number of failed loads
+         */
+        public long loadFailureCount() {
+            return counts[LOAD_FAILURE];
+        }
+
+        /**
+         * @return the total time spent in loading values, in nanoseconds
+         */
+        public long totalLoadTime() {
+            return counts[LOAD_TIME];
+        }
+
+        /**
+         * @return the average time spent in loading one value, in nanoseconds
+         */
+        public double averageLoadPenalty() {
+            long loads = counts[LOAD_SUCCESS] + counts[LOAD_FAILURE];
+            return loads == 0 ? 0.0 : (double) counts[LOAD_TIME] / loads;
+        }
+
+        /**
+         * Calculate the difference between this snapshot and the other one.
+         *
+         * @param other the other snapshot, usually taken earlier
+         * @return the snapshot represents the difference
+         */
+        public Snapshot minus(Snapshot other) {
+            long[] r = new long[COUNTERS];
+            for (int i = 0; i < COUNTERS; ++i) {
+                r[i] = counts[i] - other.counts[i];
+            }
+            return new Snapshot(r);
+        }
+
+        /**
+         * This is the override of super method.
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return "{hit=" + hitCount() + ", miss=" + missCount() + ", hitRate=" + hitRate() + ", put=" + putCount()
+                    + ", eviction=" + evictionCount() + ", evictionWeight=" + evictionWeight() + ", loadSuccess="
+                    + loadSuccessCount() + ", loadFailure=" + loadFailureCount() + ", totalLoadTime="
+                    + totalLoadTime() + "}";
+        }
+    }
+
+    /**
+     * The counter types.
+     */
+    private static final int HIT = 0;
+    private static final int MISS = 1;
+    private static final int PUT = 2;
+    private static final int EVICTION = 3;
+    private static final int EVICTION_WEIGHT = 4;
+    private static final int LOAD_SUCCESS = 5;
+    private static final int LOAD_FAILURE = 6;
+    private static final int LOAD_TIME = 7;
+    private static final int COUNTERS = 8;
+
+    /**
+     * The number of longs used by one stripe, 128 bytes to avoid false sharing.
+     */
+    private static final int STRIPE_WIDTH = 16;
+
+    /**
+     * The striped counters.
+     */
+    private final AtomicLongArray cells;
+
+    /**
+     * The stripe index mask.
+     */
+    private final int stripeMask;
+
+    /**
+     * The snapshot taken by the last call of {@link #intervalSnapshot()}.
+     */
+    private Snapshot lastInterval = new Snapshot(new long[COUNTERS]);
+
+    /**
+     * Create a statistics recorder with the stripes suitable for the number of processors.
+     */
+    public CacheStats() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a statistics recorder with the specified concurrency level.
+     *
+     * @param concurrencyLevel the estimated number of concurrently recording threads
+     */
+    public CacheStats(int concurrencyLevel) {
+        super();
+        int stripes = 1;
+        while (stripes < concurrencyLevel && stripes < 64) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * STRIPE_WIDTH);
+    }
+
+    /**
+     * Add the specified value to the counter of the current thread stripe.
+     *
+     * @param type the counter type
+     * @param value the value to add
+     */
+    private void add(int type, long value) {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+        cells.getAndAdd(stripe * STRIPE_WIDTH + type, value);
+    }
+
+    /**
+     * Record cache hits.
+     *
+     * @param count the number of hits
+     */
+    public void recordHits(int count) {
+        add(HIT, count);
+    }
+
+    /**
+     * Record cache misses.
+     *
+     * @param count the number of misses
+     */
+    public void recordMisses(int count) {
+        add(MISS, count);
+    }
+
+    /**
+     * Record cache puts.
+     *
+     * @param count the number of puts
+     */
+    public void recordPuts(int count) {
+        add(PUT, count);
+    }
+
+    /**
+     * Record an eviction.
+     *
+     * @param weight the weight of the evicted entry
+     */
+    public void recordEviction(long weight) {
+        add(EVICTION, 1);
+        add(EVICTION_WEIGHT, weight);
+    }
+
+    /**
+     * Record a successful load.
+     *
+     * @param loadTime the time spent in loading, in nanoseconds
+     */
+    public void recordLoadSuccess(long loadTime) {
+        add(LOAD_SUCCESS, 1);
+        add(LOAD_TIME, loadTime);
+    }
+
+    /**
+     * Record a failed load.
+     *
+     * @param loadTime the time spent in loading, in nanoseconds
+     */
+    public void recordLoadFailure(long loadTime) {
+        add(LOAD_FAILURE, 1);
+        add(LOAD_TIME, loadTime);
+    }
+
+    /**
+     * Take a snapshot of the current statistics. The counters are summed up without any lock, so
+     * the snapshot may not be consistent if there are concurrent updates.
+     *
+     * @return the current snapshot
+     */
+    public Snapshot snapshot() {
+        long[] r = new long[COUNTERS];
+        for (int base = 0; base < cells.length(); base += STRIPE_WIDTH) {
+            for (int i = 0; i < COUNTERS; ++i) {
+                r[i] += cells.get(base + i);
+            }
+        }
+        return new Snapshot(r);
+    }
+
+    /**
+     * Take a snapshot of the statistics happened since the last call of this method, or
+     * since the creation of this recorder for the first call.
+     *
+     * @return the snapshot of the interval
+     */
+    public synchronized Snapshot intervalSnapshot() {
+        Snapshot cur = snapshot();
+        Snapshot delta = cur.minus(lastInterval);
+        lastInterval = cur;
+        return delta;
+    }
+
+}
@@ -17,11 +17,23 @@
  */
 package org.apache.niolex.commons.collection;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.niolex.commons.test.Check;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The concurrent implementation of LRU Cache.
@@ -34,12 +46,38 @@ import org.apache.niolex.commons.test.Check;
  * <br>
  * We use lock-free technique to get item from cache, so it's super fast to read cache.
  * We only add lock when update cache.
+ * <br>
+ * User can enable the W-TinyLFU admission policy at construction time. In this mode, new items
+ * are put into a small window LRU list first. When the window is full, the window victim becomes a
+ * candidate of the main 3Q list, and it's admitted only if it's visited more frequently than the
+ * main victim according to a {@link FrequencySketch}. So the one-hit-wonders will not flush
+ * the hot items out of the cache.
+ * <br>
+ * Items can expire after write or after access, both per cache and per item. The expired items
+ * are invisible to {@link #get(Object)} immediately, and they are reclaimed by a {@link TimerWheel}
+ * in the following {@link #put(Object, Object)} or {@link #cleanUp()}. So the read path is still
+ * lock-free and allocation-free, but {@link #size()} may include some expired items.
+ * <br>
+ * User can bound the cache by weight with a {@link Weigher}. In this mode, we evict items until
+ * both the number of items and the total weight are under the limits.
+ * <br>
+ * User can enable refresh after write with a {@link LoadingCache.Loader} and an {@link Executor}. When
+ * we get an item older than the refresh age, the current value is returned immediately, and one
+ * background reload of this item is submitted to the executor. So the hot items are kept fresh without
+ * blocking the readers.
+ * <br>
+ * User can set an {@link EvictionListener} to receive the evicted items, e.g. to demote them into
+ * a lower level cache.
+ * <br>
+ * User can take the hottest items by {@link #hottestEntries(int)} and save them by {@link CacheSnapshot},
+ * so a restarted cache can be warmed up by loading them back.
  * 
  * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
  * @version 2.1.2
  * @since May 26, 2016
  */
 public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(ConcurrentLRUCache.class);
     
     /**
      * The ItemEntry class used to store KV data into a hash table.
@@ -50,7 +88,7 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
      * @param <K> the key type
      * @param <V> the value type
      */
-    protected static class ItemEntry<K, V> {
+    protected static class ItemEntry<K, V> extends TimerWheel.Node {
         private K key;
         private volatile V value;
         
@@ -64,6 +102,11 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
          */
         private long lastVisitAt;
         
+        /**
+         * The last write time of this entry, used to refresh after write.
+         */
+        private long writeAt;
+        
         /**
          * The map entry linked list.
          */
@@ -75,6 +118,25 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
          */
         private ItemEntry<K, V> linkPrev;
         private ItemEntry<K, V> linkNext;
+        
+        /**
+         * Whether this entry is in the admission window list. Guarded by the table entry lock.
+         */
+        private boolean inWindow;
+        
+        /**
+         * The weight of this entry, only used when the cache has a weigher.
+         */
+        private int weight;
+        
+        /**
+         * This is the override of super method.
+         * @see org.apache.niolex.commons.collection.TimerWheel.Node#lastAccessTime()
+         */
+        @Override
+        protected long lastAccessTime() {
+            return lastVisitAt;
+        }
     }
     
     /**
@@ -113,6 +175,11 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
          */
         private int walkThroughSize = 0;
         
+        /**
+         * The number of entries in this list.
+         */
+        private int listSize = 0;
+        
         /**
          * The LRU linked list head.
          */
@@ -169,6 +236,7 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
                         
                         // 3. Return victim.
                         cur.linkPrev = cur.linkNext = null;
+                        --listSize;
                         return cur;
                     }
                     ++walkThroughSize;
@@ -188,6 +256,27 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
             }
         }
         
+        /**
+         * Find a victim only if there are more than {@code keepSize} entries in this list.
+         * If we found one, we will remove it from the LRU list.
+         * 
+         * @param victimSize the maximum number of victims to walk through
+         * @param keepSize the number of entries to keep in this list, must be positive
+         * @return the victim we found, or {@code null} if no victim can be found
+         */
+        public ItemEntry<K, V> pollVictim(int victimSize, int keepSize) {
+            linkLock.lock();
+            try {
+                if (listSize <= keepSize) {
+                    return null;
+                }
+                // The lock is reentrant.
+                return findVictim(victimSize);
+            } finally {
+                linkLock.unlock();
+            }
+        }
+        
         /**
          * Add an entry to the head of the LRU list.
          * 
@@ -203,6 +292,7 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
                 head = cur;
                 if (tail == null)
                     tail = cur;
+                ++listSize;
             } finally {
                 linkLock.unlock();
             }
@@ -219,6 +309,7 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
                 if (cur.linkPrev == null && cur.linkNext == null) {
                     if (cur == head) {
                         head = tail = null;
+                        --listSize;
                     }
                     // Already removed, just return.
                     return;
@@ -236,6 +327,7 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
                 }
                 
                 cur.linkPrev = cur.linkNext = null;
+                --listSize;
             } finally {
                 linkLock.unlock();
             }
@@ -273,6 +365,11 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
      */
     private final AtomicInteger size = new AtomicInteger();
     
+    /**
+     * Use this long to store the total weight of this cache, only used when the cache has a weigher.
+     */
+    private final AtomicLong totalWeight = new AtomicLong();
+    
     /**
      * Use this integer to record visits.
      */
@@ -283,11 +380,36 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
      */
     private final ThreeQLRUList<K, V> lruList = new ThreeQLRUList<K, V>();
     
+    /**
+     * The window list used to store new entries, only used in the admission mode.
+     */
+    private final ThreeQLRUList<K, V> windowList;
+    
+    /**
+     * The frequency sketch used to decide admission, {@code null} if admission is disabled.
+     */
+    private final FrequencySketch sketch;
+    
     /**
      * The max KV records size.
      */
     private final int maxSize;
     
+    /**
+     * The max total weight of all the entries.
+     */
+    private final long maxWeight;
+    
+    /**
+     * The weigher used to calculate entry weight, {@code null} if this cache is not bounded by weight.
+     */
+    private final Weigher<K, V> weigher;
+    
+    /**
+     * The max number of entries in the admission window.
+     */
+    private final int windowSize;
+    
     /**
      * The main table entry size.
      */
@@ -302,20 +424,111 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
      * The main table used to store hash entry.
      */
     private final TableEntry<K, V>[] table;
+    
+    /**
+     * The statistics recorder, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
+    
+    /**
+     * The timer wheel used to reclaim expired items, guarded by the wheel lock.
+     */
+    private final TimerWheel<ItemEntry<K, V>> wheel = new TimerWheel<ItemEntry<K, V>>(System.currentTimeMillis());
+    
+    /**
+     * Use this lock to guard operations on the timer wheel.
+     */
+    private final Lock wheelLock = new ReentrantLock();
+    
+    /**
+     * The next time we need to advance the timer wheel, {@code Long.MAX_VALUE} if no item can expire.
+     */
+    private volatile long nextCleanUp = Long.MAX_VALUE;
+    
+    /**
+     * The default time to live after write in milliseconds, 0 for never.
+     */
+    private volatile long expireAfterWrite;
+    
+    /**
+     * The default time to live after access in milliseconds, 0 for never.
+     */
+    private volatile long expireAfterAccess;
+    
+    /**
+     * The time to refresh after write in milliseconds, 0 for never.
+     */
+    private volatile long refreshAfterWrite;
+    
+    /**
+     * The loader used to reload items in background, {@code null} if refresh is disabled.
+     */
+    private volatile LoadingCache.Loader<K, V> refreshLoader;
+    
+    /**
+     * The executor used to run the background reloads.
+     */
+    private volatile Executor refreshExecutor;
+    
+    /**
+     * The listener notified when items are evicted, {@code null} if not set.
+     */
+    private volatile EvictionListener<K, V> evictionListener;
+    
+    /**
+     * The items being reloaded now, keyed by the item key.
+     */
+    private final ConcurrentHashMap<K, ItemEntry<K, V>> refreshing = new ConcurrentHashMap<K, ItemEntry<K, V>>();
 
     /**
      * Create a ConcurrentLRUCache which can store as many as {@code maxSize} cache items.
      * 
      * @param maxSize the max number of cache items
      */
-    @SuppressWarnings("unchecked")
     public ConcurrentLRUCache(int maxSize) {
+        this(maxSize, false);
+    }
+
+    /**
+     * Create a ConcurrentLRUCache which can store as many as {@code maxSize} cache items.
+     * 
+     * @param maxSize the max number of cache items
+     * @param admission whether to enable the W-TinyLFU admission policy
+     */
+    public ConcurrentLRUCache(int maxSize, boolean admission) {
+        this(maxSize, admission, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Create a ConcurrentLRUCache bounded by both the number of items and the total weight of items.
+     * 
+     * @param maxSize the max number of cache items, also used to size the hash table
+     * @param admission whether to enable the W-TinyLFU admission policy
+     * @param maxWeight the max total weight of all the cache items
+     * @param weigher the weigher used to calculate item weight, {@code null} to disable weight
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUCache(int maxSize, boolean admission, long maxWeight, Weigher<K, V> weigher) {
         Check.lt(50, maxSize, "The parameter 'maxSize' must greater than 50.");
+        Check.lt(0, maxWeight, "The parameter 'maxWeight' must be positive.");
         this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
         this.entrySize = (int) (maxSize / 0.75);
         victimSize = (maxSize - 4) / 3;
         table = new TableEntry[entrySize];
         
+        if (admission) {
+            // The window takes 1% of the capacity.
+            windowSize = maxSize / 100 + 1;
+            windowList = new ThreeQLRUList<K, V>();
+            sketch = new FrequencySketch(maxSize);
+        } else {
+            windowSize = 0;
+            windowList = null;
+            sketch = null;
+        }
+        
         for (int i = 0; i < entrySize; ++i) {
             table[i] = new TableEntry<K, V>();
         }
@@ -330,6 +543,119 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         return size.get();
     }
 
+    /**
+     * @return the total weight of all the items, or the number of items if there is no weigher
+     */
+    public long getTotalWeight() {
+        return weigher == null ? size.get() : totalWeight.get();
+    }
+
+    /**
+     * @return the max total weight of all the items
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     * 
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the default time to live after write in milliseconds, 0 for never
+     */
+    public long getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    /**
+     * Set the default time to live after write, applied to the items put after this call.
+     * 
+     * @param expireAfterWrite the time in milliseconds, 0 or negative for never
+     */
+    public void setExpireAfterWrite(long expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite > 0 ? expireAfterWrite : 0;
+    }
+
+    /**
+     * @return the default time to live after access in milliseconds, 0 for never
+     */
+    public long getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    /**
+     * Set the default time to live after the last access, applied to the items put after this call.
+     * 
+     * @param expireAfterAccess the time in milliseconds, 0 or negative for never
+     */
+    public void setExpireAfterAccess(long expireAfterAccess) {
+        this.expireAfterAccess = expireAfterAccess > 0 ? expireAfterAccess : 0;
+    }
+
+    /**
+     * @return the listener notified when items are evicted, {@code null} if not set
+     */
+    public EvictionListener<K, V> getEvictionListener() {
+        return evictionListener;
+    }
+
+    /**
+     * Set the listener notified when items are evicted to make room for new items.
+     * 
+     * @param evictionListener the listener, {@code null} to remove the current one
+     */
+    public void setEvictionListener(EvictionListener<K, V> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * @return the time to refresh after write in milliseconds, 0 for never
+     */
+    public long getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    /**
+     * Set the refresh after write policy. When we get an item written earlier than the specified time,
+     * we return the current value, and use the loader to reload it in the executor. Only one reload
+     * of the same item will be running at the same time.
+     * <br>
+     * If the loader returns {@code null}, the item is removed. If the loader failed, the current
+     * value is kept, and the next get will try to reload it again. If the item was updated or
+     * removed during the reload, the reloaded value is discarded. The reloaded value uses the default
+     * expire policy of this cache.
+     * 
+     * @param refreshAfterWrite the time to refresh after write in milliseconds, 0 or negative for never
+     * @param loader the loader used to reload items
+     * @param executor the executor used to run the reloads, e.g. an {@link
+     *  org.apache.niolex.commons.concurrent.InvokableExecutorService}
+     */
+    public void setRefreshAfterWrite(long refreshAfterWrite, LoadingCache.Loader<K, V> loader, Executor executor) {
+        if (refreshAfterWrite > 0) {
+            if (loader == null || executor == null) {
+                throw new NullPointerException("The parameter 'loader' and 'executor' should not be null.");
+            }
+            this.refreshLoader = loader;
+            this.refreshExecutor = executor;
+            this.refreshAfterWrite = refreshAfterWrite;
+        } else {
+            this.refreshAfterWrite = 0;
+        }
+    }
+
     /**
      * When get, we only update the last visit time. We will not reorder the LRU list here.
      * So it's completely lock-free.
@@ -344,24 +670,96 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         }
         int hash = hash(key.hashCode());
         TableEntry<K, V> en = table[indexFor(hash, entrySize)];
+        if (sketch != null) {
+            sketch.increment(hash);
+        }
         
         // We use lock-free technique to visit map linked list.
         ItemEntry<K,V> e = findItemFromMapEntry(en, hash, key);
-        if (e != null) {
-            e.lastVisitAt = System.currentTimeMillis();
+        CacheStats s = stats;
+        long now;
+        if (e != null && !e.isExpired(now = System.currentTimeMillis())) {
+            e.lastVisitAt = now;
             addVisit();
+            if (s != null) {
+                s.recordHits(1);
+            }
+            long r = refreshAfterWrite;
+            if (r > 0 && now - e.writeAt >= r) {
+                refreshItem(e);
+            }
             return e.value;
         }
         
+        if (s != null) {
+            s.recordMisses(1);
+        }
         return null;
     }
 
     /**
+     * Put the item with the default expire policy of this cache.
+     * 
      * This is the override of super method.
      * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
      */
     @Override
     public V put(K key, V value) {
+        return put(key, value, expireAfterWrite, expireAfterAccess);
+    }
+
+    /**
+     * Put the item with the specified expire policy. The expire policy of the existing item is replaced.
+     * 
+     * @param key the item key
+     * @param value the item value
+     * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+     * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V put(K key, V value, long expireAfterWrite, long expireAfterAccess) {
+        return put(key, value, expireAfterWrite, expireAfterAccess, false);
+    }
+
+    /**
+     * Put the item with the default expire policy of this cache only if there is no live item
+     * with the same key. The check and the put are done atomically under the map entry lock.
+     *
+     * @param key the item key
+     * @param value the item value
+     * @return the current value if item exists, {@code null} if the new item is put
+     */
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, expireAfterWrite, expireAfterAccess, true);
+    }
+
+    /**
+     * Check whether there is a live item with the specified key. This method is lock-free, and
+     * it will not touch the visit time nor the statistics.
+     *
+     * @param key the item key
+     * @return true if the item exists and not expired
+     */
+    public boolean containsKey(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        int hash = hash(key.hashCode());
+        ItemEntry<K,V> e = findItemFromMapEntry(table[indexFor(hash, entrySize)], hash, key);
+        return e != null && !e.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * The internal put method.
+     *
+     * @param key the item key
+     * @param value the item value
+     * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+     * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+     * @param onlyIfAbsent whether to keep the existing live item
+     * @return the old value if item exists, {@code null} if not found
+     */
+    protected V put(K key, V value, long expireAfterWrite, long expireAfterAccess, boolean onlyIfAbsent) {
         if (key == null) {
             throw new NullPointerException("The parameter 'key' should not be null.");
         }
@@ -371,69 +769,364 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         
         int hash = hash(key.hashCode());
         TableEntry<K, V> en = table[indexFor(hash, entrySize)];
+        if (sketch != null) {
+            sketch.increment(hash);
+        }
+        CacheStats s = stats;
+        if (s != null) {
+            s.recordPuts(1);
+        }
+        long now = System.currentTimeMillis();
+        if (now >= nextCleanUp) {
+            expireItems(now);
+        }
+        int weight = weigh(key, value);
         ItemEntry<K,V> e = null;
+        V o = null;
+        boolean replaced = false;
         // The whole operation must be done under lock.
         en.w.lock();
         try {
             // 1. Find the item in the map.
             e = findItemFromMapEntry(en, hash, key);
+            if (e != null && onlyIfAbsent && !e.isExpired(now)) {
+                // The live item wins, nothing changed.
+                return e.value;
+            }
             if (e != null) {
                 addVisit();
-                e.lastVisitAt = System.currentTimeMillis();
-                V o = e.value;
+                replaced = true;
+                // The expired value is already gone for the users.
+                o = e.isExpired(now) ? null : e.value;
+                e.lastVisitAt = now;
+                e.writeAt = now;
                 // This is volatile, so instruction reorder can not happen.
                 e.value = value;
-                return o;
-            }
-            
-            // 2. Not found. We create a new item.
-            e = new ItemEntry<K,V>();
-         
-            // 3. Set key and value.
-            e.key = key;
-            e.lastVisitAt = System.currentTimeMillis();
-            e.hash = hash;
-            e.value = value;
-            
-            // 4. Put the item into 3Q list.
-            lruList.addEntry(e);
+                if (e.canExpire() || expireAfterWrite > 0 || expireAfterAccess > 0) {
+                    e.setExpiry(now, expireAfterWrite, expireAfterAccess);
+                    rescheduleItem(e);
+                }
+                if (weigher != null) {
+                    totalWeight.addAndGet(weight - e.weight);
+                    e.weight = weight;
+                }
+            } else {
             
-            // 5. Put the item into map.
-            e.mapNext = en.head;
-            e.mapPrev = null;
-            if (en.head != null)
-                en.head.mapPrev = e;
-            en.head = e;
+                // 2. Not found. We create a new item.
+                e = new ItemEntry<K,V>();
+             
+                // 3. Set key and value.
+                e.key = key;
+                e.lastVisitAt = now;
+                e.writeAt = now;
+                e.hash = hash;
+                e.value = value;
+                e.setExpiry(now, expireAfterWrite, expireAfterAccess);
+                if (weigher != null) {
+                    e.weight = weight;
+                    totalWeight.addAndGet(weight);
+                }
+                
+                // 4. Put the item into 3Q list, or the window list in admission mode.
+                if (sketch == null) {
+                    lruList.addEntry(e);
+                } else {
+                    e.inWindow = true;
+                    windowList.addEntry(e);
+                }
+                
+                // 5. Put the item into map.
+                e.mapNext = en.head;
+                e.mapPrev = null;
+                if (en.head != null)
+                    en.head.mapPrev = e;
+                en.head = e;
+                
+                // 6. Put the item into timer wheel if it can expire.
+                if (e.canExpire()) {
+                    rescheduleItem(e);
+                }
+            }
         } finally {
             en.w.unlock();
         }
         
+        if (replaced) {
+            // The value is replaced, the weight may grow.
+            if (weigher != null) {
+                evictByWeight();
+            }
+            return o;
+        }
+        
         // If we are here, the linked list is ready, but we still need to check the capacity.
         addVisit();
-        if (size.incrementAndGet() > maxSize) {
+        if (sketch != null) {
+            size.incrementAndGet();
+            admitWindowVictim();
+        } else if (weigher != null) {
+            size.incrementAndGet();
+            evictByWeight();
+        } else if (size.incrementAndGet() > maxSize) {
             // Capacity exceeded, too many items. We need to pick a victim.
             e = lruList.findVictim(victimSize);
             if (e != null) {
-                // Delete victim from map.
-                int h2 = hash(e.key.hashCode());
-                en = table[indexFor(h2, entrySize)];
-                
-                // Operated under lock.
-                en.w.lock();
-                try {
-                    // Check whether this item was already removed.
-                    if (en.head == e || e.mapPrev.mapNext == e) {
-                        removeEntryFromMap(en, e);
-                        size.decrementAndGet();
-                    }
-                } finally {
-                    en.w.unlock();
-                }
+                evictItem(e);
             }
         }
         
         return null;
     }
+    
+    /**
+     * Move the window victim into the main 3Q list if the window is full. If the capacity is exceeded,
+     * the window victim need to compete with the main victim, the one with higher frequency survives.
+     */
+    protected void admitWindowVictim() {
+        ItemEntry<K, V> candidate = windowList.pollVictim(windowSize / 3 + 1, windowSize);
+        if (!overCapacity()) {
+            // We still have capacity.
+            if (candidate != null) {
+                relinkItem(candidate, true);
+            }
+            return;
+        }
+        
+        ItemEntry<K, V> victim = lruList.findVictim(victimSize);
+        if (candidate == null) {
+            if (victim != null) {
+                evictItem(victim);
+            }
+        } else if (victim == null) {
+            evictItem(candidate);
+        } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+            // The candidate wins, it's admitted.
+            evictItem(victim);
+            relinkItem(candidate, true);
+        } else {
+            // The victim wins, put it back.
+            evictItem(candidate);
+            relinkItem(victim, false);
+        }
+        
+        if (weigher != null) {
+            // One item may be much heavier than the others.
+            evictByWeight();
+        }
+    }
+    
+    /**
+     * Evict items from the main 3Q list until both the number of items and the total weight are
+     * under the limits, or we can not find any victim. If the main list is empty, the items in the
+     * admission window are evicted instead.
+     */
+    protected void evictByWeight() {
+        int fails = 0;
+        while (overCapacity() && fails < 4) {
+            ThreeQLRUList<K, V> list = lruList.listSize == 0 && windowList != null ? windowList : lruList;
+            ItemEntry<K, V> victim = list.findVictim(victimSize);
+            if (victim == null) {
+                // All the items are visited recently. We push the header time, so after 3 pushes
+                // all the items will be elder than the last round header time.
+                list.pushHeaderTime(System.currentTimeMillis());
+                ++fails;
+            } else {
+                evictItem(victim);
+            }
+        }
+    }
+    
+    /**
+     * @return true if the number of items or the total weight exceeds the limit
+     */
+    protected boolean overCapacity() {
+        return size.get() > maxSize || (weigher != null && totalWeight.get() > maxWeight);
+    }
+    
+    /**
+     * Calculate the weight of the item.
+     * 
+     * @param key the item key
+     * @param value the item value
+     * @return the weight, 0 if there is no weigher
+     */
+    protected int weigh(K key, V value) {
+        if (weigher == null) {
+            return 0;
+        }
+        int w = weigher.weigh(key, value);
+        if (w < 0) {
+            throw new IllegalArgumentException("The weight must not be negative.");
+        }
+        return w;
+    }
+    
+    /**
+     * Remove the specified victim from map if it's still there. The victim must be already
+     * removed from the LRU lists. If the victim is already expired, it's counted as an expiration
+     * and the eviction listener is not notified.
+     * 
+     * @param e the victim
+     */
+    protected void evictItem(ItemEntry<K,V> e) {
+        // Delete victim from map.
+        TableEntry<K, V> en = table[indexFor(e.hash, entrySize)];
+        boolean removed = false;
+        boolean expired = false;
+        
+        // Operated under lock.
+        en.w.lock();
+        try {
+            // Check whether this item was already removed.
+            if (isInMap(en, e)) {
+                removeEntryFromMap(en, e);
+                size.decrementAndGet();
+                removed = true;
+                expired = e.canExpire() && e.isExpired(System.currentTimeMillis());
+                CacheStats s = stats;
+                if (s != null) {
+                    s.recordEviction(weigher == null ? 1 : e.weight);
+                }
+            }
+        } finally {
+            en.w.unlock();
+        }
+        // The expired value is already gone for the users, do not hand it to the listener.
+        if (removed && !expired) {
+            notifyEviction(e);
+        }
+    }
+    
+    /**
+     * Notify the eviction listener if it's set. Must be called without holding any lock.
+     * 
+     * @param e the evicted item
+     */
+    protected void notifyEviction(ItemEntry<K,V> e) {
+        EvictionListener<K, V> l = evictionListener;
+        if (l != null) {
+            l.onEviction(e.key, e.value);
+        }
+    }
+    
+    /**
+     * Link the specified item into the main 3Q list if it's still in the map.
+     * 
+     * @param e the item removed from the LRU lists
+     * @param fromWindow whether this item comes from the window list
+     */
+    protected void relinkItem(ItemEntry<K,V> e, boolean fromWindow) {
+        TableEntry<K, V> en = table[indexFor(e.hash, entrySize)];
+        
+        // Operated under lock, so it will not be removed concurrently.
+        en.w.lock();
+        try {
+            if (e.inWindow == fromWindow && isInMap(en, e)) {
+                e.inWindow = false;
+                lruList.addEntry(e);
+            }
+        } finally {
+            en.w.unlock();
+        }
+    }
+
+    /**
+     * Reclaim all the expired items now. Expired items are reclaimed in {@link #put(Object, Object)}
+     * automatically, user can call this method if this cache is rarely updated.
+     */
+    public void cleanUp() {
+        expireItems(System.currentTimeMillis());
+    }
+    
+    /**
+     * Advance the timer wheel and remove all the expired items from this cache. If another thread is
+     * advancing the wheel, we just return.
+     * <br>
+     * The wheel may be advanced beyond {@code now} by another thread, so we check the items by the
+     * wheel time if it's later. Otherwise an item not expired at {@code now} is linked into the
+     * expired list again, and we will poll it for ever.
+     * 
+     * @param now the current time
+     */
+    protected void expireItems(long now) {
+        if (!wheelLock.tryLock()) {
+            return;
+        }
+        try {
+            wheel.advance(now);
+            nextCleanUp = wheel.size() == 0 ? Long.MAX_VALUE : now + TimerWheel.TICK;
+        } finally {
+            wheelLock.unlock();
+        }
+        
+        ItemEntry<K, V> e;
+        while (true) {
+            wheelLock.lock();
+            try {
+                e = wheel.pollExpired();
+                now = Math.max(now, wheel.getCurrentTime());
+            } finally {
+                wheelLock.unlock();
+            }
+            if (e == null) {
+                break;
+            }
+            expireItem(e, now);
+        }
+    }
+    
+    /**
+     * Remove the specified item from this cache if it's still in the map and expired. If it's
+     * not expired because it was updated or visited recently, we schedule it again.
+     * 
+     * @param e the item polled from the expired list of the timer wheel
+     * @param now the current time
+     */
+    protected void expireItem(ItemEntry<K,V> e, long now) {
+        TableEntry<K, V> en = table[indexFor(e.hash, entrySize)];
+        
+        en.w.lock();
+        try {
+            if (!isInMap(en, e)) {
+                return;
+            }
+            if (!e.isExpired(now)) {
+                rescheduleItem(e);
+                return;
+            }
+            removeEntryFromMap(en, e);
+            if (e.inWindow) {
+                windowList.removeEntry(e);
+            } else {
+                lruList.removeEntry(e);
+            }
+            size.decrementAndGet();
+            CacheStats s = stats;
+            if (s != null) {
+                s.recordEviction(weigher == null ? 1 : e.weight);
+            }
+        } finally {
+            en.w.unlock();
+        }
+    }
+    
+    /**
+     * Schedule the specified item in the timer wheel again by its current expire policy.
+     * Must be called under the table entry lock.
+     * 
+     * @param e the item
+     */
+    protected void rescheduleItem(ItemEntry<K,V> e) {
+        wheelLock.lock();
+        try {
+            wheel.reschedule(e);
+            if (nextCleanUp == Long.MAX_VALUE && wheel.size() != 0) {
+                nextCleanUp = wheel.getCurrentTime() + TimerWheel.TICK;
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+    }
 
     /**
      * This is the override of super method.
@@ -456,9 +1149,14 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
             // 2. Remove item.
             if (e2 != null) {
                 removeEntryFromMap(en, e2);
-                lruList.removeEntry(e2);
+                if (e2.inWindow) {
+                    windowList.removeEntry(e2);
+                } else {
+                    lruList.removeEntry(e2);
+                }
                 size.decrementAndGet();
-                return e2.value;
+                // The expired value is already gone for the users.
+                return e2.canExpire() && e2.isExpired(System.currentTimeMillis()) ? null : e2.value;
             }
         } finally {
             en.w.unlock();
@@ -467,6 +1165,108 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         return null;
     }
     
+    /**
+     * Check whether the specified entry is still in the map. Must be called under the table entry lock.
+     * 
+     * @param en the table entry
+     * @param e the hash entry
+     * @return true if it's in the map
+     */
+    protected boolean isInMap(TableEntry<K, V> en, ItemEntry<K,V> e) {
+        return en.head == e || (e.mapPrev != null && e.mapPrev.mapNext == e);
+    }
+    
+    /**
+     * Submit a background reload of the specified item, if it's not being reloaded now.
+     * 
+     * @param e the item to be reloaded
+     */
+    protected void refreshItem(final ItemEntry<K,V> e) {
+        final K key = e.key;
+        if (refreshing.putIfAbsent(key, e) != null) {
+            return;
+        }
+        final long writeAt = e.writeAt;
+        final LoadingCache.Loader<K, V> loader = refreshLoader;
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reloadItem(e, writeAt, loader);
+                    } finally {
+                        refreshing.remove(key, e);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key, e);
+            LOG.warn("The reload of key [{}] is rejected by the executor.", key);
+        }
+    }
+    
+    /**
+     * Reload the specified item by the loader, and replace the value if it was not changed since
+     * the reload started.
+     * 
+     * @param e the item to be reloaded
+     * @param writeAt the write time of the item when the reload started
+     * @param loader the loader
+     */
+    protected void reloadItem(ItemEntry<K,V> e, long writeAt, LoadingCache.Loader<K, V> loader) {
+        CacheStats s = stats;
+        long start = System.nanoTime();
+        V v;
+        try {
+            v = loader.load(e.key);
+        } catch (Throwable t) {
+            if (s != null) {
+                s.recordLoadFailure(System.nanoTime() - start);
+            }
+            LOG.warn("Failed to reload key [{}] reason - {}", e.key, t.toString());
+            return;
+        }
+        if (s != null) {
+            s.recordLoadSuccess(System.nanoTime() - start);
+        }
+        
+        TableEntry<K, V> en = table[indexFor(e.hash, entrySize)];
+        int weight = v == null ? 0 : weigh(e.key, v);
+        en.w.lock();
+        try {
+            // The item was updated or removed during reload.
+            if (e.writeAt != writeAt || !isInMap(en, e)) {
+                return;
+            }
+            if (v == null) {
+                removeEntryFromMap(en, e);
+                if (e.inWindow) {
+                    windowList.removeEntry(e);
+                } else {
+                    lruList.removeEntry(e);
+                }
+                size.decrementAndGet();
+                return;
+            }
+            long now = System.currentTimeMillis();
+            e.writeAt = now;
+            e.value = v;
+            if (e.canExpire() || expireAfterWrite > 0 || expireAfterAccess > 0) {
+                e.setExpiry(now, expireAfterWrite, expireAfterAccess);
+                rescheduleItem(e);
+            }
+            if (weigher != null) {
+                totalWeight.addAndGet(weight - e.weight);
+                e.weight = weight;
+            }
+        } finally {
+            en.w.unlock();
+        }
+        if (weigher != null) {
+            evictByWeight();
+        }
+    }
+    
     /**
      * Remove the specified entry from map.
      * 
@@ -489,6 +1289,21 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         if (e2.mapNext != null) {
             e2.mapNext.mapPrev = e2.mapPrev;
         }
+        
+        // Then, release its weight.
+        if (e2.weight != 0) {
+            totalWeight.addAndGet(-e2.weight);
+        }
+        
+        // At last, remove it from the timer wheel.
+        if (e2.canExpire()) {
+            wheelLock.lock();
+            try {
+                wheel.deschedule(e2);
+            } finally {
+                wheelLock.unlock();
+            }
+        }
     }
     
     /**
@@ -509,6 +1324,73 @@ public class ConcurrentLRUCache<K, V> implements Cache<K, V> {
         return null;
     }
     
+    /**
+     * Get the most recently visited items of this cache, in the eviction priority order, i.e. the
+     * coldest item comes first and the hottest item comes last. So putting them into an empty cache
+     * in the returned order will keep the hottest items most recently used.
+     * <br>
+     * This method does not lock the cache, so the result is only a weakly consistent snapshot. The
+     * expired items are excluded.
+     * 
+     * @param limit the max number of items to return
+     * @return the list of key value pairs
+     */
+    public List<Map.Entry<K, V>> hottestEntries(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<Map.Entry<K, V>>(0);
+        }
+        // The min heap of the hottest items, the root is the coldest one. The visit time is copied
+        // into the heap, because the readers may change it concurrently and break the heap order.
+        PriorityQueue<VisitStamp<K,V>> heap = new PriorityQueue<VisitStamp<K,V>>(Math.min(limit, maxSize) + 1,
+                new Comparator<VisitStamp<K,V>>() {
+            @Override
+            public int compare(VisitStamp<K, V> o1, VisitStamp<K, V> o2) {
+                return Long.compare(o1.visitAt, o2.visitAt);
+            }
+        });
+        long now = System.currentTimeMillis();
+        for (TableEntry<K, V> en : table) {
+            for (ItemEntry<K,V> e = en.head; e != null; e = e.mapNext) {
+                if (e.isExpired(now)) {
+                    continue;
+                }
+                long at = e.lastVisitAt;
+                if (heap.size() < limit) {
+                    heap.add(new VisitStamp<K,V>(e, at));
+                } else if (heap.peek().visitAt < at) {
+                    heap.poll();
+                    heap.add(new VisitStamp<K,V>(e, at));
+                }
+            }
+        }
+        List<Map.Entry<K, V>> list = new ArrayList<Map.Entry<K, V>>(heap.size());
+        VisitStamp<K,V> t;
+        while ((t = heap.poll()) != null) {
+            V v = t.e.value;
+            if (v != null) {
+                list.add(new AbstractMap.SimpleImmutableEntry<K, V>(t.e.key, v));
+            }
+        }
+        return list;
+    }
+    
+    /**
+     * The item with the visit time copied when it's offered into the heap of {@link #hottestEntries(int)}.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static class VisitStamp<K, V> {
+        private final ItemEntry<K, V> e;
+        private final long visitAt;
+
+        public VisitStamp(ItemEntry<K, V> e, long visitAt) {
+            super();
+            this.e = e;
+            this.visitAt = visitAt;
+        }
+    }
+    
     /**
      * A new visit to this cache.
      */
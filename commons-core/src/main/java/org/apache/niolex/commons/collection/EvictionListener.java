@@ -0,0 +1,44 @@
+/**
+ * EvictionListener.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * The listener notified when the cache evicts an item to make room for new items. It's not
+ * notified for the items removed by user or expired.
+ * <br>
+ * The listener is called in the thread which triggered the eviction, after the item is removed
+ * and without holding any lock of the cache, so it could do some slow work, e.g. write the item
+ * to a lower level storage.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface EvictionListener<K, V> {
+
+    /**
+     * The item is evicted from the cache.
+     *
+     * @param key the item key
+     * @param value the item value
+     */
+    public void onEviction(K key, V value);
+
+}
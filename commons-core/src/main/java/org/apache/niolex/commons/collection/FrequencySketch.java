@@ -0,0 +1,168 @@
+/**
+ * FrequencySketch.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * A count-min sketch with 4-bit counters used to estimate the popularity of cache keys.
+ * This is the frequency filter of the TinyLFU admission policy.
+ * <br>
+ * Every long in the table holds 16 counters, every key is mapped into 4 counters by 4 different
+ * hash functions, and the estimated frequency is the minimum of these 4 counters. The maximum
+ * frequency is 15. When the number of increments reaches the sample size, we halve all the
+ * counters, so the history will fade away and the sketch always reflects the recent popularity.
+ * <br><b>
+ * This implementation does not use any lock, so some increments may be lost under concurrent
+ * update. This only makes the estimation a little lower, and is acceptable for admission.
+ * </b>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class FrequencySketch {
+
+    /**
+     * The seeds used to generate the 4 hash functions.
+     */
+    private static final long[] SEED = new long[] {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * The mask used to halve all the 16 counters in one long.
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * The table used to store all the counters.
+     */
+    private final long[] table;
+
+    /**
+     * The table index mask.
+     */
+    private final int tableMask;
+
+    /**
+     * The number of increments before we halve all the counters.
+     */
+    private final int sampleSize;
+
+    /**
+     * The number of increments since the last reset.
+     */
+    private int size;
+
+    /**
+     * Create a frequency sketch suitable for a cache with the specified max size.
+     *
+     * @param maxSize the max number of items in the cache
+     * @throws IllegalArgumentException if the {@literal maxSize} is not positive
+     */
+    public FrequencySketch(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The parameter 'maxSize' must be positive.");
+        }
+        int length = 16;
+        while (length < maxSize && length < (1 << 30)) {
+            length <<= 1;
+        }
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = maxSize > Integer.MAX_VALUE / 10 ? Integer.MAX_VALUE : maxSize * 10;
+    }
+
+    /**
+     * Find the table index of the specified hash code in the specified depth.
+     *
+     * @param hash the key hash code
+     * @param i the depth, from 0 to 3
+     * @return the table index
+     */
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEED[i]) * SEED[i];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    /**
+     * Increase the popularity of the key with the specified hash code, if it's not the maximum yet.
+     * We will halve all the counters when the sample size is reached.
+     *
+     * @param hash the key hash code
+     */
+    public void increment(int hash) {
+        // Every key uses one nibble group from 0 to 3 in each long.
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; ++i) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Increase the specified counter by one if it's not the maximum yet.
+     *
+     * @param i the table index
+     * @param j the counter index inside the long, from 0 to 15
+     * @return true if the counter was increased
+     */
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        long v = table[i];
+        if ((v & mask) != mask) {
+            table[i] = v + (1L << offset);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estimate the number of occurrences of the key with the specified hash code.
+     *
+     * @param hash the key hash code
+     * @return the estimated frequency, from 0 to 15
+     */
+    public int frequency(int hash) {
+        int start = (hash & 3) << 2;
+        int freq = 15;
+        for (int i = 0; i < 4; ++i) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            if (count < freq) {
+                freq = count;
+            }
+        }
+        return freq;
+    }
+
+    /**
+     * Halve all the counters, so the old popularity will fade away.
+     */
+    protected void reset() {
+        for (int i = 0; i < table.length; ++i) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = size >>> 1;
+    }
+
+}
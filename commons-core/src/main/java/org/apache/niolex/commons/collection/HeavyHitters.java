@@ -0,0 +1,419 @@
+/**
+ * HeavyHitters.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.niolex.commons.test.Check;
+
+/**
+ * Track the most frequent keys of a stream in bounded memory, by the Space-Saving algorithm.
+ * <br>
+ * Every stripe keeps at most {@code capacity} counters. When a new key comes and the stripe is full,
+ * the key with the minimum count is replaced, and the new key inherits the minimum count as its
+ * error. So the count of every tracked key is an upper bound of the real count, and the count minus
+ * the error is a lower bound. The error is never larger than {@code N / capacity}, where N is the
+ * total count of the stripe.
+ * <br>
+ * The threads add keys into different stripes selected by the thread id, so a hot key does not make
+ * all the threads contend on one lock. The stripes are merged when we report the top keys: a key
+ * missing from a full stripe could have at most the minimum count of that stripe, so we add it
+ * to both the count and the error.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ */
+public class HeavyHitters<K> {
+
+    /**
+     * The estimated count of a key.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <K> the key type
+     */
+    public static class Item<K> {
+        private final K key;
+        private long count;
+        private long error;
+
+        /**
+         * Create an item.
+         *
+         * @param key the key
+         * @param count the estimated count
+         * @param error the max over estimation
+         */
+        public Item(K key, long count, long error) {
+            super();
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        /**
+         * @return the key
+         */
+        public K getKey() {
+            return key;
+        }
+
+        /**
+         * @return the estimated count, it's the upper bound of the real count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the max over estimation of the count
+         */
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * @return the lower bound of the real count
+         */
+        public long getLowerBound() {
+            return count - error;
+        }
+
+        /**
+         * This is the override of super method.
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return key + "=" + count + "(+-" + error + ")";
+        }
+    }
+
+    /**
+     * The counter in a stripe, also the node of the min heap.
+     *
+     * @param <K> the key type
+     */
+    private static class Counter<K> {
+        private K key;
+        private long count;
+        private long error;
+        private int pos;
+    }
+
+    /**
+     * The Space-Saving summary, guarded by its own lock.
+     *
+     * @param <K> the key type
+     */
+    protected static class Stripe<K> {
+        private final Lock lock = new ReentrantLock();
+        private final Map<K, Counter<K>> map;
+        private final Counter<K>[] heap;
+        private int size;
+        private long total;
+
+        /**
+         * Create a stripe.
+         *
+         * @param capacity the max number of keys tracked
+         */
+        @SuppressWarnings("unchecked")
+        public Stripe(int capacity) {
+            this.map = new HashMap<K, Counter<K>>(capacity * 4 / 3 + 1);
+            this.heap = new Counter[capacity];
+        }
+
+        /**
+         * Add the count of the key. Must be called under lock.
+         *
+         * @param key the key
+         * @param n the count
+         */
+        void add(K key, long n) {
+            total += n;
+            Counter<K> c = map.get(key);
+            if (c != null) {
+                c.count += n;
+                siftDown(c.pos);
+                return;
+            }
+            if (size < heap.length) {
+                c = new Counter<K>();
+                c.key = key;
+                c.count = n;
+                c.pos = size;
+                heap[size++] = c;
+                map.put(key, c);
+                siftUp(c.pos);
+                return;
+            }
+            // Replace the minimum one.
+            c = heap[0];
+            map.remove(c.key);
+            c.key = key;
+            c.error = c.count;
+            c.count += n;
+            map.put(key, c);
+            siftDown(0);
+        }
+
+        /**
+         * @return the minimum count if this stripe is full, a missing key can have at most this count; 0 if not full
+         */
+        long missingBound() {
+            return size < heap.length ? 0 : heap[0].count;
+        }
+
+        void clear() {
+            map.clear();
+            for (int i = 0; i < size; ++i) {
+                heap[i] = null;
+            }
+            size = 0;
+            total = 0;
+        }
+
+        private void siftUp(int i) {
+            Counter<K> c = heap[i];
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                Counter<K> pc = heap[p];
+                if (pc.count <= c.count) {
+                    break;
+                }
+                heap[i] = pc;
+                pc.pos = i;
+                i = p;
+            }
+            heap[i] = c;
+            c.pos = i;
+        }
+
+        private void siftDown(int i) {
+            Counter<K> c = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                int right = child + 1;
+                if (right < size && heap[right].count < heap[child].count) {
+                    child = right;
+                }
+                Counter<K> cc = heap[child];
+                if (c.count <= cc.count) {
+                    break;
+                }
+                heap[i] = cc;
+                cc.pos = i;
+                i = child;
+            }
+            heap[i] = c;
+            c.pos = i;
+        }
+    }
+
+    /**
+     * The stripes.
+     */
+    private final Stripe<K>[] stripes;
+
+    /**
+     * The stripe index mask.
+     */
+    private final int stripeMask;
+
+    /**
+     * The max number of keys tracked in every stripe.
+     */
+    private final int capacity;
+
+    /**
+     * Create a heavy hitters tracker with the stripes suitable for the number of processors.
+     *
+     * @param capacity the max number of keys tracked in every stripe, should be several times of the top K
+     */
+    public HeavyHitters(int capacity) {
+        this(capacity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a heavy hitters tracker with the specified concurrency level.
+     *
+     * @param capacity the max number of keys tracked in every stripe, should be several times of the top K
+     * @param concurrencyLevel the estimated number of concurrently adding threads
+     */
+    @SuppressWarnings("unchecked")
+    public HeavyHitters(int capacity, int concurrencyLevel) {
+        super();
+        Check.lt(0, capacity, "The parameter 'capacity' must be positive.");
+        int n = 1;
+        while (n < concurrencyLevel && n < 64) {
+            n <<= 1;
+        }
+        this.capacity = capacity;
+        this.stripeMask = n - 1;
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; ++i) {
+            stripes[i] = new Stripe<K>(capacity);
+        }
+    }
+
+    /**
+     * Add one occurrence of the key.
+     *
+     * @param key the key
+     */
+    public void add(K key) {
+        add(key, 1);
+    }
+
+    /**
+     * Add the specified occurrences of the key.
+     *
+     * @param key the key
+     * @param n the number of occurrences, must be positive
+     */
+    public void add(K key, long n) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        Check.lt(0, n, "The parameter 'n' must be positive.");
+        long id = Thread.currentThread().getId();
+        addToStripe((int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask, key, n);
+    }
+
+    /**
+     * Add the specified occurrences of the key into the specified stripe.
+     *
+     * @param idx the stripe index
+     * @param key the key
+     * @param n the number of occurrences
+     */
+    protected void addToStripe(int idx, K key, long n) {
+        Stripe<K> s = stripes[idx];
+        s.lock.lock();
+        try {
+            s.add(key, n);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the top K keys with the highest estimated counts, in descending order of count.
+     *
+     * @param k the number of keys
+     * @return the top keys
+     */
+    public List<Item<K>> topK(int k) {
+        Map<K, Item<K>> merged = new HashMap<K, Item<K>>();
+        Map<K, Long> presentBound = new HashMap<K, Long>();
+        long boundSum = 0;
+        for (Stripe<K> s : stripes) {
+            s.lock.lock();
+            try {
+                long bound = s.missingBound();
+                boundSum += bound;
+                for (int i = 0; i < s.size; ++i) {
+                    Counter<K> c = s.heap[i];
+                    Item<K> it = merged.get(c.key);
+                    if (it == null) {
+                        merged.put(c.key, new Item<K>(c.key, c.count, c.error));
+                        presentBound.put(c.key, bound);
+                    } else {
+                        it.count += c.count;
+                        it.error += c.error;
+                        presentBound.put(c.key, presentBound.get(c.key) + bound);
+                    }
+                }
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        List<Item<K>> list = new ArrayList<Item<K>>(merged.size());
+        for (Item<K> it : merged.values()) {
+            // The key may be evicted from the other full stripes.
+            long extra = boundSum - presentBound.get(it.key);
+            it.count += extra;
+            it.error += extra;
+            list.add(it);
+        }
+        Collections.sort(list, new Comparator<Item<K>>() {
+            @Override
+            public int compare(Item<K> o1, Item<K> o2) {
+                return Long.compare(o2.count, o1.count);
+            }
+        });
+        return k < list.size() ? new ArrayList<Item<K>>(list.subList(0, k)) : list;
+    }
+
+    /**
+     * @return the total count of all the keys added
+     */
+    public long total() {
+        long sum = 0;
+        for (Stripe<K> s : stripes) {
+            s.lock.lock();
+            try {
+                sum += s.total;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Remove all the counters, usually called after report to start a new period.
+     */
+    public void clear() {
+        for (Stripe<K> s : stripes) {
+            s.lock.lock();
+            try {
+                s.clear();
+            } finally {
+                s.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the max number of keys tracked in every stripe
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+}
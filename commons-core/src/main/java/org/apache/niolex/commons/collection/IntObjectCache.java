@@ -0,0 +1,158 @@
+/**
+ * IntObjectCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * The concurrent LRU cache with primitive {@code int} keys. Use {@link #get(int)} and
+ * {@link #put(int, Object)} to avoid boxing the keys, so lookups allocate nothing.
+ * <br>
+ * This cache shares the implementation of {@link LongObjectCache}, the keys are widened to
+ * {@code long}, so every item costs about 16 bytes besides the value itself. Please refer to
+ * {@link LongObjectCache} for the details of the algorithm.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <V> the value type
+ */
+public class IntObjectCache<V> implements Cache<Integer, V> {
+
+    /**
+     * The cache used to store all the items.
+     */
+    private final LongObjectCache<V> cache;
+
+    /**
+     * Create a IntObjectCache which can store as many as {@code maxSize} cache items.
+     *
+     * @param maxSize the max number of cache items
+     */
+    public IntObjectCache(int maxSize) {
+        this(maxSize, 16);
+    }
+
+    /**
+     * Create a IntObjectCache which can store as many as {@code maxSize} cache items.
+     *
+     * @param maxSize the max number of cache items
+     * @param concurrencyLevel the estimated number of concurrently updating threads
+     */
+    public IntObjectCache(int maxSize, int concurrencyLevel) {
+        this.cache = new LongObjectCache<V>(maxSize, concurrencyLevel);
+    }
+
+    /**
+     * @return the max number of items
+     */
+    public int getMaxSize() {
+        return cache.getMaxSize();
+    }
+
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     *
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        cache.setStats(stats);
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Get the value of the primitive key. This method is lock-free and allocates nothing.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if not found
+     */
+    public V get(int key) {
+        return cache.get((long) key);
+    }
+
+    /**
+     * Put the value with the primitive key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V put(int key, V value) {
+        return cache.put((long) key, value);
+    }
+
+    /**
+     * Remove the item with the primitive key.
+     *
+     * @param key the key
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V remove(int key) {
+        return cache.remove((long) key);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     */
+    @Override
+    public V get(Integer key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return get(key.intValue());
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(Integer key, V value) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return put(key.intValue(), value);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Integer key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return remove(key.intValue());
+    }
+
+}
@@ -34,6 +34,8 @@ public class LRUHashMap<K, V> extends LinkedHashMap<K, V> implements Cache<K, V>
 	private static final long serialVersionUID = -1355706789097024625L;
 	// The max map size.
 	private final int maxSize;
+	// The statistics recorder, null if statistics is disabled.
+	private transient volatile CacheStats stats;
 
 	/**
 	 * Create a LRUHashMap with this max size.
@@ -45,9 +47,55 @@ public class LRUHashMap<K, V> extends LinkedHashMap<K, V> implements Cache<K, V>
 		this.maxSize = maxSize;
 	}
 
+	/**
+	 * Set the statistics recorder of this map, {@code null} to disable statistics.
+	 *
+	 * @param stats the statistics recorder
+	 */
+	public void setStats(CacheStats stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * @return the statistics recorder of this map, {@code null} if statistics is disabled
+	 */
+	public CacheStats getStats() {
+		return stats;
+	}
+
+	@Override
+	public V get(Object key) {
+		V v = super.get(key);
+		CacheStats s = stats;
+		if (s != null) {
+			if (v != null) {
+				s.recordHits(1);
+			} else {
+				s.recordMisses(1);
+			}
+		}
+		return v;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		CacheStats s = stats;
+		if (s != null) {
+			s.recordPuts(1);
+		}
+		return super.put(key, value);
+	}
+
 	@Override
 	protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-		return size() > maxSize;
+		if (size() > maxSize) {
+			CacheStats s = stats;
+			if (s != null) {
+				s.recordEviction(1);
+			}
+			return true;
+		}
+		return false;
 	}
 
 }
@@ -0,0 +1,407 @@
+/**
+ * LoadingCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.niolex.commons.concurrent.BlockerException;
+import org.apache.niolex.commons.concurrent.WaitOn;
+
+/**
+ * The self-populating cache wrapper. When the key is not found in the internal cache, we
+ * use the {@link Loader} to load it and put the value into the internal cache.
+ * <br>
+ * Concurrent loads of the same key are coalesced: the first thread calls the loader and the
+ * other threads wait on the same {@link WaitOn} for the result. If the loader failed, all the
+ * threads get a {@link CacheLoadException} with the loader exception as the cause, and nothing
+ * is cached, so the next request will try to load again.
+ * <br>
+ * If the loader is a {@link BulkLoader}, {@link #getAll(Collection)} loads all the missing keys
+ * in one call.
+ * <br>
+ * The loader could return {@code null} if the key does not exist, we will not cache it.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class LoadingCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The interface used to load the value of a key.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    public static interface Loader<K, V> {
+
+        /**
+         * Load the value of the specified key.
+         *
+         * @param key the key
+         * @return the value, or {@code null} if not found
+         * @throws Exception if failed to load
+         */
+        public V load(K key) throws Exception;
+    }
+
+    /**
+     * The loader which can load many keys in one call.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    public static interface BulkLoader<K, V> extends Loader<K, V> {
+
+        /**
+         * Load the values of the specified keys.
+         *
+         * @param keys the keys to be loaded
+         * @return the map from key to value, the keys not found should be absent from this map
+         * @throws Exception if failed to load
+         */
+        public Map<K, V> loadAll(Collection<K> keys) throws Exception;
+    }
+
+    /**
+     * The keys being loaded now, and the wait object of them.
+     */
+    private final ConcurrentHashMap<K, WaitOn<V>> loadingMap = new ConcurrentHashMap<K, WaitOn<V>>();
+
+    /**
+     * The internal cache.
+     */
+    private final Cache<K, V> cache;
+
+    /**
+     * The loader used to load the missing keys.
+     */
+    private final Loader<K, V> loader;
+
+    /**
+     * The statistics recorder used to record loads, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
+
+    /**
+     * Create a loading cache.
+     *
+     * @param cache the internal cache used to store values
+     * @param loader the loader used to load the missing keys
+     */
+    public LoadingCache(Cache<K, V> cache, Loader<K, V> loader) {
+        super();
+        this.cache = cache;
+        this.loader = loader;
+    }
+
+    /**
+     * Set the statistics recorder used to record loads, {@code null} to disable statistics.
+     * Hits and misses are recorded by the internal cache.
+     *
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder used to record loads, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the internal cache
+     */
+    public Cache<K, V> getCache() {
+        return cache;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Get the value from the internal cache, do not load it if not found.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if not found
+     */
+    public V getIfPresent(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Get the value of the key, load it if not found in the internal cache.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     * @throws CacheLoadException if the loader failed
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        V v = cache.get(key);
+        if (v != null) {
+            return v;
+        }
+
+        WaitOn<V> w = new WaitOn<V>(new CountDownLatch(1));
+        WaitOn<V> old = loadingMap.putIfAbsent(key, w);
+        if (old != null) {
+            // Another thread is loading it.
+            return waitFor(key, old);
+        }
+        return loadOne(key, w);
+    }
+
+    /**
+     * Get the values of all the specified keys, load the missing ones. If the loader is a
+     * {@link BulkLoader}, all the missing keys are loaded in one call.
+     *
+     * @param keys the keys
+     * @return the map from key to value, the keys not found are absent from this map
+     * @throws CacheLoadException if the loader failed
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, V> result = new HashMap<K, V>();
+        Map<K, WaitOn<V>> owned = new LinkedHashMap<K, WaitOn<V>>();
+        Map<K, WaitOn<V>> waiting = new HashMap<K, WaitOn<V>>();
+        for (K key : keys) {
+            if (key == null) {
+                throw new NullPointerException("The parameter 'key' should not be null.");
+            }
+            if (result.containsKey(key) || owned.containsKey(key) || waiting.containsKey(key)) {
+                continue;
+            }
+            V v = cache.get(key);
+            if (v != null) {
+                result.put(key, v);
+                continue;
+            }
+            WaitOn<V> w = new WaitOn<V>(new CountDownLatch(1));
+            WaitOn<V> old = loadingMap.putIfAbsent(key, w);
+            if (old == null) {
+                owned.put(key, w);
+            } else {
+                waiting.put(key, old);
+            }
+        }
+
+        // We must load our own keys before waiting for others, or we may dead lock.
+        if (!owned.isEmpty()) {
+            if (loader instanceof BulkLoader) {
+                loadAll(owned, result);
+            } else {
+                try {
+                    for (Map.Entry<K, WaitOn<V>> en : owned.entrySet()) {
+                        putIfNotNull(result, en.getKey(), loadOne(en.getKey(), en.getValue()));
+                    }
+                } catch (Throwable t) {
+                    // The keys after the failed one are never loaded, release them.
+                    releaseOwned(owned, t);
+                    throw t;
+                }
+            }
+        }
+        for (Map.Entry<K, WaitOn<V>> en : waiting.entrySet()) {
+            putIfNotNull(result, en.getKey(), waitFor(en.getKey(), en.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Put the key value pair into the map if value is not null.
+     *
+     * @param map the map
+     * @param key the key
+     * @param value the value
+     */
+    private void putIfNotNull(Map<K, V> map, K key, V value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * Load the key by the loader and release the threads waiting on it.
+     *
+     * @param key the key
+     * @param w the wait object owned by the current thread
+     * @return the value loaded
+     */
+    protected V loadOne(K key, WaitOn<V> w) {
+        V v;
+        try {
+            // Another thread may finished loading just before we put the wait object.
+            v = cache.get(key);
+            if (v == null) {
+                long start = System.nanoTime();
+                try {
+                    v = loader.load(key);
+                } catch (Throwable t) {
+                    recordLoad(false, start);
+                    throw t;
+                }
+                recordLoad(true, start);
+                if (v != null) {
+                    cache.put(key, v);
+                }
+            }
+        } catch (Throwable t) {
+            loadingMap.remove(key, w);
+            w.release(new BlockerException("Failed to load key " + key, t));
+            throw new CacheLoadException("Failed to load key " + key, t);
+        }
+        loadingMap.remove(key, w);
+        w.release(v);
+        return v;
+    }
+
+    /**
+     * Load all the keys by the bulk loader and release the threads waiting on them.
+     *
+     * @param owned the keys to be loaded and the wait objects owned by the current thread
+     * @param result the map used to store the values loaded
+     */
+    protected void loadAll(Map<K, WaitOn<V>> owned, Map<K, V> result) {
+        Map<K, V> loaded;
+        long start = System.nanoTime();
+        try {
+            loaded = ((BulkLoader<K, V>) loader).loadAll(Collections.unmodifiableCollection(owned.keySet()));
+        } catch (Throwable t) {
+            recordLoad(false, start);
+            releaseOwned(owned, t);
+            throw new CacheLoadException("Failed to load keys " + owned.keySet(), t);
+        }
+        recordLoad(true, start);
+
+        try {
+            if (loaded != null) {
+                for (Map.Entry<K, V> en : loaded.entrySet()) {
+                    if (en.getKey() != null && en.getValue() != null) {
+                        cache.put(en.getKey(), en.getValue());
+                    }
+                }
+            }
+            for (Map.Entry<K, WaitOn<V>> en : owned.entrySet()) {
+                V v = loaded == null ? null : loaded.get(en.getKey());
+                putIfNotNull(result, en.getKey(), v);
+                loadingMap.remove(en.getKey(), en.getValue());
+                en.getValue().release(v);
+            }
+        } catch (Throwable t) {
+            releaseOwned(owned, t);
+            throw t;
+        }
+    }
+
+    /**
+     * Release all the wait objects still owned by the current thread with the failure, and remove
+     * them from the loading map, so the other threads will not wait forever.
+     *
+     * @param owned the keys and the wait objects owned by the current thread
+     * @param t the failure
+     */
+    private void releaseOwned(Map<K, WaitOn<V>> owned, Throwable t) {
+        BlockerException e = new BlockerException("Failed to load keys " + owned.keySet(), t);
+        for (Map.Entry<K, WaitOn<V>> en : owned.entrySet()) {
+            // The released ones are already removed from the loading map.
+            if (loadingMap.remove(en.getKey(), en.getValue())) {
+                en.getValue().release(e);
+            }
+        }
+    }
+
+    /**
+     * Wait for the result loaded by another thread.
+     *
+     * @param key the key
+     * @param w the wait object owned by another thread
+     * @return the value loaded
+     */
+    protected V waitFor(K key, WaitOn<V> w) {
+        try {
+            return w.waitForResult(Long.MAX_VALUE);
+        } catch (BlockerException e) {
+            throw new CacheLoadException("Failed to load key " + key, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CacheLoadException("Interrupted while waiting for key " + key, e);
+        }
+    }
+
+    /**
+     * Record the load into the statistics recorder if it's enabled.
+     *
+     * @param success whether the load is successful
+     * @param start the start time in nanoseconds
+     */
+    private void recordLoad(boolean success, long start) {
+        CacheStats s = stats;
+        if (s != null) {
+            if (success) {
+                s.recordLoadSuccess(System.nanoTime() - start);
+            } else {
+                s.recordLoadFailure(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        return cache.put(key, value);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        return cache.remove(key);
+    }
+
+}
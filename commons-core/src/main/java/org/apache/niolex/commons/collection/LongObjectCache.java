@@ -0,0 +1,579 @@
+/**
+ * LongObjectCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.niolex.commons.test.Check;
+
+/**
+ * The concurrent LRU cache with primitive {@code long} keys. Use {@link #get(long)} and
+ * {@link #put(long, Object)} to avoid boxing the keys, so lookups allocate nothing.
+ * <br>
+ * We split the cache into segments, every segment is an open-addressed hash table with linear
+ * probing, the keys, values and visit stamps are stored in three parallel arrays, so there is no
+ * entry object, and every item only costs about 16 bytes besides the value itself.
+ * <br>
+ * We use the same 3Q algorithm as {@link ConcurrentLRUCache}: every {@code maxSize / 3} visits
+ * we start a new round, and every item records the round it was visited last time. The items
+ * not visited in the last 3 rounds are victims. Every segment uses a clock hand to walk through
+ * the table to find victims, if we walk too long without any victim, we start a new round.
+ * <br>
+ * The read path is lock-free, the writers lock the segment. When the writers move items in the
+ * table, they increase the segment version, and the readers retry if the version changed. The
+ * keys and values are read by volatile loads, so they can not be reordered after the version check.
+ * <br>
+ * The capacity is split evenly among segments, so this cache may evict items a little before
+ * it's totally full if the keys are not distributed evenly.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <V> the value type
+ */
+public class LongObjectCache<V> implements Cache<Long, V> {
+
+    /**
+     * A segment is an open-addressed hash table guarded by a lock.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <V> the value type
+     */
+    protected static class Segment<V> {
+
+        /**
+         * Use this lock to guard all the updates of this segment.
+         */
+        private final Lock w = new ReentrantLock();
+
+        /**
+         * The keys of items, the readers validate them by the segment version.
+         */
+        private final AtomicLongArray keys;
+
+        /**
+         * The values of items, {@code null} for empty slots.
+         */
+        private final AtomicReferenceArray<V> values;
+
+        /**
+         * The round each item was visited last time.
+         */
+        private final int[] stamps;
+
+        /**
+         * The table index mask.
+         */
+        private final int mask;
+
+        /**
+         * The max number of items in this segment.
+         */
+        private final int maxItems;
+
+        /**
+         * The current round shared by all the segments.
+         */
+        private final AtomicInteger round;
+
+        /**
+         * The version of this segment, it's odd when items are being moved.
+         */
+        private volatile int version;
+
+        /**
+         * The number of items in this segment.
+         */
+        private volatile int itemSize;
+
+        /**
+         * The clock hand used to find victims. Guarded by the segment lock.
+         */
+        private int hand;
+
+        /**
+         * Construct a segment which can hold at most {@code maxItems} items.
+         *
+         * @param maxItems the max number of items in this segment
+         * @param round the current round shared by all the segments
+         */
+        public Segment(int maxItems, AtomicInteger round) {
+            int length = 4;
+            // Keep the load factor under 0.75.
+            while (length * 3 < maxItems * 4 + 4) {
+                length <<= 1;
+            }
+            this.keys = new AtomicLongArray(length);
+            this.values = new AtomicReferenceArray<V>(length);
+            this.stamps = new int[length];
+            this.mask = length - 1;
+            this.maxItems = maxItems;
+            this.round = round;
+        }
+
+        /**
+         * Find the slot index of the specified key.
+         *
+         * @param key the key
+         * @param hash the key hash
+         * @return the slot index, or -1 if not found
+         */
+        private int indexOf(long key, int hash) {
+            int i = hash & mask;
+            // Bound the probe, the readers may see the table being modified.
+            for (int n = 0; n <= mask; ++n) {
+                if (values.get(i) == null) {
+                    return -1;
+                }
+                if (keys.get(i) == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Get the value of the specified key without lock, and update the visit stamp.
+         *
+         * @param key the key
+         * @param hash the key hash
+         * @return the value, or {@code null} if not found
+         */
+        protected V get(long key, int hash) {
+            for (int tries = 0; tries < 4; ++tries) {
+                int ver = version;
+                if ((ver & 1) != 0) {
+                    // Items are being moved.
+                    Thread.yield();
+                    continue;
+                }
+                int i = indexOf(key, hash);
+                V v = i < 0 ? null : values.get(i);
+                if (version == ver) {
+                    if (v != null) {
+                        touch(i);
+                    }
+                    return v;
+                }
+            }
+            // Too many concurrent updates, we read it under lock.
+            w.lock();
+            try {
+                int i = indexOf(key, hash);
+                if (i < 0) {
+                    return null;
+                }
+                touch(i);
+                return values.get(i);
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Update the visit stamp of the specified slot. We only write it when the round changed,
+         * so the hot items will not make the CPU cores fight for the cache line.
+         *
+         * @param i the slot index
+         */
+        private void touch(int i) {
+            int r = round.get();
+            if (stamps[i] != r) {
+                stamps[i] = r;
+            }
+        }
+
+        /**
+         * Put the value with the specified key into this segment. If the segment is full, we evict
+         * one victim first.
+         *
+         * @param key the key
+         * @param hash the key hash
+         * @param value the value
+         * @param st the statistics recorder, {@code null} if statistics is disabled
+         * @return the old value if item exists, {@code null} if not found
+         */
+        protected V put(long key, int hash, V value, CacheStats st) {
+            w.lock();
+            try {
+                int i = indexOf(key, hash);
+                if (i >= 0) {
+                    touch(i);
+                    return values.getAndSet(i, value);
+                }
+                if (itemSize >= maxItems) {
+                    removeAtUnderLock(findVictimUnderLock());
+                    if (st != null) {
+                        st.recordEviction(1);
+                    }
+                }
+                i = hash & mask;
+                while (values.get(i) != null) {
+                    i = (i + 1) & mask;
+                }
+                keys.set(i, key);
+                stamps[i] = round.get();
+                // Set the value last, as barrier.
+                values.set(i, value);
+                ++itemSize;
+                return null;
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Remove the item with the specified key from this segment if found.
+         *
+         * @param key the key
+         * @param hash the key hash
+         * @return the value if item exists, {@code null} if not found
+         */
+        protected V remove(long key, int hash) {
+            w.lock();
+            try {
+                int i = indexOf(key, hash);
+                if (i < 0) {
+                    return null;
+                }
+                V v = values.get(i);
+                removeAtUnderLock(i);
+                return v;
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Walk through the table from the clock hand to find an item not visited in the last 3 rounds.
+         * If we walked too long, we start a new round. The segment must not be empty.
+         *
+         * @return the slot index of the victim
+         */
+        protected final int findVictimUnderLock() {
+            int walkSize = maxItems / 3 + 1;
+            int walked = 0, pushes = 0;
+            for (;;) {
+                hand = (hand + 1) & mask;
+                if (values.get(hand) == null) {
+                    continue;
+                }
+                int r = round.get();
+                if (r - stamps[hand] >= 3 || pushes >= 3) {
+                    return hand;
+                }
+                if (++walked >= walkSize) {
+                    // Visit too much, start a new round, so all the items will be victims after 3 rounds.
+                    walked = 0;
+                    ++pushes;
+                    round.compareAndSet(r, r + 1);
+                }
+            }
+        }
+
+        /**
+         * Remove the item in the specified slot, and move the following items back to fill the hole,
+         * so we do not need any tombstone.
+         *
+         * @param i the slot index
+         */
+        protected final void removeAtUnderLock(int i) {
+            ++version;
+            try {
+                int j = i;
+                for (;;) {
+                    j = (j + 1) & mask;
+                    V v = values.get(j);
+                    if (v == null) {
+                        break;
+                    }
+                    long k = keys.get(j);
+                    int home = hash(k) & mask;
+                    // Move the item back if its home slot is not in (i, j] cyclically.
+                    if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+                        keys.set(i, k);
+                        stamps[i] = stamps[j];
+                        values.set(i, v);
+                        i = j;
+                    }
+                }
+                values.set(i, null);
+                --itemSize;
+            } finally {
+                ++version;
+            }
+        }
+
+        /**
+         * @return the number of items in this segment
+         */
+        protected int size() {
+            return itemSize;
+        }
+    }
+
+    /**
+     * The maximum number of segments to allow.
+     */
+    protected static final int MAX_SEGMENTS = 1 << 12;
+
+    /**
+     * The minimum number of items stores into one segment.
+     */
+    protected static final int MIN_SEGMENT_ITEM = 16;
+
+    /**
+     * Use this integer to record visits.
+     */
+    private final AtomicInteger visitTime = new AtomicInteger();
+
+    /**
+     * The current round of the 3Q algorithm.
+     */
+    private final AtomicInteger round = new AtomicInteger();
+
+    /**
+     * The max number of items.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of visits in one round.
+     */
+    private final int victimSize;
+
+    /**
+     * The segment table used to store all the segments.
+     */
+    private final Segment<V>[] segmentTable;
+
+    /**
+     * Mask value for indexing into segments. The upper bits of a
+     * key's hash code are used to choose the segment.
+     */
+    private final int segmentMask;
+
+    /**
+     * Shift value for indexing segments.
+     */
+    private final int segmentShift;
+
+    /**
+     * The statistics recorder, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
+
+    /**
+     * Applies a supplemental hash function to the key, the high bits are used to choose segment
+     * and the low bits are used to choose slot.
+     *
+     * @param key the key
+     * @return the hash code
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Create a LongObjectCache which can store as many as {@code maxSize} cache items.
+     *
+     * @param maxSize the max number of cache items
+     */
+    public LongObjectCache(int maxSize) {
+        this(maxSize, 16);
+    }
+
+    /**
+     * Create a LongObjectCache which can store as many as {@code maxSize} cache items.
+     *
+     * @param maxSize the max number of cache items
+     * @param concurrencyLevel the estimated number of concurrently updating threads
+     */
+    @SuppressWarnings("unchecked")
+    public LongObjectCache(int maxSize, int concurrencyLevel) {
+        Check.lt(MIN_SEGMENT_ITEM, maxSize, "The parameter 'maxSize' must greater than " + MIN_SEGMENT_ITEM);
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < concurrencyLevel && ssize < MAX_SEGMENTS && maxSize / (ssize << 1) >= MIN_SEGMENT_ITEM) {
+            ++sshift;
+            ssize <<= 1;
+        }
+        this.segmentShift = 32 - sshift;
+        this.segmentMask = ssize - 1;
+        this.maxSize = maxSize;
+        this.victimSize = maxSize / 3 + 1;
+        this.segmentTable = new Segment[ssize];
+        // Split the capacity evenly, the remainder is given to the first segments.
+        int segItems = maxSize / ssize, remainder = maxSize % ssize;
+        for (int i = 0; i < ssize; ++i) {
+            this.segmentTable[i] = new Segment<V>(i < remainder ? segItems + 1 : segItems, round);
+        }
+    }
+
+    /**
+     * Returns the segment that should be used for key with given hash.
+     *
+     * @param hash the hash code for the key
+     * @return the segment
+     */
+    private final Segment<V> segmentFor(int hash) {
+        return segmentTable[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * @return the max number of items
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     *
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        int sum = 0;
+        for (Segment<V> seg : segmentTable) {
+            sum += seg.size();
+        }
+        return sum;
+    }
+
+    /**
+     * Get the value of the primitive key. This method is lock-free and allocates nothing.
+     *
+     * @param key the key
+     * @return the value, or {@code null} if not found
+     */
+    public V get(long key) {
+        int hash = hash(key);
+        V v = segmentFor(hash).get(key, hash);
+        CacheStats s = stats;
+        if (v != null) {
+            addVisit();
+            if (s != null) {
+                s.recordHits(1);
+            }
+        } else if (s != null) {
+            s.recordMisses(1);
+        }
+        return v;
+    }
+
+    /**
+     * Put the value with the primitive key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("The parameter 'value' should not be null.");
+        }
+        int hash = hash(key);
+        CacheStats st = stats;
+        if (st != null) {
+            st.recordPuts(1);
+        }
+        return segmentFor(hash).put(key, hash, value, st);
+    }
+
+    /**
+     * Remove the item with the primitive key.
+     *
+     * @param key the key
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V remove(long key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    /**
+     * Add visit count, start a new round if necessary.
+     */
+    protected void addVisit() {
+        if (visitTime.incrementAndGet() == victimSize) {
+            visitTime.set(0);
+            round.incrementAndGet();
+        }
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     */
+    @Override
+    public V get(Long key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return get(key.longValue());
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(Long key, V value) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return put(key.longValue(), value);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(Long key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        return remove(key.longValue());
+    }
+
+}
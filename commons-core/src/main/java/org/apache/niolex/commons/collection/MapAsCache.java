@@ -41,6 +41,11 @@ public class MapAsCache<K, V> implements Cache<K, V> {
     }
     
     private final Map<K, V> map;
+    
+    /**
+     * The statistics recorder, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
 
     /**
      * Construct a cache powered by the specified map.
@@ -52,6 +57,23 @@ public class MapAsCache<K, V> implements Cache<K, V> {
         this.map = map;
     }
 
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     * Evictions are not recorded, because there is no eviction in map.
+     * 
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
     @Override
     public int size() {
         return map.size();
@@ -59,11 +81,24 @@ public class MapAsCache<K, V> implements Cache<K, V> {
 
     @Override
     public V get(K key) {
-        return map.get(key);
+        V v = map.get(key);
+        CacheStats s = stats;
+        if (s != null) {
+            if (v != null) {
+                s.recordHits(1);
+            } else {
+                s.recordMisses(1);
+            }
+        }
+        return v;
     }
 
     @Override
     public V put(K key, V value) {
+        CacheStats s = stats;
+        if (s != null) {
+            s.recordPuts(1);
+        }
         return map.put(key, value);
     }
 
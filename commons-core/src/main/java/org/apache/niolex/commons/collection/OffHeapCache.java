@@ -0,0 +1,774 @@
+/**
+ * OffHeapCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.niolex.commons.hash.XxHash64;
+import org.apache.niolex.commons.util.BufferUtil;
+
+/**
+ * This OffHeapCache stores both keys and values in direct byte buffers, so a multi-GB cache
+ * lives outside of the Java heap, and the GC pause will not scale with the cache size.
+ * <br>
+ * Like {@link SegmentLFUCache}, we create lots of small segments, all the operations are delegated
+ * into segments, and a segment is considered as a locking unit. Every segment owns one slab of
+ * native memory used as a ring buffer, records are appended at the tail of the ring, and
+ * evicted from the head of the ring when we need more space. A record visited since it was
+ * written is given a second chance: it's moved to the tail instead of being evicted.
+ * The hash index of every segment only uses primitive arrays, so there is no object per entry.
+ * <br>
+ * The keys are translated into bytes by the {@link CacheCodec}, so two keys are considered
+ * as equal if and only if their encoded bytes are equal.
+ * <br><b>
+ * Please call {@link #close()} to release the native memory after use.
+ * </b>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ */
+public class OffHeapCache<K> implements Cache<K, byte[]> {
+
+    /**
+     * The record header size: hash, key length, value length and flags.
+     */
+    protected static final int HEADER_SIZE = 16;
+
+    /**
+     * The record flag to mark it's deleted.
+     */
+    protected static final int FLAG_DELETED = 1;
+
+    /**
+     * The record flag to mark it's visited since written.
+     */
+    protected static final int FLAG_VISITED = 2;
+
+    /**
+     * The max number of records moved to the tail in one allocation.
+     */
+    protected static final int MAX_SECOND_CHANCE = 8;
+
+    /**
+     * The minimum slab size of one segment.
+     */
+    protected static final int MIN_SLAB_SIZE = 1024;
+
+    /**
+     * One segment is an off heap hash map with a ring buffer of native memory.
+     *
+     * <p>All the operations are done under the segment lock, because the native memory of a record
+     * may be reused immediately after it's evicted.</p>
+     *
+     * <pre>
+     * The record layout:
+     * +--------+--------+--------+--------+-----+-------+---------+
+     * |  hash  | keyLen | valLen | flags  | key | value | padding |
+     * +--------+--------+--------+--------+-----+-------+---------+
+     * Records are aligned by 8 bytes, so the header never wraps around the ring.
+     * </pre>
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    protected static class Segment {
+
+        /**
+         * Use this lock to guard all the operations on this segment.
+         */
+        private final Lock w = new ReentrantLock();
+
+        /**
+         * The slab capacity in bytes, always a multiple of 8.
+         */
+        private final int capacity;
+
+        /**
+         * The native memory used as the ring buffer.
+         */
+        private ByteBuffer ring;
+
+        /**
+         * The ring position of the eldest record. Positions are increased monotonically.
+         */
+        private long head;
+
+        /**
+         * The ring position to write the next record.
+         */
+        private long tail;
+
+        /**
+         * The hash codes of the index.
+         */
+        private int[] hashes;
+
+        /**
+         * The record positions of the index, -1 for empty slot.
+         */
+        private long[] positions;
+
+        /**
+         * The index slot mask.
+         */
+        private int indexMask;
+
+        /**
+         * The number of records in this segment.
+         */
+        private volatile int count;
+
+        /**
+         * The buffer used to move records.
+         */
+        private byte[] scratch = new byte[64];
+
+        /**
+         * Construct a segment with the specified slab capacity.
+         *
+         * @param capacity the slab capacity in bytes
+         */
+        public Segment(int capacity) {
+            this.capacity = capacity & ~7;
+            this.ring = ByteBuffer.allocateDirect(this.capacity);
+            initIndex(16);
+        }
+
+        /**
+         * Initialize the index with the specified number of slots.
+         *
+         * @param slots the number of slots, must be power of 2
+         */
+        private void initIndex(int slots) {
+            hashes = new int[slots];
+            positions = new long[slots];
+            Arrays.fill(positions, -1);
+            indexMask = slots - 1;
+        }
+
+        /**
+         * @return the number of records in this segment.
+         */
+        protected int size() {
+            return count;
+        }
+
+        /**
+         * @return the number of bytes used by the records in this segment.
+         */
+        protected long usedBytes() {
+            return tail - head;
+        }
+
+        /**
+         * Calculate the record size aligned by 8 bytes.
+         *
+         * @param keyLen the key length
+         * @param valLen the value length
+         * @return the record size
+         */
+        protected static int recordSize(int keyLen, int valLen) {
+            return (HEADER_SIZE + keyLen + valLen + 7) & ~7;
+        }
+
+        /**
+         * Translate the ring position into the buffer index.
+         *
+         * @param pos the ring position
+         * @return the buffer index
+         */
+        private int idx(long pos) {
+            return (int) (pos % capacity);
+        }
+
+        /**
+         * Write the bytes into the ring at the specified position, wrap around if necessary.
+         */
+        private void write(long pos, byte[] src, int off, int len) {
+            int i = idx(pos);
+            int first = Math.min(len, capacity - i);
+            ring.position(i);
+            ring.put(src, off, first);
+            if (first < len) {
+                ring.position(0);
+                ring.put(src, off + first, len - first);
+            }
+        }
+
+        /**
+         * Read the bytes from the ring at the specified position, wrap around if necessary.
+         */
+        private void read(long pos, byte[] dst, int off, int len) {
+            int i = idx(pos);
+            int first = Math.min(len, capacity - i);
+            ring.position(i);
+            ring.get(dst, off, first);
+            if (first < len) {
+                ring.position(0);
+                ring.get(dst, off + first, len - first);
+            }
+        }
+
+        /**
+         * Check whether the key of the record at the specified position equals the specified key.
+         */
+        private boolean keyEquals(long pos, byte[] key) {
+            if (ring.getInt(idx(pos + 4)) != key.length) {
+                return false;
+            }
+            long p = pos + HEADER_SIZE;
+            for (int i = 0; i < key.length; ++i) {
+                if (ring.get(idx(p + i)) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Find the index slot of the specified key.
+         *
+         * @param hash the key hash
+         * @param key the encoded key
+         * @return the slot found, or (-1 - the empty slot to insert) if not found
+         */
+        private int findSlot(int hash, byte[] key) {
+            int i = hash & indexMask;
+            while (positions[i] != -1) {
+                if (hashes[i] == hash && keyEquals(positions[i], key)) {
+                    return i;
+                }
+                i = (i + 1) & indexMask;
+            }
+            return -1 - i;
+        }
+
+        /**
+         * Find the index slot of the record at the specified position.
+         *
+         * @param hash the record hash
+         * @param pos the record position
+         * @return the slot found, or -1 if not found
+         */
+        private int findSlotByPosition(int hash, long pos) {
+            int i = hash & indexMask;
+            while (positions[i] != -1) {
+                if (positions[i] == pos) {
+                    return i;
+                }
+                i = (i + 1) & indexMask;
+            }
+            return -1;
+        }
+
+        /**
+         * Delete the specified index slot, and shift the following slots backward, so we do not
+         * need any tombstone.
+         *
+         * @param i the slot to be deleted
+         */
+        private void deleteSlot(int i) {
+            int j = i;
+            while (true) {
+                j = (j + 1) & indexMask;
+                if (positions[j] == -1) {
+                    break;
+                }
+                int k = hashes[j] & indexMask;
+                // Move j to i if the home slot k is not cyclically in (i, j].
+                if ((i <= j) ? (i >= k || k > j) : (i >= k && k > j)) {
+                    hashes[i] = hashes[j];
+                    positions[i] = positions[j];
+                    i = j;
+                }
+            }
+            positions[i] = -1;
+            --count;
+        }
+
+        /**
+         * Double the index if it's too crowded.
+         */
+        private void ensureIndexCapacity() {
+            if ((count + 1) * 4 <= positions.length * 3) {
+                return;
+            }
+            int[] oldHashes = hashes;
+            long[] oldPositions = positions;
+            initIndex(oldPositions.length << 1);
+            for (int j = 0; j < oldPositions.length; ++j) {
+                if (oldPositions[j] != -1) {
+                    int i = oldHashes[j] & indexMask;
+                    while (positions[i] != -1) {
+                        i = (i + 1) & indexMask;
+                    }
+                    hashes[i] = oldHashes[j];
+                    positions[i] = oldPositions[j];
+                }
+            }
+        }
+
+        /**
+         * Read the value of the record at the specified position.
+         */
+        private byte[] readValue(long pos) {
+            int keyLen = ring.getInt(idx(pos + 4));
+            byte[] value = new byte[ring.getInt(idx(pos + 8))];
+            read(pos + HEADER_SIZE + keyLen, value, 0, value.length);
+            return value;
+        }
+
+        /**
+         * Mark the record at the specified position with the specified flag.
+         */
+        private void markRecord(long pos, int flag) {
+            int i = idx(pos + 12);
+            ring.putInt(i, ring.getInt(i) | flag);
+        }
+
+        /**
+         * Make room for a new record of the specified size by evicting records from the head
+         * of the ring.
+         *
+         * @param need the size needed
+         * @param stats the statistics recorder used to record evictions, could be {@code null}
+         */
+        private void makeRoom(int need, CacheStats stats) {
+            int chances = 0;
+            while (capacity - (tail - head) < need) {
+                int hash = ring.getInt(idx(head));
+                int keyLen = ring.getInt(idx(head + 4));
+                int valLen = ring.getInt(idx(head + 8));
+                int flags = ring.getInt(idx(head + 12));
+                int size = recordSize(keyLen, valLen);
+
+                if ((flags & FLAG_DELETED) != 0) {
+                    head += size;
+                } else if ((flags & FLAG_VISITED) != 0 && chances < MAX_SECOND_CHANCE) {
+                    // Give it a second chance, move it to the tail. We copy it out first, so
+                    // the space of this record can be reused.
+                    int slot = findSlotByPosition(hash, head);
+                    if (scratch.length < size) {
+                        scratch = new byte[size];
+                    }
+                    read(head, scratch, 0, size);
+                    head += size;
+                    write(tail, scratch, 0, size);
+                    ring.putInt(idx(tail + 12), flags & ~FLAG_VISITED);
+                    positions[slot] = tail;
+                    tail += size;
+                    ++chances;
+                } else {
+                    deleteSlot(findSlotByPosition(hash, head));
+                    head += size;
+                    if (stats != null) {
+                        stats.recordEviction(size);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get the value of the specified key.
+         *
+         * @param hash the key hash
+         * @param key the encoded key
+         * @return the value, or {@code null} if not found
+         */
+        protected byte[] get(int hash, byte[] key) {
+            w.lock();
+            try {
+                if (ring == null) {
+                    // Closed concurrently.
+                    return null;
+                }
+                int slot = findSlot(hash, key);
+                if (slot < 0) {
+                    return null;
+                }
+                long pos = positions[slot];
+                markRecord(pos, FLAG_VISITED);
+                return readValue(pos);
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Put the value with the specified key into this segment.
+         *
+         * @param hash the key hash
+         * @param key the encoded key
+         * @param value the value
+         * @param stats the statistics recorder used to record evictions, could be {@code null}
+         * @return the old value if item exists, {@code null} if not found
+         */
+        protected byte[] put(int hash, byte[] key, byte[] value, CacheStats stats) {
+            int size = recordSize(key.length, value.length);
+            if (size > capacity) {
+                throw new IllegalArgumentException("The entry size " + size + " exceeds the slab size " + capacity);
+            }
+            w.lock();
+            try {
+                if (ring == null) {
+                    throw new IllegalStateException("This cache is already closed.");
+                }
+                byte[] old = null;
+                int slot = findSlot(hash, key);
+                if (slot >= 0) {
+                    // Delete the old record, it will be reclaimed when the ring comes around.
+                    long pos = positions[slot];
+                    old = readValue(pos);
+                    markRecord(pos, FLAG_DELETED);
+                    deleteSlot(slot);
+                }
+
+                makeRoom(size, stats);
+                ensureIndexCapacity();
+
+                // Write the new record.
+                ring.putInt(idx(tail), hash);
+                ring.putInt(idx(tail + 4), key.length);
+                ring.putInt(idx(tail + 8), value.length);
+                ring.putInt(idx(tail + 12), 0);
+                write(tail + HEADER_SIZE, key, 0, key.length);
+                write(tail + HEADER_SIZE + key.length, value, 0, value.length);
+
+                // Index the new record, the slot may change after eviction.
+                slot = -1 - findSlot(hash, key);
+                hashes[slot] = hash;
+                positions[slot] = tail;
+                ++count;
+                tail += size;
+                return old;
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Remove the item with the specified key from this segment if found.
+         *
+         * @param hash the key hash
+         * @param key the encoded key
+         * @return the value if item exists, {@code null} if not found
+         */
+        protected byte[] remove(int hash, byte[] key) {
+            w.lock();
+            try {
+                if (ring == null) {
+                    // Closed concurrently.
+                    return null;
+                }
+                int slot = findSlot(hash, key);
+                if (slot < 0) {
+                    return null;
+                }
+                long pos = positions[slot];
+                byte[] old = readValue(pos);
+                markRecord(pos, FLAG_DELETED);
+                deleteSlot(slot);
+                return old;
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Remove all the records from this segment.
+         */
+        protected void clear() {
+            w.lock();
+            try {
+                head = tail = 0;
+                initIndex(16);
+                count = 0;
+            } finally {
+                w.unlock();
+            }
+        }
+
+        /**
+         * Release the native memory of this segment.
+         */
+        protected void close() {
+            w.lock();
+            try {
+                BufferUtil.cleanNativeMem(ring);
+                ring = null;
+                head = tail = 0;
+                initIndex(16);
+                count = 0;
+            } finally {
+                w.unlock();
+            }
+        }
+
+    }
+
+    /**
+     * The maximum number of segments to allow; used to bound
+     * constructor arguments.
+     */
+    protected static final int MAX_SEGMENTS = 1 << 12;
+
+    /**
+     * The codec used to encode keys.
+     */
+    private final CacheCodec<K> keyCodec;
+
+    /**
+     * The segment table used to store all the segments.
+     */
+    private final Segment[] segmentTable;
+
+    /**
+     * Mask value for indexing into segments.
+     */
+    private final int segmentMask;
+
+    /**
+     * Shift value for indexing within segments.
+     */
+    private final int segmentShift;
+
+    /**
+     * Whether this cache is closed.
+     */
+    private volatile boolean closed;
+    
+    /**
+     * The statistics recorder, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
+
+    /**
+     * Hash the encoded key. The records are compared by the encoded bytes, so we must hash the same
+     * bytes, the hash code of the key object may not be consistent with them, e.g. {@code byte[]}.
+     *
+     * @param key the encoded key
+     * @return the hash
+     */
+    static int hash(byte[] key) {
+        long h = XxHash64.INSTANCE.hash(key);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the segment that should be used for key with given hash.
+     *
+     * @param hash the hash code for the key
+     * @return the segment
+     */
+    private final Segment segmentFor(int hash) {
+        return segmentTable[(hash >>> segmentShift) & segmentMask];
+    }
+
+    /**
+     * Create a new OffHeapCache with 16 segments.
+     *
+     * @param capacity the total native memory in bytes
+     * @param keyCodec the codec used to encode keys
+     */
+    public OffHeapCache(long capacity, CacheCodec<K> keyCodec) {
+        this(capacity, 16, keyCodec);
+    }
+
+    /**
+     * Create a new OffHeapCache.
+     *
+     * @param capacity the total native memory in bytes, split evenly into segments
+     * @param concurrencyLevel the estimated number of concurrently updating threads.
+     *  We may not use you parameter if it's too big.
+     * @param keyCodec the codec used to encode keys
+     * @throws IllegalArgumentException if the capacity is too small or too large
+     */
+    public OffHeapCache(long capacity, int concurrencyLevel, CacheCodec<K> keyCodec) {
+        if (concurrencyLevel > MAX_SEGMENTS) {
+            concurrencyLevel = MAX_SEGMENTS;
+        }
+
+        // Find power-of-two sizes best matching arguments
+        int sshift = 0;
+        int ssize = 1;
+        while (ssize < concurrencyLevel) {
+            ++sshift;
+            ssize <<= 1;
+        }
+
+        long slabSize = capacity / ssize;
+        if (slabSize < MIN_SLAB_SIZE) {
+            throw new IllegalArgumentException("The parameter 'capacity' must greater than " + ssize * MIN_SLAB_SIZE);
+        }
+        if (slabSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The slab size is too large, please increase the concurrency level.");
+        }
+
+        this.keyCodec = keyCodec;
+        this.segmentShift = 32 - sshift;
+        this.segmentMask = ssize - 1;
+        this.segmentTable = new Segment[ssize];
+
+        for (int i = 0; i < ssize; ++i) {
+            this.segmentTable[i] = new Segment((int) slabSize);
+        }
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        long size = 0;
+        for (Segment s : segmentTable) {
+            size += s.size();
+        }
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     * 
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the number of native memory bytes used by the records, including the deleted ones
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (Segment s : segmentTable) {
+            used += s.usedBytes();
+        }
+        return used;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     */
+    @Override
+    public byte[] get(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        checkOpen();
+
+        byte[] k = keyCodec.encode(key);
+        int hash = hash(k);
+        byte[] v = segmentFor(hash).get(hash, k);
+        CacheStats s = stats;
+        if (s != null) {
+            if (v != null) {
+                s.recordHits(1);
+            } else {
+                s.recordMisses(1);
+            }
+        }
+        return v;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     * @throws IllegalArgumentException if the entry is larger than the slab size
+     */
+    @Override
+    public byte[] put(K key, byte[] value) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        if (value == null) {
+            throw new NullPointerException("The parameter 'value' should not be null.");
+        }
+        checkOpen();
+
+        byte[] k = keyCodec.encode(key);
+        int hash = hash(k);
+        CacheStats s = stats;
+        if (s != null) {
+            s.recordPuts(1);
+        }
+        return segmentFor(hash).put(hash, k, value, s);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public byte[] remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        checkOpen();
+
+        byte[] k = keyCodec.encode(key);
+        int hash = hash(k);
+        return segmentFor(hash).remove(hash, k);
+    }
+
+    /**
+     * Remove all the items from this cache. The native memory is kept for reuse.
+     */
+    public void clear() {
+        checkOpen();
+        for (Segment s : segmentTable) {
+            s.clear();
+        }
+    }
+
+    /**
+     * Release all the native memory. This cache can not be used any more after close.
+     */
+    public void close() {
+        closed = true;
+        for (Segment s : segmentTable) {
+            s.close();
+        }
+    }
+
+    /**
+     * Check whether this cache is still open.
+     *
+     * @throws IllegalStateException if this cache is already closed
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("This cache is already closed.");
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * ReadBuffer.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The striped lossy ring buffers used to record cache reads. The readers offer elements into the
+ * stripe selected by the thread id, and one consumer drains all the stripes in batch.
+ * <br>
+ * Every stripe is a small ring buffer with its own write and read counters, and the counters of
+ * every stripe occupy their own cache lines, so the readers of different stripes never touch the
+ * same counter.
+ * When a stripe is full or the slot is taken by another reader at the same time, the element is
+ * simply dropped. This is acceptable for recording reads, because losing a few visits only makes
+ * the popularity estimation a little lower.
+ * <br><b>
+ * The offer method is thread safe, but the drain method must be called by only one thread at a time,
+ * e.g. guarded by a lock.
+ * </b>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <E> the element type
+ */
+public class ReadBuffer<E> {
+
+    /**
+     * The number of slots in one stripe.
+     */
+    public static final int STRIPE_SIZE = 16;
+
+    /**
+     * The number of longs used by the counters of one stripe, 128 bytes to avoid false sharing.
+     * The write counter is at offset 0, and the read counter is at offset 8.
+     */
+    private static final int STRIPE_WIDTH = 16;
+    private static final int READ_OFFSET = 8;
+
+    /**
+     * The write counter and read counter of every stripe.
+     */
+    private final AtomicLongArray counters;
+
+    /**
+     * The slots of all the stripes.
+     */
+    private final AtomicReferenceArray<E> slots;
+
+    /**
+     * The stripe index mask.
+     */
+    private final int stripeMask;
+
+    /**
+     * Create a read buffer with the stripes suitable for the number of processors.
+     */
+    public ReadBuffer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a read buffer with the specified concurrency level.
+     *
+     * @param concurrencyLevel the estimated number of concurrently reading threads
+     */
+    public ReadBuffer(int concurrencyLevel) {
+        super();
+        int stripes = 1;
+        while (stripes < concurrencyLevel && stripes < 64) {
+            stripes <<= 1;
+        }
+        this.stripeMask = stripes - 1;
+        this.counters = new AtomicLongArray(stripes * STRIPE_WIDTH);
+        this.slots = new AtomicReferenceArray<E>(stripes * STRIPE_SIZE);
+    }
+
+    /**
+     * @return the max number of elements this buffer can hold
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Offer the element into the stripe of the current thread.
+     *
+     * @param e the element
+     * @return false if the stripe is full and the element is dropped, the caller should drain this buffer;
+     *  true if the element is recorded or dropped because of contention
+     */
+    public boolean offer(E e) {
+        long id = Thread.currentThread().getId();
+        int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask;
+        int wi = stripe * STRIPE_WIDTH;
+        long write = counters.get(wi);
+        long read = counters.get(wi + READ_OFFSET);
+        if (write - read >= STRIPE_SIZE) {
+            return false;
+        }
+        if (counters.compareAndSet(wi, write, write + 1)) {
+            slots.lazySet(stripe * STRIPE_SIZE + (int) (write & (STRIPE_SIZE - 1)), e);
+        }
+        return true;
+    }
+
+    /**
+     * Drain the elements in all the stripes into the specified array. If a slot was claimed but the
+     * element is not published yet, we stop draining that stripe and leave it to the next time.
+     * <br>
+     * This method must be called by only one thread at a time.
+     *
+     * @param batch the array used to store the elements, should not be shorter than {@link #capacity()}
+     * @return the number of elements drained
+     */
+    public int drainTo(E[] batch) {
+        int cnt = 0;
+        for (int stripe = 0; stripe <= stripeMask; ++stripe) {
+            int wi = stripe * STRIPE_WIDTH;
+            long read = counters.get(wi + READ_OFFSET);
+            long write = counters.get(wi);
+            long start = read;
+            for (; read < write && cnt < batch.length; ++read) {
+                int idx = stripe * STRIPE_SIZE + (int) (read & (STRIPE_SIZE - 1));
+                E e = slots.get(idx);
+                if (e == null) {
+                    break;
+                }
+                slots.lazySet(idx, null);
+                batch[cnt++] = e;
+            }
+            if (read != start) {
+                counters.lazySet(wi + READ_OFFSET, read);
+            }
+        }
+        return cnt;
+    }
+
+    /**
+     * @return the approximate number of elements waiting to be drained
+     */
+    public int size() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; ++stripe) {
+            int wi = stripe * STRIPE_WIDTH;
+            sum += counters.get(wi) - counters.get(wi + READ_OFFSET);
+        }
+        return (int) sum;
+    }
+
+}
@@ -17,7 +17,12 @@
  */
 package org.apache.niolex.commons.collection;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -33,6 +38,26 @@ import java.util.concurrent.locks.ReentrantLock;
  * <br>
  * We use lock-free technique to get item from cache, so it's super fast to read cache.
  * We only use lock when update cache.
+ * <br>
+ * User can enable the W-TinyLFU admission policy at construction time. In this mode, every segment
+ * puts new items into a small FIFO window first. When the window is full, the window victim need to
+ * compete with the LFU victim of the same segment if the cache is full, and the one visited more
+ * frequently according to a {@link FrequencySketch} survives.
+ * <br>
+ * Items can expire after write or after access, both per cache and per item. The expired items
+ * are invisible to {@link #get(Object)} immediately, and every segment reclaims them by its own
+ * {@link TimerWheel} in the following {@link #put(Object, Object)} or {@link #cleanUp()}. So
+ * {@link #size()} may include some expired items.
+ * <br>
+ * User can bound the cache by weight with a {@link Weigher}. In this mode, we evict items until
+ * both the number of items and the total weight are under the limits.
+ * <br>
+ * By default every cache hit updates the visits of the item directly, which makes the CPU cores
+ * fight for the cache line of the hot items. User can enable the read buffer mode by
+ * {@link #setReadBuffer(boolean)}, then the hits are recorded into the striped lossy
+ * {@link ReadBuffer} of the segment, and replayed into the LFU visits in batch under the segment
+ * lock when the buffer is full or before we need to find a victim. So the reads never write
+ * the shared state.
  * 
  * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
  * @version 2.1.2
@@ -51,7 +76,7 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
      * @param <K> the key type
      * @param <V> the value type
      */
-    protected static class ItemEntry<K, V> {
+    protected static class ItemEntry<K, V> extends TimerWheel.Node {
         
         /**
          * The key hash code.
@@ -77,6 +102,21 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         private ItemEntry<K, V> linkPrev;
         private ItemEntry<K, V> linkNext;
         
+        /**
+         * Whether this item is in the admission window. Guarded by the segment lock.
+         */
+        private boolean inWindow;
+        
+        /**
+         * The last access time of this item, only updated when it expires after access.
+         */
+        private long accessAt;
+        
+        /**
+         * The weight of this item, only used when the cache has a weigher.
+         */
+        private int weight;
+        
         public ItemEntry() {
             this.key = null;
             this.value = null;
@@ -95,6 +135,15 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             this.value = value;
         }
         
+        /**
+         * This is the override of super method.
+         * @see org.apache.niolex.commons.collection.TimerWheel.Node#lastAccessTime()
+         */
+        @Override
+        protected long lastAccessTime() {
+            return accessAt;
+        }
+        
     }
     
     /**
@@ -137,19 +186,83 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
          */
         private volatile int itemSize;
         
+        /**
+         * The admission window linked list head, {@code null} if admission is disabled.
+         */
+        private final ItemEntry<K, V> windowHead;
+        
+        /**
+         * The max number of items in the admission window.
+         */
+        private final int windowSize;
+        
+        /**
+         * The number of items in the admission window.
+         */
+        private int windowCount;
+        
+        /**
+         * The timer wheel used to reclaim expired items, created when the first item can expire.
+         */
+        private TimerWheel<ItemEntry<K, V>> wheel;
+        
+        /**
+         * The next time we need to advance the timer wheel, {@code Long.MAX_VALUE} if no item can expire.
+         */
+        private volatile long nextCleanUp = Long.MAX_VALUE;
+        
+        /**
+         * The total weight counter shared by all the segments of the cache, {@code null} if the
+         * cache has no weigher.
+         */
+        private final AtomicLong totalWeight;
+        
+        /**
+         * The buffer used to record reads, {@code null} if the read buffer is disabled.
+         */
+        private volatile ReadBuffer<ItemEntry<K, V>> readBuffer;
+        
+        /**
+         * The array used to drain the read buffer. Guarded by the segment lock.
+         */
+        private ItemEntry<K, V>[] drainBatch;
+        
         /**
          * Construct a segment with the specified entry size.
          * 
          * @param entrySize the segment entry size
          */
-        @SuppressWarnings("unchecked")
         public Segment(int entrySize) {
+            this(entrySize, 0);
+        }
+        
+        /**
+         * Construct a segment with the specified entry size and admission window size.
+         * 
+         * @param entrySize the segment entry size
+         * @param windowSize the max number of items in the admission window, 0 to disable admission
+         */
+        public Segment(int entrySize, int windowSize) {
+            this(entrySize, windowSize, null);
+        }
+        
+        /**
+         * Construct a segment with the specified entry size, admission window size and weight counter.
+         * 
+         * @param entrySize the segment entry size
+         * @param windowSize the max number of items in the admission window, 0 to disable admission
+         * @param totalWeight the total weight counter shared by all the segments of the cache,
+         *        {@code null} if the cache has no weigher
+         */
+        @SuppressWarnings("unchecked")
+        public Segment(int entrySize, int windowSize, AtomicLong totalWeight) {
             if ((entrySize & (entrySize - 1)) != 0) {
                 throw new IllegalArgumentException("Invlid entry size.");
             }
             
             this.itemSize = 0;
             this.entryMask = entrySize - 1;
+            this.totalWeight = totalWeight;
             table = new ItemEntry[entrySize];
             
             for (int i = 0; i < entrySize; ++i) {
@@ -158,6 +271,14 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             
             this.LFUHead = new ItemEntry<K, V>();
             this.LFUHead.linkPrev = this.LFUHead.linkNext = this.LFUHead;
+            
+            this.windowSize = windowSize;
+            if (windowSize > 0) {
+                this.windowHead = new ItemEntry<K, V>();
+                this.windowHead.linkPrev = this.windowHead.linkNext = this.windowHead;
+            } else {
+                this.windowHead = null;
+            }
         }
 
         /**
@@ -194,8 +315,9 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
          * @param hash the key hash
          * @param key the key
          * @param value the value
+         * @return the new item
          */
-        protected final void addNewItemUnderLock(int hash, K key, V value) {
+        protected final ItemEntry<K,V> addNewItemUnderLock(int hash, K key, V value) {
             ItemEntry<K, V> head = entryFor(hash);
             ItemEntry<K,V> e = new ItemEntry<K,V>(key, value, hash);
             
@@ -205,10 +327,17 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             head.mapNext.mapPrev = e;
             head.mapNext = e;
             
-            // Link LFU.
-            addItemIntoLinkAfterThisUnderLock(e, LFUHead);
+            // Link LFU, or the admission window if enabled.
+            if (windowHead == null) {
+                addItemIntoLinkAfterThisUnderLock(e, LFUHead);
+            } else {
+                e.inWindow = true;
+                addItemIntoLinkAfterThisUnderLock(e, windowHead);
+                ++windowCount;
+            }
             
             ++itemSize;
+            return e;
         }
         
         /**
@@ -234,6 +363,44 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             e.mapNext.mapPrev = e.mapPrev;
             
             --itemSize;
+            if (e.weight != 0) {
+                totalWeight.addAndGet(-e.weight);
+            }
+            if (wheel != null) {
+                wheel.deschedule(e);
+            }
+        }
+        
+        /**
+         * Remove the specified victim from this map, and record the eviction with its weight.
+         * 
+         * @param e the victim
+         * @param st the statistics recorder, {@code null} if disabled
+         */
+        protected final void evictItemUnderLock(ItemEntry<K,V> e, CacheStats st) {
+            removeItemFromMapUnderLock(e);
+            if (st != null) {
+                st.recordEviction(totalWeight == null ? 1 : e.weight);
+            }
+        }
+        
+        /**
+         * Schedule the specified item in the timer wheel again by its current expire policy.
+         * 
+         * @param e the item
+         * @param now the current time
+         */
+        protected final void rescheduleItemUnderLock(ItemEntry<K,V> e, long now) {
+            if (wheel == null) {
+                if (!e.canExpire()) {
+                    return;
+                }
+                wheel = new TimerWheel<ItemEntry<K, V>>(now);
+            }
+            wheel.reschedule(e);
+            if (nextCleanUp == Long.MAX_VALUE && wheel.size() != 0) {
+                nextCleanUp = wheel.getCurrentTime() + TimerWheel.TICK;
+            }
         }
         
         /**
@@ -246,6 +413,75 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             e.linkNext.linkPrev = e.linkPrev;
         }
         
+        /**
+         * Record the read of the specified item. If the read buffer is enabled, the read is offered
+         * into the buffer and replayed later; otherwise, the visits of the item is updated directly.
+         * 
+         * @param e the item being read
+         * @param sketch the frequency sketch, {@code null} if admission is disabled
+         */
+        protected void recordRead(ItemEntry<K,V> e, FrequencySketch sketch) {
+            ReadBuffer<ItemEntry<K, V>> buf = readBuffer;
+            if (buf == null) {
+                if (sketch != null) {
+                    sketch.increment(e.hash);
+                }
+                ++e.visits;
+            } else if (!buf.offer(e) && w.tryLock()) {
+                // The buffer is full, we try to replay it, but never wait for the lock.
+                try {
+                    drainUnderLock(sketch);
+                    if (sketch != null) {
+                        sketch.increment(e.hash);
+                    }
+                    ++e.visits;
+                } finally {
+                    w.unlock();
+                }
+            }
+        }
+        
+        /**
+         * Replay all the reads recorded in the read buffer into the LFU visits and the frequency sketch.
+         * 
+         * @param sketch the frequency sketch, {@code null} if admission is disabled
+         */
+        protected final void drainUnderLock(FrequencySketch sketch) {
+            ReadBuffer<ItemEntry<K, V>> buf = readBuffer;
+            if (buf == null) {
+                return;
+            }
+            int cnt = buf.drainTo(drainBatch);
+            for (int i = 0; i < cnt; ++i) {
+                ItemEntry<K,V> e = drainBatch[i];
+                drainBatch[i] = null;
+                if (sketch != null) {
+                    sketch.increment(e.hash);
+                }
+                // The item may be removed already, it does not matter.
+                ++e.visits;
+            }
+        }
+        
+        /**
+         * Enable or disable the read buffer of this segment. The reads recorded in the old buffer
+         * are replayed before it's replaced.
+         * 
+         * @param buf the new read buffer, {@code null} to disable it
+         * @param sketch the frequency sketch, {@code null} if admission is disabled
+         */
+        @SuppressWarnings("unchecked")
+        protected void setReadBuffer(ReadBuffer<ItemEntry<K, V>> buf, FrequencySketch sketch) {
+            w.lock();
+            try {
+                drainUnderLock(sketch);
+                drainBatch = buf == null ? null : new ItemEntry[buf.capacity()];
+                readBuffer = buf;
+            } finally {
+                w.unlock();
+            }
+        }
+        
         /**
          * Put the value with the specified key into this map.
          * 
@@ -255,24 +491,130 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
          * @return the old value if item exists, {@code null} if not found
          */
         protected V put(int hash, K key, V value) {
+            return put(hash, key, value, 0, 0, 0, 0);
+        }
+        
+        /**
+         * Put the value with the specified key and expire policy into this map.
+         * 
+         * @param hash the key hash
+         * @param key the key
+         * @param value the value
+         * @param now the current time, only used when the item can expire
+         * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+         * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+         * @param weight the item weight, 0 if the cache has no weigher
+         * @return the old value if item exists, {@link SegmentLFUCache#EXPIRED} if the item is expired,
+         *        {@code null} if not found
+         */
+        protected V put(int hash, K key, V value, long now, long expireAfterWrite, long expireAfterAccess,
+                int weight) {
             w.lock();
             try {
-                ItemEntry<K,V> e = findItem(hash, key);
-                if (e == null) {
-                    // Add new item.
-                    addNewItemUnderLock(hash, key, value);
-                    return null;
+                return putUnderLock(hash, key, value, now, expireAfterWrite, expireAfterAccess, weight);
+            } finally {
+                w.unlock();
+            }
+        }
+        
+        /**
+         * The lock held version of {@link #put(int, Object, Object, long, long, long, int)}.
+         * 
+         * @param hash the key hash
+         * @param key the key
+         * @param value the value
+         * @param now the current time, only used when the item can expire
+         * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+         * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+         * @param weight the item weight, 0 if the cache has no weigher
+         * @return the old value if item exists, {@link SegmentLFUCache#EXPIRED} if the item is expired,
+         *        {@code null} if not found
+         */
+        protected final V putUnderLock(int hash, K key, V value, long now, long expireAfterWrite,
+                long expireAfterAccess, int weight) {
+            boolean expiring = expireAfterWrite > 0 || expireAfterAccess > 0;
+            ItemEntry<K,V> e = findItem(hash, key);
+            if (e == null) {
+                // Add new item.
+                e = addNewItemUnderLock(hash, key, value);
+                if (weight != 0) {
+                    e.weight = weight;
+                    totalWeight.addAndGet(weight);
+                }
+                if (expiring) {
+                    e.accessAt = now;
+                    e.setExpiry(now, expireAfterWrite, expireAfterAccess);
+                    rescheduleItemUnderLock(e, now);
+                }
+                return null;
+            }
+            
+            // Modify existing item.
+            @SuppressWarnings("unchecked")
+            V old_value = e.canExpire() && e.isExpired(now) ? (V) EXPIRED : e.value;
+            ++e.visits;
+            e.value = value;
+            if (weight != e.weight) {
+                totalWeight.addAndGet(weight - e.weight);
+                e.weight = weight;
+            }
+            if (expiring || e.canExpire()) {
+                e.accessAt = now;
+                e.setExpiry(now, expireAfterWrite, expireAfterAccess);
+                rescheduleItemUnderLock(e, now);
+            }
+            
+            return old_value;
+        }
+        
+        /**
+         * Put a batch of items into this map under one lock. The items are specified by the
+         * indexes in {@code order[from, to)}. If the admission is enabled, we also do admission
+         * for every new item.
+         * 
+         * @param hashes the key hashes
+         * @param keys the keys
+         * @param values the values
+         * @param order the indexes of items, sorted by segment
+         * @param from the start position in order, inclusive
+         * @param to the end position in order, exclusive
+         * @param now the current time, only used when the item can expire
+         * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+         * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+         * @param weights the item weights, {@code null} if the cache has no weigher
+         * @param sketch the frequency sketch used to do admission, {@code null} if admission is disabled
+         * @param room the number of new items the cache can hold before this batch
+         * @param st the statistics recorder, {@code null} if disabled
+         * @param counts the counters, we add the number of new items into counts[0], and the number of
+         *        evicted items into counts[1]
+         */
+        protected void putAll(int[] hashes, Object[] keys, Object[] values, int[] order, int from, int to,
+                long now, long expireAfterWrite, long expireAfterAccess, int[] weights, FrequencySketch sketch,
+                int room, CacheStats st, int[] counts) {
+            int added = 0, evicted = 0;
+            w.lock();
+            try {
+                if (now >= nextCleanUp) {
+                    evicted += expireUnderLock(now, st);
+                }
+                drainUnderLock(sketch);
+                for (int i = from; i < to; ++i) {
+                    int idx = order[i];
+                    @SuppressWarnings("unchecked")
+                    V v = putUnderLock(hashes[idx], (K) keys[idx], (V) values[idx], now, expireAfterWrite,
+                            expireAfterAccess, weights == null ? 0 : weights[idx]);
+                    if (v == null) {
+                        ++added;
+                        if (windowHead != null) {
+                            evicted += admissionUnderLock(sketch, added - evicted > room, st);
+                        }
+                    }
                 }
-                
-                // Modify existing item.
-                V old_value = e.value;
-                ++e.visits;
-                e.value = value;
-                
-                return old_value;
             } finally {
                 w.unlock();
             }
+            counts[0] += added;
+            counts[1] += evicted;
         }
         
         /**
@@ -280,8 +622,10 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
          * 
          * @param hash the key hash
          * @param key the key
-         * @return the value if item exists, {@code null} if not found
+         * @return the value if item exists, {@link SegmentLFUCache#EXPIRED} if the item is expired,
+         *        {@code null} if not found
          */
+        @SuppressWarnings("unchecked")
         protected V remove(int hash, K key) {
             w.lock();
             try {
@@ -293,7 +637,10 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
                 // Item found, remove it.
                 removeItemFromMapUnderLock(e);
                 removeItemFromLinkUnderLock(e);
-                return e.value;
+                if (e.inWindow) {
+                    --windowCount;
+                }
+                return e.canExpire() && e.isExpired(System.currentTimeMillis()) ? (V) EXPIRED : e.value;
             } finally {
                 w.unlock();
             }
@@ -306,6 +653,63 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
             return itemSize;
         }
         
+        /**
+         * @return the next time we need to clean up this segment, {@code Long.MAX_VALUE} if no item can expire
+         */
+        protected long nextCleanUp() {
+            return nextCleanUp;
+        }
+        
+        /**
+         * Advance the timer wheel and remove all the expired items from this segment.
+         * 
+         * @param now the current time
+         * @param st the statistics recorder, {@code null} if disabled
+         * @return the number of items removed
+         */
+        protected int expire(long now, CacheStats st) {
+            w.lock();
+            try {
+                return expireUnderLock(now, st);
+            } finally {
+                w.unlock();
+            }
+        }
+        
+        /**
+         * Advance the timer wheel and remove all the expired items from this segment.
+         * 
+         * @param now the current time
+         * @param st the statistics recorder, {@code null} if disabled
+         * @return the number of items removed
+         */
+        protected final int expireUnderLock(long now, CacheStats st) {
+            if (wheel == null) {
+                return 0;
+            }
+            wheel.advance(now);
+            // The wheel may be advanced to a later time by another thread. An item not expired at
+            // the stale time would be linked into the expired list again and polled for ever.
+            now = Math.max(now, wheel.getCurrentTime());
+            int cnt = 0;
+            ItemEntry<K,V> e;
+            while ((e = wheel.pollExpired()) != null) {
+                if (!e.isExpired(now)) {
+                    // Visited recently.
+                    wheel.schedule(e);
+                    continue;
+                }
+                evictItemUnderLock(e, st);
+                removeItemFromLinkUnderLock(e);
+                if (e.inWindow) {
+                    --windowCount;
+                }
+                ++cnt;
+            }
+            nextCleanUp = wheel.size() == 0 ? Long.MAX_VALUE : now + TimerWheel.TICK;
+            return cnt;
+        }
+        
         /**
          * Find a victim by LFU and remove it from this map.
          * Every call to this method will traverse at most 1/3 items in this segment.
@@ -313,58 +717,144 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
          * @return the number of victim evicted by this operation
          */
         protected int eviction() {
+            return eviction(null, null);
+        }
+        
+        /**
+         * Replay the read buffer, and then find a victim by LFU and remove it from this map.
+         * Every call to this method will traverse at most 1/3 items in this segment.
+         * 
+         * @param sketch the frequency sketch used to replay reads, {@code null} if admission is disabled
+         * @param st the statistics recorder, {@code null} if disabled
+         * @return the number of victim evicted by this operation
+         */
+        protected int eviction(FrequencySketch sketch, CacheStats st) {
             w.lock();
             try {
-                ItemEntry<K,V> tail = LFUHead.linkPrev;
-                int batchSize = itemSize / 3 + 3;
-                int visits = 0;
+                drainUnderLock(sketch);
+                ItemEntry<K,V> victim = findVictimUnderLock();
+                if (victim != null) {
+                    // Victim found, remove it from map.
+                    evictItemUnderLock(victim, st);
+                    return 1;
+                }
+            } finally {
+                w.unlock();
+            }
+            return 0;
+        }
+        
+        /**
+         * Find a victim by LFU and remove it from the LFU linked list, but not from the map.
+         * Every call to this method will traverse at most 1/3 items in this segment.
+         * 
+         * @return the victim found, or {@code null} if no victim found by this operation
+         */
+        protected final ItemEntry<K,V> findVictimUnderLock() {
+            ItemEntry<K,V> tail = LFUHead.linkPrev;
+            int batchSize = itemSize / 3 + 3;
+            int visits = 0;
+            
+            while (tail != LFUHead) {
+                if (++visits > batchSize) {
+                    // Visit too much, we stop and put head here, so the visited item will not be visited again in the next eviction.
+                    
+                    // Remove head.
+                    removeItemFromLinkUnderLock(LFUHead);
+                    // Re-add head.
+                    addItemIntoLinkAfterThisUnderLock(LFUHead, tail);
+                    
+                    return null;
+                }
                 
-                while (tail != LFUHead) {
-                    if (++visits > batchSize) {
-                        // Visit too much, we stop and put head here, so the visited item will not be visited again in the next eviction.
-                        
+                // Check entry visit count.
+                if (--tail.visits <= 0) {
+                    // Victim found, we need to remove it from LFU linked list.
+                    if (tail.linkNext == LFUHead) {
+                        // In this case, we just found it the first time, do not need to re-assign head.
+                        removeItemFromLinkUnderLock(tail);
+                    } else {
+                        // In this case, we remove head, and then put head to replace tail in place.
                         // Remove head.
                         removeItemFromLinkUnderLock(LFUHead);
-                        // Re-add head.
-                        addItemIntoLinkAfterThisUnderLock(LFUHead, tail);
-                        
-                        return 0;
-                    }
-                    
-                    // Check entry visit count.
-                    if (--tail.visits <= 0) {
-                        // Victim found, remove it.
-                        removeItemFromMapUnderLock(tail);
                         
-                        // After remove from map, we need to remove it from LFU linked list.
-                        if (tail.linkNext == LFUHead) {
-                            // In this case, we just found it the first time, do not need to re-assign head.
-                            removeItemFromLinkUnderLock(tail);
-                        } else {
-                            // In this case, we remove head, and then put head to replace tail in place.
-                            // Remove head.
-                            removeItemFromLinkUnderLock(LFUHead);
-                            
-                            // We use LFUHead to replace tail.
-                            LFUHead.linkPrev = tail.linkPrev;
-                            LFUHead.linkNext = tail.linkNext;
-                            // We remove item from linked list manually. 
-                            tail.linkPrev.linkNext = LFUHead;
-                            tail.linkNext.linkPrev = LFUHead;
-                        }
-                        return 1;
+                        // We use LFUHead to replace tail.
+                        LFUHead.linkPrev = tail.linkPrev;
+                        LFUHead.linkNext = tail.linkNext;
+                        // We remove item from linked list manually. 
+                        tail.linkPrev.linkNext = LFUHead;
+                        tail.linkNext.linkPrev = LFUHead;
                     }
-                    
-                    tail = tail.linkPrev;
+                    return tail;
                 }
+                
+                tail = tail.linkPrev;
+            }
+            return null;
+        }
+        
+        /**
+         * Move the eldest item in the admission window into the LFU linked list if the window is full.
+         * If the cache is full, the window victim need to compete with the LFU victim, the one visited
+         * more frequently survives, and the other one is removed from this segment.
+         * 
+         * @param sketch the frequency sketch used to compare items
+         * @param full whether the cache capacity is exceeded
+         * @param st the statistics recorder, {@code null} if disabled
+         * @return the number of victim evicted by this operation
+         */
+        protected int admission(FrequencySketch sketch, boolean full, CacheStats st) {
+            w.lock();
+            try {
+                drainUnderLock(sketch);
+                return admissionUnderLock(sketch, full, st);
             } finally {
                 w.unlock();
             }
+        }
+        
+        /**
+         * The lock held version of {@link #admission(FrequencySketch, boolean, CacheStats)}.
+         * 
+         * @param sketch the frequency sketch used to compare items
+         * @param full whether the cache capacity is exceeded
+         * @param st the statistics recorder, {@code null} if disabled
+         * @return the number of victim evicted by this operation
+         */
+        protected final int admissionUnderLock(FrequencySketch sketch, boolean full, CacheStats st) {
+            if (windowCount <= windowSize) {
+                return 0;
+            }
+            ItemEntry<K,V> candidate = windowHead.linkPrev;
+            removeItemFromLinkUnderLock(candidate);
+            candidate.inWindow = false;
+            --windowCount;
+            
+            ItemEntry<K,V> victim = full ? findVictimUnderLock() : null;
+            if (victim != null && sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                // The victim wins, put it back and remove the candidate.
+                addItemIntoLinkAfterThisUnderLock(victim, LFUHead);
+                evictItemUnderLock(candidate, st);
+                return 1;
+            }
+            
+            // The candidate is admitted.
+            addItemIntoLinkAfterThisUnderLock(candidate, LFUHead);
+            if (victim != null) {
+                evictItemUnderLock(victim, st);
+                return 1;
+            }
             return 0;
         }
         
     }
     
+    /**
+     * The marker returned by the segments when the item found is already expired but not reclaimed
+     * yet. The item is replaced or removed as usual, but the expired value is never returned to users.
+     */
+    protected static final Object EXPIRED = new Object();
+    
     /**
      * The maximum number of segments to allow; used to bound
      * constructor arguments.
@@ -386,16 +876,56 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
      */
     private final AtomicInteger nextVictimSegment = new AtomicInteger();
     
+    /**
+     * Use this long to store the total weight of this cache, only used when the cache has a weigher.
+     */
+    private final AtomicLong totalWeight = new AtomicLong();
+    
     /**
      * The max KV records size.
      */
     private final int maxSize;
+    
+    /**
+     * The max total weight of all the items.
+     */
+    private final long maxWeight;
+    
+    /**
+     * The weigher used to calculate item weight, {@code null} if this cache is not bounded by weight.
+     */
+    private final Weigher<K, V> weigher;
+    
+    /**
+     * The frequency sketch used to decide admission, {@code null} if admission is disabled.
+     */
+    private final FrequencySketch sketch;
 
     /**
      * The segment table used to store all the segments.
      */
     private final Segment<K, V>[] segmentTable;
     
+    /**
+     * The statistics recorder, {@code null} if statistics is disabled.
+     */
+    private volatile CacheStats stats;
+    
+    /**
+     * The default time to live after write in milliseconds, 0 for never.
+     */
+    private volatile long expireAfterWrite;
+    
+    /**
+     * The default time to live after access in milliseconds, 0 for never.
+     */
+    private volatile long expireAfterAccess;
+    
+    /**
+     * Whether the read buffer mode is enabled.
+     */
+    private volatile boolean readBuffer;
+    
     /**
      * Mask value for indexing into segments. The upper bits of a
      * key's hash code are used to choose the segment.
@@ -446,8 +976,44 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
      *  We may not use you parameter if it's too small or too big.
      * @throws IllegalArgumentException if the {@literal maxSize} is too small
      */
-    @SuppressWarnings("unchecked")
     public SegmentLFUCache(int maxSize, int concurrencyLevel) {
+        this(maxSize, concurrencyLevel, false);
+    }
+
+    /**
+     * Creates a new, empty SegmentLFUCache. The {@literal maxSize} must greater than 2048.
+     * 
+     * @param maxSize the max number of cache items to store
+     * @param concurrencyLevel the estimated number of concurrently updating threads.
+     *  The implementation performs internal sizing to try to accommodate this many threads.
+     *  We may not use you parameter if it's too small or too big.
+     * @param admission whether to enable the W-TinyLFU admission policy
+     * @throws IllegalArgumentException if the {@literal maxSize} is too small
+     */
+    public SegmentLFUCache(int maxSize, int concurrencyLevel, boolean admission) {
+        this(maxSize, concurrencyLevel, admission, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Creates a new, empty SegmentLFUCache bounded by both the number of items and the total weight
+     * of items. The {@literal maxSize} must greater than 2048.
+     * 
+     * @param maxSize the max number of cache items to store, also used to size the hash tables
+     * @param concurrencyLevel the estimated number of concurrently updating threads.
+     *  The implementation performs internal sizing to try to accommodate this many threads.
+     *  We may not use you parameter if it's too small or too big.
+     * @param admission whether to enable the W-TinyLFU admission policy
+     * @param maxWeight the max total weight of all the cache items
+     * @param weigher the weigher used to calculate item weight, {@code null} to disable weight
+     * @throws IllegalArgumentException if the {@literal maxSize} is too small or {@literal maxWeight}
+     *  is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentLFUCache(int maxSize, int concurrencyLevel, boolean admission, long maxWeight,
+            Weigher<K, V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("The parameter 'maxWeight' must be positive.");
+        }
         if (concurrencyLevel > MAX_SEGMENTS)
             concurrencyLevel = MAX_SEGMENTS;
         else if (concurrencyLevel < 16) {
@@ -474,10 +1040,16 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         this.segmentShift = 32 - sshift;
         this.segmentMask = ssize - 1;
         this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
         this.segmentTable = new Segment[ssize];
         
+        // The window takes 1% of the segment capacity.
+        int wsize = admission ? maxSize / ssize / 100 + 1 : 0;
+        this.sketch = admission ? new FrequencySketch(maxSize) : null;
+        
         for (int i = 0; i < ssize; ++i) {
-            this.segmentTable[i] = new Segment<K, V>(esize);
+            this.segmentTable[i] = new Segment<K, V>(esize, wsize, weigher == null ? null : totalWeight);
         }
     }
 
@@ -490,6 +1062,91 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         return size.get();
     }
 
+    /**
+     * @return the total weight of all the items, or the number of items if there is no weigher
+     */
+    public long getTotalWeight() {
+        return weigher == null ? size.get() : totalWeight.get();
+    }
+
+    /**
+     * @return the max total weight of all the items
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Set the statistics recorder of this cache, {@code null} to disable statistics.
+     * 
+     * @param stats the statistics recorder
+     */
+    public void setStats(CacheStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return the statistics recorder of this cache, {@code null} if statistics is disabled
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return the default time to live after write in milliseconds, 0 for never
+     */
+    public long getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    /**
+     * Set the default time to live after write, applied to the items put after this call.
+     * 
+     * @param expireAfterWrite the time in milliseconds, 0 or negative for never
+     */
+    public void setExpireAfterWrite(long expireAfterWrite) {
+        this.expireAfterWrite = expireAfterWrite > 0 ? expireAfterWrite : 0;
+    }
+
+    /**
+     * @return the default time to live after access in milliseconds, 0 for never
+     */
+    public long getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    /**
+     * Set the default time to live after the last access, applied to the items put after this call.
+     * 
+     * @param expireAfterAccess the time in milliseconds, 0 or negative for never
+     */
+    public void setExpireAfterAccess(long expireAfterAccess) {
+        this.expireAfterAccess = expireAfterAccess > 0 ? expireAfterAccess : 0;
+    }
+
+    /**
+     * @return true if the read buffer mode is enabled
+     */
+    public boolean isReadBuffer() {
+        return readBuffer;
+    }
+
+    /**
+     * Enable or disable the read buffer mode. In this mode, the cache hits are recorded into the
+     * striped lossy ring buffers and replayed in batch, some hits may be lost under heavy load.
+     * 
+     * @param readBuffer true to enable the read buffer mode
+     */
+    public synchronized void setReadBuffer(boolean readBuffer) {
+        if (this.readBuffer == readBuffer) {
+            return;
+        }
+        for (Segment<K, V> seg : segmentTable) {
+            seg.setReadBuffer(readBuffer ? new ReadBuffer<ItemEntry<K, V>>() : null, sketch);
+        }
+        this.readBuffer = readBuffer;
+    }
+
     /**
      * This is the override of super method.
      * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
@@ -501,20 +1158,39 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         }
         
         int hash = hash(key.hashCode());
-        ItemEntry<K,V> e = segmentFor(hash).findItem(hash, key);
-        if (e != null) {
-            ++e.visits;
-            return e.value;
+        V v = getValue(segmentFor(hash), hash, key);
+        CacheStats s = stats;
+        if (s != null) {
+            if (v != null) {
+                s.recordHits(1);
+            } else {
+                s.recordMisses(1);
+            }
         }
-        return null;
+        return v;
     }
 
     /**
+     * Put the item with the default expire policy of this cache.
+     * 
      * This is the override of super method.
      * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
      */
     @Override
     public V put(K key, V value) {
+        return put(key, value, expireAfterWrite, expireAfterAccess);
+    }
+
+    /**
+     * Put the item with the specified expire policy. The expire policy of the existing item is replaced.
+     * 
+     * @param key the item key
+     * @param value the item value
+     * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+     * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+     * @return the old value if item exists, {@code null} if not found
+     */
+    public V put(K key, V value, long expireAfterWrite, long expireAfterAccess) {
         if (key == null) {
             throw new NullPointerException("The parameter 'key' should not be null.");
         }
@@ -523,20 +1199,277 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         }
         
         int hash = hash(key.hashCode());
-        V v = segmentFor(hash).put(hash, key, value);
-        if (v == null && size.incrementAndGet() > maxSize) {
+        Segment<K,V> seg = segmentFor(hash);
+        if (sketch != null) {
+            sketch.increment(hash);
+        }
+        CacheStats st = stats;
+        if (st != null) {
+            st.recordPuts(1);
+        }
+        long now = 0;
+        if (expireAfterWrite > 0 || expireAfterAccess > 0 || seg.nextCleanUp() != Long.MAX_VALUE) {
+            now = System.currentTimeMillis();
+            if (now >= seg.nextCleanUp()) {
+                int delta = seg.expire(now, st);
+                if (delta != 0) {
+                    size.addAndGet(-delta);
+                }
+            }
+        }
+        V v = seg.put(hash, key, value, now, expireAfterWrite, expireAfterAccess, weigh(key, value));
+        if (v != null) {
+            // The value is replaced, the weight may grow.
+            evictByWeight(st);
+            return v == EXPIRED ? null : v;
+        }
+        
+        int cur = size.incrementAndGet();
+        if (sketch != null) {
+            int delta = seg.admission(sketch, cur > maxSize || overWeight(), st);
+            if (delta != 0) {
+                size.addAndGet(-delta);
+                evictByWeight(st);
+                return v;
+            }
+        }
+        
+        if (cur > maxSize) {
             // A new item added. Check max size failed. So we need to find a victim.
+            evict(st, 1);
+        }
+        evictByWeight(st);
+        return v;
+    }
+    
+    /**
+     * @return true if the total weight exceeds the limit
+     */
+    private boolean overWeight() {
+        return weigher != null && totalWeight.get() > maxWeight;
+    }
+    
+    /**
+     * Calculate the weight of the item.
+     * 
+     * @param key the item key
+     * @param value the item value
+     * @return the weight, 0 if there is no weigher
+     */
+    private int weigh(K key, V value) {
+        if (weigher == null) {
+            return 0;
+        }
+        int w = weigher.weigh(key, value);
+        if (w < 0) {
+            throw new IllegalArgumentException("The weight must not be negative.");
+        }
+        return w;
+    }
+    
+    /**
+     * Find victims in the segments round-robin and evict them until the total weight is under the limit.
+     * We stop if we can not find any victim after walking through all the segments for several rounds,
+     * which happens when all the items are in the admission windows.
+     * 
+     * @param st the statistics recorder
+     */
+    private void evictByWeight(CacheStats st) {
+        int fails = 0;
+        while (overWeight() && fails < segmentTable.length * 3) {
+            int idx = nextVictimSegment.getAndIncrement();
+            int delta = segmentTable[idx & segmentMask].eviction(sketch, st);
+            if (delta == 0) {
+                ++fails;
+                continue;
+            }
+            fails = 0;
+            size.addAndGet(-delta);
+        }
+    }
+    
+    /**
+     * Find victims in the segments round-robin and evict them.
+     * 
+     * @param st the statistics recorder
+     * @param cnt the number of victims to evict
+     */
+    private void evict(CacheStats st, int cnt) {
+        while (cnt > 0) {
             int delta = 0;
             do {
                 int idx = nextVictimSegment.getAndIncrement();
                 Segment<K,V> s = segmentTable[idx & segmentMask];
-                delta =s.eviction();
+                delta = s.eviction(sketch, st);
             } while (delta == 0);
             size.addAndGet(-delta);
+            cnt -= delta;
         }
-        return v;
     }
-
+    
+    /**
+     * Get the values of all the specified keys. The keys are grouped by segment, so the
+     * items in the same segment are visited together.
+     * 
+     * @param keys the keys
+     * @return the map from key to value, the keys not found are absent from this map
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        Object[] ks = keys.toArray();
+        int[] hashes = new int[ks.length];
+        int[] order = groupBySegment(ks, hashes);
+        Map<K, V> result = new HashMap<K, V>(ks.length * 4 / 3 + 1);
+        int hits = 0;
+        for (int i = 0; i < order.length; ++i) {
+            int idx = order[i];
+            @SuppressWarnings("unchecked")
+            K key = (K) ks[idx];
+            V v = getValue(segmentFor(hashes[idx]), hashes[idx], key);
+            if (v != null) {
+                result.put(key, v);
+                ++hits;
+            }
+        }
+        
+        CacheStats s = stats;
+        if (s != null) {
+            s.recordHits(hits);
+            s.recordMisses(ks.length - hits);
+        }
+        return result;
+    }
+    
+    /**
+     * Put all the items in the map into this cache with the default expire policy. The keys are grouped
+     * by segment, and we lock every segment only once for the whole batch.
+     * 
+     * @param map the items to be put
+     */
+    public void putAll(Map<? extends K, ? extends V> map) {
+        int n = map.size();
+        Object[] ks = new Object[n];
+        Object[] vs = new Object[n];
+        int i = 0;
+        for (Map.Entry<? extends K, ? extends V> en : map.entrySet()) {
+            if (en.getValue() == null) {
+                throw new NullPointerException("The parameter 'value' should not be null.");
+            }
+            ks[i] = en.getKey();
+            vs[i++] = en.getValue();
+        }
+        int[] hashes = new int[n];
+        int[] order = groupBySegment(ks, hashes);
+        int[] weights = null;
+        if (weigher != null) {
+            weights = new int[n];
+            for (i = 0; i < n; ++i) {
+                @SuppressWarnings("unchecked")
+                int wt = weigh((K) ks[i], (V) vs[i]);
+                weights[i] = wt;
+            }
+        }
+        
+        long w = expireAfterWrite, a = expireAfterAccess;
+        long now = System.currentTimeMillis();
+        CacheStats st = stats;
+        int[] counts = new int[2];
+        for (int from = 0, to; from < n; from = to) {
+            Segment<K,V> seg = segmentFor(hashes[order[from]]);
+            to = from + 1;
+            while (to < n && segmentFor(hashes[order[to]]) == seg) {
+                ++to;
+            }
+            if (sketch != null) {
+                for (int j = from; j < to; ++j) {
+                    sketch.increment(hashes[order[j]]);
+                }
+            }
+            seg.putAll(hashes, ks, vs, order, from, to, now, w, a, weights, sketch, maxSize - size.get(), st,
+                    counts);
+            size.addAndGet(counts[0] - counts[1]);
+            counts[0] = counts[1] = 0;
+        }
+        
+        if (st != null) {
+            st.recordPuts(n);
+        }
+        int cur = size.get();
+        if (cur > maxSize) {
+            evict(st, cur - maxSize);
+        }
+        evictByWeight(st);
+    }
+    
+    /**
+     * Calculate the hash of all the keys, and sort the key indexes by segment.
+     * 
+     * @param keys the keys
+     * @param hashes the array used to store the key hashes
+     * @return the key indexes sorted by segment
+     */
+    private int[] groupBySegment(Object[] keys, int[] hashes) {
+        long[] packed = new long[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            if (keys[i] == null) {
+                throw new NullPointerException("The parameter 'key' should not be null.");
+            }
+            hashes[i] = hash(keys[i].hashCode());
+            packed[i] = ((long) ((hashes[i] >>> segmentShift) & segmentMask) << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+    
+    /**
+     * Find the value of the specified key in the segment, and account the visit.
+     * 
+     * @param seg the segment
+     * @param hash the key hash
+     * @param key the key
+     * @return the value, or {@code null} if not found or expired
+     */
+    private V getValue(Segment<K,V> seg, int hash, K key) {
+        ItemEntry<K,V> e = seg.findItem(hash, key);
+        if (e != null && e.canExpire()) {
+            long now = System.currentTimeMillis();
+            if (e.isExpired(now)) {
+                e = null;
+            } else if (e.idleTime != 0 && e.accessAt != now) {
+                e.accessAt = now;
+            }
+        }
+        if (e == null) {
+            if (sketch != null) {
+                sketch.increment(hash);
+            }
+            return null;
+        }
+        seg.recordRead(e, sketch);
+        return e.value;
+    }
+    
+    /**
+     * Reclaim the expired items in all the segments now. Expired items are reclaimed in
+     * {@link #put(Object, Object)} automatically, user can call this method if this cache
+     * is rarely updated.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        CacheStats st = stats;
+        for (Segment<K, V> seg : segmentTable) {
+            if (seg.nextCleanUp() != Long.MAX_VALUE) {
+                int delta = seg.expire(now, st);
+                if (delta != 0) {
+                    size.addAndGet(-delta);
+                }
+            }
+        }
+    }
+    
     /**
      * This is the override of super method.
      * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
@@ -552,7 +1485,7 @@ public class SegmentLFUCache<K, V> implements Cache<K, V> {
         if (v != null) {
             size.decrementAndGet();
         }
-        return v;
+        return v == EXPIRED ? null : v;
     }
     
 }
@@ -0,0 +1,353 @@
+/**
+ * TimerWheel.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * The hierarchical timing wheel used to reclaim the expired cache items.
+ * <br>
+ * The wheel has 5 levels, the bucket width of them are 64ms, 4.1s, 4.4m, 4.7h and 12.4d.
+ * Every item is linked into the bucket of the lowest level which can hold its deadline, so
+ * schedule and deschedule are both O(1). When the time advances, the passed buckets are
+ * drained, the expired items are moved into the expired list and the others are rescheduled
+ * into the lower levels. So every item is visited at most once per level.
+ * <br>
+ * The item nodes are linked into the wheel by the fields inside {@link Node}, we never allocate
+ * anything after the wheel is created.
+ * <br><b>
+ * This class is not thread safe, the caller must guard all the operations by a lock.
+ * </b>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <N> the node type
+ */
+public class TimerWheel<N extends TimerWheel.Node> {
+
+    /**
+     * The base class of all the items managed by timer wheel. It records the expire policy of
+     * the item, and the links used by the wheel.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static abstract class Node {
+
+        /**
+         * The absolute time this item expires after write, {@code Long.MAX_VALUE} for never.
+         */
+        long expireAt = Long.MAX_VALUE;
+
+        /**
+         * The idle time this item expires after the last access, 0 for never.
+         */
+        long idleTime;
+
+        /**
+         * The timer wheel linked list.
+         */
+        Node wheelPrev;
+        Node wheelNext;
+
+        /**
+         * @return the last access time of this item
+         */
+        protected abstract long lastAccessTime();
+
+        /**
+         * Set the expire policy of this item.
+         *
+         * @param now the current time
+         * @param expireAfterWrite the time to live after write in milliseconds, 0 or negative for never
+         * @param expireAfterAccess the time to live after access in milliseconds, 0 or negative for never
+         */
+        final void setExpiry(long now, long expireAfterWrite, long expireAfterAccess) {
+            expireAt = expireAfterWrite > 0 && expireAfterWrite < Long.MAX_VALUE - now ? now + expireAfterWrite
+                    : Long.MAX_VALUE;
+            idleTime = expireAfterAccess > 0 ? expireAfterAccess : 0;
+        }
+
+        /**
+         * @return true if this item may expire in the future
+         */
+        final boolean canExpire() {
+            return expireAt != Long.MAX_VALUE || idleTime != 0;
+        }
+
+        /**
+         * @return the time this item will expire
+         */
+        final long deadline() {
+            if (idleTime == 0) {
+                return expireAt;
+            }
+            return Math.min(expireAt, lastAccessTime() + idleTime);
+        }
+
+        /**
+         * Check whether this item is already expired at the specified time.
+         *
+         * @param now the current time
+         * @return true if expired
+         */
+        final boolean isExpired(long now) {
+            return now >= expireAt || (idleTime != 0 && now - lastAccessTime() >= idleTime);
+        }
+    }
+
+    /**
+     * The stub node used as the linked list head.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    private static class Sentinel extends Node {
+
+        public Sentinel() {
+            this.wheelPrev = this.wheelNext = this;
+        }
+
+        @Override
+        protected long lastAccessTime() {
+            return 0;
+        }
+    }
+
+    /**
+     * The bit shift of the bucket width in every level.
+     */
+    private static final int[] SHIFT = {6, 12, 18, 24, 30};
+
+    /**
+     * The number of buckets in every level. The last level is used as overflow.
+     */
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+
+    /**
+     * The time span of one tick in the lowest level, in milliseconds.
+     */
+    public static final long TICK = 1L << SHIFT[0];
+
+    /**
+     * The buckets of all the levels.
+     */
+    private final Node[][] wheel;
+
+    /**
+     * The expired items which are waiting to be reclaimed.
+     */
+    private final Node expired;
+
+    /**
+     * The time this wheel was advanced to.
+     */
+    private long currentTime;
+
+    /**
+     * The number of items in this wheel, including the expired ones.
+     */
+    private int size;
+
+    /**
+     * Create a timer wheel starts at the specified time.
+     *
+     * @param now the current time in milliseconds
+     */
+    public TimerWheel(long now) {
+        super();
+        this.currentTime = now;
+        this.expired = new Sentinel();
+        this.wheel = new Node[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; ++i) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; ++j) {
+                wheel[i][j] = new Sentinel();
+            }
+        }
+    }
+
+    /**
+     * @return the time this wheel was advanced to
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * @return the number of items in this wheel, including the expired ones
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the specified node is linked into this wheel.
+     *
+     * @param n the node
+     * @return true if it's in this wheel
+     */
+    public boolean isScheduled(N n) {
+        return n.wheelNext != null;
+    }
+
+    /**
+     * Link the node into the bucket by its deadline. The node must not be in this wheel.
+     * It's linked into the expired list if it's already expired.
+     *
+     * @param n the node to be scheduled
+     */
+    public void schedule(N n) {
+        link(n);
+    }
+
+    /**
+     * Remove the node from this wheel, and then schedule it again if it can expire. This is used
+     * when the expire policy of the node is changed.
+     *
+     * @param n the node to be rescheduled
+     */
+    public void reschedule(N n) {
+        deschedule(n);
+        if (n.canExpire()) {
+            link(n);
+        }
+    }
+
+    /**
+     * Remove the node from this wheel if it's still there.
+     *
+     * @param n the node to be removed
+     */
+    public void deschedule(N n) {
+        if (n.wheelNext != null) {
+            unlink(n);
+        }
+    }
+
+    /**
+     * Advance this wheel to the specified time. All the buckets passed are drained, the expired
+     * nodes are moved into the expired list, and the other nodes are rescheduled.
+     *
+     * @param now the current time in milliseconds
+     */
+    public void advance(long now) {
+        long previousTime = currentTime;
+        if (now <= previousTime) {
+            return;
+        }
+        currentTime = now;
+        for (int i = 0; i < SHIFT.length; ++i) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            if (currentTicks == previousTicks) {
+                // The higher levels will not change either.
+                break;
+            }
+            drain(i, previousTicks, currentTicks - previousTicks);
+        }
+    }
+
+    /**
+     * Remove and return the first node in the expired list.
+     *
+     * @return the expired node, or {@code null} if there is no expired node
+     */
+    @SuppressWarnings("unchecked")
+    public N pollExpired() {
+        Node n = expired.wheelNext;
+        if (n == expired) {
+            return null;
+        }
+        unlink(n);
+        return (N) n;
+    }
+
+    /**
+     * Drain the buckets passed in the specified level.
+     *
+     * @param level the level index
+     * @param previousTicks the ticks of this level before advance
+     * @param delta the number of ticks advanced
+     */
+    private void drain(int level, long previousTicks, long delta) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; ++i) {
+            Node head = buckets[i & mask];
+            Node n = head.wheelNext;
+            // Detach the whole bucket, and then link the nodes again one by one.
+            head.wheelPrev = head.wheelNext = head;
+            while (n != head) {
+                Node next = n.wheelNext;
+                --size;
+                link(n);
+                n = next;
+            }
+        }
+    }
+
+    /**
+     * Find the bucket which can hold the specified deadline.
+     *
+     * @param deadline the deadline
+     * @return the bucket head
+     */
+    private Node findBucket(long deadline) {
+        long duration = deadline - currentTime;
+        int last = SHIFT.length - 1;
+        for (int i = 0; i < last; ++i) {
+            if (duration < (1L << SHIFT[i + 1])) {
+                int idx = (int) ((deadline >>> SHIFT[i]) & (BUCKETS[i] - 1));
+                return wheel[i][idx];
+            }
+        }
+        return wheel[last][0];
+    }
+
+    /**
+     * Link the node into the tail of the bucket by its deadline.
+     *
+     * @param n the node
+     */
+    private void link(Node n) {
+        long deadline = n.deadline();
+        Node head = deadline <= currentTime ? expired : findBucket(deadline);
+        n.wheelNext = head;
+        n.wheelPrev = head.wheelPrev;
+        head.wheelPrev.wheelNext = n;
+        head.wheelPrev = n;
+        ++size;
+    }
+
+    /**
+     * Unlink the node from the bucket it's in.
+     *
+     * @param n the node
+     */
+    private void unlink(Node n) {
+        n.wheelPrev.wheelNext = n.wheelNext;
+        n.wheelNext.wheelPrev = n.wheelPrev;
+        n.wheelPrev = n.wheelNext = null;
+        --size;
+    }
+
+}
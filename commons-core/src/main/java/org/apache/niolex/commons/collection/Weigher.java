@@ -0,0 +1,42 @@
+/**
+ * Weigher.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+/**
+ * Calculate the weight of cache items, e.g. the number of bytes used. The cache with a weigher
+ * keeps the total weight of all the items under the max weight.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface Weigher<K, V> {
+
+    /**
+     * Calculate the weight of the cache item. The weight of an item must not change while
+     * it's in the cache.
+     *
+     * @param key the item key
+     * @param value the item value
+     * @return the weight, must not be negative
+     */
+    public int weigh(K key, V value);
+
+}
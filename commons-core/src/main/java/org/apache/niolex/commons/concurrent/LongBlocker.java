@@ -0,0 +1,656 @@
+/**
+ * LongBlocker.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.niolex.commons.concurrent.TimingWheelScheduler.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The request/response correlation table keyed by primitive long request ids, used when there are
+ * a huge number of requests in flight and {@link Blocker} becomes the bottleneck.
+ * <br>
+ * The ids are spread into stripes, every stripe is an open addressing table of long keys guarded by
+ * its own lock, so we never box the ids and the threads releasing different requests rarely contend.
+ * Every pending request with a timeout owns a timeout of a shared {@link TimingWheelScheduler}, so
+ * scheduling and cancelling a timeout are O(1). The worker of the scheduler expires the timed out
+ * requests, the waiting threads just wait without their own timer.
+ * <br>
+ * A request can be waited by the thread sent it, or completed by a {@link Callback} in the thread
+ * releasing it, which never blocks any thread at all.
+ * <br><pre>
+ * The correct use sequence will be:
+ * 1. call Pending&lt;E&gt; init(long id, long timeout) to register the request.
+ * 2. send your request.
+ * 3. call E waitForResult() on the pending object to wait for the result.
+ * </pre>
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <E> the data type user expected as the result of wait
+ * @see Blocker
+ */
+public class LongBlocker<E> {
+    private static final Logger LOG = LoggerFactory.getLogger(LongBlocker.class);
+
+    /**
+     * The callback used to complete a request without blocking. It's invoked in the thread releasing
+     * the request, or in the scheduler thread if timeout, so it should be fast.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <E> the result type
+     */
+    public static interface Callback<E> {
+
+        /**
+         * The request is released with this result.
+         *
+         * @param id the request id
+         * @param result the result
+         */
+        public void onResult(long id, E result);
+
+        /**
+         * The request is released with this exception.
+         *
+         * @param id the request id
+         * @param e the exception
+         */
+        public void onError(long id, BlockerException e);
+
+        /**
+         * The request is not released before timeout.
+         *
+         * @param id the request id
+         */
+        public void onTimeout(long id);
+    }
+
+    /**
+     * The scheduler shared by all the blockers created without a scheduler, created lazily.
+     */
+    private static class Holder {
+        private static final TimingWheelScheduler SCHEDULER = new TimingWheelScheduler("LongBlocker-Timer",
+                DEFAULT_TICK, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The timeout of a pending request. It's private, so user can not cancel or run it directly.
+     *
+     * @param <E> the result type
+     */
+    private static final class Expiry<E> extends Timeout {
+        private final Pending<E> pending;
+
+        /**
+         * Create the timeout of the pending request.
+         *
+         * @param pending the pending request
+         */
+        Expiry(Pending<E> pending) {
+            super();
+            this.pending = pending;
+        }
+
+        /**
+         * Expire the pending request, called by the scheduler.
+         *
+         * This is the override of super method.
+         * @see org.apache.niolex.commons.concurrent.TimingWheelScheduler.Timeout#run()
+         */
+        @Override
+        public void run() {
+            pending.expire();
+        }
+    }
+
+    /**
+     * The pending request, which is the slot value of the table.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     * @param <E> the result type
+     */
+    public static class Pending<E> {
+        private final LongBlocker<E> owner;
+        private final long id;
+        private final CountDownLatch latch;
+        private final Callback<E> callback;
+        private volatile E result;
+        private volatile BlockerException exc;
+        private volatile boolean timeout;
+
+        /**
+         * Link the requests released together, guarded by the stripe lock.
+         */
+        private Pending<E> nextReleased;
+
+        /**
+         * The timeout, null if this request never expires. It's set under the stripe lock before
+         * this request is put into the table.
+         */
+        private Expiry<E> expiry;
+
+        /**
+         * Create a pending request.
+         *
+         * @param owner the blocker this request belongs to
+         * @param id the request id
+         * @param callback the callback, or null if the request will be waited
+         */
+        Pending(LongBlocker<E> owner, long id, Callback<E> callback) {
+            super();
+            this.owner = owner;
+            this.id = id;
+            this.callback = callback;
+            this.latch = callback == null ? new CountDownLatch(1) : null;
+        }
+
+        /**
+         * Expire this request if it's still in the table.
+         */
+        private void expire() {
+            if (owner.remove(this)) {
+                complete(null, null, true);
+            }
+        }
+
+        /**
+         * Cancel the timeout of this request, called after it's removed from the table.
+         */
+        private void cancelTimeout() {
+            if (expiry != null) {
+                expiry.cancel();
+            }
+        }
+
+        /**
+         * Complete this request. This method is called at most once, by the thread who removed
+         * this request from the table.
+         *
+         * @param value the result
+         * @param ex the exception
+         * @param isTimeout whether this request is timeout
+         */
+        private void complete(E value, BlockerException ex, boolean isTimeout) {
+            if (callback == null) {
+                result = value;
+                exc = ex;
+                timeout = isTimeout;
+                latch.countDown();
+                return;
+            }
+            try {
+                if (isTimeout) {
+                    callback.onTimeout(id);
+                } else if (ex != null) {
+                    callback.onError(id, ex);
+                } else {
+                    callback.onResult(id, value);
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Error occurred in the callback of request {}.", id, e);
+            }
+        }
+
+        /**
+         * Wait for the result until it's released, or expired by the scheduler.
+         *
+         * @return the result, or null if timeout
+         * @throws InterruptedException if interrupted by any other thread
+         * @throws BlockerException if user release this request by an exception
+         */
+        public E waitForResult() throws InterruptedException, BlockerException {
+            if (latch == null) {
+                throw new IllegalStateException("The request is completed by callback.");
+            }
+            latch.await();
+            if (exc != null) {
+                throw exc;
+            }
+            return result;
+        }
+
+        /**
+         * @return the request id
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return true if this request is expired before release
+         */
+        public boolean isTimeout() {
+            return timeout;
+        }
+    }
+
+    /**
+     * The open addressing table of one stripe, with linear probing and backward shift deletion.
+     *
+     * @param <E> the result type
+     */
+    protected static class Stripe<E> {
+        private final Lock lock = new ReentrantLock();
+        private long[] keys;
+        private Pending<E>[] slots;
+        private int mask;
+        private int size;
+
+        /**
+         * Create a stripe.
+         */
+        @SuppressWarnings("unchecked")
+        public Stripe() {
+            this.keys = new long[MIN_CAPACITY];
+            this.slots = new Pending[MIN_CAPACITY];
+            this.mask = MIN_CAPACITY - 1;
+        }
+
+        /**
+         * Find the slot index of the id. Must be called under lock.
+         *
+         * @param id the request id
+         * @param hash the mixed hash of the id
+         * @return the index, or -1 if not found
+         */
+        int indexOf(long id, long hash) {
+            int i = (int) hash & mask;
+            while (slots[i] != null) {
+                if (keys[i] == id) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Put the pending request into this table. Must be called under lock, and the id must not
+         * be in this table.
+         *
+         * @param p the pending request
+         * @param hash the mixed hash of the id
+         */
+        void put(Pending<E> p, long hash) {
+            if ((size + 1) << 1 > slots.length) {
+                resize(slots.length << 1);
+            }
+            int i = (int) hash & mask;
+            while (slots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = p.id;
+            slots[i] = p;
+            ++size;
+        }
+
+        /**
+         * Remove the pending request at the index. Must be called under lock.
+         *
+         * @param i the index
+         * @return the pending request removed
+         */
+        Pending<E> removeAt(int i) {
+            Pending<E> p = slots[i];
+            // Shift the following entries back, so we do not need tombstones.
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (slots[j] == null) {
+                    break;
+                }
+                int home = (int) mix(keys[j]) & mask;
+                if (i <= j ? (i < home && home <= j) : (i < home || home <= j)) {
+                    continue;
+                }
+                keys[i] = keys[j];
+                slots[i] = slots[j];
+                i = j;
+            }
+            slots[i] = null;
+            --size;
+            return p;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Pending<E>[] oldSlots = slots;
+            keys = new long[capacity];
+            slots = new Pending[capacity];
+            mask = capacity - 1;
+            for (int k = 0; k < oldSlots.length; ++k) {
+                if (oldSlots[k] != null) {
+                    int i = (int) mix(oldKeys[k]) & mask;
+                    while (slots[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    slots[i] = oldSlots[k];
+                }
+            }
+        }
+    }
+
+    /**
+     * The initial number of slots in every stripe.
+     */
+    protected static final int MIN_CAPACITY = 16;
+
+    /**
+     * The max number of stripes.
+     */
+    protected static final int MAX_STRIPES = 1 << 12;
+
+    /**
+     * The tick of the shared scheduler in milliseconds.
+     */
+    public static final long DEFAULT_TICK = 10;
+
+    /**
+     * The stripes.
+     */
+    private final Stripe<E>[] stripes;
+
+    /**
+     * The stripe index mask.
+     */
+    private final int stripeMask;
+
+    /**
+     * The scheduler to expire the requests.
+     */
+    private final TimingWheelScheduler scheduler;
+
+    /**
+     * Create a blocker with the stripes suitable for the number of processors, using the shared scheduler.
+     */
+    public LongBlocker() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Create a blocker with the specified concurrency level, using the shared scheduler.
+     *
+     * @param concurrencyLevel the estimated number of concurrently releasing threads
+     */
+    public LongBlocker(int concurrencyLevel) {
+        this(concurrencyLevel, null);
+    }
+
+    /**
+     * Create a blocker with the specified concurrency level and scheduler.
+     *
+     * @param concurrencyLevel the estimated number of concurrently releasing threads
+     * @param scheduler the scheduler to expire the requests, null to use the shared scheduler
+     */
+    @SuppressWarnings("unchecked")
+    public LongBlocker(int concurrencyLevel, TimingWheelScheduler scheduler) {
+        super();
+        int n = 1;
+        while (n < concurrencyLevel && n < MAX_STRIPES) {
+            n <<= 1;
+        }
+        this.scheduler = scheduler == null ? Holder.SCHEDULER : scheduler;
+        this.stripeMask = n - 1;
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; ++i) {
+            stripes[i] = new Stripe<E>();
+        }
+    }
+
+    /**
+     * Mix the bits of the id, the low bits are used in the stripe table and the high bits are
+     * used to select stripe.
+     *
+     * @param id the request id
+     * @return the mixed hash
+     */
+    static long mix(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Register a request to be waited.
+     * <br><b>
+     * Note: Please call this method before sending your request, or you may lose your result.
+     * </b>
+     *
+     * @param id the request id
+     * @param timeout the timeout in milliseconds, 0 or negative for never
+     * @return the pending object to wait on, or null if the id is already in use
+     */
+    public Pending<E> init(long id, long timeout) {
+        Pending<E> p = new Pending<E>(this, id, null);
+        return register(p, timeout) ? p : null;
+    }
+
+    /**
+     * Register a request to be completed by the callback.
+     *
+     * @param id the request id
+     * @param timeout the timeout in milliseconds, 0 or negative for never
+     * @param callback the callback to receive the result
+     * @return true if registered, false if the id is already in use
+     */
+    public boolean init(long id, long timeout, Callback<E> callback) {
+        if (callback == null) {
+            throw new NullPointerException("The parameter 'callback' should not be null.");
+        }
+        return register(new Pending<E>(this, id, callback), timeout);
+    }
+
+    /**
+     * Put the pending request into the table and schedule its timeout.
+     *
+     * @param p the pending request
+     * @param timeout the timeout in milliseconds
+     * @return true if registered, false if the id is already in use
+     * @throws IllegalStateException if the scheduler is stopped
+     */
+    private boolean register(Pending<E> p, long timeout) {
+        long hash = mix(p.id);
+        Stripe<E> s = stripeFor(hash);
+        s.lock.lock();
+        try {
+            if (s.indexOf(p.id, hash) >= 0) {
+                return false;
+            }
+            if (timeout > 0) {
+                p.expiry = new Expiry<E>(p);
+                scheduler.schedule(p.expiry, timeout, TimeUnit.MILLISECONDS);
+            }
+            s.put(p, hash);
+        } finally {
+            s.lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Remove the request from the table and cancel its timeout.
+     *
+     * @param id the request id
+     * @return the pending request, or null if not found
+     */
+    private Pending<E> remove(long id) {
+        long hash = mix(id);
+        Stripe<E> s = stripeFor(hash);
+        Pending<E> p;
+        s.lock.lock();
+        try {
+            int i = s.indexOf(id, hash);
+            if (i < 0) {
+                return null;
+            }
+            p = s.removeAt(i);
+        } finally {
+            s.lock.unlock();
+        }
+        p.cancelTimeout();
+        return p;
+    }
+
+    /**
+     * Remove the expired request from the table if it's still there.
+     *
+     * @param p the pending request
+     * @return true if removed, false if it's already released
+     */
+    private boolean remove(Pending<E> p) {
+        long hash = mix(p.id);
+        Stripe<E> s = stripeFor(hash);
+        s.lock.lock();
+        try {
+            int i = s.indexOf(p.id, hash);
+            if (i < 0 || s.slots[i] != p) {
+                return false;
+            }
+            s.removeAt(i);
+            return true;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /**
+     * Release the request with this result.
+     *
+     * @param id the request id
+     * @param value the result to be send to the waiting thread or callback
+     * @return true if success to release, false if the request is not found or already timeout
+     */
+    public boolean release(long id, E value) {
+        Pending<E> p = remove(id);
+        if (p == null) {
+            return false;
+        }
+        p.complete(value, null, false);
+        return true;
+    }
+
+    /**
+     * Release the request with this exception.
+     *
+     * @param id the request id
+     * @param ex the exception to be thrown to the waiting thread or send to the callback
+     * @return true if success to release, false if the request is not found or already timeout
+     */
+    public boolean release(long id, BlockerException ex) {
+        Pending<E> p = remove(id);
+        if (p == null) {
+            return false;
+        }
+        p.complete(null, ex, false);
+        return true;
+    }
+
+    /**
+     * Remove the request without completing it, used when the request failed to send.
+     *
+     * @param id the request id
+     * @return true if removed, false if not found
+     */
+    public boolean cancel(long id) {
+        return remove(id) != null;
+    }
+
+    /**
+     * Release all the requests with a {@link BlockerException}, and then clean the table.
+     */
+    public void releaseAll() {
+        BlockerException e = new BlockerException("User triggered release all.");
+        for (Stripe<E> s : stripes) {
+            Pending<E> head = null;
+            s.lock.lock();
+            try {
+                for (int i = 0; i < s.slots.length; ++i) {
+                    Pending<E> p = s.slots[i];
+                    if (p != null) {
+                        s.slots[i] = null;
+                        p.nextReleased = head;
+                        head = p;
+                    }
+                }
+                s.size = 0;
+            } finally {
+                s.lock.unlock();
+            }
+            while (head != null) {
+                Pending<E> next = head.nextReleased;
+                head.nextReleased = null;
+                head.cancelTimeout();
+                head.complete(null, e, false);
+                head = next;
+            }
+        }
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public int size() {
+        int sum = 0;
+        for (Stripe<E> s : stripes) {
+            s.lock.lock();
+            try {
+                sum += s.size;
+            } finally {
+                s.lock.unlock();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return the number of stripes
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * @return the scheduler to expire the requests
+     */
+    public TimingWheelScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Select the stripe by the high bits of the hash.
+     *
+     * @param hash the mixed hash of the id
+     * @return the stripe
+     */
+    private Stripe<E> stripeFor(long hash) {
+        return stripes[(int) (hash >>> 40) & stripeMask];
+    }
+
+}
@@ -0,0 +1,682 @@
+/**
+ * TimingWheelScheduler.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.niolex.commons.test.Check;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The hashed hierarchical timing wheel scheduler, used to run a huge number of short timeouts such as
+ * RPC deadlines, cache TTLs and lock leases, where the heap of {@link java.util.concurrent.ScheduledThreadPoolExecutor}
+ * costs O(log n) and contends on one lock for every insert and cancel.
+ * <br>
+ * The wheel has 4 levels of 64 buckets and one overflow bucket, the bucket width of them are 1, 64,
+ * 4096 and 262144 ticks. Every timeout is linked into the bucket of the lowest level which can hold
+ * its deadline, and moved into the lower levels when the higher bucket is passed. So every timeout is
+ * visited at most once per level.
+ * <br>
+ * Only the worker thread touches the wheel. The user threads push the new and cancelled timeouts into
+ * lock free stacks striped by thread, linked by the fields of the timeouts themselves, so scheduling
+ * and cancelling are O(1), never lock and allocate nothing except the timeout. The worker drains the
+ * stacks every tick, and then dispatches the expired timeouts to the executor in batches, or runs
+ * them in the worker thread if there is no executor.
+ * <br>
+ * The timeouts never expire before their deadline, but may expire up to one tick later.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class TimingWheelScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheelScheduler.class);
+
+    /**
+     * The handle of a scheduled task, which can be cancelled before expire.
+     * <br>
+     * User can also extend this class and override {@link #run()}, to save the task object.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static class Timeout implements Runnable {
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        private static final AtomicReferenceFieldUpdater<Timeout, TimingWheelScheduler> OWNER =
+                AtomicReferenceFieldUpdater.newUpdater(Timeout.class, TimingWheelScheduler.class, "scheduler");
+        private static final int INIT = 0;
+        private static final int SCHEDULED = 1;
+        private static final int CANCELLED = 2;
+        private static final int EXPIRED = 3;
+
+        private final Runnable task;
+        private volatile int state;
+        private volatile TimingWheelScheduler scheduler;
+        private long deadline;
+        private long deadlineTick;
+
+        /**
+         * Link the timeout in the add stack, and then in the expired batch.
+         */
+        private Timeout nextQueued;
+
+        /**
+         * Link the timeout in the cancel stack.
+         */
+        private Timeout nextCancelled;
+
+        /**
+         * The bucket linked list, only touched by the worker.
+         */
+        private Timeout prev;
+        private Timeout next;
+
+        /**
+         * Create a timeout for the subclass which overrides {@link #run()}.
+         */
+        protected Timeout() {
+            this.task = null;
+        }
+
+        /**
+         * Create a timeout to run the specified task.
+         *
+         * @param task the task
+         */
+        public Timeout(Runnable task) {
+            if (task == null) {
+                throw new NullPointerException("The parameter 'task' should not be null.");
+            }
+            this.task = task;
+        }
+
+        /**
+         * Run the task when this timeout expired. The subclass can override this method.
+         *
+         * This is the override of super method.
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        /**
+         * Cancel this timeout.
+         *
+         * @return true if cancelled, false if it's not scheduled, already expired or cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            scheduler.push(scheduler.cancelled, this, false);
+            return true;
+        }
+
+        /**
+         * @return true if this timeout is cancelled
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * @return true if this timeout is expired, the task is dispatched or finished
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * @return the deadline in the {@link System#nanoTime()} time line
+         */
+        public long getDeadline() {
+            return deadline;
+        }
+    }
+
+    /**
+     * The expired timeouts to be run in the executor.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    private static class Batch implements Runnable {
+        private final Timeout head;
+
+        public Batch(Timeout head) {
+            this.head = head;
+        }
+
+        @Override
+        public void run() {
+            runAll(head);
+        }
+    }
+
+    /**
+     * The bit shift of the bucket width in every level, in ticks.
+     */
+    private static final int[] SHIFT = {0, 6, 12, 18, 24};
+
+    /**
+     * The number of buckets in every level. The last level is used as overflow.
+     */
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+
+    /**
+     * The max delay in nanoseconds, to avoid overflow.
+     */
+    private static final long MAX_DELAY = Long.MAX_VALUE >> 2;
+
+    /**
+     * The padding between two stack heads in the striped arrays.
+     */
+    private static final int PADDING = 16;
+
+    /**
+     * The default max number of timeouts in one batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final int ST_INIT = 0;
+    private static final int ST_STARTED = 1;
+    private static final int ST_STOPPED = 2;
+    private static final AtomicIntegerFieldUpdater<TimingWheelScheduler> WORKER_STATE =
+            AtomicIntegerFieldUpdater.newUpdater(TimingWheelScheduler.class, "workerState");
+
+    private final String name;
+    private final long tickNanos;
+    private final Executor executor;
+    private final int stripeMask;
+    private final AtomicReferenceArray<Timeout> added;
+    private final AtomicReferenceArray<Timeout> cancelled;
+    private final Timeout[][] wheel;
+    private volatile int workerState;
+    private volatile Thread worker;
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * The start time of the wheel, and the current tick. Guarded by the worker.
+     */
+    private long startTime;
+    private long currentTick;
+
+    /**
+     * The statistics, only updated by the worker.
+     */
+    private volatile long scheduledCount;
+    private volatile long expiredCount;
+    private volatile long cancelledCount;
+    private volatile long batchCount;
+    private volatile long lagNanos;
+
+    /**
+     * Create a scheduler which runs the expired tasks in the worker thread.
+     *
+     * @param name the name of the worker thread
+     * @param tick the tick duration
+     * @param unit the time unit of tick
+     */
+    public TimingWheelScheduler(String name, long tick, TimeUnit unit) {
+        this(name, tick, unit, null);
+    }
+
+    /**
+     * Create a scheduler which dispatches the expired tasks to the executor.
+     *
+     * @param name the name of the worker thread
+     * @param tick the tick duration, which is also the precision of the timeouts
+     * @param unit the time unit of tick
+     * @param executor the executor to run the expired tasks in batches, null to run them in the worker thread
+     */
+    public TimingWheelScheduler(String name, long tick, TimeUnit unit, Executor executor) {
+        super();
+        Check.lt(0, tick, "The parameter 'tick' must be positive.");
+        this.name = name;
+        this.tickNanos = unit.toNanos(tick);
+        this.executor = executor;
+        int n = 1;
+        while (n < Runtime.getRuntime().availableProcessors() && n < 64) {
+            n <<= 1;
+        }
+        this.stripeMask = n - 1;
+        this.added = new AtomicReferenceArray<Timeout>(n * PADDING);
+        this.cancelled = new AtomicReferenceArray<Timeout>(n * PADDING);
+        this.wheel = new Timeout[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; ++i) {
+            wheel[i] = new Timeout[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; ++j) {
+                Timeout head = new Timeout();
+                head.prev = head.next = head;
+                wheel[i][j] = head;
+            }
+        }
+    }
+
+    /**
+     * Schedule the task to run after the delay.
+     *
+     * @param task the task
+     * @param delay the delay
+     * @param unit the time unit of delay
+     * @return the timeout handle
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Timeout t = new Timeout(task);
+        schedule(t, delay, unit);
+        return t;
+    }
+
+    /**
+     * Schedule the timeout to run after the delay. A timeout can only be scheduled once.
+     *
+     * @param t the timeout
+     * @param delay the delay
+     * @param unit the time unit of delay
+     * @throws IllegalStateException if this scheduler is stopped or the timeout is already scheduled
+     */
+    public void schedule(Timeout t, long delay, TimeUnit unit) {
+        if (workerState != ST_STARTED) {
+            start();
+        }
+        if (!Timeout.OWNER.compareAndSet(t, null, this)) {
+            throw new IllegalStateException("The timeout is already scheduled.");
+        }
+        t.deadline = System.nanoTime() + Math.max(0, Math.min(unit.toNanos(delay), MAX_DELAY));
+        // Publish the deadline, the timeout can be cancelled from now on.
+        t.state = Timeout.SCHEDULED;
+        push(added, t, true);
+    }
+
+    /**
+     * Push the timeout into the stack of the current thread's stripe.
+     *
+     * @param stacks the striped stacks
+     * @param t the timeout
+     * @param isAdd true to link by the add field, false by the cancel field
+     */
+    private void push(AtomicReferenceArray<Timeout> stacks, Timeout t, boolean isAdd) {
+        long id = Thread.currentThread().getId();
+        int idx = ((int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & stripeMask) * PADDING;
+        Timeout head;
+        do {
+            head = stacks.get(idx);
+            if (isAdd) {
+                t.nextQueued = head;
+            } else {
+                t.nextCancelled = head;
+            }
+        } while (!stacks.compareAndSet(idx, head, t));
+    }
+
+    /**
+     * Start the worker thread if it's not started yet.
+     *
+     * @throws IllegalStateException if this scheduler is stopped
+     */
+    public void start() {
+        switch (workerState) {
+            case ST_INIT:
+                if (WORKER_STATE.compareAndSet(this, ST_INIT, ST_STARTED)) {
+                    startTime = System.nanoTime();
+                    Thread t = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            work();
+                        }
+                    }, name);
+                    t.setDaemon(true);
+                    worker = t;
+                    t.start();
+                } else if (workerState == ST_STOPPED) {
+                    throw new IllegalStateException("This scheduler is already stopped.");
+                }
+                break;
+            case ST_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("This scheduler is already stopped.");
+        }
+    }
+
+    /**
+     * Stop the worker thread. The timeouts not expired yet will never run.
+     */
+    public void stop() {
+        if (WORKER_STATE.getAndSet(this, ST_STOPPED) == ST_STARTED) {
+            Thread t = worker;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+
+    /**
+     * The main loop of the worker thread.
+     */
+    private void work() {
+        while (workerState == ST_STARTED) {
+            long now = System.nanoTime();
+            long sleep = startTime + (currentTick + 1) * tickNanos - now;
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            try {
+                processTick(now);
+            } catch (Throwable e) {
+                LOG.error("Error occurred in the timing wheel worker.", e);
+            }
+        }
+    }
+
+    /**
+     * Move the new and cancelled timeouts into the wheel, advance the wheel to the specified time and
+     * dispatch the expired timeouts. Only the worker thread can call this method.
+     *
+     * @param now the current time in the {@link System#nanoTime()} time line
+     * @return the number of timeouts expired
+     */
+    int processTick(long now) {
+        long target = (now - startTime) / tickNanos;
+        lagNanos = now - startTime - (currentTick + 1) * tickNanos;
+        Timeout expired = transferAdded(null);
+        processCancelled();
+        if (target > currentTick) {
+            expired = advance(target, expired);
+        }
+        return dispatch(expired);
+    }
+
+    /**
+     * Move the new timeouts from the add stacks into the wheel.
+     *
+     * @param expired the expired list head
+     * @return the new expired list head
+     */
+    private Timeout transferAdded(Timeout expired) {
+        long cnt = 0;
+        for (int i = 0; i < added.length(); i += PADDING) {
+            Timeout t = added.getAndSet(i, null);
+            while (t != null) {
+                Timeout next = t.nextQueued;
+                t.nextQueued = null;
+                ++cnt;
+                if (t.state == Timeout.SCHEDULED) {
+                    long d = t.deadline - startTime;
+                    t.deadlineTick = d <= 0 ? 0 : (d + tickNanos - 1) / tickNanos;
+                    expired = link(t, expired);
+                }
+                t = next;
+            }
+        }
+        scheduledCount += cnt;
+        return expired;
+    }
+
+    /**
+     * Unlink the cancelled timeouts from the wheel.
+     */
+    private void processCancelled() {
+        long cnt = 0;
+        for (int i = 0; i < cancelled.length(); i += PADDING) {
+            Timeout t = cancelled.getAndSet(i, null);
+            while (t != null) {
+                Timeout next = t.nextCancelled;
+                t.nextCancelled = null;
+                ++cnt;
+                if (t.next != null) {
+                    unlink(t);
+                }
+                t = next;
+            }
+        }
+        cancelledCount += cnt;
+    }
+
+    /**
+     * Advance the wheel to the target tick. All the buckets passed are drained, the expired timeouts
+     * are added into the expired list, and the others are linked again.
+     *
+     * @param target the target tick
+     * @param expired the expired list head
+     * @return the new expired list head
+     */
+    private Timeout advance(long target, Timeout expired) {
+        long previous = currentTick;
+        currentTick = target;
+        for (int i = 0; i < SHIFT.length; ++i) {
+            long previousTicks = previous >>> SHIFT[i];
+            long currentTicks = target >>> SHIFT[i];
+            if (currentTicks == previousTicks) {
+                // The higher levels will not change either.
+                break;
+            }
+            Timeout[] buckets = wheel[i];
+            int mask = buckets.length - 1;
+            int steps = (int) Math.min(currentTicks - previousTicks + 1, buckets.length);
+            int start = (int) (previousTicks & mask);
+            for (int j = start; j < start + steps; ++j) {
+                Timeout head = buckets[j & mask];
+                Timeout t = head.next;
+                // Detach the whole bucket, and then link the timeouts again one by one.
+                head.prev = head.next = head;
+                while (t != head) {
+                    Timeout next = t.next;
+                    t.prev = t.next = null;
+                    if (t.state == Timeout.SCHEDULED) {
+                        expired = link(t, expired);
+                    }
+                    t = next;
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Link the timeout into the bucket by its deadline, or into the expired list if it's expired.
+     *
+     * @param t the timeout
+     * @param expired the expired list head
+     * @return the new expired list head
+     */
+    private Timeout link(Timeout t, Timeout expired) {
+        long dt = t.deadlineTick;
+        if (dt <= currentTick) {
+            if (Timeout.STATE.compareAndSet(t, Timeout.SCHEDULED, Timeout.EXPIRED)) {
+                t.nextQueued = expired;
+                return t;
+            }
+            return expired;
+        }
+        Timeout head = null;
+        long duration = dt - currentTick;
+        int last = SHIFT.length - 1;
+        for (int i = 0; i < last; ++i) {
+            if (duration < (1L << SHIFT[i + 1])) {
+                head = wheel[i][(int) ((dt >>> SHIFT[i]) & (BUCKETS[i] - 1))];
+                break;
+            }
+        }
+        if (head == null) {
+            head = wheel[last][0];
+        }
+        t.next = head;
+        t.prev = head.prev;
+        head.prev.next = t;
+        head.prev = t;
+        return expired;
+    }
+
+    /**
+     * Unlink the timeout from the bucket it's in.
+     *
+     * @param t the timeout
+     */
+    private void unlink(Timeout t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.prev = t.next = null;
+    }
+
+    /**
+     * Dispatch the expired timeouts to the executor in batches.
+     *
+     * @param expired the expired list head
+     * @return the number of timeouts expired
+     */
+    private int dispatch(Timeout expired) {
+        int total = 0;
+        int max = batchSize;
+        while (expired != null) {
+            // Cut one batch from the list.
+            Timeout head = expired;
+            Timeout tail = head;
+            int cnt = 1;
+            while (cnt < max && tail.nextQueued != null) {
+                tail = tail.nextQueued;
+                ++cnt;
+            }
+            expired = tail.nextQueued;
+            tail.nextQueued = null;
+            total += cnt;
+            ++batchCount;
+            // Count them before they run, so the tasks see the count up to date.
+            expiredCount += cnt;
+            if (executor == null) {
+                runAll(head);
+                continue;
+            }
+            try {
+                executor.execute(new Batch(head));
+            } catch (RejectedExecutionException e) {
+                LOG.warn("The executor rejected the expired timeouts, run them in the worker.", e);
+                runAll(head);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Run all the timeouts in the list.
+     *
+     * @param t the list head
+     */
+    private static void runAll(Timeout t) {
+        while (t != null) {
+            Timeout next = t.nextQueued;
+            t.nextQueued = null;
+            try {
+                t.run();
+            } catch (Throwable e) {
+                LOG.error("Error occurred when run the expired timeout.", e);
+            }
+            t = next;
+        }
+    }
+
+    /**
+     * Set the max number of timeouts dispatched to the executor in one batch.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+        Check.lt(0, batchSize, "The parameter 'batchSize' must be positive.");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the max number of timeouts dispatched to the executor in one batch
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return the tick duration in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * @return true if this scheduler is stopped
+     */
+    public boolean isStopped() {
+        return workerState == ST_STOPPED;
+    }
+
+    /**
+     * The number of timeouts in the wheel, neither expired nor cancelled. This number is updated by
+     * the worker every tick, so the timeouts scheduled in the current tick are not counted yet.
+     *
+     * @return the number of pending timeouts
+     */
+    public long getPendingCount() {
+        return Math.max(0, scheduledCount - expiredCount - cancelledCount);
+    }
+
+    /**
+     * @return the total number of timeouts taken by the worker
+     */
+    public long getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * @return the total number of timeouts expired
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * @return the total number of timeouts cancelled
+     */
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+
+    /**
+     * @return the total number of batches dispatched
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * @return how late the worker processed the last tick, in nanoseconds
+     */
+    public long getLagNanos() {
+        return lagNanos;
+    }
+
+}
@@ -0,0 +1,431 @@
+/**
+ * BlockedBloomFilter.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.niolex.commons.codec.StringUtil;
+import org.apache.niolex.commons.stream.StreamUtil;
+import org.apache.niolex.commons.test.Check;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * The cache line blocked Bloom filter. All the bits of one key are in the same block of 512 bits,
+ * i.e. the size of one cache line, so a lookup touches at most two cache lines instead of one line
+ * per hash function. The JVM does not align the elements of a heap array to the cache line, so a
+ * block usually straddles two lines.
+ * <br>
+ * The 64 bits hash of the key selects the block by the high 32 bits, and the bits inside the block
+ * by double hashing of the low bits. The bits are stored in a {@link AtomicLongArray} and set by CAS,
+ * so concurrent puts and lookups are thread safe without lock.
+ * <br>
+ * The filter can be written into a file and read back. User can put the keys by the 64 bits hash
+ * directly, or let us hash the bytes or strings by murmur3.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class BlockedBloomFilter {
+
+    /**
+     * The number of bits in one block, the size of one cache line.
+     */
+    public static final int BLOCK_BITS = 512;
+
+    /**
+     * The number of longs in one block.
+     */
+    static final int BLOCK_LONGS = BLOCK_BITS / 64;
+
+    /**
+     * The magic number of the serialized filter.
+     */
+    private static final int MAGIC = 0x4E424246;
+
+    /**
+     * The max number of hash functions.
+     */
+    static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray bits;
+    private final int numBlocks;
+    private final int numHashes;
+
+    /**
+     * Create a filter with the optimal size for the expected number of keys and the false positive rate.
+     *
+     * @param expectedInsertions the expected number of keys
+     * @param fpp the false positive probability, between 0 and 1
+     */
+    public BlockedBloomFilter(long expectedInsertions, double fpp) {
+        this(optimalNumBlocks(expectedInsertions, fpp, BLOCK_BITS), optimalNumHashes(fpp));
+    }
+
+    /**
+     * Create a filter with the specified size.
+     *
+     * @param numBlocks the number of blocks, every block has 512 bits
+     * @param numHashes the number of bits set for one key, from 1 to 16
+     */
+    public BlockedBloomFilter(int numBlocks, int numHashes) {
+        this(numBlocks, numHashes, new AtomicLongArray(checkBlocks(numBlocks) * BLOCK_LONGS));
+    }
+
+    /**
+     * Create a filter with the specified bits.
+     *
+     * @param numBlocks the number of blocks
+     * @param numHashes the number of bits set for one key
+     * @param bits the bits
+     */
+    private BlockedBloomFilter(int numBlocks, int numHashes, AtomicLongArray bits) {
+        super();
+        Check.lt(0, numHashes, "The parameter 'numHashes' must be positive.");
+        Check.lt(numHashes, MAX_HASHES + 1, "The parameter 'numHashes' must not greater than 16.");
+        this.numBlocks = numBlocks;
+        this.numHashes = numHashes;
+        this.bits = bits;
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     * @return true if the bits changed, i.e. this key is definitely new
+     */
+    public boolean put(byte[] key) {
+        return putHash(hash64(key));
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     * @return true if the bits changed, i.e. this key is definitely new
+     */
+    public boolean put(CharSequence key) {
+        return putHash(hash64(key));
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     * @return true if the bits changed, i.e. this key is definitely new
+     */
+    public boolean put(long key) {
+        return putHash(mix64(key));
+    }
+
+    /**
+     * Put the key by its 64 bits hash. The hash must be well distributed in all the bits.
+     *
+     * @param hash the 64 bits hash of the key
+     * @return true if the bits changed, i.e. this key is definitely new
+     */
+    public boolean putHash(long hash) {
+        int base = blockIndex(hash, numBlocks) * BLOCK_LONGS;
+        int h1 = (int) hash;
+        int h2 = secondHash(hash);
+        boolean changed = false;
+        for (int i = 0; i < numHashes; ++i) {
+            int pos = (h1 + i * h2) & (BLOCK_BITS - 1);
+            int idx = base + (pos >>> 6);
+            long mask = 1L << pos;
+            long old;
+            while (((old = bits.get(idx)) & mask) == 0) {
+                if (bits.compareAndSet(idx, old, old | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(byte[] key) {
+        return mightContainHash(hash64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(CharSequence key) {
+        return mightContainHash(hash64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(long key) {
+        return mightContainHash(mix64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter by its 64 bits hash.
+     *
+     * @param hash the 64 bits hash of the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContainHash(long hash) {
+        int base = blockIndex(hash, numBlocks) * BLOCK_LONGS;
+        int h1 = (int) hash;
+        int h2 = secondHash(hash);
+        for (int i = 0; i < numHashes; ++i) {
+            int pos = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((bits.get(base + (pos >>> 6)) & (1L << pos)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bits set
+     */
+    public long bitCount() {
+        long cnt = 0;
+        for (int i = 0; i < bits.length(); ++i) {
+            cnt += Long.bitCount(bits.get(i));
+        }
+        return cnt;
+    }
+
+    /**
+     * @return the estimated false positive probability by the current bits set
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount() / bitSize(), numHashes);
+    }
+
+    /**
+     * @return the total number of bits
+     */
+    public long bitSize() {
+        return (long) numBlocks * BLOCK_BITS;
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int getNumBlocks() {
+        return numBlocks;
+    }
+
+    /**
+     * @return the number of bits set for one key
+     */
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Write this filter into the output stream. The stream is flushed but not closed.
+     * Concurrent puts during writing may be partially saved.
+     *
+     * @param out the output stream
+     * @throws IOException if failed to write
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        dout.writeInt(MAGIC);
+        dout.writeInt(numBlocks);
+        dout.writeInt(numHashes);
+        for (int i = 0; i < bits.length(); ++i) {
+            dout.writeLong(bits.get(i));
+        }
+        dout.flush();
+    }
+
+    /**
+     * Write this filter into the file.
+     *
+     * @param file the file
+     * @throws IOException if failed to write
+     */
+    public void writeTo(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            writeTo(out);
+        } finally {
+            StreamUtil.closeStream(out);
+        }
+    }
+
+    /**
+     * Read the filter from the input stream. The stream is not closed.
+     *
+     * @param in the input stream
+     * @return the filter
+     * @throws IOException if failed to read or the data is invalid
+     */
+    public static BlockedBloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (din.readInt() != MAGIC) {
+            throw new IOException("Invalid blocked bloom filter magic number.");
+        }
+        int numBlocks = din.readInt();
+        int numHashes = din.readInt();
+        if (numBlocks <= 0 || numBlocks > Integer.MAX_VALUE / BLOCK_LONGS || numHashes <= 0
+                || numHashes > MAX_HASHES) {
+            throw new IOException("Invalid blocked bloom filter header.");
+        }
+        AtomicLongArray bits = new AtomicLongArray(numBlocks * BLOCK_LONGS);
+        for (int i = 0; i < bits.length(); ++i) {
+            bits.lazySet(i, din.readLong());
+        }
+        return new BlockedBloomFilter(numBlocks, numHashes, bits);
+    }
+
+    /**
+     * Read the filter from the file.
+     *
+     * @param file the file
+     * @return the filter
+     * @throws IOException if failed to read or the data is invalid
+     */
+    public static BlockedBloomFilter readFrom(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return readFrom(in);
+        } finally {
+            StreamUtil.closeStream(in);
+        }
+    }
+
+    /**
+     * Check the number of blocks.
+     *
+     * @param numBlocks the number of blocks
+     * @return the number of blocks
+     */
+    static int checkBlocks(int numBlocks) {
+        Check.lt(0, numBlocks, "The parameter 'numBlocks' must be positive.");
+        Check.lt(numBlocks, Integer.MAX_VALUE / BLOCK_LONGS + 1, "The parameter 'numBlocks' is too large.");
+        return numBlocks;
+    }
+
+    /**
+     * Calculate the number of blocks for the expected number of keys and the false positive rate.
+     * The blocked filter has a little higher false positive rate than the standard one, so we add
+     * 20% more bits.
+     *
+     * @param expectedInsertions the expected number of keys
+     * @param fpp the false positive probability
+     * @param blockBits the number of bits or counters in one block
+     * @return the number of blocks
+     */
+    static int optimalNumBlocks(long expectedInsertions, double fpp, int blockBits) {
+        Check.lt(0, expectedInsertions, "The parameter 'expectedInsertions' must be positive.");
+        Check.isTrue(fpp > 0 && fpp < 1, "The parameter 'fpp' must be between 0 and 1.");
+        double m = -expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)) * 1.2;
+        long blocks = (long) Math.ceil(m / blockBits);
+        return (int) Math.min(blocks, Integer.MAX_VALUE / BLOCK_LONGS);
+    }
+
+    /**
+     * Calculate the number of hash functions for the false positive rate.
+     *
+     * @param fpp the false positive probability
+     * @return the number of hash functions
+     */
+    static int optimalNumHashes(double fpp) {
+        int k = (int) Math.round(-Math.log(fpp) / Math.log(2));
+        return Math.max(1, Math.min(MAX_HASHES, k));
+    }
+
+    /**
+     * Select the block by the high 32 bits of the hash.
+     *
+     * @param hash the 64 bits hash
+     * @param numBlocks the number of blocks
+     * @return the block index
+     */
+    static int blockIndex(long hash, int numBlocks) {
+        return (int) (((hash >>> 32) * numBlocks) >>> 32);
+    }
+
+    /**
+     * The second hash used to select bits inside a block. It's odd, so the positions are distinct
+     * for at most 512 hashes.
+     *
+     * @param hash the 64 bits hash
+     * @return the second hash
+     */
+    static int secondHash(long hash) {
+        return (int) (hash >>> 17) | 1;
+    }
+
+    /**
+     * Hash the bytes into 64 bits by murmur3.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    public static long hash64(byte[] key) {
+        return Hashing.murmur3_128().hashBytes(key).asLong();
+    }
+
+    /**
+     * Hash the string encoded in UTF-8 into 64 bits by murmur3.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    public static long hash64(CharSequence key) {
+        return Hashing.murmur3_128().hashString(key, StringUtil.UTF_8).asLong();
+    }
+
+    /**
+     * Mix the bits of the long key, by the finalizer of splitmix64.
+     *
+     * @param key the key
+     * @return the hash
+     */
+    public static long mix64(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -0,0 +1,210 @@
+/**
+ * ByteAccess.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Read the input of the hash functions in little endian without copying, so the same hash
+ * algorithm works on byte arrays, byte buffers and char sequences.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+abstract class ByteAccess {
+
+    /**
+     * Read from byte array.
+     */
+    static final ByteAccess BYTES = new ByteAccess() {
+
+        @Override
+        long getLong(Object in, int off) {
+            byte[] b = (byte[]) in;
+            return (b[off] & 0xFFL) | (b[off + 1] & 0xFFL) << 8 | (b[off + 2] & 0xFFL) << 16
+                    | (b[off + 3] & 0xFFL) << 24 | (b[off + 4] & 0xFFL) << 32 | (b[off + 5] & 0xFFL) << 40
+                    | (b[off + 6] & 0xFFL) << 48 | (b[off + 7] & 0xFFL) << 56;
+        }
+
+        @Override
+        int getInt(Object in, int off) {
+            byte[] b = (byte[]) in;
+            return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+        }
+
+        @Override
+        int getByte(Object in, int off) {
+            return ((byte[]) in)[off] & 0xFF;
+        }
+    };
+
+    /**
+     * Read from byte buffer by the absolute index, the position and order of the buffer are not changed.
+     */
+    static final ByteAccess BUFFER = new ByteAccess() {
+
+        @Override
+        long getLong(Object in, int off) {
+            ByteBuffer b = (ByteBuffer) in;
+            long l = b.getLong(off);
+            return b.order() == ByteOrder.LITTLE_ENDIAN ? l : Long.reverseBytes(l);
+        }
+
+        @Override
+        int getInt(Object in, int off) {
+            ByteBuffer b = (ByteBuffer) in;
+            int i = b.getInt(off);
+            return b.order() == ByteOrder.LITTLE_ENDIAN ? i : Integer.reverseBytes(i);
+        }
+
+        @Override
+        int getByte(Object in, int off) {
+            return ((ByteBuffer) in).get(off) & 0xFF;
+        }
+    };
+
+    /**
+     * Read from char sequence as UTF-16 little endian bytes.
+     */
+    static final ByteAccess CHARS = new ByteAccess() {
+
+        @Override
+        long getLong(Object in, int off) {
+            if ((off & 1) != 0) {
+                return super.getLong(in, off);
+            }
+            CharSequence s = (CharSequence) in;
+            int i = off >> 1;
+            return s.charAt(i) | (long) s.charAt(i + 1) << 16 | (long) s.charAt(i + 2) << 32
+                    | (long) s.charAt(i + 3) << 48;
+        }
+
+        @Override
+        int getInt(Object in, int off) {
+            if ((off & 1) != 0) {
+                return super.getInt(in, off);
+            }
+            CharSequence s = (CharSequence) in;
+            int i = off >> 1;
+            return s.charAt(i) | s.charAt(i + 1) << 16;
+        }
+
+        @Override
+        int getByte(Object in, int off) {
+            char c = ((CharSequence) in).charAt(off >> 1);
+            return (off & 1) == 0 ? c & 0xFF : c >>> 8;
+        }
+    };
+
+    /**
+     * The UTF-8 bytes encoded in the thread local buffer.
+     */
+    static final class Utf8 {
+        byte[] buf = new byte[256];
+        int len;
+    }
+
+    /**
+     * The thread local buffer used to encode char sequence into UTF-8.
+     */
+    private static final ThreadLocal<Utf8> UTF8_BUFFER = new ThreadLocal<Utf8>() {
+        @Override
+        protected Utf8 initialValue() {
+            return new Utf8();
+        }
+    };
+
+    /**
+     * Read 8 bytes in little endian.
+     *
+     * @param in the input
+     * @param off the byte offset
+     * @return the long value
+     */
+    long getLong(Object in, int off) {
+        return (getInt(in, off) & 0xFFFFFFFFL) | (long) getInt(in, off + 4) << 32;
+    }
+
+    /**
+     * Read 4 bytes in little endian.
+     *
+     * @param in the input
+     * @param off the byte offset
+     * @return the int value
+     */
+    int getInt(Object in, int off) {
+        return getByte(in, off) | getByte(in, off + 1) << 8 | getByte(in, off + 2) << 16 | getByte(in, off + 3) << 24;
+    }
+
+    /**
+     * Read one byte.
+     *
+     * @param in the input
+     * @param off the byte offset
+     * @return the unsigned byte value
+     */
+    abstract int getByte(Object in, int off);
+
+    /**
+     * Encode the char sequence into UTF-8 in the thread local buffer, the unpaired surrogates are
+     * encoded as '?' like {@link String#getBytes(java.nio.charset.Charset)}. The buffer is reused
+     * by the next call in the same thread.
+     *
+     * @param s the char sequence
+     * @return the thread local buffer
+     */
+    static Utf8 utf8(CharSequence s) {
+        Utf8 u = UTF8_BUFFER.get();
+        final int n = s.length();
+        byte[] b = u.buf;
+        if (b.length < n * 3) {
+            b = u.buf = new byte[n * 3];
+        }
+        int k = 0;
+        for (int i = 0; i < n; ++i) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                b[k++] = (byte) c;
+            } else if (c < 0x800) {
+                b[k++] = (byte) (0xC0 | c >> 6);
+                b[k++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                char d;
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(d = s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, d);
+                    ++i;
+                    b[k++] = (byte) (0xF0 | cp >> 18);
+                    b[k++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    b[k++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    b[k++] = (byte) (0x80 | cp & 0x3F);
+                } else {
+                    b[k++] = '?';
+                }
+            } else {
+                b[k++] = (byte) (0xE0 | c >> 12);
+                b[k++] = (byte) (0x80 | c >> 6 & 0x3F);
+                b[k++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        u.len = k;
+        return u;
+    }
+
+}
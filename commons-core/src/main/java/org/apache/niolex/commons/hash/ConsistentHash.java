@@ -18,15 +18,20 @@
 package org.apache.niolex.commons.hash;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.niolex.commons.codec.StringUtil;
+import org.apache.niolex.commons.test.Check;
 
 import com.google.common.hash.Hashing;
 
@@ -40,6 +45,20 @@ import com.google.common.hash.Hashing;
  * to adjust the hash ring. We will copy the whole hash ring in add &amp; remove method to achieve
  * high concurrency without using any lock.
  *
+ * The hash ring is an immutable sorted int array of the positions and a parallel array of the
+ * nodes, so a lookup is a binary search over the primitive array without any lock or object
+ * creation. When two replicas have the same position, the node added later wins.
+ *
+ * The nodes can have different weights, a node with weight 2.0 has twice of the replicas, so
+ * it gets twice of the keys. User can also set the preference list size, then the distinct
+ * successor nodes of every position are calculated when the ring is changed, and
+ * {@link #getNodeList(Object, int)} just copies them out instead of walking the ring.
+ *
+ * In the bounded load mode, the caller reports the in-flight load of every node, and
+ * {@link #getNode(Object)} walks clockwise past the nodes whose load already reaches
+ * (1 + epsilon) times of the average load. So no node gets more than its bound, and most of the
+ * keys still go to the same node as long as the loads are not skewed.
+ *
  * It was originally copied from Tom White's implementation found here:
  * https://weblogs.java.net/blog/tomwhite/archive/2007/11/consistent_hash.html
  *
@@ -48,7 +67,7 @@ import com.google.common.hash.Hashing;
  * @version 1.0.0
  * @since 2013-5-11
  */
-public class ConsistentHash<T> {
+public class ConsistentHash<T> implements NodeRouter<T> {
 
     /**
      * The hash function interface.
@@ -140,6 +159,80 @@ public class ConsistentHash<T> {
 
     }
 
+    /**
+     * The immutable hash ring, the positions are sorted and unique.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    private static final class Ring {
+        private static final Ring EMPTY = new Ring(new int[0], new Object[0], 0);
+
+        private final int[] points;
+        private final Object[] nodes;
+        // The distinct nodes, and the index of every position's node in it.
+        private final Object[] distinct;
+        private final int[] nodeIds;
+        // The distinct successor node ids of every position, prefSize ids per position.
+        private final int prefSize;
+        private final int[] prefs;
+
+        private Ring(int[] points, Object[] nodes, int preferenceSize) {
+            this.points = points;
+            this.nodes = nodes;
+            this.nodeIds = new int[nodes.length];
+            HashMap<Object, Integer> map = new HashMap<Object, Integer>();
+            for (int i = 0; i < nodes.length; ++i) {
+                Integer id = map.get(nodes[i]);
+                if (id == null) {
+                    id = map.size();
+                    map.put(nodes[i], id);
+                }
+                nodeIds[i] = id;
+            }
+            this.distinct = new Object[map.size()];
+            for (Map.Entry<Object, Integer> en : map.entrySet()) {
+                distinct[en.getValue()] = en.getKey();
+            }
+            this.prefSize = Math.min(preferenceSize, distinct.length);
+            this.prefs = new int[points.length * prefSize];
+            int[] seen = new int[distinct.length];
+            Arrays.fill(seen, -1);
+            for (int i = 0, k = 0; i < points.length; ++i) {
+                for (int idx = i, cnt = 0; cnt < prefSize; ) {
+                    int id = nodeIds[idx];
+                    if (seen[id] != i) {
+                        seen[id] = i;
+                        prefs[k++] = id;
+                        ++cnt;
+                    }
+                    if (++idx == points.length) {
+                        idx = 0;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Find the index of the first position not less than the hash, wrap to the head if not found.
+         * The ring must not be empty.
+         *
+         * @param hash the hash code of the key
+         * @return the index of the position
+         */
+        private int ceilingIndex(int hash) {
+            int idx = Arrays.binarySearch(points, hash);
+            if (idx < 0) {
+                idx = -idx - 1;
+                if (idx == points.length) {
+                    idx = 0;
+                }
+            }
+            return idx;
+        }
+    }
+
     /**
      * The hash function
      */
@@ -153,8 +246,32 @@ public class ConsistentHash<T> {
     /**
      * The hash ring
      */
-    private volatile TreeMap<Integer, T> circle = new TreeMap<Integer, T>();
+    private volatile Ring ring = Ring.EMPTY;
+
+    /**
+     * The number of replicas of every weighted node, guarded by this
+     */
+    private final Map<Object, Integer> weightedReplicas = new HashMap<Object, Integer>();
 
+    /**
+     * The number of successor nodes precomputed for every position, guarded by this
+     */
+    private int preferenceSize;
+
+    /**
+     * The in-flight load of every node
+     */
+    private final ConcurrentHashMap<Object, AtomicInteger> loads = new ConcurrentHashMap<Object, AtomicInteger>();
+
+    /**
+     * The total in-flight load of all the nodes
+     */
+    private final AtomicLong totalLoad = new AtomicLong();
+
+    /**
+     * The load bound factor, the bounded load mode is disabled if it's negative
+     */
+    private volatile double loadEpsilon = -1;
 
     /**
      * Create a ConsistentHash with default JVM hash and 100 replicas per node.
@@ -203,10 +320,24 @@ public class ConsistentHash<T> {
      *
      * @param nodes the nodes to be prepared into the hash ring
      */
-    public void prepare(Collection<T> nodes) {
-        for (T node : nodes) {
-            internalAdd(circle, node);
+    public synchronized void prepare(Collection<T> nodes) {
+        this.ring = internalAdd(ring, new ArrayList<T>(nodes), null);
+    }
+
+    /**
+     * Prepare the hash ring with the weighted nodes.<br>
+     * This method must be called before using the hash ring.
+     *
+     * @param nodes the map from the nodes to be prepared into the hash ring to their weights
+     */
+    public synchronized void prepare(Map<T, Double> nodes) {
+        List<T> list = new ArrayList<T>(nodes.size());
+        int[] replicas = new int[nodes.size()];
+        for (Map.Entry<T, Double> en : nodes.entrySet()) {
+            replicas[list.size()] = weightToReplicas(en.getKey(), en.getValue());
+            list.add(en.getKey());
         }
+        this.ring = internalAdd(ring, list, replicas);
     }
 
     /**
@@ -215,72 +346,208 @@ public class ConsistentHash<T> {
      *
      * @param nodes the nodes to be prepared into the hash ring
      */
-    public void prepare(@SuppressWarnings("unchecked") T... nodes) {
-        for (T node : nodes) {
-            internalAdd(circle, node);
-        }
+    public synchronized void prepare(@SuppressWarnings("unchecked") T... nodes) {
+        this.ring = internalAdd(ring, Arrays.asList(nodes), null);
     }
 
     /**
      * Add this node into the hash ring at runtime.<br>
-     * We will clone the hash ring inside this method, so we will need more
+     * We will copy the hash ring inside this method, so we will need more
      * memory and create more objects. It's better to call prepare to add all the nodes
      * before start. And use this method only after the system is running.
      *
      * @param node the node to be added
      */
+    @Override
     public synchronized void add(T node) {
-        // We clone the hash ring.
-        @SuppressWarnings("unchecked")
-        TreeMap<Integer, T> ring = (TreeMap<Integer, T>) circle.clone();
-        internalAdd(ring, node);
-        // We replace the old hash ring with this new ring.
-        this.circle = ring;
+        // We replace the old hash ring with the new ring.
+        this.ring = internalAdd(ring, Collections.singletonList(node), null);
     }
 
     /**
-     * Add this node into the hash ring.
+     * Add this node with the specified weight into the hash ring at runtime.<br>
+     * The number of replicas of this node is the number of replicas per node multiplied by
+     * the weight, at least one.
      *
-     * @param ring the hash ring
      * @param node the node to be added
+     * @param weight the weight of this node, must be positive
      */
-    private void internalAdd(TreeMap<Integer, T> ring, T node) {
-        final int START = findStart(node);
+    public synchronized void add(T node, double weight) {
+        int[] replicas = new int[] {weightToReplicas(node, weight)};
+        this.ring = internalAdd(ring, Collections.singletonList(node), replicas);
+    }
 
-        for (int i = START; i < numberOfReplicas + START; ++i) {
-            ring.put(hashFunction.hashCode(node, i), node);
+    /**
+     * Calculate the number of replicas by the weight, and remember it for remove.
+     * Must be called under lock.
+     *
+     * @param node the node
+     * @param weight the weight of the node
+     * @return the number of replicas
+     */
+    private int weightToReplicas(T node, double weight) {
+        Check.isTrue(weight > 0, "The weight must be positive.");
+        int replicas = (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, Math.round(numberOfReplicas * weight)));
+        if (replicas == numberOfReplicas) {
+            weightedReplicas.remove(node);
+        } else {
+            weightedReplicas.put(node, replicas);
         }
+        return replicas;
+    }
+
+    /**
+     * Get the number of replicas of this node. Must be called under lock.
+     *
+     * @param node the node
+     * @return the number of replicas
+     */
+    private int replicasOf(Object node) {
+        Integer r = weightedReplicas.get(node);
+        return r == null ? numberOfReplicas : r;
+    }
+
+    /**
+     * Add these nodes into the hash ring, and return the new ring. The old positions of the nodes
+     * already in the ring are removed first, so a node added again only has the positions of its
+     * new number of replicas, which {@link #remove(Object)} relies on.
+     *
+     * @param old the old hash ring
+     * @param list the nodes to be added
+     * @param replicas the number of replicas of every node, null to use the default replicas
+     * @return the new hash ring
+     */
+    private Ring internalAdd(Ring old, List<T> list, int[] replicas) {
+        int size = 0;
+        for (int l = 0; l < list.size(); ++l) {
+            if (replicas == null) {
+                weightedReplicas.remove(list.get(l));
+            }
+            size += replicas == null ? numberOfReplicas : replicas[l];
+        }
+        // The high 32 bits is the position, the low 32 bits is the sequence of the replica,
+        // so the sorted result is ordered by position, then by the adding order.
+        long[] arr = new long[size];
+        int[] owner = new int[size];
+        int k = 0;
+        for (int l = 0; l < list.size(); ++l) {
+            final T node = list.get(l);
+            final int cnt = replicas == null ? numberOfReplicas : replicas[l];
+            final int START = findStart(node, cnt);
+
+            for (int i = START; i < cnt + START; ++i, ++k) {
+                arr[k] = ((long) hashFunction.hashCode(node, i) << 32) | k;
+                owner[k] = l;
+            }
+        }
+        Arrays.sort(arr);
+        // Drop the old positions of the nodes added again.
+        Set<Object> added = new HashSet<Object>(list);
+        int[] oldPoints = new int[old.points.length];
+        Object[] oldNodes = new Object[oldPoints.length];
+        int m = 0;
+        for (int i = 0; i < oldPoints.length; ++i) {
+            if (!added.contains(old.nodes[i])) {
+                oldPoints[m] = old.points[i];
+                oldNodes[m++] = old.nodes[i];
+            }
+        }
+        // Merge the old ring with the new positions, the last added node wins.
+        int[] points = new int[m + size];
+        Object[] nodes = new Object[points.length];
+        int i = 0, j = 0, n = 0;
+        while (j < size) {
+            int p = (int) (arr[j] >> 32);
+            // Skip to the last replica on this position.
+            while (j + 1 < size && (int) (arr[j + 1] >> 32) == p) {
+                ++j;
+            }
+            while (i < m && oldPoints[i] < p) {
+                points[n] = oldPoints[i];
+                nodes[n++] = oldNodes[i++];
+            }
+            if (i < m && oldPoints[i] == p) {
+                ++i;
+            }
+            points[n] = p;
+            nodes[n++] = list.get(owner[(int) arr[j++]]);
+        }
+        while (i < m) {
+            points[n] = oldPoints[i];
+            nodes[n++] = oldNodes[i++];
+        }
+        return new Ring(Arrays.copyOf(points, n), Arrays.copyOf(nodes, n), preferenceSize);
     }
 
     /**
      * Remove this node from the hash ring at runtime.<br>
-     * We will clone the hash ring inside this method, in exchange for high
+     * We will copy the hash ring inside this method, in exchange for high
      * concurrency.
      *
      * @param node the node to be removed
      */
+    @Override
     public synchronized void remove(T node) {
-        // We clone the hash ring.
-        @SuppressWarnings("unchecked")
-        TreeMap<Integer, T> ring = (TreeMap<Integer, T>) circle.clone();
-        final int START = findStart(node);
+        final int cnt = replicasOf(node);
+        final int START = findStart(node, cnt);
+        int[] removed = new int[cnt];
 
-        for (int i = START; i < numberOfReplicas + START; ++i) {
-            ring.remove(hashFunction.hashCode(node, i));
+        for (int i = START, k = 0; i < cnt + START; ++i, ++k) {
+            removed[k] = hashFunction.hashCode(node, i);
+        }
+        Arrays.sort(removed);
+        Ring old = ring;
+        int[] points = new int[old.points.length];
+        Object[] nodes = new Object[points.length];
+        int n = 0;
+        for (int i = 0; i < points.length; ++i) {
+            if (Arrays.binarySearch(removed, old.points[i]) < 0) {
+                points[n] = old.points[i];
+                nodes[n++] = old.nodes[i];
+            }
+        }
+        // We replace the old hash ring with the new ring.
+        this.ring = new Ring(Arrays.copyOf(points, n), Arrays.copyOf(nodes, n), preferenceSize);
+        if (!Arrays.asList(ring.nodes).contains(node)) {
+            weightedReplicas.remove(node);
+            AtomicInteger load = loads.remove(node);
+            if (load != null) {
+                totalLoad.addAndGet(-load.get());
+            }
         }
-        // We replace the old hash ring with this new ring.
-        this.circle = ring;
     }
 
     /**
      * Find the start index to add or remove this node.
      *
      * @param node the node to be added or removed
+     * @param replicas the number of replicas of this node
      * @return the start index
      */
-    private int findStart(T node) {
+    private int findStart(T node, int replicas) {
         final int START = hashFunction.hashCode(node);
-        return (START > Integer.MAX_VALUE - numberOfReplicas) ? START - numberOfReplicas * 79 : START;
+        return (START > Integer.MAX_VALUE - replicas) ? START - replicas * 79 : START;
+    }
+
+    /**
+     * Set the number of distinct successor nodes precomputed for every position of the hash ring.
+     * {@link #getNodeList(Object, int)} with no more than this number of nodes is answered by the
+     * precomputed lists. It takes this number of ints for every position.
+     *
+     * @param preferenceSize the number of successor nodes, 0 to disable it
+     */
+    public synchronized void setPreferenceSize(int preferenceSize) {
+        Check.lt(-1, preferenceSize, "The parameter 'preferenceSize' must not be negative.");
+        this.preferenceSize = preferenceSize;
+        final Ring r = ring;
+        this.ring = new Ring(r.points, r.nodes, preferenceSize);
+    }
+
+    /**
+     * @return the number of distinct successor nodes precomputed for every position
+     */
+    public synchronized int getPreferenceSize() {
+        return preferenceSize;
     }
 
     /**
@@ -289,17 +556,164 @@ public class ConsistentHash<T> {
      * @param key the key
      * @return the node next to this key in the hash ring
      */
+    @SuppressWarnings("unchecked")
     public T getNode(Object key) {
-        if (circle.isEmpty()) {
+        final Ring r = ring;
+        if (r.points.length == 0) {
+            return null;
+        }
+        // Find the next position.
+        int idx = r.ceilingIndex(hashFunction.hashCode(key));
+        final double eps = loadEpsilon;
+        return (T) (eps < 0 ? r.nodes[idx] : boundedNode(r, idx, eps));
+    }
+
+    /**
+     * Walk clockwise from the index, find the first node whose load is under the bound.
+     *
+     * @param r the hash ring
+     * @param idx the start index
+     * @param eps the load bound factor
+     * @return the node found
+     */
+    private Object boundedNode(Ring r, int idx, double eps) {
+        final int len = r.points.length;
+        // The bound counts the new request in, so there is always a node under the bound.
+        final long bound = (long) Math.ceil((totalLoad.get() + 1) * (1 + eps) / r.distinct.length);
+        for (int k = 0; k < len; ++k) {
+            Object node = r.nodes[idx];
+            AtomicInteger load = loads.get(node);
+            if (load == null || load.get() < bound) {
+                return node;
+            }
+            if (++idx == len) {
+                idx = 0;
+            }
+        }
+        // The loads changed concurrently, use the original node.
+        return r.nodes[idx];
+    }
+
+    /**
+     * Enable the bounded load mode. The caller must report the load of nodes by
+     * {@link #incrementLoad(Object)} and {@link #decrementLoad(Object)}.
+     *
+     * @param epsilon the load bound factor, a node is skipped if its load reaches (1 + epsilon)
+     * times of the average load; use a negative value to disable the bounded load mode
+     */
+    public void setLoadEpsilon(double epsilon) {
+        this.loadEpsilon = epsilon;
+    }
+
+    /**
+     * @return the load bound factor, negative if the bounded load mode is disabled
+     */
+    public double getLoadEpsilon() {
+        return loadEpsilon;
+    }
+
+    /**
+     * Increase the in-flight load of this node, usually called when a request is sent to it.
+     *
+     * @param node the node
+     * @return the current load of this node
+     */
+    public int incrementLoad(T node) {
+        AtomicInteger load = loads.get(node);
+        if (load == null) {
+            AtomicInteger tmp = new AtomicInteger();
+            load = loads.putIfAbsent(node, tmp);
+            if (load == null) {
+                load = tmp;
+            }
+        }
+        totalLoad.incrementAndGet();
+        return load.incrementAndGet();
+    }
+
+    /**
+     * Decrease the in-flight load of this node, usually called when a request is done.
+     * The load of the removed nodes is ignored.
+     *
+     * @param node the node
+     * @return the current load of this node
+     */
+    public int decrementLoad(T node) {
+        AtomicInteger load = loads.get(node);
+        if (load == null) {
+            return 0;
+        }
+        totalLoad.decrementAndGet();
+        return load.decrementAndGet();
+    }
+
+    /**
+     * @param node the node
+     * @return the current in-flight load of this node
+     */
+    public int getLoad(T node) {
+        AtomicInteger load = loads.get(node);
+        return load == null ? 0 : load.get();
+    }
+
+
+    /**
+     * Get the node by the 64 bits hash of the key, the hash is folded into the 32 bits hash ring
+     * instead of hashing the key by the hash function.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#route(long)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T route(long hash) {
+        final Ring r = ring;
+        if (r.points.length == 0) {
             return null;
         }
-        int hash = hashFunction.hashCode(key);
-        // Find the next entry.
-        Entry<Integer, T> en = circle.ceilingEntry(hash);
-        en = en == null ? circle.firstEntry() : en;
-        return en.getValue();
+        return (T) r.nodes[r.ceilingIndex((int) (hash ^ (hash >>> 32)))];
     }
 
+    /**
+     * Group the keys by the node of every key, all the keys are routed by the same hash ring.
+     * The bounded load mode is not applied here.
+     *
+     * @param <K> the key type
+     * @param keys the keys
+     * @return the map from node to the indexes of its keys in the collection, in ascending order
+     */
+    public <K> Map<T, int[]> groupByNode(Collection<K> keys) {
+        final Ring r = ring;
+        if (r.points.length == 0) {
+            return new HashMap<T, int[]>();
+        }
+        int[] owners = new int[keys.size()];
+        int i = 0;
+        for (K key : keys) {
+            owners[i++] = r.nodeIds[r.ceilingIndex(hashFunction.hashCode(key))];
+        }
+        return KeyGroup.group(r.distinct, owners);
+    }
+
+    /**
+     * Group the keys by the node of every key, all the keys are routed by the same hash ring.
+     * The bounded load mode is not applied here.
+     *
+     * @param <K> the key type
+     * @param keys the keys
+     * @return the map from node to the indexes of its keys in the array, in ascending order
+     */
+    public <K> Map<T, int[]> groupByNode(K[] keys) {
+        final Ring r = ring;
+        if (r.points.length == 0) {
+            return new HashMap<T, int[]>();
+        }
+        int[] owners = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            owners[i] = r.nodeIds[r.ceilingIndex(hashFunction.hashCode(keys[i]))];
+        }
+        return KeyGroup.group(r.distinct, owners);
+    }
 
     /**
      * Get the node list for this key.
@@ -318,34 +732,45 @@ public class ConsistentHash<T> {
      * @param numberOfNodes the number of different nodes needed
      * @return the node list
      */
+    @SuppressWarnings("unchecked")
     public List<T> getNodeList(Object key, final int numberOfNodes) {
-        HashSet<T> set = new HashSet<T>(numberOfNodes);
         List<T> list = new ArrayList<T>(numberOfNodes);
-        if (circle.isEmpty()) {
+        final Ring r = ring;
+        final int len = r.points.length;
+        if (len == 0) {
             return list;
         }
-        int hash = hashFunction.hashCode(key);
-        // Find the next entry.
-        SortedMap<Integer, T> tail = circle.tailMap(hash);
-        Iterator<T> iter = tail.values().iterator();
-        boolean isTail = true;
-        while (set.size() < numberOfNodes) {
-            if (iter.hasNext()) {
-                T t = iter.next();
-                if (set.add(t)) {
-                    list.add(t);
-                }
-            } else {
-                if (isTail) {
-                    iter = circle.values().iterator();
-                    isTail = false;
-                } else {
-                    throw new IllegalStateException("There are only " + set.size() + " different nodes, but request "
-                            + numberOfNodes + " in total.");
-                }
+        int idx = r.ceilingIndex(hashFunction.hashCode(key));
+        if (numberOfNodes <= r.prefSize) {
+            // Copy from the precomputed list.
+            for (int k = idx * r.prefSize, end = k + numberOfNodes; k < end; ++k) {
+                list.add((T) r.distinct[r.prefs[k]]);
+            }
+            return list;
+        }
+        // Walk the ring from the next position, at most one round.
+        HashSet<T> set = new HashSet<T>(numberOfNodes);
+        for (int k = 0; k < len && set.size() < numberOfNodes; ++k) {
+            T t = (T) r.nodes[idx];
+            if (set.add(t)) {
+                list.add(t);
             }
+            if (++idx == len) {
+                idx = 0;
+            }
+        }
+        if (set.size() < numberOfNodes) {
+            throw new IllegalStateException("There are only " + set.size() + " different nodes, but request "
+                    + numberOfNodes + " in total.");
         }
         return list;
     }
 
+    /**
+     * @return the number of positions in the hash ring
+     */
+    public int ringSize() {
+        return ring.points.length;
+    }
+
 }
@@ -0,0 +1,373 @@
+/**
+ * CountingBloomFilter.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.niolex.commons.stream.StreamUtil;
+import org.apache.niolex.commons.test.Check;
+
+/**
+ * The cache line blocked counting Bloom filter, which supports removing keys.
+ * <br>
+ * Every position is a 4 bits counter instead of a bit, 16 counters are packed in one long, and all the
+ * counters of one key are in the same block of 128 counters, i.e. the size of one cache line, so a
+ * lookup touches at most two cache lines, the block is not aligned to the cache line. The counters
+ * are updated by CAS, so concurrent puts, removes and lookups are thread safe without lock.
+ * <br>
+ * A counter stops at 15 and is never decreased after that, so removing keys never causes false
+ * negatives, but the saturated positions can not be cleared any more. Removing a key not in the
+ * filter may cause false negatives of other keys, so user must only remove the keys put before.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @see BlockedBloomFilter
+ */
+public class CountingBloomFilter {
+
+    /**
+     * The number of counters in one block, the size of one cache line.
+     */
+    public static final int BLOCK_COUNTERS = 128;
+
+    /**
+     * The max value of a counter.
+     */
+    public static final int MAX_COUNT = 15;
+
+    /**
+     * The number of longs in one block.
+     */
+    private static final int BLOCK_LONGS = BLOCK_COUNTERS / 16;
+
+    /**
+     * The magic number of the serialized filter.
+     */
+    private static final int MAGIC = 0x4E434246;
+
+    private final AtomicLongArray counters;
+    private final int numBlocks;
+    private final int numHashes;
+
+    /**
+     * Create a filter with the optimal size for the expected number of keys and the false positive rate.
+     *
+     * @param expectedInsertions the expected number of keys
+     * @param fpp the false positive probability, between 0 and 1
+     */
+    public CountingBloomFilter(long expectedInsertions, double fpp) {
+        this(BlockedBloomFilter.optimalNumBlocks(expectedInsertions, fpp, BLOCK_COUNTERS),
+                BlockedBloomFilter.optimalNumHashes(fpp));
+    }
+
+    /**
+     * Create a filter with the specified size.
+     *
+     * @param numBlocks the number of blocks, every block has 128 counters
+     * @param numHashes the number of counters increased for one key, from 1 to 16
+     */
+    public CountingBloomFilter(int numBlocks, int numHashes) {
+        this(numBlocks, numHashes, new AtomicLongArray(BlockedBloomFilter.checkBlocks(numBlocks) * BLOCK_LONGS));
+    }
+
+    /**
+     * Create a filter with the specified counters.
+     *
+     * @param numBlocks the number of blocks
+     * @param numHashes the number of counters increased for one key
+     * @param counters the counters
+     */
+    private CountingBloomFilter(int numBlocks, int numHashes, AtomicLongArray counters) {
+        super();
+        Check.lt(0, numHashes, "The parameter 'numHashes' must be positive.");
+        Check.lt(numHashes, BlockedBloomFilter.MAX_HASHES + 1, "The parameter 'numHashes' must not greater than 16.");
+        this.numBlocks = numBlocks;
+        this.numHashes = numHashes;
+        this.counters = counters;
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     */
+    public void put(byte[] key) {
+        putHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     */
+    public void put(CharSequence key) {
+        putHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Put the key into this filter.
+     *
+     * @param key the key
+     */
+    public void put(long key) {
+        putHash(BlockedBloomFilter.mix64(key));
+    }
+
+    /**
+     * Put the key by its 64 bits hash.
+     *
+     * @param hash the 64 bits hash of the key
+     */
+    public void putHash(long hash) {
+        update(hash, 1);
+    }
+
+    /**
+     * Remove the key from this filter. The key must be put before.
+     *
+     * @param key the key
+     */
+    public void remove(byte[] key) {
+        removeHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Remove the key from this filter. The key must be put before.
+     *
+     * @param key the key
+     */
+    public void remove(CharSequence key) {
+        removeHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Remove the key from this filter. The key must be put before.
+     *
+     * @param key the key
+     */
+    public void remove(long key) {
+        removeHash(BlockedBloomFilter.mix64(key));
+    }
+
+    /**
+     * Remove the key by its 64 bits hash. The key must be put before.
+     *
+     * @param hash the 64 bits hash of the key
+     */
+    public void removeHash(long hash) {
+        update(hash, -1);
+    }
+
+    /**
+     * Increase or decrease all the counters of the key. The saturated counters are not changed.
+     *
+     * @param hash the 64 bits hash of the key
+     * @param delta 1 or -1
+     */
+    protected void update(long hash, int delta) {
+        int base = BlockedBloomFilter.blockIndex(hash, numBlocks) * BLOCK_LONGS;
+        int h1 = (int) hash;
+        int h2 = BlockedBloomFilter.secondHash(hash);
+        for (int i = 0; i < numHashes; ++i) {
+            int pos = (h1 + i * h2) & (BLOCK_COUNTERS - 1);
+            int idx = base + (pos >>> 4);
+            int shift = (pos & 15) << 2;
+            while (true) {
+                long old = counters.get(idx);
+                int c = (int) (old >>> shift) & MAX_COUNT;
+                if (c == MAX_COUNT || (c == 0 && delta < 0)) {
+                    break;
+                }
+                long upd = old + ((long) delta << shift);
+                if (counters.compareAndSet(idx, old, upd)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(byte[] key) {
+        return mightContainHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(CharSequence key) {
+        return mightContainHash(BlockedBloomFilter.hash64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter.
+     *
+     * @param key the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContain(long key) {
+        return mightContainHash(BlockedBloomFilter.mix64(key));
+    }
+
+    /**
+     * Check whether the key might be in this filter by its 64 bits hash.
+     *
+     * @param hash the 64 bits hash of the key
+     * @return false if the key is definitely not in this filter
+     */
+    public boolean mightContainHash(long hash) {
+        return estimateCountHash(hash) > 0;
+    }
+
+    /**
+     * Estimate how many times the key was put, by the minimum counter of the key.
+     *
+     * @param hash the 64 bits hash of the key
+     * @return the estimated count, at most 15
+     */
+    public int estimateCountHash(long hash) {
+        int base = BlockedBloomFilter.blockIndex(hash, numBlocks) * BLOCK_LONGS;
+        int h1 = (int) hash;
+        int h2 = BlockedBloomFilter.secondHash(hash);
+        int min = MAX_COUNT;
+        for (int i = 0; i < numHashes; ++i) {
+            int pos = (h1 + i * h2) & (BLOCK_COUNTERS - 1);
+            int c = (int) (counters.get(base + (pos >>> 4)) >>> ((pos & 15) << 2)) & MAX_COUNT;
+            if (c < min) {
+                if (c == 0) {
+                    return 0;
+                }
+                min = c;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return the total number of counters
+     */
+    public long counterSize() {
+        return (long) numBlocks * BLOCK_COUNTERS;
+    }
+
+    /**
+     * @return the number of blocks
+     */
+    public int getNumBlocks() {
+        return numBlocks;
+    }
+
+    /**
+     * @return the number of counters increased for one key
+     */
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Write this filter into the output stream. The stream is flushed but not closed.
+     *
+     * @param out the output stream
+     * @throws IOException if failed to write
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream dout = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        dout.writeInt(MAGIC);
+        dout.writeInt(numBlocks);
+        dout.writeInt(numHashes);
+        for (int i = 0; i < counters.length(); ++i) {
+            dout.writeLong(counters.get(i));
+        }
+        dout.flush();
+    }
+
+    /**
+     * Write this filter into the file.
+     *
+     * @param file the file
+     * @throws IOException if failed to write
+     */
+    public void writeTo(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            writeTo(out);
+        } finally {
+            StreamUtil.closeStream(out);
+        }
+    }
+
+    /**
+     * Read the filter from the input stream. The stream is not closed.
+     *
+     * @param in the input stream
+     * @return the filter
+     * @throws IOException if failed to read or the data is invalid
+     */
+    public static CountingBloomFilter readFrom(InputStream in) throws IOException {
+        DataInputStream din = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (din.readInt() != MAGIC) {
+            throw new IOException("Invalid counting bloom filter magic number.");
+        }
+        int numBlocks = din.readInt();
+        int numHashes = din.readInt();
+        if (numBlocks <= 0 || numBlocks > Integer.MAX_VALUE / BLOCK_LONGS || numHashes <= 0
+                || numHashes > BlockedBloomFilter.MAX_HASHES) {
+            throw new IOException("Invalid counting bloom filter header.");
+        }
+        AtomicLongArray counters = new AtomicLongArray(numBlocks * BLOCK_LONGS);
+        for (int i = 0; i < counters.length(); ++i) {
+            counters.lazySet(i, din.readLong());
+        }
+        return new CountingBloomFilter(numBlocks, numHashes, counters);
+    }
+
+    /**
+     * Read the filter from the file.
+     *
+     * @param file the file
+     * @return the filter
+     * @throws IOException if failed to read or the data is invalid
+     */
+    public static CountingBloomFilter readFrom(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return readFrom(in);
+        } finally {
+            StreamUtil.closeStream(in);
+        }
+    }
+
+}
@@ -18,6 +18,8 @@
 package org.apache.niolex.commons.hash;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.niolex.commons.bean.Pair;
 import org.apache.niolex.commons.codec.StringUtil;
@@ -172,6 +174,47 @@ public class DoubleHash<T> {
         return getPairNodes(primary.hashObject(key, funnel), secondary.hashObject(key, funnel));
     }
 
+    /**
+     * Group the keys by the primary node of every key, all the keys are routed by the same node list.
+     * The key is hashed by its string form, the same as {@link #getPairNodes(String)}.
+     *
+     * @param <K> the key type
+     * @param keys the keys
+     * @return the map from primary node to the indexes of its keys in the collection, in ascending order
+     */
+    public <K> Map<T, int[]> groupByNode(Collection<K> keys) {
+        final Object[] tmpArray = this.nodeArray;
+        if (tmpArray.length == 0) {
+            return new HashMap<T, int[]>();
+        }
+        int[] owners = new int[keys.size()];
+        int i = 0;
+        for (K key : keys) {
+            owners[i++] = Hashing.consistentHash(primary.hashString(key.toString(), StringUtil.UTF_8), tmpArray.length);
+        }
+        return KeyGroup.group(tmpArray, owners);
+    }
+
+    /**
+     * Group the keys by the primary node of every key, all the keys are routed by the same node list.
+     * The key is hashed by its string form, the same as {@link #getPairNodes(String)}.
+     *
+     * @param <K> the key type
+     * @param keys the keys
+     * @return the map from primary node to the indexes of its keys in the array, in ascending order
+     */
+    public <K> Map<T, int[]> groupByNode(K[] keys) {
+        final Object[] tmpArray = this.nodeArray;
+        if (tmpArray.length == 0) {
+            return new HashMap<T, int[]>();
+        }
+        int[] owners = new int[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            owners[i] = Hashing.consistentHash(primary.hashString(keys[i].toString(), StringUtil.UTF_8), tmpArray.length);
+        }
+        return KeyGroup.group(tmpArray, owners);
+    }
+
     /**
      * Get the pair of server nodes by these hash codes. We guarantee the first and second node are
      * not the same.<br>
@@ -0,0 +1,131 @@
+/**
+ * JumpHash.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.util.Collection;
+
+/**
+ * The jump consistent hash by John Lamping and Eric Veach. It needs no memory except the node
+ * array, and the keys are perfectly balanced without any virtual node.
+ * <br>
+ * The jump hash maps keys to the bucket numbers, so nodes can only be added to or removed from the
+ * tail without moving other keys. When removing a node in the middle, we replace it with the last
+ * node like {@link DoubleHash}, so there are 2/n keys moved instead of 1/n.
+ * <br>
+ * User can add and remove nodes at runtime dynamically. We use copy on write to remove the need of lock.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the server node type
+ */
+public class JumpHash<T> implements NodeRouter<T> {
+
+    // the server node array
+    private volatile Object[] nodeArray;
+
+    /**
+     * Create a jump hash with the server nodes.
+     *
+     * @param nodeList the server node list
+     */
+    public JumpHash(Collection<T> nodeList) {
+        super();
+        this.nodeArray = nodeList.toArray();
+    }
+
+    /**
+     * Map the key into one of the buckets, only 1/n keys are moved when the number of buckets
+     * changes from n - 1 to n.
+     *
+     * @param key the 64 bits key
+     * @param buckets the number of buckets, must be positive
+     * @return the bucket number, from 0 to buckets - 1
+     */
+    public static int jump(long key, int buckets) {
+        long b = -1, j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#route(long)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T route(long hash) {
+        final Object[] tmpArray = this.nodeArray;
+        if (tmpArray.length == 0) {
+            return null;
+        }
+        return (T) tmpArray[jump(hash, tmpArray.length)];
+    }
+
+    /**
+     * Add this node to the tail of the node list, only 1/n keys will be moved.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#add(java.lang.Object)
+     */
+    @Override
+    public synchronized void add(T node) {
+        Object[] tmpArray = new Object[this.nodeArray.length + 1];
+        System.arraycopy(this.nodeArray, 0, tmpArray, 0, this.nodeArray.length);
+        tmpArray[this.nodeArray.length] = node;
+        this.nodeArray = tmpArray;
+    }
+
+    /**
+     * Remove the first occurrence of this node, and replace it with the last node.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#remove(java.lang.Object)
+     */
+    @Override
+    public synchronized void remove(T node) {
+        int i = 0;
+        final int length = this.nodeArray.length;
+        for (; i < length; ++i) {
+            if (node.equals(nodeArray[i])) {
+                break;
+            }
+        }
+
+        if (i != length) {
+            Object[] tmpArray = new Object[length - 1];
+            System.arraycopy(this.nodeArray, 0, tmpArray, 0, length - 1);
+            if (i != length - 1) {
+                tmpArray[i] = this.nodeArray[length - 1];
+            }
+            this.nodeArray = tmpArray;
+        }
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return this.nodeArray.length;
+    }
+
+}
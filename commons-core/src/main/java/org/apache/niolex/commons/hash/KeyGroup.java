@@ -0,0 +1,95 @@
+/**
+ * KeyGroup.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Group the keys of a batch by their nodes, used by the hash algorithms to route many keys at once.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+abstract class KeyGroup {
+
+    /**
+     * Group the key indexes by the node of every key in two passes: count, then fill.
+     *
+     * @param <T> the server node type
+     * @param nodes the nodes
+     * @param owners the node index of every key
+     * @return the map from node to the indexes of its keys, in ascending order
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Map<T, int[]> group(Object[] nodes, int[] owners) {
+        int[] counts = new int[nodes.length];
+        int used = 0;
+        for (int o : owners) {
+            if (counts[o]++ == 0) {
+                ++used;
+            }
+        }
+        int[][] groups = new int[nodes.length][];
+        for (int i = 0; i < nodes.length; ++i) {
+            if (counts[i] != 0) {
+                groups[i] = new int[counts[i]];
+                counts[i] = 0;
+            }
+        }
+        for (int k = 0; k < owners.length; ++k) {
+            int o = owners[k];
+            groups[o][counts[o]++] = k;
+        }
+        Map<T, int[]> map = new HashMap<T, int[]>(used * 4 / 3 + 1);
+        for (int i = 0; i < nodes.length; ++i) {
+            if (groups[i] != null) {
+                int[] old = map.put((T) nodes[i], groups[i]);
+                if (old != null) {
+                    // The same node appears twice, merge them.
+                    map.put((T) nodes[i], merge(old, groups[i]));
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Merge two sorted arrays.
+     *
+     * @param a the first array
+     * @param b the second array
+     * @return the merged array
+     */
+    private static int[] merge(int[] a, int[] b) {
+        int[] r = new int[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            r[k++] = a[i] < b[j] ? a[i++] : b[j++];
+        }
+        while (i < a.length) {
+            r[k++] = a[i++];
+        }
+        while (j < b.length) {
+            r[k++] = b[j++];
+        }
+        return r;
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * MaglevHash.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.niolex.commons.test.Check;
+
+/**
+ * The Maglev hash from the Google Maglev load balancer. Every node fills the lookup table by its
+ * own permutation in turns, so every node gets almost the same number of slots, and the lookup is
+ * just one array access.
+ * <br>
+ * The table size must be a prime, and much larger than the number of nodes for good balance,
+ * 100 times of the number of nodes is suggested. When a node is added or removed, the table is
+ * rebuilt, most of the slots of the other nodes are not changed.
+ * <br>
+ * The node hash is calculated from the {@code toString} of the node. User can add and remove
+ * nodes at runtime dynamically. We use copy on write to remove the need of lock.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the server node type
+ */
+public class MaglevHash<T> implements NodeRouter<T> {
+
+    /**
+     * The default lookup table size, good for up to 600 nodes.
+     */
+    public static final int DEFAULT_TABLE_SIZE = 65537;
+
+    /**
+     * The immutable nodes with the lookup table.
+     */
+    private static final class Table {
+        private final Object[] nodes;
+        private final int[] lookup;
+
+        private Table(Object[] nodes, int[] lookup) {
+            this.nodes = nodes;
+            this.lookup = lookup;
+        }
+    }
+
+    // the lookup table size
+    private final int tableSize;
+    // the server nodes and the lookup table
+    private volatile Table table;
+
+    /**
+     * Create a Maglev hash with the default table size.
+     *
+     * @param nodeList the server node list
+     */
+    public MaglevHash(Collection<T> nodeList) {
+        this(nodeList, DEFAULT_TABLE_SIZE);
+    }
+
+    /**
+     * Create a Maglev hash with the specified table size.
+     *
+     * @param nodeList the server node list
+     * @param tableSize the lookup table size, must be a prime not less than the number of nodes
+     */
+    public MaglevHash(Collection<T> nodeList, int tableSize) {
+        super();
+        Check.isTrue(isPrime(tableSize), "The parameter 'tableSize' must be a prime.");
+        this.tableSize = tableSize;
+        this.table = build(nodeList.toArray());
+    }
+
+    /**
+     * Check whether the number is a prime.
+     *
+     * @param n the number
+     * @return true if it's a prime
+     */
+    public static boolean isPrime(int n) {
+        if (n < 2) {
+            return false;
+        }
+        for (int i = 2; (long) i * i <= n; ++i) {
+            if (n % i == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build the lookup table for these nodes.
+     *
+     * @param nodes the server nodes
+     * @return the table
+     */
+    private Table build(Object[] nodes) {
+        final int n = nodes.length;
+        Check.isTrue(n <= tableSize, "The number of nodes must not exceed the table size.");
+        int[] lookup = new int[n == 0 ? 0 : tableSize];
+        Arrays.fill(lookup, -1);
+        // The current position and the skip of every node's permutation.
+        int[] pos = new int[n];
+        int[] skip = new int[n];
+        for (int i = 0; i < n; ++i) {
+            long h = BlockedBloomFilter.hash64(nodes[i].toString());
+            pos[i] = (int) ((h >>> 1) % tableSize);
+            skip[i] = (int) ((BlockedBloomFilter.mix64(h) >>> 1) % (tableSize - 1)) + 1;
+        }
+        int filled = 0;
+        while (filled < lookup.length) {
+            for (int i = 0; i < n && filled < lookup.length; ++i) {
+                // Find the next empty slot in the permutation of this node.
+                int c = pos[i];
+                while (lookup[c] >= 0) {
+                    c = next(c, skip[i]);
+                }
+                lookup[c] = i;
+                pos[i] = next(c, skip[i]);
+                ++filled;
+            }
+        }
+        return new Table(nodes, lookup);
+    }
+
+    /**
+     * @param c the current position
+     * @param skip the skip
+     * @return the next position in the permutation
+     */
+    private int next(int c, int skip) {
+        return (int) (((long) c + skip) % tableSize);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#route(long)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T route(long hash) {
+        final Table tmp = this.table;
+        if (tmp.lookup.length == 0) {
+            return null;
+        }
+        return (T) tmp.nodes[tmp.lookup[(int) ((hash >>> 1) % tableSize)]];
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#add(java.lang.Object)
+     */
+    @Override
+    public synchronized void add(T node) {
+        Object[] old = this.table.nodes;
+        Object[] tmpArray = new Object[old.length + 1];
+        System.arraycopy(old, 0, tmpArray, 0, old.length);
+        tmpArray[old.length] = node;
+        this.table = build(tmpArray);
+    }
+
+    /**
+     * Remove the first occurrence of this node.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#remove(java.lang.Object)
+     */
+    @Override
+    public synchronized void remove(T node) {
+        Object[] old = this.table.nodes;
+        for (int i = 0; i < old.length; ++i) {
+            if (node.equals(old[i])) {
+                Object[] tmpArray = new Object[old.length - 1];
+                System.arraycopy(old, 0, tmpArray, 0, i);
+                System.arraycopy(old, i + 1, tmpArray, i, old.length - i - 1);
+                this.table = build(tmpArray);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return this.table.nodes.length;
+    }
+
+    /**
+     * @return the lookup table size
+     */
+    public int getTableSize() {
+        return tableSize;
+    }
+
+}
@@ -0,0 +1,256 @@
+/**
+ * Murmur3Hash128.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The pure Java implementation of MurmurHash3_x64_128 by Austin Appleby. It hashes byte arrays,
+ * byte buffers and char sequences directly into longs without creating any object. The 64 bits
+ * hash is the first half of the 128 bits result, the same as
+ * {@code Hashing.murmur3_128(seed).hashBytes(b).asLong()} of Guava for the non negative int seeds.
+ * <br>
+ * The char sequence can be hashed as UTF-16 little endian bytes, which needs no encoding and is
+ * the fastest; or as UTF-8 bytes, which is the same as hashing {@code s.getBytes("UTF-8")}, encoded
+ * in a thread local buffer.
+ * <br>
+ * It can be used as the {@link ConsistentHash.HashFunction}, the char sequences are hashed as
+ * UTF-16, byte arrays by the bytes, and the other objects by the UTF-16 of {@code toString}.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class Murmur3Hash128 implements ConsistentHash.HashFunction {
+    public static final Murmur3Hash128 INSTANCE = new Murmur3Hash128(0);
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    /**
+     * The hash seed.
+     */
+    private final long seed;
+
+    /**
+     * Create a murmur3 hash with the specified seed.
+     *
+     * @param seed the hash seed
+     */
+    public Murmur3Hash128(long seed) {
+        super();
+        this.seed = seed;
+    }
+
+    /**
+     * Hash all the bytes into 64 bits.
+     *
+     * @param b the bytes
+     * @return the first 64 bits of the hash
+     */
+    public long hash(byte[] b) {
+        return hash(ByteAccess.BYTES, b, 0, b.length, seed, null);
+    }
+
+    /**
+     * Hash the specified range of the bytes into 64 bits.
+     *
+     * @param b the bytes
+     * @param off the start offset
+     * @param len the number of bytes
+     * @return the first 64 bits of the hash
+     */
+    public long hash(byte[] b, int off, int len) {
+        return hash128(b, off, len, null);
+    }
+
+    /**
+     * Hash the specified range of the bytes into 128 bits.
+     *
+     * @param b the bytes
+     * @param off the start offset
+     * @param len the number of bytes
+     * @param out the array to store the 128 bits hash at index 0 and 1, can be null
+     * @return the first 64 bits of the hash
+     */
+    public long hash128(byte[] b, int off, int len, long[] out) {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException("Invalid range [" + off + ", " + len + "] of " + b.length);
+        }
+        return hash(ByteAccess.BYTES, b, off, len, seed, out);
+    }
+
+    /**
+     * Hash the remaining bytes of the buffer into 64 bits, from position to limit. The position is
+     * not changed. Both heap and direct buffers are supported.
+     *
+     * @param buf the byte buffer
+     * @return the first 64 bits of the hash
+     */
+    public long hash(ByteBuffer buf) {
+        return hash128(buf, null);
+    }
+
+    /**
+     * Hash the remaining bytes of the buffer into 128 bits, from position to limit. The position is
+     * not changed. Both heap and direct buffers are supported.
+     *
+     * @param buf the byte buffer
+     * @param out the array to store the 128 bits hash at index 0 and 1, can be null
+     * @return the first 64 bits of the hash
+     */
+    public long hash128(ByteBuffer buf, long[] out) {
+        return hash(ByteAccess.BUFFER, buf, buf.position(), buf.remaining(), seed, out);
+    }
+
+    /**
+     * Hash the char sequence as UTF-16 little endian bytes.
+     *
+     * @param s the char sequence
+     * @return the first 64 bits of the hash
+     */
+    public long hashChars(CharSequence s) {
+        return hash(ByteAccess.CHARS, s, 0, s.length() << 1, seed, null);
+    }
+
+    /**
+     * Hash the char sequence as UTF-8 bytes.
+     *
+     * @param s the char sequence
+     * @return the first 64 bits of the hash
+     */
+    public long hashUtf8(CharSequence s) {
+        ByteAccess.Utf8 u = ByteAccess.utf8(s);
+        return hash(ByteAccess.BYTES, u.buf, 0, u.len, seed, null);
+    }
+
+    /**
+     * Hash the object by its content.
+     *
+     * @param o the object
+     * @param seed the hash seed
+     * @return the hash
+     */
+    private static long hashObject(Object o, long seed) {
+        if (o instanceof byte[]) {
+            byte[] b = (byte[]) o;
+            return hash(ByteAccess.BYTES, b, 0, b.length, seed, null);
+        }
+        CharSequence s = o instanceof CharSequence ? (CharSequence) o : o.toString();
+        return hash(ByteAccess.CHARS, s, 0, s.length() << 1, seed, null);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.ConsistentHash.HashFunction#hashCode(java.lang.Object)
+     */
+    @Override
+    public int hashCode(Object o) {
+        long h = hashObject(o, seed);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.ConsistentHash.HashFunction#hashCode(java.lang.Object, int)
+     */
+    @Override
+    public int hashCode(Object o, int seed) {
+        long h = hashObject(o, this.seed + seed);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The MurmurHash3_x64_128 algorithm.
+     *
+     * @param a the input access
+     * @param in the input
+     * @param off the start offset
+     * @param len the number of bytes
+     * @param seed the hash seed
+     * @param out the array to store the 128 bits hash, can be null
+     * @return the first 64 bits of the hash
+     */
+    static long hash(ByteAccess a, Object in, int off, int len, long seed, long[] out) {
+        long h1 = seed;
+        long h2 = seed;
+        final int end = off + len;
+        for (int limit = end - 16; off <= limit; off += 16) {
+            long k1 = a.getLong(in, off);
+            long k2 = a.getLong(in, off + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52DCE729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495AB5;
+        }
+        int rem = end - off;
+        if (rem > 0) {
+            long k1 = 0, k2 = 0;
+            if (rem > 8) {
+                for (int i = rem - 1; i >= 8; --i) {
+                    k2 = k2 << 8 | a.getByte(in, off + i);
+                }
+                h2 ^= mixK2(k2);
+                rem = 8;
+            }
+            for (int i = rem - 1; i >= 0; --i) {
+                k1 = k1 << 8 | a.getByte(in, off + i);
+            }
+            h1 ^= mixK1(k1);
+        }
+        h1 ^= len;
+        h2 ^= len;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        if (out != null) {
+            out[0] = h1;
+            out[1] = h2;
+        }
+        return h1;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * NodeRouter.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+/**
+ * The common interface of the algorithms placing keys onto server nodes.
+ * <br>
+ * The key is routed by its 64 bits hash, the caller hashes the key once by any good hash
+ * function, e.g. {@link BlockedBloomFilter#hash64(CharSequence)}. All the implementations
+ * must be thread safe, lookups should be lock free and nodes can be added or removed at runtime.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the server node type
+ */
+public interface NodeRouter<T> {
+
+    /**
+     * Get the node for this key by the hash of the key.
+     *
+     * @param hash the 64 bits hash of the key
+     * @return the node, or null if there is no node
+     */
+    public T route(long hash);
+
+    /**
+     * Add this node at runtime.
+     *
+     * @param node the node to be added
+     */
+    public void add(T node);
+
+    /**
+     * Remove this node at runtime.
+     *
+     * @param node the node to be removed
+     */
+    public void remove(T node);
+
+}
@@ -0,0 +1,130 @@
+/**
+ * RendezvousHash.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.util.Collection;
+
+/**
+ * The highest random weight hash, also known as rendezvous hash. Every node gets a weight by
+ * mixing the key hash with the node hash, and the node with the highest weight wins.
+ * <br>
+ * When a node is added or removed, only the keys of that node are moved, no matter where
+ * the node is. But the lookup is O(n), so it's suitable for a small number of nodes.
+ * <br>
+ * The node hash is calculated from the {@code toString} of the node, so two nodes with the same
+ * string are at the same place. User can add and remove nodes at runtime dynamically.
+ * We use copy on write to remove the need of lock.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the server node type
+ */
+public class RendezvousHash<T> implements NodeRouter<T> {
+
+    /**
+     * The immutable nodes with their hashes.
+     */
+    private static final class Nodes {
+        private final Object[] nodes;
+        private final long[] hashes;
+
+        private Nodes(Object[] nodes) {
+            this.nodes = nodes;
+            this.hashes = new long[nodes.length];
+            for (int i = 0; i < nodes.length; ++i) {
+                hashes[i] = BlockedBloomFilter.hash64(nodes[i].toString());
+            }
+        }
+    }
+
+    // the server nodes
+    private volatile Nodes nodes;
+
+    /**
+     * Create a rendezvous hash with the server nodes.
+     *
+     * @param nodeList the server node list
+     */
+    public RendezvousHash(Collection<T> nodeList) {
+        super();
+        this.nodes = new Nodes(nodeList.toArray());
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#route(long)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T route(long hash) {
+        final Nodes tmp = this.nodes;
+        final long[] hashes = tmp.hashes;
+        int best = -1;
+        long max = 0;
+        for (int i = 0; i < hashes.length; ++i) {
+            long w = BlockedBloomFilter.mix64(hash ^ hashes[i]);
+            if (best < 0 || w > max) {
+                best = i;
+                max = w;
+            }
+        }
+        return best < 0 ? null : (T) tmp.nodes[best];
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#add(java.lang.Object)
+     */
+    @Override
+    public synchronized void add(T node) {
+        Object[] old = this.nodes.nodes;
+        Object[] tmpArray = new Object[old.length + 1];
+        System.arraycopy(old, 0, tmpArray, 0, old.length);
+        tmpArray[old.length] = node;
+        this.nodes = new Nodes(tmpArray);
+    }
+
+    /**
+     * Remove the first occurrence of this node.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.NodeRouter#remove(java.lang.Object)
+     */
+    @Override
+    public synchronized void remove(T node) {
+        Object[] old = this.nodes.nodes;
+        for (int i = 0; i < old.length; ++i) {
+            if (node.equals(old[i])) {
+                Object[] tmpArray = new Object[old.length - 1];
+                System.arraycopy(old, 0, tmpArray, 0, i);
+                System.arraycopy(old, i + 1, tmpArray, i, old.length - i - 1);
+                this.nodes = new Nodes(tmpArray);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int size() {
+        return this.nodes.nodes.length;
+    }
+
+}
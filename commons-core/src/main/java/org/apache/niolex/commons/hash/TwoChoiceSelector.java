@@ -0,0 +1,263 @@
+/**
+ * TwoChoiceSelector.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.niolex.commons.bean.Pair;
+import org.apache.niolex.commons.test.Check;
+
+import com.google.common.hash.Funnel;
+
+/**
+ * Select the less loaded node from the two candidates of {@link DoubleHash}, known as the power
+ * of two choices. The caller reports the start and finish of every request, so the traffic
+ * automatically steers away from the busy or slow nodes, and most of the keys still go to their
+ * primary node when the nodes are healthy.
+ * <br>
+ * The load is measured by the in-flight requests, or by the EWMA (exponentially weighted moving
+ * average) of the latency multiplied by the in-flight requests plus one. A node without any latency
+ * sample borrows the latency of the other candidate, and if neither has a sample we compare the
+ * in-flight requests. All the counters are updated by CAS without lock. When the two candidates
+ * have the same load, the primary one wins.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <T> the server node type
+ */
+public class TwoChoiceSelector<T> {
+
+    /**
+     * The load measurement of the nodes.
+     *
+     * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+     * @version 4.0.2
+     * @since Oct 18, 2026
+     */
+    public static enum Mode {
+        /**
+         * Compare the number of in-flight requests.
+         */
+        IN_FLIGHT,
+        /**
+         * Compare the EWMA latency multiplied by the in-flight requests plus one.
+         */
+        EWMA_LATENCY
+    }
+
+    /**
+     * The load statistics of one node.
+     */
+    private static class Stat {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong latency = new AtomicLong();
+    }
+
+    // the double hash to find candidates
+    private final DoubleHash<T> doubleHash;
+    // the load measurement
+    private final Mode mode;
+    // the weight of the new latency sample
+    private final double alpha;
+    // the load statistics of the nodes
+    private final ConcurrentHashMap<Object, Stat> stats = new ConcurrentHashMap<Object, Stat>();
+
+    /**
+     * Create a selector by the in-flight requests.
+     *
+     * @param doubleHash the double hash to find candidates
+     */
+    public TwoChoiceSelector(DoubleHash<T> doubleHash) {
+        this(doubleHash, Mode.IN_FLIGHT, 0.2);
+    }
+
+    /**
+     * Create a selector with the specified load measurement.
+     *
+     * @param doubleHash the double hash to find candidates
+     * @param mode the load measurement
+     * @param alpha the weight of the new latency sample in EWMA, between 0 and 1
+     */
+    public TwoChoiceSelector(DoubleHash<T> doubleHash, Mode mode, double alpha) {
+        super();
+        Check.isTrue(alpha > 0 && alpha <= 1, "The parameter 'alpha' must be in (0, 1].");
+        this.doubleHash = doubleHash;
+        this.mode = mode;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Select the less loaded node for this key.
+     *
+     * @param key the key to be hashed
+     * @return the node selected
+     */
+    public T select(String key) {
+        return select(doubleHash.getPairNodes(key));
+    }
+
+    /**
+     * Select the less loaded node for this key.
+     *
+     * @param key the key to be hashed
+     * @return the node selected
+     */
+    public T select(long key) {
+        return select(doubleHash.getPairNodes(key));
+    }
+
+    /**
+     * Select the less loaded node for this key.
+     *
+     * @param key the key to be hashed
+     * @return the node selected
+     */
+    public T select(int key) {
+        return select(doubleHash.getPairNodes(key));
+    }
+
+    /**
+     * Select the less loaded node for this key.
+     *
+     * @param <K> the key type
+     * @param key the key to be hashed
+     * @param funnel the funnel to be used
+     * @return the node selected
+     */
+    public <K> T select(K key, Funnel<? super K> funnel) {
+        return select(doubleHash.getPairNodes(key, funnel));
+    }
+
+    /**
+     * Select the less loaded node from the pair.
+     *
+     * @param pair the primary and secondary nodes
+     * @return the node selected
+     */
+    protected T select(Pair<T, T> pair) {
+        if (mode == Mode.IN_FLIGHT) {
+            return load(pair.b, 0) < load(pair.a, 0) ? pair.b : pair.a;
+        }
+        long la = getLatency(pair.a), lb = getLatency(pair.b);
+        return load(pair.b, la) < load(pair.a, lb) ? pair.b : pair.a;
+    }
+
+    /**
+     * Calculate the current load of this node.
+     *
+     * @param node the node
+     * @param defaultLatency the latency used if this node has no sample yet, i.e. the latency of
+     *        the other candidate
+     * @return the load
+     */
+    protected double load(T node, long defaultLatency) {
+        int inFlight = getInFlight(node);
+        if (mode == Mode.IN_FLIGHT) {
+            return inFlight;
+        }
+        long latency = getLatency(node);
+        if (latency == 0) {
+            latency = defaultLatency;
+        }
+        // Neither candidate has a sample, the in-flight requests decide.
+        return latency == 0 ? inFlight : (double) latency * (inFlight + 1);
+    }
+
+    /**
+     * Get the statistics of this node, create it if not found.
+     *
+     * @param node the node
+     * @return the statistics
+     */
+    private Stat stat(T node) {
+        Stat s = stats.get(node);
+        if (s == null) {
+            Stat tmp = new Stat();
+            s = stats.putIfAbsent(node, tmp);
+            if (s == null) {
+                s = tmp;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Report a request is sent to this node.
+     *
+     * @param node the node
+     */
+    public void start(T node) {
+        stat(node).inFlight.incrementAndGet();
+    }
+
+    /**
+     * Report a request to this node is finished, and update the EWMA latency.
+     *
+     * @param node the node
+     * @param latencyNanos the latency of this request in nanoseconds
+     */
+    public void finish(T node, long latencyNanos) {
+        Stat s = stat(node);
+        s.inFlight.decrementAndGet();
+        while (true) {
+            long old = s.latency.get();
+            long upd = old == 0 ? latencyNanos : old + (long) ((latencyNanos - old) * alpha);
+            if (s.latency.compareAndSet(old, upd)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Clear the statistics of this node, usually called after the node is removed.
+     *
+     * @param node the node
+     */
+    public void reset(T node) {
+        stats.remove(node);
+    }
+
+    /**
+     * @param node the node
+     * @return the number of in-flight requests of this node
+     */
+    public int getInFlight(T node) {
+        Stat s = stats.get(node);
+        return s == null ? 0 : s.inFlight.get();
+    }
+
+    /**
+     * @param node the node
+     * @return the EWMA latency of this node in nanoseconds, 0 if there is no sample
+     */
+    public long getLatency(T node) {
+        Stat s = stats.get(node);
+        return s == null ? 0 : s.latency.get();
+    }
+
+    /**
+     * @return the load measurement
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+}
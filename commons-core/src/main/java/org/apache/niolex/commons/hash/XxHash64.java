@@ -0,0 +1,220 @@
+/**
+ * XxHash64.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The pure Java implementation of xxHash64 by Yann Collet. It hashes byte arrays, byte buffers
+ * and char sequences directly into long without creating any object, so it's suitable to route
+ * a huge number of keys.
+ * <br>
+ * The char sequence can be hashed as UTF-16 little endian bytes, which needs no encoding and is
+ * the fastest; or as UTF-8 bytes, which is the same as hashing {@code s.getBytes("UTF-8")}, encoded
+ * in a thread local buffer.
+ * <br>
+ * It can be used as the {@link ConsistentHash.HashFunction}, the char sequences are hashed as
+ * UTF-16, byte arrays by the bytes, and the other objects by the UTF-16 of {@code toString}.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class XxHash64 implements ConsistentHash.HashFunction {
+    public static final XxHash64 INSTANCE = new XxHash64(0);
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * The hash seed.
+     */
+    private final long seed;
+
+    /**
+     * Create a xxHash64 with the specified seed.
+     *
+     * @param seed the hash seed
+     */
+    public XxHash64(long seed) {
+        super();
+        this.seed = seed;
+    }
+
+    /**
+     * Hash all the bytes.
+     *
+     * @param b the bytes
+     * @return the hash
+     */
+    public long hash(byte[] b) {
+        return hash(ByteAccess.BYTES, b, 0, b.length, seed);
+    }
+
+    /**
+     * Hash the specified range of the bytes.
+     *
+     * @param b the bytes
+     * @param off the start offset
+     * @param len the number of bytes
+     * @return the hash
+     */
+    public long hash(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException("Invalid range [" + off + ", " + len + "] of " + b.length);
+        }
+        return hash(ByteAccess.BYTES, b, off, len, seed);
+    }
+
+    /**
+     * Hash the remaining bytes of the buffer, from position to limit. The position is not changed.
+     * Both heap and direct buffers are supported.
+     *
+     * @param buf the byte buffer
+     * @return the hash
+     */
+    public long hash(ByteBuffer buf) {
+        return hash(ByteAccess.BUFFER, buf, buf.position(), buf.remaining(), seed);
+    }
+
+    /**
+     * Hash the char sequence as UTF-16 little endian bytes.
+     *
+     * @param s the char sequence
+     * @return the hash
+     */
+    public long hashChars(CharSequence s) {
+        return hash(ByteAccess.CHARS, s, 0, s.length() << 1, seed);
+    }
+
+    /**
+     * Hash the char sequence as UTF-8 bytes.
+     *
+     * @param s the char sequence
+     * @return the hash
+     */
+    public long hashUtf8(CharSequence s) {
+        ByteAccess.Utf8 u = ByteAccess.utf8(s);
+        return hash(ByteAccess.BYTES, u.buf, 0, u.len, seed);
+    }
+
+    /**
+     * Hash the object by its content.
+     *
+     * @param o the object
+     * @param seed the hash seed
+     * @return the hash
+     */
+    private static long hashObject(Object o, long seed) {
+        if (o instanceof byte[]) {
+            byte[] b = (byte[]) o;
+            return hash(ByteAccess.BYTES, b, 0, b.length, seed);
+        }
+        CharSequence s = o instanceof CharSequence ? (CharSequence) o : o.toString();
+        return hash(ByteAccess.CHARS, s, 0, s.length() << 1, seed);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.ConsistentHash.HashFunction#hashCode(java.lang.Object)
+     */
+    @Override
+    public int hashCode(Object o) {
+        long h = hashObject(o, seed);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.hash.ConsistentHash.HashFunction#hashCode(java.lang.Object, int)
+     */
+    @Override
+    public int hashCode(Object o, int seed) {
+        long h = hashObject(o, this.seed + seed);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * The xxHash64 algorithm.
+     *
+     * @param a the input access
+     * @param in the input
+     * @param off the start offset
+     * @param len the number of bytes
+     * @param seed the hash seed
+     * @return the hash
+     */
+    static long hash(ByteAccess a, Object in, int off, int len, long seed) {
+        final int end = off + len;
+        long h;
+        if (len >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            for (int limit = end - 32; off <= limit; off += 32) {
+                v1 = round(v1, a.getLong(in, off));
+                v2 = round(v2, a.getLong(in, off + 8));
+                v3 = round(v3, a.getLong(in, off + 16));
+                v4 = round(v4, a.getLong(in, off + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += len;
+        for (; off <= end - 8; off += 8) {
+            h ^= round(0, a.getLong(in, off));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (off <= end - 4) {
+            h ^= (a.getInt(in, off) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            off += 4;
+        }
+        for (; off < end; ++off) {
+            h ^= a.getByte(in, off) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * P1 + P4;
+    }
+
+}
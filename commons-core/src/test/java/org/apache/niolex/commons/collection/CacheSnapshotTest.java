@@ -0,0 +1,186 @@
+/**
+ * CacheSnapshotTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CacheSnapshotTest {
+
+    private final CacheCodec<String> sc = CacheCodec.StringCodec.INSTANCE;
+
+    @Test
+    public void testDumpLoadFile() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        for (int i = 0; i < 100; ++i) {
+            c.put("key-" + i, "value-" + i);
+        }
+        File f = File.createTempFile("cache-snapshot", ".bin");
+        try {
+            assertEquals(100, CacheSnapshot.dump(c, 1000, f, sc, sc));
+            assertFalse(new File(f.getPath() + ".tmp").exists());
+
+            ConcurrentLRUCache<String, String> d = new ConcurrentLRUCache<String, String>(100);
+            assertEquals(100, CacheSnapshot.load(d, f, sc, sc));
+            assertEquals(100, d.size());
+            for (int i = 0; i < 100; ++i) {
+                assertEquals("value-" + i, d.get("key-" + i));
+            }
+
+            // Dump again to replace the old file.
+            assertEquals(10, CacheSnapshot.dump(c, 10, f, sc, sc));
+            MapAsCache<String, String> m = new MapAsCache<String, String>(new HashMap<String, String>());
+            assertEquals(10, CacheSnapshot.load(m, f, sc, sc));
+            assertEquals(10, m.size());
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testDumpFailureKeepOld() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        for (int i = 0; i < 10; ++i) {
+            c.put("key-" + i, "value-" + i);
+        }
+        CacheCodec<String> bad = new CacheCodec<String>() {
+            @Override
+            public byte[] encode(String obj) {
+                throw new IllegalStateException("Bad codec.");
+            }
+
+            @Override
+            public String decode(byte[] data) {
+                return null;
+            }
+        };
+        File f = File.createTempFile("cache-snapshot", ".bin");
+        try {
+            assertEquals(10, CacheSnapshot.dump(c, 1000, f, sc, sc));
+            try {
+                CacheSnapshot.dump(c, 1000, f, sc, bad);
+                assertTrue(false);
+            } catch (IllegalStateException e) {
+                assertEquals("Bad codec.", e.getMessage());
+            }
+            assertFalse(new File(f.getPath() + ".tmp").exists());
+            MapAsCache<String, String> m = new MapAsCache<String, String>(new HashMap<String, String>());
+            assertEquals(10, CacheSnapshot.load(m, f, sc, sc));
+        } finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testLoadOrder() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        for (int i = 0; i < 5; ++i) {
+            c.put("k" + i, "v" + i);
+            Thread.sleep(2);
+        }
+        c.get("k0");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, CacheSnapshot.dump(c.hottestEntries(3), out, sc, sc));
+
+        final List<String> order = new ArrayList<String>();
+        MapAsCache<String, String> m = new MapAsCache<String, String>(new HashMap<String, String>()) {
+            @Override
+            public String put(String key, String value) {
+                order.add(key);
+                return super.put(key, value);
+            }
+        };
+        assertEquals(3, CacheSnapshot.load(m, new ByteArrayInputStream(out.toByteArray()), sc, sc));
+        assertEquals("[k3, k4, k0]", order.toString());
+        assertNull(m.get("k1"));
+    }
+
+    @Test
+    public void testLongValue() throws Exception {
+        List<Map.Entry<String, Long>> list = new ArrayList<Map.Entry<String, Long>>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; ++i) {
+            sb.append('a');
+        }
+        list.add(new AbstractMap.SimpleEntry<String, Long>(sb.toString(), 12345678901L));
+        list.add(new AbstractMap.SimpleEntry<String, Long>("", -1L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CacheSnapshot.dump(list, out, sc, CacheCodec.LongCodec.INSTANCE);
+        // magic + version + count, 2 bytes size + 300 bytes key, 1 + 8, 1 + 0, 1 + 8
+        assertEquals(12 + 302 + 9 + 1 + 9, out.size());
+
+        MapAsCache<String, Long> m = new MapAsCache<String, Long>(new HashMap<String, Long>());
+        CacheSnapshot.load(m, new ByteArrayInputStream(out.toByteArray()), sc, CacheCodec.LongCodec.INSTANCE);
+        assertEquals(12345678901L, m.get(sb.toString()).longValue());
+        assertEquals(-1L, m.get("").longValue());
+    }
+
+    @Test(expected=IOException.class)
+    public void testBadMagic() throws Exception {
+        byte[] data = new byte[12];
+        CacheSnapshot.load(new MapAsCache<String, String>(new HashMap<String, String>()), new ByteArrayInputStream(data), sc, sc);
+    }
+
+    @Test(expected=IOException.class)
+    public void testBadVersion() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CacheSnapshot.dump(new ArrayList<Map.Entry<String, String>>(), out, sc, sc);
+        byte[] data = out.toByteArray();
+        data[7] = 9;
+        CacheSnapshot.load(new MapAsCache<String, String>(new HashMap<String, String>()), new ByteArrayInputStream(data), sc, sc);
+    }
+
+    @Test
+    public void testTruncated() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        for (int i = 0; i < 5; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CacheSnapshot.dump(c.hottestEntries(5), out, sc, sc);
+        byte[] data = out.toByteArray();
+        MapAsCache<String, String> m = new MapAsCache<String, String>(new HashMap<String, String>());
+        try {
+            CacheSnapshot.load(m, new ByteArrayInputStream(data, 0, data.length - 1), sc, sc);
+            assertTrue(false);
+        } catch (EOFException e) {
+            assertEquals(4, m.size());
+        }
+    }
+
+}
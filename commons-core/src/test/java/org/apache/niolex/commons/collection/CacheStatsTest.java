@@ -0,0 +1,121 @@
+/**
+ * CacheStatsTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.niolex.commons.collection.CacheStats.Snapshot;
+import org.apache.niolex.commons.reflect.FieldUtil;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CacheStatsTest {
+
+    @Test
+    public void testStripes() throws Exception {
+        CacheStats s = new CacheStats(5);
+        AtomicLongArray cells = FieldUtil.getValue(s, "cells");
+        assertEquals(8 * 16, cells.length());
+        s = new CacheStats(1000);
+        cells = FieldUtil.getValue(s, "cells");
+        assertEquals(64 * 16, cells.length());
+        s = new CacheStats(0);
+        cells = FieldUtil.getValue(s, "cells");
+        assertEquals(16, cells.length());
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        Snapshot s = new CacheStats().snapshot();
+        assertEquals(0, s.requestCount());
+        assertEquals(1.0, s.hitRate(), 0.0001);
+        assertEquals(0.0, s.averageLoadPenalty(), 0.0001);
+    }
+
+    @Test
+    public void testRecord() throws Exception {
+        CacheStats stats = new CacheStats();
+        stats.recordHits(3);
+        stats.recordMisses(1);
+        stats.recordPuts(2);
+        stats.recordEviction(5);
+        stats.recordEviction(7);
+        stats.recordLoadSuccess(100);
+        stats.recordLoadFailure(200);
+        Snapshot s = stats.snapshot();
+        assertEquals(3, s.hitCount());
+        assertEquals(1, s.missCount());
+        assertEquals(4, s.requestCount());
+        assertEquals(0.75, s.hitRate(), 0.0001);
+        assertEquals(2, s.putCount());
+        assertEquals(2, s.evictionCount());
+        assertEquals(12, s.evictionWeight());
+        assertEquals(1, s.loadSuccessCount());
+        assertEquals(1, s.loadFailureCount());
+        assertEquals(300, s.totalLoadTime());
+        assertEquals(150.0, s.averageLoadPenalty(), 0.0001);
+        assertEquals("{hit=3, miss=1, hitRate=0.75, put=2, eviction=2, evictionWeight=12, loadSuccess=1, "
+                + "loadFailure=1, totalLoadTime=300}", s.toString());
+    }
+
+    @Test
+    public void testIntervalSnapshot() throws Exception {
+        CacheStats stats = new CacheStats(4);
+        stats.recordHits(10);
+        Snapshot s = stats.intervalSnapshot();
+        assertEquals(10, s.hitCount());
+        stats.recordHits(2);
+        stats.recordMisses(3);
+        s = stats.intervalSnapshot();
+        assertEquals(2, s.hitCount());
+        assertEquals(3, s.missCount());
+        s = stats.intervalSnapshot();
+        assertEquals(0, s.requestCount());
+        assertEquals(12, stats.snapshot().hitCount());
+    }
+
+    @Test
+    public void testMultiThread() throws Exception {
+        final CacheStats stats = new CacheStats(4);
+        Thread[] ts = new Thread[8];
+        for (int i = 0; i < ts.length; ++i) {
+            ts[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 10000; ++j) {
+                        stats.recordHits(1);
+                        stats.recordMisses(2);
+                    }
+                }
+            };
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        Snapshot s = stats.snapshot();
+        assertEquals(80000, s.hitCount());
+        assertEquals(160000, s.missCount());
+    }
+
+}
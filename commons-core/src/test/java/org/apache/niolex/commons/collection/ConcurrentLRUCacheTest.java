@@ -1,7 +1,15 @@
 package org.apache.niolex.commons.collection;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
 import org.apache.niolex.commons.collection.ConcurrentLRUCache.ItemEntry;
@@ -81,6 +89,28 @@ public class ConcurrentLRUCacheTest {
         assertEquals(2, cache.size());
     }
 
+    @Test
+    public void testPutIfAbsent() throws Exception {
+        assertNull(cache.putIfAbsent("nice", 7788));
+        assertEquals(7788, cache.putIfAbsent("nice", 6688).intValue());
+        assertEquals(7788, cache.get("nice").intValue());
+        assertTrue(cache.containsKey("nice"));
+        assertFalse(cache.containsKey("nlce"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPutIfAbsentExpired() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.put("a", "1", 50, 0);
+        assertEquals("1", c.putIfAbsent("a", "2"));
+        Thread.sleep(120);
+        assertFalse(c.containsKey("a"));
+        assertNull(c.putIfAbsent("a", "3"));
+        assertEquals("3", c.get("a"));
+        assertEquals(1, c.size());
+    }
+
     @Test(expected=NullPointerException.class)
     public void testPutEx() throws Exception {
         FieldUtil.setValue(cache, "lruList", null);
@@ -99,7 +129,7 @@ public class ConcurrentLRUCacheTest {
         assertEquals(101, cache.size());
     }
 
-    @Test(expected=NullPointerException.class)
+    @Test
     public void testPutBadVictim() throws Exception {
         ConcurrentLRUCache<String, Integer> cache2 = new ConcurrentLRUCache<String, Integer>(100);
         for (int i = 100; i < 201; ++ i) {
@@ -113,8 +143,9 @@ public class ConcurrentLRUCacheTest {
         }
         assertEquals(100, cache.size());
         FieldUtil.setValue(cache, "lruList", tq);
+        // The victim is not in this map, nothing evicted.
         cache.put("duie", 44);
-        assertEquals(100, cache.size());
+        assertEquals(101, cache.size());
     }
 
     @Test
@@ -195,6 +226,77 @@ public class ConcurrentLRUCacheTest {
         tq.removeEntry(null);
     }
 
+    @Test
+    public void testAdmission() throws Exception {
+        ConcurrentLRUCache<Integer, Integer> c = new ConcurrentLRUCache<Integer, Integer>(200, true);
+        // The hot items are visited many times.
+        for (int k = 0; k < 5; ++k) {
+            for (int i = 0; i < 150; ++i) {
+                if (c.get(i) == null) {
+                    c.put(i, i);
+                }
+            }
+        }
+        assertEquals(150, c.size());
+        // One hit wonders scan.
+        for (int i = 1000; i < 3000; ++i) {
+            c.put(i, i);
+        }
+        assertEquals(200, c.size());
+        int hit = 0;
+        for (int i = 0; i < 150; ++i) {
+            if (c.get(i) != null) {
+                ++hit;
+            }
+        }
+        assertTrue(hit > 140);
+    }
+
+    @Test
+    public void testAdmissionRemove() throws Exception {
+        ConcurrentLRUCache<Integer, Integer> c = new ConcurrentLRUCache<Integer, Integer>(100, true);
+        for (int i = 0; i < 300; ++i) {
+            c.put(i, i);
+            c.get(i);
+        }
+        assertEquals(100, c.size());
+        int cnt = 0;
+        for (int i = 0; i < 300; ++i) {
+            if (c.remove(i) != null) {
+                ++cnt;
+            }
+        }
+        assertEquals(100, cnt);
+        assertEquals(0, c.size());
+        ThreeQLRUList<Integer, Integer> window = FieldUtil.getValue(c, "windowList");
+        assertEquals(0, ((Integer) FieldUtil.getValue(window, "listSize")).intValue());
+        ThreeQLRUList<Integer, Integer> main = FieldUtil.getValue(c, "lruList");
+        assertEquals(0, ((Integer) FieldUtil.getValue(main, "listSize")).intValue());
+        for (int i = 0; i < 10; ++i) {
+            c.put(i, i);
+        }
+        assertEquals(10, c.size());
+        int windowCnt = FieldUtil.getValue(window, "listSize");
+        int mainCnt = FieldUtil.getValue(main, "listSize");
+        assertTrue(windowCnt >= 2);
+        assertEquals(10, windowCnt + mainCnt);
+    }
+
+    @Test
+    public void testPollVictim() throws Exception {
+        ThreeQLRUList<String, Integer> tq = new ThreeQLRUList<String, Integer>();
+        ItemEntry<String,Integer> e1 = new ItemEntry<String,Integer>();
+        ItemEntry<String,Integer> e2 = new ItemEntry<String,Integer>();
+        tq.addEntry(e1);
+        assertNull(tq.pollVictim(1, 1));
+        tq.addEntry(e2);
+        tq.pushHeaderTime(100);
+        tq.pushHeaderTime(100);
+        tq.pushHeaderTime(100);
+        assertEquals(e1, tq.pollVictim(1, 1));
+        assertNull(tq.pollVictim(1, 1));
+    }
+
     @Test
     public void testRemoveEntryFromMap() throws Exception {
         TableEntry<String, Integer> en = new TableEntry<String, Integer>();
@@ -321,4 +423,468 @@ public class ConcurrentLRUCacheTest {
         }
         assertEquals(100, cnt);
     }
+
+    @Test
+    public void testStats() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        assertNull(c.getStats());
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        assertEquals(stats, c.getStats());
+        for (int i = 0; i < 150; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        c.get("k149");
+        c.get("k0");
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(150, s.putCount());
+        assertEquals(50, s.evictionCount());
+        assertEquals(50, s.evictionWeight());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+    }
+
+    @Test
+    public void testStatsAdmission() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100, true);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        for (int i = 0; i < 300; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        assertEquals(c.size() + stats.snapshot().evictionCount(), 300);
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.setExpireAfterWrite(50);
+        assertEquals(50, c.getExpireAfterWrite());
+        c.put("a", "1");
+        c.put("b", "2", 0, 0);
+        assertEquals("1", c.get("a"));
+        Thread.sleep(120);
+        assertNull(c.get("a"));
+        assertEquals("2", c.get("b"));
+        assertEquals(2, c.size());
+        c.cleanUp();
+        assertEquals(1, c.size());
+        assertNull(c.remove("a"));
+        c.setExpireAfterWrite(-1);
+        assertEquals(0, c.getExpireAfterWrite());
+    }
+
+    @Test
+    public void testPutExpired() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.put("a", "1", 50, 0);
+        c.put("b", "2", 0, 50);
+        Thread.sleep(120);
+        // The expired items are not reclaimed yet.
+        FieldUtil.setValue(c, "nextCleanUp", Long.MAX_VALUE);
+        assertNull(c.put("a", "3"));
+        assertNull(c.put("b", "4"));
+        assertEquals("3", c.get("a"));
+        assertEquals("4", c.put("b", "5"));
+        assertEquals(2, c.size());
+    }
+
+    @Test
+    public void testRemoveExpired() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.put("a", "1", 50, 0);
+        c.put("b", "2");
+        Thread.sleep(120);
+        // The expired item is not reclaimed yet.
+        FieldUtil.setValue(c, "nextCleanUp", Long.MAX_VALUE);
+        assertNull(c.remove("a"));
+        assertEquals(1, c.size());
+        assertEquals("2", c.remove("b"));
+        assertEquals(0, c.size());
+    }
+
+    @Test(timeout = 5000)
+    public void testExpireStaleTime() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        long now = System.currentTimeMillis();
+        c.put("a", "1", 100000, 0);
+        c.expireItems(now + 2000);
+        c.put("b", "2", 1, 0);
+        // The wheel is already advanced to a later time.
+        c.expireItems(now);
+        assertEquals(1, c.size());
+        assertEquals("1", c.get("a"));
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100, true);
+        c.setExpireAfterAccess(100);
+        assertEquals(100, c.getExpireAfterAccess());
+        c.put("a", "1");
+        c.put("b", "2");
+        for (int i = 0; i < 5; ++i) {
+            Thread.sleep(40);
+            assertEquals("1", c.get("a"));
+        }
+        assertNull(c.get("b"));
+        c.put("c", "3");
+        assertEquals(2, c.size());
+        assertEquals("1", c.remove("a"));
+        assertEquals(1, c.size());
+    }
+
+    @Test
+    public void testExpireUpdatePolicy() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        c.put("a", "1", 50, 0);
+        c.put("b", "1", 50, 0);
+        c.put("a", "2", 0, 0);
+        c.put("b", "2", 5000, 0);
+        Thread.sleep(120);
+        c.cleanUp();
+        assertEquals("2", c.get("a"));
+        assertEquals("2", c.get("b"));
+        c.put("b", "3", 30, 0);
+        Thread.sleep(120);
+        c.put("c", "3");
+        assertEquals(2, c.size());
+        assertNull(c.get("b"));
+        assertEquals(1, stats.snapshot().evictionCount());
+    }
+
+    public static class LengthWeigher implements Weigher<String, String> {
+        @Override
+        public int weigh(String key, String value) {
+            return value.length();
+        }
+    }
+
+    private static String str(int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < len; ++i) {
+            sb.append('a');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testWeight() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(1000, false, 10000,
+                new LengthWeigher());
+        assertEquals(10000, c.getMaxWeight());
+        for (int i = 0; i < 100; ++i) {
+            c.put("k" + i, str(100));
+            assertTrue(c.getTotalWeight() <= 10000);
+        }
+        assertEquals(10000, c.getTotalWeight());
+        assertEquals(100, c.size());
+        c.put("big", str(5000));
+        assertTrue(c.getTotalWeight() <= 10000);
+        assertTrue(c.size() <= 51);
+        assertEquals(str(5000), c.remove("big"));
+        long w = c.getTotalWeight();
+        assertEquals(c.size() * 100, w);
+        c.put("k99", str(10));
+        assertTrue(c.getTotalWeight() <= w);
+    }
+
+    @Test
+    public void testWeightStats() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(1000, false, 10000,
+                new LengthWeigher());
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        for (int i = 0; i < 200; ++i) {
+            c.put("k" + i, str(i % 2 == 0 ? 100 : 60));
+        }
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(200 - c.size(), s.evictionCount());
+        assertEquals(16000 - c.getTotalWeight(), s.evictionWeight());
+    }
+
+    @Test
+    public void testWeightUpdate() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(1000, true, 1000,
+                new LengthWeigher());
+        for (int i = 0; i < 10; ++i) {
+            c.put("k" + i, str(50));
+        }
+        assertEquals(500, c.getTotalWeight());
+        c.put("k1", str(10));
+        assertEquals(460, c.getTotalWeight());
+        c.put("k2", str(900));
+        assertTrue(c.getTotalWeight() <= 1000);
+        assertEquals(sumWeight(c), c.getTotalWeight());
+        c.setExpireAfterWrite(20);
+        c.put("k3", str(10));
+        Thread.sleep(100);
+        c.cleanUp();
+        assertNull(c.get("k3"));
+        assertEquals(sumWeight(c), c.getTotalWeight());
+    }
+
+    private long sumWeight(ConcurrentLRUCache<String, String> c) {
+        long sum = 0;
+        for (int i = 0; i < 10; ++i) {
+            String s = c.get("k" + i);
+            if (s != null) {
+                sum += s.length();
+            }
+        }
+        return sum;
+    }
+
+    @Test
+    public void testWeightNoWeigher() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.put("a", "b");
+        assertEquals(1, c.getTotalWeight());
+        assertEquals(Long.MAX_VALUE, c.getMaxWeight());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWeightNegative() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100, false, 100,
+                new Weigher<String, String>() {
+            @Override
+            public int weigh(String key, String value) {
+                return -1;
+            }
+        });
+        c.put("a", "b");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWeightInvalidMax() throws Exception {
+        new ConcurrentLRUCache<String, String>(100, false, 0, new LengthWeigher());
+    }
+
+    @Test
+    public void testHottestEntries() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        for (int i = 0; i < 5; ++i) {
+            c.put("k" + i, "v" + i);
+            Thread.sleep(2);
+        }
+        c.get("k1");
+        List<Map.Entry<String, String>> list = c.hottestEntries(3);
+        assertEquals(3, list.size());
+        assertEquals("k3", list.get(0).getKey());
+        assertEquals("k4", list.get(1).getKey());
+        assertEquals("k1", list.get(2).getKey());
+        assertEquals("v1", list.get(2).getValue());
+        assertEquals(5, c.hottestEntries(10).size());
+        assertEquals(0, c.hottestEntries(0).size());
+    }
+
+    @Test
+    public void testHottestEntriesExpired() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        c.put("a", "b");
+        c.put("c", "d", 1, 0);
+        Thread.sleep(5);
+        List<Map.Entry<String, String>> list = c.hottestEntries(10);
+        assertEquals(1, list.size());
+        assertEquals("a", list.get(0).getKey());
+    }
+
+    private static class QueueExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+        private boolean reject;
+
+        @Override
+        public void execute(Runnable command) {
+            if (reject) {
+                throw new RejectedExecutionException("Reject.");
+            }
+            tasks.add(command);
+        }
+
+        public void runAll() {
+            for (Runnable r : tasks) {
+                r.run();
+            }
+            tasks.clear();
+        }
+    }
+
+    private static class CountLoader implements LoadingCache.Loader<String, String> {
+        private int cnt;
+        private String result = "new";
+
+        @Override
+        public String load(String key) throws Exception {
+            ++cnt;
+            if ("fail".equals(result)) {
+                throw new IllegalStateException("Failed.");
+            }
+            return result;
+        }
+    }
+
+    @Test
+    public void testRefreshAfterWrite() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        QueueExecutor ex = new QueueExecutor();
+        CountLoader loader = new CountLoader();
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        c.setRefreshAfterWrite(10, loader, ex);
+        assertEquals(10, c.getRefreshAfterWrite());
+        c.put("a", "old");
+        assertEquals("old", c.get("a"));
+        assertEquals(0, ex.tasks.size());
+        Thread.sleep(15);
+        assertEquals("old", c.get("a"));
+        assertEquals("old", c.get("a"));
+        assertEquals(1, ex.tasks.size());
+        ex.runAll();
+        assertEquals(1, loader.cnt);
+        assertEquals(1, stats.snapshot().loadSuccessCount());
+        assertEquals("new", c.get("a"));
+        assertEquals(0, ex.tasks.size());
+
+        c.setRefreshAfterWrite(0, null, null);
+        assertEquals(0, c.getRefreshAfterWrite());
+        Thread.sleep(15);
+        assertEquals("new", c.get("a"));
+        assertEquals(0, ex.tasks.size());
+    }
+
+    @Test
+    public void testRefreshRemove() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        QueueExecutor ex = new QueueExecutor();
+        CountLoader loader = new CountLoader();
+        loader.result = null;
+        c.setRefreshAfterWrite(1, loader, ex);
+        c.put("a", "old");
+        Thread.sleep(5);
+        assertEquals("old", c.get("a"));
+        ex.runAll();
+        assertNull(c.get("a"));
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    public void testRefreshFailure() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        QueueExecutor ex = new QueueExecutor();
+        CountLoader loader = new CountLoader();
+        loader.result = "fail";
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        c.setRefreshAfterWrite(1, loader, ex);
+        c.put("a", "old");
+        Thread.sleep(5);
+        assertEquals("old", c.get("a"));
+        ex.runAll();
+        assertEquals(1, stats.snapshot().loadFailureCount());
+        assertEquals("old", c.get("a"));
+        assertEquals(1, ex.tasks.size());
+        loader.result = "ok";
+        ex.runAll();
+        assertEquals("ok", c.get("a"));
+    }
+
+    @Test
+    public void testRefreshDiscard() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        QueueExecutor ex = new QueueExecutor();
+        CountLoader loader = new CountLoader();
+        c.setRefreshAfterWrite(1, loader, ex);
+        c.put("a", "old");
+        c.put("b", "old");
+        Thread.sleep(5);
+        assertEquals("old", c.get("a"));
+        assertEquals("old", c.get("b"));
+        c.put("a", "put");
+        c.remove("b");
+        ex.runAll();
+        assertEquals(2, loader.cnt);
+        assertEquals("put", c.get("a"));
+        assertNull(c.get("b"));
+    }
+
+    @Test
+    public void testRefreshRejected() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        QueueExecutor ex = new QueueExecutor();
+        ex.reject = true;
+        c.setRefreshAfterWrite(1, new CountLoader(), ex);
+        c.put("a", "old");
+        Thread.sleep(5);
+        assertEquals("old", c.get("a"));
+        ex.reject = false;
+        assertEquals("old", c.get("a"));
+        assertEquals(1, ex.tasks.size());
+    }
+
+    @Test
+    public void testRefreshWeight() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100, false, 1000,
+                new LengthWeigher());
+        QueueExecutor ex = new QueueExecutor();
+        CountLoader loader = new CountLoader();
+        loader.result = "0123456789";
+        c.setRefreshAfterWrite(1, loader, ex);
+        c.put("a", "old");
+        assertEquals(3, c.getTotalWeight());
+        Thread.sleep(5);
+        c.get("a");
+        ex.runAll();
+        assertEquals(10, c.getTotalWeight());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testRefreshNullLoader() throws Exception {
+        new ConcurrentLRUCache<String, String>(100).setRefreshAfterWrite(1, null, new QueueExecutor());
+    }
+
+    @Test
+    public void testEvictionListener() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100);
+        final Map<String, String> evicted = new java.util.HashMap<String, String>();
+        c.setEvictionListener(new EvictionListener<String, String>() {
+            @Override
+            public void onEviction(String key, String value) {
+                evicted.put(key, value);
+            }
+        });
+        assertTrue(c.getEvictionListener() != null);
+        c.put("rm", "v");
+        c.remove("rm");
+        assertEquals(0, evicted.size());
+        for (int i = 0; i < 200; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        assertEquals(200, evicted.size() + c.size());
+        for (Map.Entry<String, String> en : evicted.entrySet()) {
+            assertNull(c.get(en.getKey()));
+            assertEquals(en.getKey().replace('k', 'v'), en.getValue());
+        }
+    }
+
+    @Test
+    public void testEvictionListenerAdmission() throws Exception {
+        ConcurrentLRUCache<String, String> c = new ConcurrentLRUCache<String, String>(100, true);
+        final List<String> evicted = new ArrayList<String>();
+        c.setEvictionListener(new EvictionListener<String, String>() {
+            @Override
+            public void onEviction(String key, String value) {
+                evicted.add(key);
+            }
+        });
+        for (int i = 0; i < 300; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        assertEquals(300, evicted.size() + c.size());
+        c.setEvictionListener(null);
+        int n = evicted.size();
+        c.put("k1000", "v");
+        assertEquals(n, evicted.size());
+    }
 }
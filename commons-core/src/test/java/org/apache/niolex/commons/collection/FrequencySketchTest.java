@@ -0,0 +1,106 @@
+/**
+ * FrequencySketchTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.niolex.commons.reflect.FieldUtil;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class FrequencySketchTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFrequencySketchInvalid() throws Exception {
+        new FrequencySketch(0);
+    }
+
+    @Test
+    public void testFrequencySketch() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(100);
+        long[] table = FieldUtil.getValue(sketch, "table");
+        assertEquals(128, table.length);
+        assertEquals(1000, ((Integer) FieldUtil.getValue(sketch, "sampleSize")).intValue());
+    }
+
+    @Test
+    public void testIncrement() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(512);
+        assertEquals(0, sketch.frequency(12345));
+        sketch.increment(12345);
+        assertEquals(1, sketch.frequency(12345));
+        for (int i = 0; i < 5; ++i) {
+            sketch.increment(12345);
+        }
+        assertEquals(6, sketch.frequency(12345));
+        assertEquals(0, sketch.frequency(54321));
+    }
+
+    @Test
+    public void testIncrementMax() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(512);
+        for (int i = 0; i < 100; ++i) {
+            sketch.increment(-8);
+        }
+        assertEquals(15, sketch.frequency(-8));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 12; ++i) {
+            sketch.increment(77);
+        }
+        assertEquals(12, sketch.frequency(77));
+        sketch.reset();
+        assertEquals(6, sketch.frequency(77));
+        assertEquals(6, ((Integer) FieldUtil.getValue(sketch, "size")).intValue());
+    }
+
+    @Test
+    public void testResetBySample() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 639; ++i) {
+            sketch.increment(i * 31 + 1000);
+        }
+        assertEquals(639, ((Integer) FieldUtil.getValue(sketch, "size")).intValue());
+        sketch.increment(1);
+        assertEquals(320, ((Integer) FieldUtil.getValue(sketch, "size")).intValue());
+    }
+
+    @Test
+    public void testAccuracy() throws Exception {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 1024; ++i) {
+            sketch.increment(i);
+        }
+        int err = 0;
+        for (int i = 0; i < 1024; ++i) {
+            if (sketch.frequency(i) != 1) {
+                ++err;
+            }
+        }
+        assertTrue(err < 100);
+    }
+
+}
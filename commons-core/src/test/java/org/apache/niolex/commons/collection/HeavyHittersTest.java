@@ -0,0 +1,168 @@
+/**
+ * HeavyHittersTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.apache.niolex.commons.collection.HeavyHitters.Item;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class HeavyHittersTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCapacity() throws Exception {
+        new HeavyHitters<String>(0);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullKey() throws Exception {
+        new HeavyHitters<String>(10).add(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidCount() throws Exception {
+        new HeavyHitters<String>(10).add("a", 0);
+    }
+
+    @Test
+    public void testStripes() throws Exception {
+        assertEquals(1, new HeavyHitters<String>(10, 1).getStripes());
+        assertEquals(8, new HeavyHitters<String>(10, 5).getStripes());
+        assertEquals(64, new HeavyHitters<String>(10, 1000).getStripes());
+        assertEquals(10, new HeavyHitters<String>(10, 1).getCapacity());
+    }
+
+    @Test
+    public void testExact() throws Exception {
+        HeavyHitters<String> hh = new HeavyHitters<String>(10, 1);
+        for (int i = 0; i < 5; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                hh.add("k" + i);
+            }
+        }
+        hh.add("k0", 10);
+        List<Item<String>> top = hh.topK(3);
+        assertEquals(3, top.size());
+        assertEquals("k0", top.get(0).getKey());
+        assertEquals(11, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals("k4", top.get(1).getKey());
+        assertEquals(5, top.get(1).getLowerBound());
+        assertEquals("k3=4(+-0)", top.get(2).toString());
+        assertEquals(25, hh.total());
+        assertEquals(5, hh.topK(100).size());
+    }
+
+    @Test
+    public void testReplace() throws Exception {
+        HeavyHitters<String> hh = new HeavyHitters<String>(2, 1);
+        hh.add("a", 5);
+        hh.add("b", 3);
+        hh.add("c");
+        List<Item<String>> top = hh.topK(2);
+        assertEquals("a", top.get(0).getKey());
+        assertEquals("c", top.get(1).getKey());
+        assertEquals(4, top.get(1).getCount());
+        assertEquals(3, top.get(1).getError());
+        assertEquals(1, top.get(1).getLowerBound());
+    }
+
+    @Test
+    public void testSkewedStream() throws Exception {
+        HeavyHitters<Integer> hh = new HeavyHitters<Integer>(100, 1);
+        int[] real = new int[10000];
+        Random r = new Random(7);
+        for (int i = 0; i < 200000; ++i) {
+            // Key 0..9 takes half of the stream.
+            int key = r.nextBoolean() ? r.nextInt(10) : r.nextInt(10000);
+            ++real[key];
+            hh.add(key);
+        }
+        List<Item<Integer>> top = hh.topK(10);
+        for (Item<Integer> it : top) {
+            assertTrue(it.getKey() < 10);
+            int cnt = real[it.getKey()];
+            assertTrue(it.getCount() >= cnt);
+            assertTrue(it.getLowerBound() <= cnt);
+            assertTrue(it.getError() <= hh.total() / 100);
+        }
+        hh.clear();
+        assertEquals(0, hh.total());
+        assertEquals(0, hh.topK(10).size());
+    }
+
+    @Test
+    public void testMergeStripes() throws Exception {
+        HeavyHitters<String> hh = new HeavyHitters<String>(2, 2);
+        hh.addToStripe(0, "a", 10);
+        hh.addToStripe(0, "b", 4);
+        hh.addToStripe(1, "a", 5);
+        hh.addToStripe(1, "c", 8);
+        hh.addToStripe(1, "d", 1);
+        // Stripe 0 has a=10, b=4; stripe 1 has c=8, d=6(+-5), a was replaced.
+        List<Item<String>> top = hh.topK(10);
+        assertEquals(4, top.size());
+        // a is missing from stripe 1, which is full with min 6.
+        assertEquals("a", top.get(0).getKey());
+        assertEquals(16, top.get(0).getCount());
+        assertEquals(6, top.get(0).getError());
+        // c is missing from stripe 0, which is full with min 4.
+        assertEquals("c", top.get(1).getKey());
+        assertEquals(12, top.get(1).getCount());
+        assertEquals(4, top.get(1).getError());
+        assertEquals(10, top.get(2).getCount());
+        assertEquals(10, top.get(3).getCount());
+        assertEquals(28, hh.total());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final HeavyHitters<Integer> hh = new HeavyHitters<Integer>(50, 4);
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; ++t) {
+            ts[t] = new Thread() {
+                @Override
+                public void run() {
+                    Random r = new Random();
+                    for (int i = 0; i < 50000; ++i) {
+                        hh.add(i % 3 == 0 ? 7 : 100 + r.nextInt(100000));
+                    }
+                }
+            };
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        assertEquals(200000, hh.total());
+        Item<Integer> first = hh.topK(1).get(0);
+        assertEquals(7, first.getKey().intValue());
+        assertTrue(first.getLowerBound() <= 66668);
+        assertTrue(first.getCount() >= 66668);
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * IntObjectCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class IntObjectCacheTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTooSmall() throws Exception {
+        new IntObjectCache<String>(16);
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        IntObjectCache<String> c = new IntObjectCache<String>(20, 16);
+        c.put(3, "c");
+        assertEquals("c", c.get(3));
+        assertEquals(20, c.getMaxSize());
+    }
+
+    @Test
+    public void testGetPutRemove() throws Exception {
+        IntObjectCache<String> c = new IntObjectCache<String>(1000);
+        assertNull(c.get(1));
+        assertNull(c.put(1, "a"));
+        assertNull(c.put(Integer.MIN_VALUE, "min"));
+        assertNull(c.put(-1, "neg"));
+        assertNull(c.put(0, "zero"));
+        assertEquals("a", c.put(1, "b"));
+        assertEquals("b", c.get(1));
+        assertEquals("min", c.get(Integer.MIN_VALUE));
+        assertEquals("zero", c.get(0));
+        assertEquals("neg", c.get(-1));
+        assertNull(c.get(Integer.MAX_VALUE));
+        assertEquals(4, c.size());
+        assertEquals("b", c.remove(1));
+        assertNull(c.remove(1));
+        assertNull(c.get(1));
+        assertEquals(3, c.size());
+    }
+
+    @Test
+    public void testBoxed() throws Exception {
+        Cache<Integer, String> c = new IntObjectCache<String>(1000);
+        assertNull(c.put(5, "five"));
+        assertEquals("five", c.get(5));
+        assertEquals("five", c.remove(Integer.valueOf(5)));
+        assertEquals(0, c.size());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testBoxedNullKey() throws Exception {
+        new IntObjectCache<String>(1000).get((Integer) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullValue() throws Exception {
+        new IntObjectCache<String>(1000).put(1, null);
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        IntObjectCache<Integer> c = new IntObjectCache<Integer>(100);
+        CacheStats st = new CacheStats();
+        c.setStats(st);
+        assertEquals(st, c.getStats());
+        for (int i = 0; i < 200; ++i) {
+            c.put(i, Integer.valueOf(i));
+        }
+        c.get(199);
+        c.get(-1);
+        CacheStats.Snapshot s = st.snapshot();
+        assertEquals(200, s.putCount());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+        assertEquals(200 - c.size(), s.evictionCount());
+    }
+
+}
@@ -47,4 +47,22 @@ public class LRUHashMapTest {
 		assertEquals("12345", map.get("1234"));
 	}
 
+	@Test
+	public void testStats() {
+		LRUHashMap<String, String> map = new LRUHashMap<String, String>(5);
+		assertNull(map.getStats());
+		CacheStats stats = new CacheStats();
+		map.setStats(stats);
+		assertEquals(stats, map.getStats());
+		for (int i = 0; i < 8; ++i) {
+			map.put("k" + i, "v" + i);
+		}
+		assertEquals("v7", map.get("k7"));
+		assertNull(map.get("k0"));
+		CacheStats.Snapshot s = stats.snapshot();
+		assertEquals(8, s.putCount());
+		assertEquals(3, s.evictionCount());
+		assertEquals(1, s.hitCount());
+		assertEquals(1, s.missCount());
+	}
 }
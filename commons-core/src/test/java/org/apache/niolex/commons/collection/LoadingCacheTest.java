@@ -0,0 +1,317 @@
+/**
+ * LoadingCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.niolex.commons.collection.LoadingCache.BulkLoader;
+import org.apache.niolex.commons.collection.LoadingCache.Loader;
+import org.apache.niolex.commons.reflect.FieldUtil;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class LoadingCacheTest {
+
+    public static class SlowLoader implements Loader<String, String> {
+        final AtomicInteger calls = new AtomicInteger();
+        volatile long sleep = 0;
+        volatile boolean fail = false;
+
+        @Override
+        public String load(String key) throws Exception {
+            calls.incrementAndGet();
+            if (sleep > 0) {
+                Thread.sleep(sleep);
+            }
+            if (fail) {
+                throw new IOException("Backend down.");
+            }
+            return key.startsWith("null") ? null : "v-" + key;
+        }
+    }
+
+    public static class SlowBulkLoader extends SlowLoader implements BulkLoader<String, String> {
+        final List<Collection<String>> bulks = new ArrayList<Collection<String>>();
+
+        @Override
+        public synchronized Map<String, String> loadAll(Collection<String> keys) throws Exception {
+            bulks.add(new ArrayList<String>(keys));
+            Map<String, String> r = new HashMap<String, String>();
+            for (String k : keys) {
+                String v = load(k);
+                if (v != null) {
+                    r.put(k, v);
+                }
+            }
+            return r;
+        }
+    }
+
+    private final SlowLoader loader = new SlowLoader();
+    private final LoadingCache<String, String> cache = new LoadingCache<String, String>(
+            new ConcurrentLRUCache<String, String>(100), loader);
+
+    @Test
+    public void testGet() throws Exception {
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("v-a", cache.get("a"));
+        assertEquals("v-a", cache.get("a"));
+        assertEquals("v-a", cache.getIfPresent("a"));
+        assertEquals(1, loader.calls.get());
+        assertEquals(1, cache.size());
+        assertEquals("v-a", cache.remove("a"));
+        assertNull(cache.put("b", "c"));
+        assertEquals("c", cache.get("b"));
+        assertEquals(1, loader.calls.get());
+        assertTrue(cache.getCache() instanceof ConcurrentLRUCache);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetNull() throws Exception {
+        cache.get(null);
+    }
+
+    @Test
+    public void testGetNotFound() throws Exception {
+        assertNull(cache.get("null-1"));
+        assertNull(cache.get("null-1"));
+        assertEquals(2, loader.calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        loader.sleep = 100;
+        final ConcurrentHashMap<String, String> res = new ConcurrentHashMap<String, String>();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] ts = new Thread[10];
+        for (int i = 0; i < ts.length; ++i) {
+            final String name = "t" + i;
+            ts[i] = new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        res.put(name, cache.get("hot"));
+                    } catch (Exception e) {
+                        res.put(name, e.toString());
+                    }
+                }
+            };
+            ts[i].start();
+        }
+        start.countDown();
+        for (Thread t : ts) {
+            t.join();
+        }
+        assertEquals(1, loader.calls.get());
+        assertEquals(10, res.size());
+        for (String v : res.values()) {
+            assertEquals("v-hot", v);
+        }
+        ConcurrentHashMap<?, ?> loadingMap = FieldUtil.getValue(cache, "loadingMap");
+        assertTrue(loadingMap.isEmpty());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        loader.sleep = 100;
+        loader.fail = true;
+        CacheStats stats = new CacheStats();
+        cache.setStats(stats);
+        assertEquals(stats, cache.getStats());
+        final AtomicInteger failed = new AtomicInteger();
+        Thread[] ts = new Thread[5];
+        for (int i = 0; i < ts.length; ++i) {
+            ts[i] = new Thread() {
+                public void run() {
+                    try {
+                        cache.get("bad");
+                    } catch (CacheLoadException e) {
+                        if (e.getCause() instanceof IOException) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        assertEquals(5, failed.get());
+        assertTrue(loader.calls.get() < 5);
+        assertEquals(0, cache.size());
+        assertEquals(loader.calls.get(), stats.snapshot().loadFailureCount());
+
+        // Failure is not cached.
+        loader.fail = false;
+        loader.sleep = 0;
+        assertEquals("v-bad", cache.get("bad"));
+        assertEquals(1, stats.snapshot().loadSuccessCount());
+        assertTrue(stats.snapshot().totalLoadTime() > 0);
+    }
+
+    @Test
+    public void testGetAll() throws Exception {
+        cache.put("a", "cached");
+        Map<String, String> r = cache.getAll(Arrays.asList("a", "b", "c", "b", "null-d"));
+        assertEquals(3, r.size());
+        assertEquals("cached", r.get("a"));
+        assertEquals("v-b", r.get("b"));
+        assertEquals("v-c", r.get("c"));
+        assertFalse(r.containsKey("null-d"));
+        assertEquals(3, loader.calls.get());
+    }
+
+    @Test
+    public void testGetAllBulk() throws Exception {
+        SlowBulkLoader bulk = new SlowBulkLoader();
+        LoadingCache<String, String> c = new LoadingCache<String, String>(
+                new ConcurrentLRUCache<String, String>(100), bulk);
+        c.put("a", "cached");
+        Map<String, String> r = c.getAll(Arrays.asList("a", "b", "c", "null-d"));
+        assertEquals(3, r.size());
+        assertEquals("v-c", r.get("c"));
+        assertEquals(1, bulk.bulks.size());
+        assertEquals(Arrays.asList("b", "c", "null-d"), bulk.bulks.get(0));
+        r = c.getAll(Arrays.asList("a", "b", "c"));
+        assertEquals(3, r.size());
+        assertEquals(1, bulk.bulks.size());
+        assertEquals(3, c.size());
+    }
+
+    @Test
+    public void testGetAllBulkFailure() throws Exception {
+        SlowBulkLoader bulk = new SlowBulkLoader();
+        bulk.fail = true;
+        LoadingCache<String, String> c = new LoadingCache<String, String>(
+                new ConcurrentLRUCache<String, String>(100), bulk);
+        try {
+            c.getAll(Arrays.asList("a", "b"));
+            assertTrue(false);
+        } catch (CacheLoadException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        ConcurrentHashMap<?, ?> loadingMap = FieldUtil.getValue(c, "loadingMap");
+        assertTrue(loadingMap.isEmpty());
+        bulk.fail = false;
+        assertEquals(2, c.getAll(Arrays.asList("a", "b")).size());
+    }
+
+    /**
+     * Get the key in another thread, and fail if it can not finish in time.
+     */
+    private static String getInTime(final LoadingCache<String, String> c, final String key) throws Exception {
+        final String[] r = new String[1];
+        Thread t = new Thread() {
+            public void run() {
+                r[0] = c.get(key);
+            }
+        };
+        t.setDaemon(true);
+        t.start();
+        t.join(2000);
+        assertFalse("get(" + key + ") hangs.", t.isAlive());
+        return r[0];
+    }
+
+    @Test
+    public void testGetAllFailureReleaseSiblings() throws Exception {
+        LoadingCache<String, String> c = new LoadingCache<String, String>(
+                new ConcurrentLRUCache<String, String>(100), new Loader<String, String>() {
+                    @Override
+                    public String load(String key) throws Exception {
+                        if (key.startsWith("bad")) {
+                            throw new IOException("Backend down.");
+                        }
+                        return "v-" + key;
+                    }
+                });
+        try {
+            c.getAll(Arrays.asList("bad-a", "b", "c"));
+            assertTrue(false);
+        } catch (CacheLoadException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        ConcurrentHashMap<?, ?> loadingMap = FieldUtil.getValue(c, "loadingMap");
+        assertTrue(loadingMap.isEmpty());
+        assertEquals("v-b", getInTime(c, "b"));
+        assertEquals("v-c", getInTime(c, "c"));
+    }
+
+    @Test
+    public void testGetAllBulkPutFailure() throws Exception {
+        SlowBulkLoader bulk = new SlowBulkLoader();
+        final AtomicInteger puts = new AtomicInteger();
+        LoadingCache<String, String> c = new LoadingCache<String, String>(
+                new ConcurrentLRUCache<String, String>(100) {
+                    @Override
+                    public String put(String key, String value) {
+                        if (puts.incrementAndGet() == 1) {
+                            throw new IllegalStateException("Cache full.");
+                        }
+                        return super.put(key, value);
+                    }
+                }, bulk);
+        try {
+            c.getAll(Arrays.asList("a", "b"));
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            assertEquals("Cache full.", e.getMessage());
+        }
+        ConcurrentHashMap<?, ?> loadingMap = FieldUtil.getValue(c, "loadingMap");
+        assertTrue(loadingMap.isEmpty());
+        assertEquals("v-b", getInTime(c, "b"));
+    }
+
+    @Test
+    public void testGetAllWaitOthers() throws Exception {
+        loader.sleep = 100;
+        Thread t = new Thread() {
+            public void run() {
+                cache.get("x");
+            }
+        };
+        t.start();
+        Thread.sleep(30);
+        Map<String, String> r = cache.getAll(Arrays.asList("x", "y"));
+        t.join();
+        assertEquals("v-x", r.get("x"));
+        assertEquals("v-y", r.get("y"));
+        assertEquals(2, loader.calls.get());
+    }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * LongObjectCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.apache.niolex.commons.test.Assert.assertIntEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.niolex.commons.reflect.FieldUtil;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class LongObjectCacheTest {
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTooSmall() throws Exception {
+        new LongObjectCache<String>(16);
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        LongObjectCache<String> c = new LongObjectCache<String>(100);
+        assertIntEquals(3, FieldUtil.getValue(c, "segmentMask"));
+        c = new LongObjectCache<String>(100000, 1000);
+        assertIntEquals(1023, FieldUtil.getValue(c, "segmentMask"));
+        c = new LongObjectCache<String>(20, 16);
+        assertIntEquals(0, FieldUtil.getValue(c, "segmentMask"));
+        c.put(3, "c");
+        assertEquals("c", c.get(3));
+        assertEquals(20, c.getMaxSize());
+    }
+
+    @Test
+    public void testGetPutRemove() throws Exception {
+        LongObjectCache<String> c = new LongObjectCache<String>(1000);
+        assertNull(c.get(1L));
+        assertNull(c.put(1L, "a"));
+        assertNull(c.put(Long.MIN_VALUE, "min"));
+        assertNull(c.put(0, "zero"));
+        assertEquals("a", c.put(1L, "b"));
+        assertEquals("b", c.get(1L));
+        assertEquals("min", c.get(Long.MIN_VALUE));
+        assertEquals("zero", c.get(0));
+        assertEquals(3, c.size());
+        assertEquals("b", c.remove(1L));
+        assertNull(c.remove(1L));
+        assertNull(c.get(1L));
+        assertEquals(2, c.size());
+    }
+
+    @Test
+    public void testBoxed() throws Exception {
+        Cache<Long, String> c = new LongObjectCache<String>(1000);
+        assertNull(c.put(5L, "five"));
+        assertEquals("five", c.get(5L));
+        assertEquals("five", c.remove(Long.valueOf(5)));
+        assertEquals(0, c.size());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testBoxedNullKey() throws Exception {
+        new LongObjectCache<String>(1000).get((Long) null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullValue() throws Exception {
+        new LongObjectCache<String>(1000).put(1, null);
+    }
+
+    @Test
+    public void testRandomOps() throws Exception {
+        // Big enough to hold all the keys, compare with HashMap.
+        LongObjectCache<Long> c = new LongObjectCache<Long>(5000, 4);
+        Map<Long, Long> m = new HashMap<Long, Long>();
+        Random r = new Random(12345);
+        for (int i = 0; i < 200000; ++i) {
+            long k = r.nextInt(3000) * 0x100000000L;
+            switch (r.nextInt(3)) {
+                case 0:
+                    assertEquals(m.put(k, (long) i), c.put(k, Long.valueOf(i)));
+                    break;
+                case 1:
+                    assertEquals(m.remove(k), c.remove(k));
+                    break;
+                default:
+                    assertEquals(m.get(k), c.get(k));
+            }
+        }
+        assertEquals(m.size(), c.size());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        LongObjectCache<Long> c = new LongObjectCache<Long>(1000);
+        for (long i = 0; i < 5000; ++i) {
+            c.put(i, Long.valueOf(i));
+        }
+        assertTrue(c.size() <= 1000);
+        assertTrue(c.size() > 900);
+        int cnt = 0;
+        for (long i = 0; i < 5000; ++i) {
+            Long v = c.get(i);
+            if (v != null) {
+                assertEquals(i, v.longValue());
+                ++cnt;
+            }
+        }
+        assertEquals(c.size(), cnt);
+    }
+
+    @Test
+    public void testLRU() throws Exception {
+        LongObjectCache<Long> c = new LongObjectCache<Long>(1000);
+        // The hot items are visited again and again.
+        for (long k = 0; k < 200; ++k) {
+            c.put(k, Long.valueOf(k));
+        }
+        int hit = 0;
+        for (long i = 1000; i < 4000; ++i) {
+            c.put(i, Long.valueOf(i));
+            if (c.get(i % 200) != null) {
+                ++hit;
+            }
+        }
+        assertTrue(hit > 2700);
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        LongObjectCache<Long> c = new LongObjectCache<Long>(100);
+        CacheStats st = new CacheStats();
+        c.setStats(st);
+        assertEquals(st, c.getStats());
+        for (long i = 0; i < 200; ++i) {
+            c.put(i, Long.valueOf(i));
+        }
+        c.get(199);
+        c.get(-1);
+        CacheStats.Snapshot s = st.snapshot();
+        assertEquals(200, s.putCount());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+        assertEquals(200 - c.size(), s.evictionCount());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final LongObjectCache<Long> c = new LongObjectCache<Long>(2000);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; ++t) {
+            final long base = t;
+            ts[t] = new Thread() {
+                public void run() {
+                    Random r = new Random(base);
+                    for (int i = 0; i < 50000; ++i) {
+                        long k = r.nextInt(4000);
+                        Long v = c.get(k);
+                        if (v == null) {
+                            c.put(k, Long.valueOf(k));
+                        } else if (v.longValue() != k) {
+                            errors.incrementAndGet();
+                        }
+                        if (i % 10 == 0) {
+                            c.remove(r.nextInt(4000));
+                        }
+                    }
+                }
+            };
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(c.size() <= 2000);
+    }
+
+}
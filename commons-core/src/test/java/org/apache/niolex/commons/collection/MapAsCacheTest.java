@@ -36,4 +36,18 @@ public class MapAsCacheTest {
         assertEquals(0, c.size());
     }
 
+    @Test
+    public void testStats() throws Exception {
+        MapAsCache<String, Integer> c = new MapAsCache<String, Integer>(map);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        assertEquals(stats, c.getStats());
+        c.put("a", 1);
+        assertEquals(1, c.get("a").intValue());
+        assertEquals(null, c.get("b"));
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(1, s.putCount());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+    }
 }
@@ -0,0 +1,225 @@
+/**
+ * OffHeapCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.niolex.commons.codec.StringUtil;
+import org.apache.niolex.commons.collection.OffHeapCache.Segment;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class OffHeapCacheTest {
+
+    private static byte[] bytes(String s) {
+        return StringUtil.strToUtf8Byte(s);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testOffHeapCacheTooSmall() throws Exception {
+        new OffHeapCache<String>(4096, 16, CacheCodec.StringCodec.INSTANCE);
+    }
+
+    @Test
+    public void testGetPutRemove() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(1024 * 1024, CacheCodec.StringCodec.INSTANCE);
+        assertNull(cache.get("nice"));
+        assertNull(cache.put("nice", bytes("you")));
+        assertArrayEquals(bytes("you"), cache.get("nice"));
+        assertEquals(1, cache.size());
+
+        assertArrayEquals(bytes("you"), cache.put("nice", bytes("yeah")));
+        assertArrayEquals(bytes("yeah"), cache.get("nice"));
+        assertEquals(1, cache.size());
+
+        assertArrayEquals(bytes("yeah"), cache.remove("nice"));
+        assertNull(cache.remove("nice"));
+        assertNull(cache.get("nice"));
+        assertEquals(0, cache.size());
+        cache.close();
+    }
+
+    @Test
+    public void testBytesKey() throws Exception {
+        OffHeapCache<byte[]> cache = new OffHeapCache<byte[]>(1024 * 1024, CacheCodec.BytesCodec.INSTANCE);
+        assertNull(cache.put(bytes("nice"), bytes("you")));
+        // Equal keys are found by content, not by identity.
+        for (int i = 0; i < 20; ++i) {
+            assertArrayEquals(bytes("you"), cache.get(bytes("nice")));
+        }
+        assertArrayEquals(bytes("you"), cache.put(bytes("nice"), bytes("yeah")));
+        assertEquals(1, cache.size());
+        assertArrayEquals(bytes("yeah"), cache.remove(bytes("nice")));
+        assertEquals(0, cache.size());
+        cache.close();
+    }
+
+    @Test
+    public void testSegmentClosed() throws Exception {
+        Segment seg = new Segment(64 * 1024);
+        seg.put(5, bytes("k"), bytes("v"), null);
+        seg.close();
+        // A concurrent reader may reach the segment after close.
+        assertNull(seg.get(5, bytes("k")));
+        assertNull(seg.remove(5, bytes("k")));
+        try {
+            seg.put(5, bytes("k"), bytes("v"), null);
+            assertTrue(false);
+        } catch (IllegalStateException e) {
+            assertEquals("This cache is already closed.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testEmptyValue() throws Exception {
+        OffHeapCache<Long> cache = new OffHeapCache<Long>(64 * 1024, CacheCodec.LongCodec.INSTANCE);
+        cache.put(3L, new byte[0]);
+        assertArrayEquals(new byte[0], cache.get(3L));
+        assertNull(cache.get(4L));
+        cache.close();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPutTooLarge() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(2048, 1, CacheCodec.StringCodec.INSTANCE);
+        cache.put("nice", new byte[2048]);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetNull() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(2048, 1, CacheCodec.StringCodec.INSTANCE);
+        cache.get(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testPutNull() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(2048, 1, CacheCodec.StringCodec.INSTANCE);
+        cache.put("nice", null);
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testClose() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(2048, 1, CacheCodec.StringCodec.INSTANCE);
+        cache.put("nice", bytes("you"));
+        cache.close();
+        assertEquals(0, cache.size());
+        cache.get("nice");
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(64 * 1024, 4, CacheCodec.StringCodec.INSTANCE);
+        for (int i = 0; i < 100; ++i) {
+            cache.put("key" + i, bytes("value" + i));
+        }
+        assertEquals(100, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.usedBytes());
+        assertNull(cache.get("key1"));
+        cache.close();
+    }
+
+    @Test
+    public void testEvictionWrapAround() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(4000, 1, CacheCodec.StringCodec.INSTANCE);
+        for (int i = 0; i < 5000; ++i) {
+            cache.put("key" + i, bytes("value-" + i + "-" + i));
+            assertTrue(cache.usedBytes() <= 4000);
+        }
+        int hit = 0;
+        for (int i = 0; i < 5000; ++i) {
+            byte[] v = cache.get("key" + i);
+            if (v != null) {
+                ++hit;
+                assertArrayEquals(bytes("value-" + i + "-" + i), v);
+            }
+        }
+        assertEquals(cache.size(), hit);
+        assertTrue(hit > 50);
+        assertNull(cache.get("key1"));
+        assertArrayEquals(bytes("value-4999-4999"), cache.get("key4999"));
+        cache.close();
+    }
+
+    @Test
+    public void testSecondChance() throws Exception {
+        OffHeapCache<String> cache = new OffHeapCache<String>(4096, 1, CacheCodec.StringCodec.INSTANCE);
+        cache.put("hot", bytes("hot-value"));
+        for (int i = 0; i < 1000; ++i) {
+            cache.put("key" + i, bytes("value" + i));
+            assertArrayEquals(bytes("hot-value"), cache.get("hot"));
+        }
+        assertNull(cache.get("key1"));
+        cache.close();
+    }
+
+    @Test
+    public void testSegmentIndex() throws Exception {
+        Segment seg = new Segment(64 * 1024);
+        // All the keys have the same hash, test the index collision and deletion.
+        for (int i = 0; i < 100; ++i) {
+            seg.put(5, bytes("k" + i), bytes("v" + i), null);
+        }
+        assertEquals(100, seg.size());
+        for (int i = 0; i < 100; i += 2) {
+            assertArrayEquals(bytes("v" + i), seg.remove(5, bytes("k" + i)));
+        }
+        assertEquals(50, seg.size());
+        for (int i = 0; i < 100; ++i) {
+            byte[] v = seg.get(5, bytes("k" + i));
+            if (i % 2 == 0) {
+                assertNull(v);
+            } else {
+                assertArrayEquals(bytes("v" + i), v);
+            }
+        }
+        assertEquals(24, Segment.recordSize(3, 4));
+        assertEquals(24, Segment.recordSize(3, 5));
+        assertEquals(32, Segment.recordSize(3, 6));
+        seg.close();
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        OffHeapCache<String> c = new OffHeapCache<String>(4096, 1, CacheCodec.StringCodec.INSTANCE);
+        assertNull(c.getStats());
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        assertEquals(stats, c.getStats());
+        for (int i = 0; i < 200; ++i) {
+            c.put("k" + i, bytes("v" + i));
+        }
+        assertArrayEquals(bytes("v199"), c.get("k199"));
+        assertNull(c.get("k0"));
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(200, s.putCount());
+        assertEquals(200 - c.size(), s.evictionCount());
+        assertTrue(s.evictionWeight() >= 24 * s.evictionCount());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+        c.close();
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * ReadBufferTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class ReadBufferTest {
+
+    @Test
+    public void testCapacity() throws Exception {
+        assertEquals(16, new ReadBuffer<String>(1).capacity());
+        assertEquals(64, new ReadBuffer<String>(3).capacity());
+        assertEquals(1024, new ReadBuffer<String>(1000).capacity());
+    }
+
+    @Test
+    public void testOfferDrain() throws Exception {
+        ReadBuffer<String> buf = new ReadBuffer<String>(1);
+        for (int i = 0; i < 10; ++i) {
+            assertTrue(buf.offer("s" + i));
+        }
+        assertEquals(10, buf.size());
+        String[] batch = new String[buf.capacity()];
+        assertEquals(10, buf.drainTo(batch));
+        assertEquals("s0", batch[0]);
+        assertEquals("s9", batch[9]);
+        assertEquals(0, buf.size());
+        assertEquals(0, buf.drainTo(batch));
+    }
+
+    @Test
+    public void testOfferFull() throws Exception {
+        ReadBuffer<Integer> buf = new ReadBuffer<Integer>(1);
+        for (int i = 0; i < ReadBuffer.STRIPE_SIZE; ++i) {
+            assertTrue(buf.offer(i));
+        }
+        assertFalse(buf.offer(100));
+        Integer[] batch = new Integer[buf.capacity()];
+        assertEquals(16, buf.drainTo(batch));
+        assertEquals(15, batch[15].intValue());
+        // Wrap around.
+        for (int i = 0; i < 20; ++i) {
+            buf.offer(i);
+        }
+        assertEquals(16, buf.drainTo(batch));
+        assertEquals(0, batch[0].intValue());
+        assertEquals(15, batch[15].intValue());
+    }
+
+    @Test
+    public void testDrainSmallBatch() throws Exception {
+        ReadBuffer<Integer> buf = new ReadBuffer<Integer>(1);
+        for (int i = 0; i < 10; ++i) {
+            buf.offer(i);
+        }
+        Integer[] batch = new Integer[4];
+        assertEquals(4, buf.drainTo(batch));
+        assertEquals(3, batch[3].intValue());
+        assertEquals(4, buf.drainTo(batch));
+        assertEquals(4, batch[0].intValue());
+        assertEquals(2, buf.drainTo(batch));
+        assertEquals(9, batch[1].intValue());
+    }
+
+    @Test
+    public void testConcurrentOffer() throws Exception {
+        final ReadBuffer<Integer> buf = new ReadBuffer<Integer>(8);
+        final Integer[] batch = new Integer[buf.capacity()];
+        final AtomicInteger drained = new AtomicInteger();
+        final AtomicInteger offered = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(4);
+        for (int t = 0; t < 4; ++t) {
+            new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; ++i) {
+                        if (!buf.offer(i)) {
+                            synchronized (batch) {
+                                drained.addAndGet(buf.drainTo(batch));
+                            }
+                        } else {
+                            offered.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }.start();
+        }
+        latch.await();
+        drained.addAndGet(buf.drainTo(batch));
+        assertEquals(0, buf.size());
+        // Elements may be dropped under contention, but never duplicated.
+        assertTrue(drained.get() <= offered.get());
+        assertTrue(drained.get() > 0);
+    }
+
+}
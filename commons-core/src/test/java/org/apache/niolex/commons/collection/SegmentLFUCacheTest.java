@@ -2,10 +2,21 @@ package org.apache.niolex.commons.collection;
 
 import static org.apache.niolex.commons.test.Assert.assertIntEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.niolex.commons.collection.SegmentLFUCache.ItemEntry;
+import org.apache.niolex.commons.collection.SegmentLFUCache.Segment;
 import org.apache.niolex.commons.reflect.FieldUtil;
+import org.apache.niolex.commons.reflect.MethodUtil;
 import org.junit.Test;
 
 public class SegmentLFUCacheTest {
@@ -93,6 +104,49 @@ public class SegmentLFUCacheTest {
         assertEquals(2048, seg.size());
     }
 
+    @Test
+    public void testAdmission() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16, true);
+        // The hot items are visited many times.
+        for (int k = 0; k < 5; ++k) {
+            for (int i = 0; i < 3000; ++i) {
+                if (c.get(i) == null) {
+                    c.put(i, i);
+                }
+            }
+        }
+        assertEquals(3000, c.size());
+        // One hit wonders scan.
+        for (int i = 10000; i < 30000; ++i) {
+            c.put(i, i);
+        }
+        assertEquals(4096, c.size());
+        int hit = 0;
+        for (int i = 0; i < 3000; ++i) {
+            if (c.get(i) != null) {
+                ++hit;
+            }
+        }
+        assertTrue(hit > 2700);
+    }
+
+    @Test
+    public void testAdmissionRemove() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(2048, 16, true);
+        for (int i = 0; i < 5000; ++i) {
+            c.put(i, i);
+        }
+        assertEquals(2048, c.size());
+        int cnt = 0;
+        for (int i = 0; i < 5000; ++i) {
+            if (c.remove(i) != null) {
+                ++cnt;
+            }
+        }
+        assertEquals(2048, cnt);
+        assertEquals(0, c.size());
+    }
+
     @Test(expected=NullPointerException.class)
     public void testSize() throws Exception {
         SegmentLFUCache<String, String> seg = new SegmentLFUCache<String, String>(2048, 2);
@@ -177,4 +231,399 @@ public class SegmentLFUCacheTest {
         seg.remove(null);
     }
 
+    @Test
+    public void testStats() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 4);
+        assertNull(c.getStats());
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        assertEquals(stats, c.getStats());
+        for (int i = 0; i < 5000; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        c.get("k4999");
+        c.get("not-found");
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(5000, s.putCount());
+        assertEquals(5000 - c.size(), s.evictionCount());
+        assertEquals(1, s.hitCount());
+        assertEquals(1, s.missCount());
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 4);
+        c.setExpireAfterWrite(50);
+        assertEquals(50, c.getExpireAfterWrite());
+        for (int i = 0; i < 100; ++i) {
+            c.put("k" + i, "v" + i);
+        }
+        c.put("b", "2", 0, 0);
+        assertEquals("v1", c.get("k1"));
+        Thread.sleep(120);
+        assertNull(c.get("k1"));
+        assertEquals("2", c.get("b"));
+        assertEquals(101, c.size());
+        c.cleanUp();
+        assertEquals(1, c.size());
+        c.setExpireAfterWrite(-1);
+        assertEquals(0, c.getExpireAfterWrite());
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 4, true);
+        c.setExpireAfterAccess(100);
+        assertEquals(100, c.getExpireAfterAccess());
+        c.put("a", "1");
+        c.put("b", "2");
+        for (int i = 0; i < 5; ++i) {
+            Thread.sleep(40);
+            assertEquals("1", c.get("a"));
+        }
+        assertNull(c.get("b"));
+        c.cleanUp();
+        assertEquals(1, c.size());
+        assertEquals("1", c.remove("a"));
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    public void testExpireUpdatePolicy() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 4);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        c.put("a", "1", 50, 0);
+        c.put("b", "1", 50, 0);
+        c.put("a", "2", 0, 0);
+        c.put("b", "2", 5000, 0);
+        Thread.sleep(120);
+        c.cleanUp();
+        assertEquals("2", c.get("a"));
+        assertEquals("2", c.get("b"));
+        c.put("b", "3", 30, 0);
+        Thread.sleep(120);
+        c.cleanUp();
+        assertEquals(1, c.size());
+        assertNull(c.get("b"));
+        assertEquals(1, stats.snapshot().evictionCount());
+    }
+
+    @Test
+    public void testPutExpired() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 4);
+        c.put("a", "1", 50, 0);
+        c.put("b", "2", 50, 0);
+        Thread.sleep(120);
+        // Delay the clean up, the expired items are not reclaimed yet.
+        Segment<String, String>[] table = FieldUtil.getValue(c, "segmentTable");
+        for (Segment<String, String> seg : table) {
+            FieldUtil.setValue(seg, "nextCleanUp", Long.MAX_VALUE - 1);
+        }
+        assertNull(c.put("a", "3"));
+        assertEquals(2, c.size());
+        assertNull(c.remove("b"));
+        assertEquals(1, c.size());
+        assertEquals("3", c.remove("a"));
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    public void testExpireAfterCleanUp() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 1);
+        c.put("a", "1", 50, 0);
+        Thread.sleep(120);
+        c.cleanUp();
+        assertEquals(0, c.size());
+        c.put("b", "2", 50, 0);
+        Thread.sleep(120);
+        c.cleanUp();
+        assertEquals(0, c.size());
+    }
+
+    @Test(timeout = 5000)
+    public void testExpireStaleTime() throws Exception {
+        Segment<String, String> seg = new Segment<String, String>(16);
+        seg.put(1, "a", "1", 1000, 100000, 0, 0);
+        assertEquals(0, seg.expire(2001, null));
+        seg.put(1, "a", "2", 2000, 1, 0, 0);
+        // The wheel is already advanced to a later time.
+        assertEquals(1, seg.expire(2000, null));
+        assertEquals(0, seg.size());
+    }
+
+    @Test
+    public void testPutAllGetAll() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        Map<String, String> m = new HashMap<String, String>();
+        for (int i = 0; i < 1000; ++i) {
+            m.put("k" + i, "v" + i);
+        }
+        c.putAll(m);
+        assertEquals(1000, c.size());
+        c.putAll(m);
+        assertEquals(1000, c.size());
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 1200; i += 3) {
+            keys.add("k" + i);
+        }
+        Map<String, String> r = c.getAll(keys);
+        assertEquals(334, r.size());
+        assertEquals("v999", r.get("k999"));
+        assertNull(r.get("k1002"));
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(2000, s.putCount());
+        assertEquals(334, s.hitCount());
+        assertEquals(66, s.missCount());
+        assertEquals(0, c.getAll(new ArrayList<String>()).size());
+    }
+
+    @Test
+    public void testPutAllEviction() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16);
+        for (int b = 0; b < 10; ++b) {
+            Map<Integer, Integer> m = new HashMap<Integer, Integer>();
+            for (int i = 0; i < 1000; ++i) {
+                m.put(b * 1000 + i, i);
+            }
+            c.putAll(m);
+            assertTrue(c.size() <= 4096);
+        }
+        assertEquals(4096, c.size());
+    }
+
+    @Test
+    public void testPutAllAdmission() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16, true);
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        for (int b = 0; b < 10; ++b) {
+            Map<Integer, Integer> m = new HashMap<Integer, Integer>();
+            for (int i = 0; i < 1000; ++i) {
+                m.put(b * 1000 + i, i);
+            }
+            c.putAll(m);
+            assertTrue(c.size() <= 4096);
+        }
+        assertEquals(10000, c.size() + stats.snapshot().evictionCount());
+        assertTrue(c.size() > 4000);
+    }
+
+    @Test
+    public void testPutAllExpire() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16);
+        c.setExpireAfterWrite(50);
+        Map<String, String> m = new HashMap<String, String>();
+        m.put("a", "b");
+        m.put("c", "d");
+        c.putAll(m);
+        assertEquals(2, c.getAll(m.keySet()).size());
+        Thread.sleep(120);
+        assertEquals(0, c.getAll(m.keySet()).size());
+        c.putAll(m);
+        assertEquals(2, c.size());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testPutAllNullValue() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16);
+        Map<String, String> m = new HashMap<String, String>();
+        m.put("a", null);
+        c.putAll(m);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testGetAllNullKey() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16);
+        c.getAll(Arrays.asList("a", null));
+    }
+
+    public static class LengthWeigher implements Weigher<String, String> {
+        @Override
+        public int weigh(String key, String value) {
+            return value.length();
+        }
+    }
+
+    private static String str(int len) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < len; ++i) {
+            sb.append('a');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testWeight() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16, false, 100000,
+                new LengthWeigher());
+        assertEquals(100000, c.getMaxWeight());
+        for (int i = 0; i < 2000; ++i) {
+            c.put("k" + i, str(100));
+            assertTrue(c.getTotalWeight() <= 100000);
+        }
+        assertEquals(100000, c.getTotalWeight());
+        assertEquals(1000, c.size());
+        c.put("big", str(50000));
+        assertTrue(c.getTotalWeight() <= 100000);
+        assertTrue(c.size() <= 501);
+        c.remove("big");
+        assertEquals(c.size() * 100, c.getTotalWeight());
+        c.put("k1999", str(1));
+        assertEquals((c.size() - 1) * 100 + 1, c.getTotalWeight());
+    }
+
+    @Test
+    public void testWeightStats() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16, true, 100000,
+                new LengthWeigher());
+        CacheStats stats = new CacheStats();
+        c.setStats(stats);
+        Map<String, String> m = new HashMap<String, String>();
+        for (int i = 0; i < 2000; ++i) {
+            c.put("k" + i, str(i % 2 == 0 ? 100 : 60));
+            m.put("m" + i, str(80));
+        }
+        c.putAll(m);
+        CacheStats.Snapshot s = stats.snapshot();
+        assertEquals(4000 - c.size(), s.evictionCount());
+        assertEquals(320000 - c.getTotalWeight(), s.evictionWeight());
+    }
+
+    @Test
+    public void testWeightPutAll() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16, true, 100000,
+                new LengthWeigher());
+        Map<String, String> m = new HashMap<String, String>();
+        for (int i = 0; i < 2000; ++i) {
+            m.put("k" + i, str(100));
+        }
+        c.putAll(m);
+        assertTrue(c.getTotalWeight() <= 100000);
+        long sum = 0;
+        for (String v : c.getAll(m.keySet()).values()) {
+            sum += v.length();
+        }
+        assertEquals(sum, c.getTotalWeight());
+    }
+
+    @Test
+    public void testWeightNoWeigher() throws Exception {
+        SegmentLFUCache<String, String> c = new SegmentLFUCache<String, String>(4096, 16);
+        c.put("a", "b");
+        assertEquals(1, c.getTotalWeight());
+        assertEquals(Long.MAX_VALUE, c.getMaxWeight());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWeightInvalidMax() throws Exception {
+        new SegmentLFUCache<String, String>(4096, 16, false, -1, new LengthWeigher());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SegmentLFUCache.Segment<Integer, Integer> segmentOf(SegmentLFUCache<Integer, Integer> c,
+            int key) throws Exception {
+        int hash = (Integer) MethodUtil.invokeMethod(c, "hash", key);
+        return (SegmentLFUCache.Segment<Integer, Integer>) MethodUtil.invokeMethod(c, "segmentFor", hash);
+    }
+
+    private static int visitsOf(SegmentLFUCache<Integer, Integer> c, int key) throws Exception {
+        int hash = (Integer) MethodUtil.invokeMethod(c, "hash", key);
+        ItemEntry<Integer, Integer> e = segmentOf(c, key).findItem(hash, key);
+        return (Integer) FieldUtil.getValue(e, "visits");
+    }
+
+    @Test
+    public void testReadBuffer() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16);
+        assertFalse(c.isReadBuffer());
+        c.setReadBuffer(true);
+        c.setReadBuffer(true);
+        assertTrue(c.isReadBuffer());
+        c.put(1, 1);
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(1, c.get(1).intValue());
+        }
+        // The visits are not updated by get.
+        assertEquals(1, visitsOf(c, 1));
+        ReadBuffer<?> buf = FieldUtil.getValue(segmentOf(c, 1), "readBuffer");
+        assertEquals(5, buf.size());
+        c.setReadBuffer(false);
+        assertFalse(c.isReadBuffer());
+        // The reads are replayed when the buffer is disabled.
+        assertEquals(6, visitsOf(c, 1));
+        assertNull(FieldUtil.getValue(segmentOf(c, 1), "readBuffer"));
+        c.get(1);
+        assertEquals(7, visitsOf(c, 1));
+    }
+
+    @Test
+    public void testReadBufferFull() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16);
+        c.setReadBuffer(true);
+        c.put(1, 1);
+        for (int i = 0; i < 100; ++i) {
+            c.get(1);
+        }
+        // The buffer is replayed every time the stripe is full, so at most one stripe is pending.
+        int visits = visitsOf(c, 1);
+        assertTrue(visits > 100 - ReadBuffer.STRIPE_SIZE);
+        assertTrue(visits <= 101);
+    }
+
+    @Test
+    public void testReadBufferEviction() throws Exception {
+        SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16, true);
+        c.setReadBuffer(true);
+        for (int k = 0; k < 5; ++k) {
+            for (int i = 0; i < 3000; ++i) {
+                if (c.get(i) == null) {
+                    c.put(i, i);
+                }
+            }
+        }
+        for (int i = 10000; i < 30000; ++i) {
+            c.put(i, i);
+        }
+        assertEquals(4096, c.size());
+        int hit = 0;
+        for (int i = 0; i < 3000; ++i) {
+            if (c.get(i) != null) {
+                ++hit;
+            }
+        }
+        assertTrue(hit > 2700);
+    }
+
+    @Test
+    public void testReadBufferConcurrent() throws Exception {
+        final SegmentLFUCache<Integer, Integer> c = new SegmentLFUCache<Integer, Integer>(4096, 16);
+        c.setReadBuffer(true);
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; ++t) {
+            final int base = t;
+            ts[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 20000; ++i) {
+                        int k = (i * 7 + base) % 6000;
+                        Integer v = c.get(k);
+                        if (v == null) {
+                            c.put(k, k);
+                        } else if (v.intValue() != k) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        assertEquals(0, errors.get());
+        assertTrue(c.size() <= 4096);
+    }
 }
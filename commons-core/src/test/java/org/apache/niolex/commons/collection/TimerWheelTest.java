@@ -0,0 +1,171 @@
+/**
+ * TimerWheelTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class TimerWheelTest {
+
+    public static class TNode extends TimerWheel.Node {
+        long accessAt;
+
+        public TNode(long now, long expireAfterWrite, long expireAfterAccess) {
+            accessAt = now;
+            setExpiry(now, expireAfterWrite, expireAfterAccess);
+        }
+
+        @Override
+        protected long lastAccessTime() {
+            return accessAt;
+        }
+    }
+
+    private final long start = 1000000L;
+    private final TimerWheel<TNode> wheel = new TimerWheel<TNode>(start);
+
+    @Test
+    public void testNodeExpiry() throws Exception {
+        TNode n = new TNode(start, 0, 0);
+        assertFalse(n.canExpire());
+        assertEquals(Long.MAX_VALUE, n.deadline());
+        assertFalse(n.isExpired(Long.MAX_VALUE - 1));
+        n = new TNode(start, Long.MAX_VALUE, -5);
+        assertFalse(n.canExpire());
+        n = new TNode(start, 100, 0);
+        assertTrue(n.canExpire());
+        assertEquals(start + 100, n.deadline());
+        assertFalse(n.isExpired(start + 99));
+        assertTrue(n.isExpired(start + 100));
+        n = new TNode(start, 100, 30);
+        assertEquals(start + 30, n.deadline());
+        n.accessAt = start + 90;
+        assertEquals(start + 100, n.deadline());
+        assertFalse(n.isExpired(start + 99));
+        assertTrue(n.isExpired(start + 100));
+    }
+
+    @Test
+    public void testScheduleExpired() throws Exception {
+        TNode n = new TNode(start - 100, 50, 0);
+        wheel.schedule(n);
+        assertTrue(wheel.isScheduled(n));
+        assertEquals(1, wheel.size());
+        assertEquals(n, wheel.pollExpired());
+        assertFalse(wheel.isScheduled(n));
+        assertNull(wheel.pollExpired());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeschedule() throws Exception {
+        TNode n = new TNode(start, 500, 0);
+        wheel.schedule(n);
+        wheel.deschedule(n);
+        wheel.deschedule(n);
+        assertEquals(0, wheel.size());
+        wheel.advance(start + 1000);
+        assertNull(wheel.pollExpired());
+        assertEquals(start + 1000, wheel.getCurrentTime());
+        wheel.advance(start);
+        assertEquals(start + 1000, wheel.getCurrentTime());
+    }
+
+    @Test
+    public void testReschedule() throws Exception {
+        TNode n = new TNode(start, 500, 0);
+        wheel.schedule(n);
+        n.setExpiry(start, 0, 0);
+        wheel.reschedule(n);
+        assertFalse(wheel.isScheduled(n));
+        n.setExpiry(start, 100, 0);
+        wheel.reschedule(n);
+        assertTrue(wheel.isScheduled(n));
+        assertEquals(1, wheel.size());
+        wheel.advance(start + 200);
+        assertEquals(n, wheel.pollExpired());
+    }
+
+    @Test
+    public void testAdvanceAllLevels() throws Exception {
+        long[] ttl = {1, 100, 4095, 5000, 300000, 20000000, 2000000000L, 5000000000L};
+        TNode[] ns = new TNode[ttl.length];
+        for (int i = 0; i < ttl.length; ++i) {
+            ns[i] = new TNode(start, ttl[i], 0);
+            wheel.schedule(ns[i]);
+        }
+        assertEquals(ttl.length, wheel.size());
+        long now = start;
+        for (int i = 0; i < ttl.length; ++i) {
+            // Advance to one millisecond before the deadline, nothing expired.
+            long deadline = start + ttl[i];
+            for (long step = (deadline - 1 - now) / 50 + 1; now < deadline - 1; ) {
+                now = Math.min(now + step, deadline - 1);
+                wheel.advance(now);
+                assertNull(wheel.pollExpired());
+            }
+            // Expired within one tick.
+            wheel.advance(deadline + TimerWheel.TICK);
+            now = deadline + TimerWheel.TICK;
+            assertEquals(ns[i], wheel.pollExpired());
+            assertNull(wheel.pollExpired());
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testAdvanceJump() throws Exception {
+        for (int i = 1; i <= 1000; ++i) {
+            wheel.schedule(new TNode(start, i * 997L, 0));
+        }
+        wheel.advance(start + 500 * 997L);
+        int cnt = 0;
+        while (wheel.pollExpired() != null) {
+            ++cnt;
+        }
+        assertEquals(500, cnt);
+        assertEquals(500, wheel.size());
+        wheel.advance(start + 2000 * 997L);
+        while (wheel.pollExpired() != null) {
+            ++cnt;
+        }
+        assertEquals(1000, cnt);
+    }
+
+    @Test
+    public void testAccessExtends() throws Exception {
+        TNode n = new TNode(start, 0, 100);
+        wheel.schedule(n);
+        n.accessAt = start + 80;
+        wheel.advance(start + 150);
+        assertNull(wheel.pollExpired());
+        assertEquals(1, wheel.size());
+        wheel.advance(start + 180 + TimerWheel.TICK);
+        assertEquals(n, wheel.pollExpired());
+    }
+
+}
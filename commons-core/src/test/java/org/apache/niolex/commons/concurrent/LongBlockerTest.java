@@ -0,0 +1,240 @@
+/**
+ * LongBlockerTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.niolex.commons.concurrent.LongBlocker.Callback;
+import org.apache.niolex.commons.concurrent.LongBlocker.Pending;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class LongBlockerTest {
+
+    private static class Recorder implements Callback<String> {
+        private final AtomicInteger results = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicInteger timeouts = new AtomicInteger();
+        private final AtomicLong lastId = new AtomicLong(-1);
+
+        @Override
+        public void onResult(long id, String result) {
+            results.incrementAndGet();
+            lastId.set(id);
+        }
+
+        @Override
+        public void onError(long id, BlockerException e) {
+            errors.incrementAndGet();
+            lastId.set(id);
+        }
+
+        @Override
+        public void onTimeout(long id) {
+            timeouts.incrementAndGet();
+            lastId.set(id);
+        }
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        final LongBlocker<String> blocker = new LongBlocker<String>();
+        Pending<String> p = blocker.init(12345L, 0);
+        assertEquals(12345L, p.getId());
+        assertEquals(1, blocker.size());
+        Thread t = new Thread() {
+            public void run() {
+                blocker.release(12345L, "Lex");
+            }
+        };
+        t.start();
+        assertEquals("Lex", p.waitForResult());
+        assertFalse(p.isTimeout());
+        assertEquals(0, blocker.size());
+        assertFalse(blocker.release(12345L, "Again"));
+        t.join();
+    }
+
+    @Test(expected = BlockerException.class)
+    public void testReleaseException() throws Exception {
+        LongBlocker<String> blocker = new LongBlocker<String>();
+        Pending<String> p = blocker.init(-1L, 0);
+        assertTrue(blocker.release(-1L, new BlockerException("Failed.")));
+        p.waitForResult();
+    }
+
+    @Test
+    public void testDuplicateId() throws Exception {
+        LongBlocker<String> blocker = new LongBlocker<String>();
+        assertNotNull(blocker.init(7L, 0));
+        assertNull(blocker.init(7L, 0));
+        assertFalse(blocker.init(7L, 0, new Recorder()));
+        assertTrue(blocker.cancel(7L));
+        assertFalse(blocker.cancel(7L));
+        assertTrue(blocker.init(7L, 0, new Recorder()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWaitCallback() throws Exception {
+        LongBlocker<String> blocker = new LongBlocker<String>();
+        Recorder r = new Recorder();
+        assertTrue(blocker.init(8L, 0, r));
+        new Pending<String>(blocker, 8L, r).waitForResult();
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        LongBlocker<String> blocker = new LongBlocker<String>(4, scheduler);
+        Recorder r = new Recorder();
+        assertTrue(blocker.init(1L, 0, r));
+        assertTrue(blocker.init(2L, 0, r));
+        assertTrue(blocker.init(3L, 100000, r));
+        assertTrue(blocker.release(1L, "a"));
+        assertEquals(1L, r.lastId.get());
+        assertTrue(blocker.release(2L, new BlockerException("b")));
+        assertEquals(2L, r.lastId.get());
+        assertEquals(1, scheduler.processTick(System.nanoTime() + TimeUnit.MINUTES.toNanos(3)));
+        assertEquals(3L, r.lastId.get());
+        assertEquals(1, r.results.get());
+        assertEquals(1, r.errors.get());
+        assertEquals(1, r.timeouts.get());
+        assertEquals(0, blocker.size());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        LongBlocker<String> blocker = new LongBlocker<String>(1, scheduler);
+        long now = System.nanoTime();
+        Pending<String> p1 = blocker.init(1L, 100000);
+        Pending<String> p2 = blocker.init(2L, 300000);
+        Pending<String> p3 = blocker.init(3L, 0);
+        assertEquals(0, scheduler.processTick(now + TimeUnit.MINUTES.toNanos(1)));
+        assertEquals(1, scheduler.processTick(now + TimeUnit.MINUTES.toNanos(3)));
+        assertNull(p1.waitForResult());
+        assertTrue(p1.isTimeout());
+        assertFalse(blocker.release(1L, "late"));
+        assertEquals(2, blocker.size());
+        assertEquals(1, scheduler.processTick(now + TimeUnit.DAYS.toNanos(1)));
+        assertTrue(p2.isTimeout());
+        assertTrue(blocker.release(3L, "never"));
+        assertEquals("never", p3.waitForResult());
+        assertEquals(0, scheduler.getPendingCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testTimeoutHidden() throws Exception {
+        // User can only release the request by id, the timeout is not exposed.
+        assertFalse(Runnable.class.isAssignableFrom(Pending.class));
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        LongBlocker<String> blocker = new LongBlocker<String>(1, scheduler);
+        long now = System.nanoTime();
+        Pending<String> p = blocker.init(1L, 100000);
+        assertTrue(blocker.release(1L, "done"));
+        assertEquals("done", p.waitForResult());
+        // The timeout is cancelled on release.
+        assertEquals(0, scheduler.processTick(now + TimeUnit.DAYS.toNanos(1)));
+        assertEquals(1, scheduler.getCancelledCount());
+        assertFalse(p.isTimeout());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 5, TimeUnit.MILLISECONDS);
+        LongBlocker<String> blocker = new LongBlocker<String>(4, scheduler);
+        assertEquals(scheduler, blocker.getScheduler());
+        Pending<String> p = blocker.init(99L, 20);
+        long start = System.nanoTime();
+        assertNull(p.waitForResult());
+        assertTrue(p.isTimeout());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(19));
+        assertEquals(0, blocker.size());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testSharedScheduler() throws Exception {
+        LongBlocker<String> blocker = new LongBlocker<String>();
+        assertEquals(blocker.getScheduler(), new LongBlocker<String>(1).getScheduler());
+        assertNull(blocker.init(5L, 10).waitForResult());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopped() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 5, TimeUnit.MILLISECONDS);
+        scheduler.stop();
+        LongBlocker<String> blocker = new LongBlocker<String>(4, scheduler);
+        try {
+            blocker.init(1L, 10);
+        } finally {
+            assertEquals(0, blocker.size());
+        }
+    }
+
+    @Test
+    public void testManyIds() throws Exception {
+        LongBlocker<String> blocker = new LongBlocker<String>(1);
+        assertEquals(1, blocker.getStripes());
+        for (long i = 0; i < 10000; ++i) {
+            assertNotNull(blocker.init(i << 20, 0));
+        }
+        assertEquals(10000, blocker.size());
+        for (long i = 0; i < 10000; i += 2) {
+            assertTrue(blocker.release(i << 20, "ok"));
+        }
+        assertEquals(5000, blocker.size());
+        for (long i = 0; i < 10000; ++i) {
+            assertEquals(i % 2 == 1, blocker.cancel(i << 20));
+        }
+        assertEquals(0, blocker.size());
+    }
+
+    @Test
+    public void testReleaseAll() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        LongBlocker<String> blocker = new LongBlocker<String>(2, scheduler);
+        Recorder r = new Recorder();
+        Pending<String> p = blocker.init(1L, 100000);
+        assertTrue(blocker.init(2L, 100000, r));
+        blocker.releaseAll();
+        assertEquals(0, blocker.size());
+        assertEquals(1, r.errors.get());
+        try {
+            p.waitForResult();
+            fail("Should throw.");
+        } catch (BlockerException e) {
+            assertEquals("User triggered release all.", e.getMessage());
+        }
+        assertEquals(0, scheduler.processTick(System.nanoTime() + TimeUnit.DAYS.toNanos(1)));
+        assertEquals(2, scheduler.getCancelledCount());
+        scheduler.stop();
+    }
+
+}
@@ -0,0 +1,197 @@
+/**
+ * TimingWheelSchedulerTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.niolex.commons.concurrent.TimingWheelScheduler.Timeout;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class TimingWheelSchedulerTest {
+
+    private static class Task implements Runnable {
+        private final AtomicInteger cnt = new AtomicInteger();
+
+        @Override
+        public void run() {
+            cnt.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 2, TimeUnit.MILLISECONDS);
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long[] at = new long[3];
+        final long start = System.nanoTime();
+        for (int i = 0; i < 3; ++i) {
+            final int k = i;
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    at[k] = System.nanoTime() - start;
+                    latch.countDown();
+                }
+            }, 10 + i * 20, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; ++i) {
+            assertTrue(at[i] >= TimeUnit.MILLISECONDS.toNanos(10 + i * 20));
+        }
+        assertTrue(at[0] < at[1] && at[1] < at[2]);
+        assertEquals(3, scheduler.getExpiredCount());
+        assertEquals(0, scheduler.getPendingCount());
+        assertTrue(scheduler.getLagNanos() >= 0);
+        scheduler.stop();
+        assertTrue(scheduler.isStopped());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        Task task = new Task();
+        long now = System.nanoTime();
+        Timeout t1 = scheduler.schedule(task, 2, TimeUnit.MINUTES);
+        Timeout t2 = scheduler.schedule(task, 2, TimeUnit.MINUTES);
+        assertTrue(t1.cancel());
+        assertFalse(t1.cancel());
+        assertTrue(t1.isCancelled());
+        assertEquals(0, scheduler.processTick(now));
+        assertEquals(1, scheduler.getPendingCount());
+        assertTrue(t2.cancel());
+        assertEquals(0, scheduler.processTick(now + TimeUnit.MINUTES.toNanos(5)));
+        assertEquals(0, task.cnt.get());
+        assertEquals(2, scheduler.getScheduledCount());
+        assertEquals(2, scheduler.getCancelledCount());
+        assertEquals(0, scheduler.getPendingCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testLevels() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        Task task = new Task();
+        long now = System.nanoTime();
+        // One for every level and the overflow bucket.
+        long[] delays = {30, 100, 5000, 300000, 20000000};
+        Timeout[] ts = new Timeout[delays.length];
+        for (int i = 0; i < delays.length; ++i) {
+            ts[i] = scheduler.schedule(task, delays[i], TimeUnit.MINUTES);
+        }
+        assertEquals(0, scheduler.processTick(now));
+        assertEquals(5, scheduler.getPendingCount());
+        for (int i = 0; i < delays.length; ++i) {
+            long deadline = ts[i].getDeadline();
+            assertEquals(0, scheduler.processTick(deadline - TimeUnit.MINUTES.toNanos(2)));
+            assertFalse(ts[i].isExpired());
+            assertEquals(1, scheduler.processTick(deadline + TimeUnit.MINUTES.toNanos(1)));
+            assertTrue(ts[i].isExpired());
+            assertFalse(ts[i].cancel());
+            assertEquals(i + 1, task.cnt.get());
+        }
+        assertEquals(0, scheduler.getPendingCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testManyTimeouts() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES);
+        Task task = new Task();
+        long now = System.nanoTime();
+        for (int i = 0; i < 10000; ++i) {
+            Timeout t = scheduler.schedule(task, i, TimeUnit.MINUTES);
+            if (i % 3 == 0) {
+                t.cancel();
+            }
+        }
+        int total = 0;
+        for (int i = 0; i <= 10000; i += 7) {
+            total += scheduler.processTick(now + TimeUnit.MINUTES.toNanos(i));
+            assertEquals(total, task.cnt.get());
+        }
+        total += scheduler.processTick(now + TimeUnit.MINUTES.toNanos(10001));
+        assertEquals(6666, total);
+        assertEquals(6666, task.cnt.get());
+        assertEquals(0, scheduler.getPendingCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testBatchExecutor() throws Exception {
+        final AtomicInteger batches = new AtomicInteger();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                batches.incrementAndGet();
+                command.run();
+            }
+        };
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MINUTES, executor);
+        scheduler.setBatchSize(100);
+        assertEquals(100, scheduler.getBatchSize());
+        Task task = new Task();
+        for (int i = 0; i < 1050; ++i) {
+            scheduler.schedule(task, 1, TimeUnit.SECONDS);
+        }
+        assertEquals(1050, scheduler.processTick(System.nanoTime() + TimeUnit.MINUTES.toNanos(2)));
+        assertEquals(1050, task.cnt.get());
+        assertEquals(11, batches.get());
+        assertEquals(11, scheduler.getBatchCount());
+        scheduler.stop();
+    }
+
+    @Test
+    public void testSubclass() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MILLISECONDS);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Timeout t = new Timeout() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        scheduler.schedule(t, 0, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(t.isExpired());
+        try {
+            scheduler.schedule(t, 1, TimeUnit.MILLISECONDS);
+            fail("Should throw.");
+        } catch (IllegalStateException e) {
+            assertEquals("The timeout is already scheduled.", e.getMessage());
+        }
+        scheduler.stop();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStopped() throws Exception {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler("test", 1, TimeUnit.MILLISECONDS);
+        scheduler.stop();
+        scheduler.schedule(new Task(), 1, TimeUnit.MILLISECONDS);
+    }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * BlockedBloomFilterTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class BlockedBloomFilterTest {
+
+    @Test
+    public void testSize() throws Exception {
+        BlockedBloomFilter f = new BlockedBloomFilter(100000, 0.01);
+        assertEquals(7, f.getNumHashes());
+        // About 1.2M bits.
+        assertTrue(f.bitSize() > 1100000 && f.bitSize() < 1300000);
+        assertEquals(f.getNumBlocks() * 512L, f.bitSize());
+        assertEquals(0, f.bitCount());
+        assertEquals(1, new BlockedBloomFilter(10, 0.99).getNumHashes());
+        assertEquals(16, new BlockedBloomFilter(10, 1e-9).getNumHashes());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidFpp() throws Exception {
+        new BlockedBloomFilter(100, 1.0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidBlocks() throws Exception {
+        new BlockedBloomFilter(0, 3);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidHashes() throws Exception {
+        new BlockedBloomFilter(10, 17);
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        BlockedBloomFilter f = new BlockedBloomFilter(1000, 0.01);
+        assertFalse(f.mightContain("abc"));
+        assertTrue(f.put("abc"));
+        assertFalse(f.put("abc"));
+        assertTrue(f.mightContain("abc"));
+        assertTrue(f.mightContain("abc".getBytes("UTF-8")));
+        assertEquals(7, f.bitCount());
+
+        assertTrue(f.put(12345L));
+        assertTrue(f.mightContain(12345L));
+        assertTrue(f.put(new byte[] {1, 2, 3}));
+        assertTrue(f.mightContain(new byte[] {1, 2, 3}));
+        assertTrue(f.putHash(-1L));
+        assertTrue(f.mightContainHash(-1L));
+    }
+
+    @Test
+    public void testFalsePositiveRate() throws Exception {
+        BlockedBloomFilter f = new BlockedBloomFilter(100000, 0.01);
+        for (long i = 0; i < 100000; ++i) {
+            f.put(i);
+        }
+        for (long i = 0; i < 100000; ++i) {
+            assertTrue(f.mightContain(i));
+        }
+        int fp = 0;
+        for (long i = 100000; i < 200000; ++i) {
+            if (f.mightContain(i)) {
+                ++fp;
+            }
+        }
+        assertTrue("fp " + fp, fp < 1500);
+        assertTrue(f.expectedFpp() < 0.015);
+    }
+
+    @Test
+    public void testConcurrentPut() throws Exception {
+        final BlockedBloomFilter f = new BlockedBloomFilter(4, 8);
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; ++t) {
+            final int base = t * 1000;
+            ts[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; ++i) {
+                        f.put("key-" + (base + i));
+                    }
+                }
+            };
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        for (int i = 0; i < 4000; ++i) {
+            assertTrue(f.mightContain("key-" + i));
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        BlockedBloomFilter f = new BlockedBloomFilter(1000, 0.03);
+        for (int i = 0; i < 1000; ++i) {
+            f.put("key-" + i);
+        }
+        File file = File.createTempFile("bloom", ".bin");
+        try {
+            f.writeTo(file);
+            assertEquals(12 + f.bitSize() / 8, file.length());
+            BlockedBloomFilter g = BlockedBloomFilter.readFrom(file);
+            assertEquals(f.getNumBlocks(), g.getNumBlocks());
+            assertEquals(f.getNumHashes(), g.getNumHashes());
+            assertEquals(f.bitCount(), g.bitCount());
+            for (int i = 0; i < 1000; ++i) {
+                assertTrue(g.mightContain("key-" + i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalid() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CountingBloomFilter(1, 3).writeTo(out);
+        BlockedBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void testMix64() throws Exception {
+        assertTrue(BlockedBloomFilter.mix64(1) != BlockedBloomFilter.mix64(2));
+        assertEquals(BlockedBloomFilter.hash64("abc"), BlockedBloomFilter.hash64("abc".getBytes("UTF-8")));
+    }
+
+}
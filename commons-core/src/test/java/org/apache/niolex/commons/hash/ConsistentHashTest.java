@@ -22,8 +22,12 @@ import static org.junit.Assert.*;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.niolex.commons.hash.ConsistentHash.GuavaHash;
 import org.apache.niolex.commons.test.MockUtil;
@@ -266,4 +270,240 @@ public class ConsistentHashTest {
         }
     }
 
+    @Test
+    public void testSameAsTreeMapRing() throws Exception {
+        List<String> nodes = Arrays.asList("a1", "b2", "c3", "d4", "e5", "f6", "g7");
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 50, nodes);
+        cHash.remove("c3");
+        cHash.add("h8");
+        // The reference ring by tree map.
+        TreeMap<Integer, String> circle = new TreeMap<Integer, String>();
+        for (String node : Arrays.asList("a1", "b2", "c3", "d4", "e5", "f6", "g7", "h8")) {
+            if (node.equals("c3")) continue;
+            int start = GuavaHash.INSTANCE.hashCode(node);
+            for (int i = start; i < start + 50; ++i) {
+                circle.put(GuavaHash.INSTANCE.hashCode(node, i), node);
+            }
+        }
+        assertEquals(circle.size(), cHash.ringSize());
+        for (int i = 0; i < 5000; ++i) {
+            String key = MockUtil.randString(10);
+            Map.Entry<Integer, String> en = circle.ceilingEntry(GuavaHash.INSTANCE.hashCode(key));
+            en = en == null ? circle.firstEntry() : en;
+            assertEquals(en.getValue(), cHash.getNode(key));
+        }
+    }
+
+    @Test
+    public void testSamePositionLastWins() throws Exception {
+        ConsistentHash<String> cHash = new ConsistentHash<String>(new ConsistentHash.HashFunction(){
+
+            @Override
+            public int hashCode(Object o) {
+                return o.toString().length() * 100;
+            }
+
+            @Override
+            public int hashCode(Object o, int seed) {
+                return seed;
+            }
+        }, 3);
+        // Replicas: a -> 100, 101, 102; bb -> 200, 201, 202; ccc -> 300 ...
+        cHash.prepare("a", "bb");
+        assertEquals(6, cHash.ringSize());
+        assertEquals("a", cHash.getNode("x"));
+        assertEquals("bb", cHash.getNode("xx"));
+        assertEquals("a", cHash.getNode("xxxx"));
+        cHash.add("b");
+        assertEquals(6, cHash.ringSize());
+        assertEquals("b", cHash.getNode("x"));
+        assertEquals("b", cHash.getNode("xxxx"));
+        assertEquals(Arrays.asList("b", "bb"), cHash.getNodeList("x"));
+        cHash.remove("a");
+        assertEquals(3, cHash.ringSize());
+        assertEquals("bb", cHash.getNode("x"));
+        assertEquals(1, cHash.getNodeList("x", 1).size());
+    }
+
+    @Test
+    public void testRoute() throws Exception {
+        // The JVM hash of integer is the integer itself.
+        NodeRouter<String> router = new ConsistentHash<String>(50);
+        assertNull(router.route(33));
+        router.add("a1");
+        router.add("b2");
+        assertEquals(((ConsistentHash<String>) router).getNode(3), router.route(3));
+        assertEquals(((ConsistentHash<String>) router).getNode(7 ^ -8), router.route(-8L << 32 | 7));
+        router.remove("a1");
+        assertEquals("b2", router.route(12345));
+    }
+
+    @Test
+    public void testBoundedLoad() throws Exception {
+        List<String> nodes = Arrays.asList("a1", "b2", "c3", "d4", "e5", "f6", "g7", "h8", "i9", "j10");
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 10, nodes);
+        ConsistentHash<String> dHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 10, nodes);
+        assertEquals(-1, cHash.getLoadEpsilon(), 0.0001);
+        cHash.setLoadEpsilon(0.25);
+        assertEquals(0.25, cHash.getLoadEpsilon(), 0.0001);
+        int same = 0;
+        for (int i = 0; i < 10000; ++i) {
+            String key = "key-" + i;
+            String node = cHash.getNode(key);
+            if (node.equals(dHash.getNode(key))) {
+                ++same;
+            }
+            cHash.incrementLoad(node);
+            dHash.incrementLoad(dHash.getNode(key));
+        }
+        int cMax = 0, dMax = 0;
+        for (String node : nodes) {
+            cMax = Math.max(cMax, cHash.getLoad(node));
+            dMax = Math.max(dMax, dHash.getLoad(node));
+        }
+        assertTrue(cMax <= 1250);
+        assertTrue(dMax > cMax);
+        assertTrue(same > 7000);
+        // Release the load.
+        assertEquals(cHash.getLoad("a1") - 1, cHash.decrementLoad("a1"));
+        assertEquals(0, cHash.decrementLoad("not-found"));
+    }
+
+    @Test
+    public void testBoundedLoadSkip() throws Exception {
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 10, Arrays.asList("a", "b"));
+        cHash.setLoadEpsilon(0);
+        String n1 = cHash.getNode("key");
+        String n2 = n1.equals("a") ? "b" : "a";
+        assertEquals(1, cHash.incrementLoad(n1));
+        // Bound is ceil(2 / 2) = 1, n1 is full.
+        assertEquals(n2, cHash.getNode("key"));
+        cHash.incrementLoad(n2);
+        // Bound is ceil(3 / 2) = 2.
+        assertEquals(n1, cHash.getNode("key"));
+        assertEquals(0, cHash.decrementLoad(n1));
+        // Remove the node clears its load.
+        cHash.remove(n2);
+        assertEquals(0, cHash.getLoad(n2));
+        assertEquals(n1, cHash.getNode("key"));
+        cHash.setLoadEpsilon(-1);
+        assertEquals(n1, cHash.getNode("key"));
+    }
+
+    @Test
+    public void testGroupByNode() throws Exception {
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 20);
+        assertEquals(0, cHash.groupByNode(Arrays.asList("a", "b")).size());
+        cHash.prepare("n1", "n2", "n3", "n4", "n5");
+        Integer[] keys = new Integer[1000];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = i * 7 + 3;
+        }
+        Map<String, int[]> map = cHash.groupByNode(keys);
+        Map<String, int[]> map2 = cHash.groupByNode(Arrays.asList(keys));
+        assertEquals(5, map.size());
+        int total = 0;
+        for (Map.Entry<String, int[]> en : map.entrySet()) {
+            int[] idx = en.getValue();
+            assertTrue(Arrays.equals(idx, map2.get(en.getKey())));
+            for (int i = 0; i < idx.length; ++i) {
+                assertEquals(en.getKey(), cHash.getNode(keys[idx[i]]));
+                assertTrue(i == 0 || idx[i] > idx[i - 1]);
+            }
+            total += idx.length;
+        }
+        assertEquals(1000, total);
+    }
+
+    @Test
+    public void testWeightedNodes() throws Exception {
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 100);
+        Map<String, Double> weights = new LinkedHashMap<String, Double>();
+        weights.put("a1", 1.0);
+        weights.put("b2", 1.0);
+        weights.put("c3", 2.0);
+        cHash.prepare(weights);
+        assertEquals(400, cHash.ringSize(), 2);
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (int i = 0; i < 40000; ++i) {
+            String s = cHash.getNode("key-" + i);
+            Integer c = map.get(s);
+            map.put(s, c == null ? 1 : c + 1);
+        }
+        assertTrue(map.get("c3") > 16000);
+        assertTrue(map.get("a1") < 13000);
+        cHash.add("d4", 0.5);
+        assertEquals(450, cHash.ringSize(), 3);
+        cHash.remove("c3");
+        assertEquals(250, cHash.ringSize(), 3);
+        cHash.remove("d4");
+        assertEquals(200, cHash.ringSize(), 2);
+        // Add it back with default weight.
+        cHash.add("c3", 1.0);
+        cHash.remove("c3");
+        assertEquals(200, cHash.ringSize(), 2);
+    }
+
+    @Test
+    public void testAddAgainWithNewWeight() throws Exception {
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 100);
+        cHash.prepare("a1", "b2");
+        assertEquals(200, cHash.ringSize(), 2);
+        cHash.add("C", 2.0);
+        assertEquals(400, cHash.ringSize(), 3);
+        cHash.add("C", 0.5);
+        assertEquals(250, cHash.ringSize(), 3);
+        cHash.remove("C");
+        assertEquals(200, cHash.ringSize(), 2);
+        for (int i = 0; i < 10000; ++i) {
+            assertFalse("C".equals(cHash.getNode("key-" + i)));
+        }
+        // Plain add and prepare also replace the weighted positions.
+        cHash.add("D", 3.0);
+        assertEquals(500, cHash.ringSize(), 4);
+        cHash.add("D");
+        assertEquals(300, cHash.ringSize(), 3);
+        cHash.add("D", 3.0);
+        cHash.prepare(Arrays.asList("D"));
+        assertEquals(300, cHash.ringSize(), 3);
+        cHash.remove("D");
+        assertEquals(200, cHash.ringSize(), 2);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidWeight() throws Exception {
+        new ConsistentHash<String>(10).add("a", 0);
+    }
+
+    @Test
+    public void testPreferenceList() throws Exception {
+        List<String> nodes = Arrays.asList("a1", "b2", "c3", "d4", "e5", "f6");
+        ConsistentHash<String> cHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 20, nodes);
+        ConsistentHash<String> dHash = new ConsistentHash<String>(GuavaHash.INSTANCE, 20, nodes);
+        assertEquals(0, cHash.getPreferenceSize());
+        cHash.setPreferenceSize(3);
+        assertEquals(3, cHash.getPreferenceSize());
+        for (int i = 0; i < 2000; ++i) {
+            String key = MockUtil.randString(8);
+            assertEquals(dHash.getNodeList(key, 3), cHash.getNodeList(key, 3));
+            assertEquals(dHash.getNodeList(key, 2), cHash.getNodeList(key, 2));
+            assertEquals(dHash.getNodeList(key, 5), cHash.getNodeList(key, 5));
+        }
+        // The list is rebuilt when the ring changes.
+        cHash.remove("c3");
+        dHash.remove("c3");
+        cHash.add("g7");
+        dHash.add("g7");
+        for (int i = 0; i < 2000; ++i) {
+            String key = MockUtil.randString(8);
+            assertEquals(dHash.getNodeList(key, 3), cHash.getNodeList(key, 3));
+        }
+        cHash.setPreferenceSize(10);
+        assertEquals(6, cHash.getNodeList("abc", 6).size());
+        try {
+            cHash.getNodeList("abc", 7);
+            assertTrue(false);
+        } catch (IllegalStateException e) {};
+    }
+
 }
@@ -0,0 +1,166 @@
+/**
+ * CountingBloomFilterTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class CountingBloomFilterTest {
+
+    @Test
+    public void testSize() throws Exception {
+        CountingBloomFilter f = new CountingBloomFilter(10000, 0.01);
+        assertEquals(7, f.getNumHashes());
+        assertEquals(f.getNumBlocks() * 128L, f.counterSize());
+        assertTrue(f.counterSize() > 110000);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidHashes() throws Exception {
+        new CountingBloomFilter(10, 0);
+    }
+
+    @Test
+    public void testPutRemove() throws Exception {
+        CountingBloomFilter f = new CountingBloomFilter(1000, 0.01);
+        assertFalse(f.mightContain("abc"));
+        f.put("abc");
+        f.put("abc");
+        assertTrue(f.mightContain("abc"));
+        assertEquals(2, f.estimateCountHash(BlockedBloomFilter.hash64("abc")));
+        f.remove("abc");
+        assertTrue(f.mightContain("abc".getBytes("UTF-8")));
+        f.remove("abc".getBytes("UTF-8"));
+        assertFalse(f.mightContain("abc"));
+        // Remove again does not underflow.
+        f.remove("abc");
+        f.put("abc");
+        assertEquals(1, f.estimateCountHash(BlockedBloomFilter.hash64("abc")));
+
+        f.put(7L);
+        assertTrue(f.mightContain(7L));
+        f.remove(7L);
+        assertFalse(f.mightContain(7L));
+        f.put(new byte[] {1});
+        assertTrue(f.mightContain(new byte[] {1}));
+    }
+
+    @Test
+    public void testSaturate() throws Exception {
+        CountingBloomFilter f = new CountingBloomFilter(1, 4);
+        for (int i = 0; i < 20; ++i) {
+            f.putHash(99L);
+        }
+        assertEquals(15, f.estimateCountHash(99L));
+        for (int i = 0; i < 20; ++i) {
+            f.removeHash(99L);
+        }
+        // The saturated counters are sticky.
+        assertTrue(f.mightContainHash(99L));
+    }
+
+    @Test
+    public void testRemoveMany() throws Exception {
+        CountingBloomFilter f = new CountingBloomFilter(10000, 0.01);
+        for (long i = 0; i < 10000; ++i) {
+            f.put(i);
+        }
+        for (long i = 0; i < 5000; ++i) {
+            f.remove(i);
+        }
+        for (long i = 5000; i < 10000; ++i) {
+            assertTrue(f.mightContain(i));
+        }
+        int fp = 0;
+        for (long i = 0; i < 5000; ++i) {
+            if (f.mightContain(i)) {
+                ++fp;
+            }
+        }
+        assertTrue("fp " + fp, fp < 100);
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final CountingBloomFilter f = new CountingBloomFilter(2, 4);
+        Thread[] ts = new Thread[4];
+        for (int t = 0; t < ts.length; ++t) {
+            ts[t] = new Thread() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; ++i) {
+                        f.putHash(i % 3);
+                        f.removeHash(i % 3);
+                    }
+                }
+            };
+            ts[t].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        for (int i = 0; i < 3; ++i) {
+            assertFalse(f.mightContainHash(i));
+        }
+    }
+
+    @Test
+    public void testSerialize() throws Exception {
+        CountingBloomFilter f = new CountingBloomFilter(1000, 0.03);
+        for (int i = 0; i < 1000; ++i) {
+            f.put("key-" + i);
+        }
+        File file = File.createTempFile("cbloom", ".bin");
+        try {
+            f.writeTo(file);
+            CountingBloomFilter g = CountingBloomFilter.readFrom(file);
+            assertEquals(f.getNumBlocks(), g.getNumBlocks());
+            assertEquals(f.getNumHashes(), g.getNumHashes());
+            for (int i = 0; i < 1000; ++i) {
+                assertTrue(g.mightContain("key-" + i));
+                g.remove("key-" + i);
+            }
+            for (int i = 0; i < 1000; ++i) {
+                assertFalse(g.mightContain("key-" + i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testReadInvalid() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BlockedBloomFilter(1, 3).writeTo(out);
+        CountingBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+}
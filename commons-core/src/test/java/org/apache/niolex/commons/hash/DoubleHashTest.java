@@ -19,9 +19,13 @@ package org.apache.niolex.commons.hash;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.niolex.commons.bean.Pair;
 import org.apache.niolex.commons.codec.StringUtil;
@@ -202,4 +206,30 @@ public class DoubleHashTest {
 
     }
 
+    @Test
+    public void testGroupByNode() throws Exception {
+        Collection<String> nodeList = Arrays.asList("10.214.133.100:8087", "10.214.133.100:8088", "10.214.65.11:8087", "10.214.65.11:8088");
+        DoubleHash<String> dHash = new DoubleHash<String>(Hashing.murmur3_128(), Hashing.crc32(), nodeList);
+        List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 1000; ++i) {
+            keys.add("key-" + i);
+        }
+        Map<String, int[]> map = dHash.groupByNode(keys);
+        Map<String, int[]> map2 = dHash.groupByNode(keys.toArray(new String[0]));
+        assertEquals(4, map.size());
+        int total = 0;
+        for (Map.Entry<String, int[]> en : map.entrySet()) {
+            int[] idx = en.getValue();
+            assertTrue(Arrays.equals(idx, map2.get(en.getKey())));
+            for (int i = 0; i < idx.length; ++i) {
+                assertEquals(en.getKey(), dHash.getPairNodes(keys.get(idx[i])).a);
+                assertTrue(i == 0 || idx[i] > idx[i - 1]);
+            }
+            total += idx.length;
+        }
+        assertEquals(1000, total);
+        assertEquals(0, new DoubleHash<String>(Hashing.murmur3_128(), Hashing.crc32(),
+                new ArrayList<String>()).groupByNode(keys).size());
+    }
+
 }
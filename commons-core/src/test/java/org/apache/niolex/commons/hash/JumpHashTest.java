@@ -0,0 +1,99 @@
+/**
+ * JumpHashTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class JumpHashTest {
+
+    @Test
+    public void testJumpSameAsGuava() throws Exception {
+        Random rand = new Random(1018);
+        for (int i = 0; i < 10000; ++i) {
+            long key = rand.nextLong();
+            int buckets = rand.nextInt(2000) + 1;
+            assertEquals(Hashing.consistentHash(key, buckets), JumpHash.jump(key, buckets));
+        }
+        assertEquals(0, JumpHash.jump(12345, 1));
+    }
+
+    @Test
+    public void testRoute() throws Exception {
+        JumpHash<String> jHash = new JumpHash<String>(new ArrayList<String>());
+        assertNull(jHash.route(33));
+        jHash.add("a");
+        jHash.add("b");
+        assertEquals(2, jHash.size());
+        int[] cnt = new int[2];
+        for (long i = 0; i < 10000; ++i) {
+            cnt[jHash.route(BlockedBloomFilter.mix64(i)).equals("a") ? 0 : 1]++;
+        }
+        assertTrue(cnt[0] > 4500 && cnt[1] > 4500);
+    }
+
+    @Test
+    public void testAddRemove() throws Exception {
+        List<String> nodes = Arrays.asList("n0", "n1", "n2", "n3", "n4");
+        JumpHash<String> jHash = new JumpHash<String>(nodes);
+        String[] old = new String[10000];
+        for (int i = 0; i < old.length; ++i) {
+            old[i] = jHash.route(BlockedBloomFilter.mix64(i));
+        }
+        jHash.add("n5");
+        int moved = 0;
+        for (int i = 0; i < old.length; ++i) {
+            String s = jHash.route(BlockedBloomFilter.mix64(i));
+            if (!s.equals(old[i])) {
+                assertEquals("n5", s);
+                ++moved;
+            }
+        }
+        assertTrue(moved > 1300 && moved < 2000);
+        // Remove the tail node, all the keys go back.
+        jHash.remove("n5");
+        jHash.remove("not-found");
+        for (int i = 0; i < old.length; ++i) {
+            assertEquals(old[i], jHash.route(BlockedBloomFilter.mix64(i)));
+        }
+        // Remove the middle node, it's replaced by the last one.
+        jHash.remove("n1");
+        assertEquals(4, jHash.size());
+        for (int i = 0; i < old.length; ++i) {
+            String s = jHash.route(BlockedBloomFilter.mix64(i));
+            if (!old[i].equals("n1") && !old[i].equals("n4")) {
+                assertEquals(old[i], s);
+            }
+            assertFalse(s.equals("n1"));
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * MaglevHashTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class MaglevHashTest {
+
+    private static List<String> nodes(int n) {
+        List<String> list = new ArrayList<String>();
+        for (int i = 0; i < n; ++i) {
+            list.add("10.1.1." + i + ":8080");
+        }
+        return list;
+    }
+
+    @Test
+    public void testIsPrime() throws Exception {
+        assertFalse(MaglevHash.isPrime(1));
+        assertTrue(MaglevHash.isPrime(2));
+        assertTrue(MaglevHash.isPrime(65537));
+        assertFalse(MaglevHash.isPrime(65535));
+        assertTrue(MaglevHash.isPrime(Integer.MAX_VALUE));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNotPrime() throws Exception {
+        new MaglevHash<String>(nodes(3), 1000);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testTooManyNodes() throws Exception {
+        new MaglevHash<String>(nodes(8), 7);
+    }
+
+    @Test
+    public void testBalance() throws Exception {
+        MaglevHash<String> mHash = new MaglevHash<String>(nodes(10));
+        assertEquals(65537, mHash.getTableSize());
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (long i = 0; i < 100000; ++i) {
+            String s = mHash.route(BlockedBloomFilter.mix64(i));
+            Integer c = map.get(s);
+            map.put(s, c == null ? 1 : c + 1);
+        }
+        assertEquals(10, map.size());
+        for (int c : map.values()) {
+            assertTrue(c > 9000 && c < 11000);
+        }
+    }
+
+    @Test
+    public void testAddRemove() throws Exception {
+        MaglevHash<String> mHash = new MaglevHash<String>(new ArrayList<String>(), 5003);
+        assertNull(mHash.route(33));
+        for (String s : nodes(20)) {
+            mHash.add(s);
+        }
+        assertEquals(20, mHash.size());
+        String[] old = new String[10000];
+        for (int i = 0; i < old.length; ++i) {
+            old[i] = mHash.route(BlockedBloomFilter.mix64(i));
+        }
+        mHash.remove("10.1.1.7:8080");
+        mHash.remove("not-found");
+        assertEquals(19, mHash.size());
+        int moved = 0;
+        for (int i = 0; i < old.length; ++i) {
+            String s = mHash.route(BlockedBloomFilter.mix64(i));
+            assertFalse(s.equals("10.1.1.7:8080"));
+            if (!old[i].equals("10.1.1.7:8080") && !old[i].equals(s)) {
+                ++moved;
+            }
+        }
+        // Only a few keys of the other nodes are moved.
+        assertTrue(moved < 1000);
+        mHash.add("10.1.1.7:8080");
+        assertEquals(20, mHash.size());
+    }
+
+}
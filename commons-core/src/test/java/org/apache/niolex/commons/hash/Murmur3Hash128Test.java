@@ -0,0 +1,89 @@
+/**
+ * Murmur3Hash128Test.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.niolex.commons.codec.StringUtil;
+import org.junit.Test;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class Murmur3Hash128Test {
+
+    @Test
+    public void testSameAsGuava() throws Exception {
+        Random rand = new Random(1018);
+        for (int seed : new int[] {0, 1, 20261018}) {
+            Murmur3Hash128 m = new Murmur3Hash128(seed);
+            for (int len = 0; len < 100; ++len) {
+                byte[] b = new byte[len];
+                rand.nextBytes(b);
+                HashCode code = Hashing.murmur3_128(seed).hashBytes(b);
+                assertEquals(code.asLong(), m.hash(b));
+                long[] out = new long[2];
+                m.hash128(b, 0, len, out);
+                ByteBuffer expected = ByteBuffer.wrap(code.asBytes());
+                assertEquals(Long.reverseBytes(expected.getLong()), out[0]);
+                assertEquals(Long.reverseBytes(expected.getLong()), out[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testAllInputs() throws Exception {
+        Random rand = new Random(1018);
+        Murmur3Hash128 m = Murmur3Hash128.INSTANCE;
+        for (int len = 0; len < 50; ++len) {
+            byte[] b = new byte[len + 2];
+            rand.nextBytes(b);
+            long h = m.hash(b, 2, len);
+            ByteBuffer direct = ByteBuffer.allocateDirect(len + 2);
+            direct.put(b).flip();
+            direct.position(2);
+            assertEquals(h, m.hash(direct));
+            long[] out = new long[2];
+            assertEquals(h, m.hash128(ByteBuffer.wrap(b, 2, len), out));
+            assertEquals(h, out[0]);
+        }
+    }
+
+    @Test
+    public void testChars() throws Exception {
+        Murmur3Hash128 m = Murmur3Hash128.INSTANCE;
+        String[] arr = {"", "a", "abc", "中文测试 éè", "😀 smile",
+                "0123456789abcdef0123456789abcdefXYZ"};
+        for (String s : arr) {
+            assertEquals(m.hash(s.getBytes("UTF-16LE")), m.hashChars(s));
+            assertEquals(Hashing.murmur3_128().hashString(s, StringUtil.UTF_8).asLong(), m.hashUtf8(s));
+        }
+        long h = m.hashChars("abc");
+        assertEquals((int) (h ^ (h >>> 32)), m.hashCode("abc"));
+        assertEquals(new Murmur3Hash128(7).hashCode("abc"), m.hashCode("abc", 7));
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * RendezvousHashTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class RendezvousHashTest {
+
+    @Test
+    public void testRoute() throws Exception {
+        RendezvousHash<String> rHash = new RendezvousHash<String>(Arrays.asList("a", "b", "c", "d"));
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        for (long i = 0; i < 40000; ++i) {
+            String s = rHash.route(BlockedBloomFilter.mix64(i));
+            Integer c = map.get(s);
+            map.put(s, c == null ? 1 : c + 1);
+        }
+        assertEquals(4, map.size());
+        for (int c : map.values()) {
+            assertTrue(c > 9000 && c < 11000);
+        }
+        assertEquals(rHash.route(123), rHash.route(123));
+    }
+
+    @Test
+    public void testAddRemove() throws Exception {
+        RendezvousHash<String> rHash = new RendezvousHash<String>(new ArrayList<String>());
+        assertNull(rHash.route(33));
+        rHash.add("a");
+        rHash.add("b");
+        rHash.add("c");
+        rHash.add("d");
+        assertEquals(4, rHash.size());
+        String[] old = new String[10000];
+        for (int i = 0; i < old.length; ++i) {
+            old[i] = rHash.route(BlockedBloomFilter.mix64(i));
+        }
+        // Only the keys of the removed node are moved.
+        rHash.remove("b");
+        rHash.remove("not-found");
+        assertEquals(3, rHash.size());
+        for (int i = 0; i < old.length; ++i) {
+            String s = rHash.route(BlockedBloomFilter.mix64(i));
+            if (old[i].equals("b")) {
+                assertFalse(s.equals("b"));
+            } else {
+                assertEquals(old[i], s);
+            }
+        }
+        // Add it back, the keys go back.
+        rHash.add("b");
+        for (int i = 0; i < old.length; ++i) {
+            assertEquals(old[i], rHash.route(BlockedBloomFilter.mix64(i)));
+        }
+    }
+
+}
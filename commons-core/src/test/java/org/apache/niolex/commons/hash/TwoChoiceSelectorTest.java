@@ -0,0 +1,140 @@
+/**
+ * TwoChoiceSelectorTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.niolex.commons.bean.Pair;
+import org.apache.niolex.commons.hash.TwoChoiceSelector.Mode;
+import org.junit.Test;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hashing;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class TwoChoiceSelectorTest {
+
+    private final List<String> nodeList = Arrays.asList("10.1.1.1:8080", "10.1.1.2:8080", "10.1.1.3:8080", "10.1.1.4:8080");
+    private final DoubleHash<String> dHash = new DoubleHash<String>(Hashing.murmur3_128(), Hashing.crc32(), nodeList);
+
+    @Test
+    public void testInFlight() throws Exception {
+        TwoChoiceSelector<String> sel = new TwoChoiceSelector<String>(dHash);
+        assertEquals(Mode.IN_FLIGHT, sel.getMode());
+        Pair<String, String> pair = dHash.getPairNodes("key");
+        // Same load, primary wins.
+        assertEquals(pair.a, sel.select("key"));
+        sel.start(pair.a);
+        assertEquals(1, sel.getInFlight(pair.a));
+        assertEquals(pair.b, sel.select("key"));
+        sel.start(pair.b);
+        assertEquals(pair.a, sel.select("key"));
+        sel.start(pair.b);
+        sel.finish(pair.a, 1000);
+        assertEquals(0, sel.getInFlight(pair.a));
+        assertEquals(pair.a, sel.select("key"));
+        assertEquals(dHash.getPairNodes(33).a, sel.select(33));
+        assertEquals(dHash.getPairNodes(33L).a, sel.select(33L));
+        assertEquals(dHash.getPairNodes(33, Funnels.integerFunnel()).a, sel.select(33, Funnels.integerFunnel()));
+    }
+
+    @Test
+    public void testEwmaLatency() throws Exception {
+        TwoChoiceSelector<String> sel = new TwoChoiceSelector<String>(dHash, Mode.EWMA_LATENCY, 0.5);
+        Pair<String, String> pair = dHash.getPairNodes("key");
+        sel.start(pair.a);
+        sel.finish(pair.a, 1000);
+        assertEquals(1000, sel.getLatency(pair.a));
+        // The secondary has no sample, it borrows the latency of the primary.
+        assertEquals(pair.a, sel.select("key"));
+        sel.start(pair.a);
+        assertEquals(pair.b, sel.select("key"));
+        sel.finish(pair.a, 1000);
+        sel.start(pair.b);
+        sel.finish(pair.b, 3000);
+        assertEquals(pair.a, sel.select("key"));
+        sel.start(pair.b);
+        sel.finish(pair.b, 1000);
+        assertEquals(2000, sel.getLatency(pair.b));
+        // The in-flight requests multiply the latency.
+        sel.start(pair.a);
+        sel.start(pair.a);
+        assertEquals(pair.b, sel.select("key"));
+        sel.reset(pair.a);
+        assertEquals(0, sel.getLatency(pair.a));
+        assertEquals(0, sel.getInFlight(pair.a));
+        assertEquals(pair.a, sel.select("key"));
+    }
+
+    @Test
+    public void testEwmaNoSample() throws Exception {
+        TwoChoiceSelector<String> sel = new TwoChoiceSelector<String>(dHash, Mode.EWMA_LATENCY, 0.5);
+        Pair<String, String> pair = dHash.getPairNodes("key");
+        // Neither has a sample, compare the in-flight requests.
+        sel.start(pair.a);
+        sel.start(pair.a);
+        assertEquals(pair.b, sel.select("key"));
+        sel.start(pair.b);
+        sel.start(pair.b);
+        sel.start(pair.b);
+        assertEquals(pair.a, sel.select("key"));
+        // The busy secondary still has no sample, it must not look idle.
+        sel.finish(pair.a, 1000);
+        sel.finish(pair.a, 1000);
+        assertEquals(0, sel.getInFlight(pair.a));
+        assertEquals(pair.a, sel.select("key"));
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final TwoChoiceSelector<String> sel = new TwoChoiceSelector<String>(dHash, Mode.EWMA_LATENCY, 0.2);
+        Thread[] ts = new Thread[4];
+        for (int i = 0; i < ts.length; ++i) {
+            ts[i] = new Thread() {
+                public void run() {
+                    for (int k = 0; k < 10000; ++k) {
+                        String n = sel.select(k);
+                        sel.start(n);
+                        sel.finish(n, 100);
+                    }
+                }
+            };
+            ts[i].start();
+        }
+        for (Thread t : ts) {
+            t.join();
+        }
+        for (String n : nodeList) {
+            assertEquals(0, sel.getInFlight(n));
+            assertEquals(100, sel.getLatency(n));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidAlpha() throws Exception {
+        new TwoChoiceSelector<String>(dHash, Mode.EWMA_LATENCY, 0);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * XxHash64Test.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.hash;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.apache.niolex.commons.codec.StringUtil;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class XxHash64Test {
+
+    @Test
+    public void testKnownValues() throws Exception {
+        XxHash64 x = XxHash64.INSTANCE;
+        assertEquals(0xEF46DB3751D8E999L, x.hash(new byte[0]));
+        assertEquals(0xD24EC4F1A98C6E5BL, x.hashUtf8("a"));
+        assertEquals(0x44BC2CF5AD770999L, x.hashUtf8("abc"));
+        assertEquals(0xFBCEA83C8A378BF1L, x.hashUtf8("Nobody inspects the spammish repetition"));
+        assertEquals(0x34C96ACDCADB1BBBL, x.hash(new byte[8]));
+        assertEquals(0xF7C67301DB6713F0L, x.hash(range(64)));
+        assertEquals(0x00A396EF1679A859L, x.hash(range(39)));
+    }
+
+    private static byte[] range(int n) {
+        byte[] b = new byte[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = (byte) i;
+        }
+        return b;
+    }
+
+    @Test
+    public void testAllInputs() throws Exception {
+        Random rand = new Random(1018);
+        XxHash64 x = new XxHash64(12345);
+        for (int len = 0; len < 100; ++len) {
+            byte[] b = new byte[len + 3];
+            rand.nextBytes(b);
+            long h = x.hash(b, 3, len);
+            byte[] c = new byte[len];
+            System.arraycopy(b, 3, c, 0, len);
+            assertEquals(h, x.hash(c));
+            ByteBuffer heap = ByteBuffer.wrap(b);
+            heap.position(3);
+            assertEquals(h, x.hash(heap));
+            assertEquals(3, heap.position());
+            ByteBuffer direct = ByteBuffer.allocateDirect(len + 1);
+            direct.order(ByteOrder.LITTLE_ENDIAN);
+            direct.put((byte) 1).put(c).flip();
+            direct.get();
+            assertEquals(h, x.hash(direct));
+            assertEquals(ByteOrder.LITTLE_ENDIAN, direct.order());
+        }
+    }
+
+    @Test
+    public void testChars() throws Exception {
+        XxHash64 x = XxHash64.INSTANCE;
+        String[] arr = {"", "a", "abc", "Nobody inspects the spammish repetition", "中文测试 éè",
+                "😀 smile", "0123456789abcdef0123456789abcdefXYZ"};
+        for (String s : arr) {
+            assertEquals(x.hash(s.getBytes("UTF-16LE")), x.hashChars(s));
+            assertEquals(x.hash(s.getBytes(StringUtil.UTF_8)), x.hashUtf8(s));
+            assertEquals(x.hashChars(s), x.hashChars(new StringBuilder(s)));
+        }
+        // The unpaired surrogate is encoded as '?' in UTF-8.
+        assertEquals(x.hash("a? b?".getBytes(StringUtil.UTF_8)), x.hashUtf8("a\ud800 b\udc00"));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            sb.append((char) ('a' + i % 26)).append('é');
+        }
+        assertEquals(x.hash(sb.toString().getBytes(StringUtil.UTF_8)), x.hashUtf8(sb));
+    }
+
+    @Test
+    public void testHashFunction() throws Exception {
+        XxHash64 x = XxHash64.INSTANCE;
+        long h = x.hashChars("abc");
+        assertEquals((int) (h ^ (h >>> 32)), x.hashCode("abc"));
+        assertEquals(x.hashCode("abc"), x.hashCode(new StringBuilder("abc")));
+        assertEquals(x.hashCode("123"), x.hashCode(123));
+        h = x.hash(new byte[] {1, 2});
+        assertEquals((int) (h ^ (h >>> 32)), x.hashCode(new byte[] {1, 2}));
+        assertEquals(new XxHash64(5).hashCode("abc"), x.hashCode("abc", 5));
+        assertNotEquals(x.hashCode("abc", 6), x.hashCode("abc", 5));
+        ConsistentHash<String> cHash = new ConsistentHash<String>(x, 50);
+        cHash.prepare("a", "b", "c");
+        assertEquals(150, cHash.ringSize());
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testInvalidRange() throws Exception {
+        XxHash64.INSTANCE.hash(new byte[5], 3, 3);
+    }
+
+}
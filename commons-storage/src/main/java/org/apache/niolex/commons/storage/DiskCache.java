@@ -0,0 +1,473 @@
+/**
+ * DiskCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.niolex.commons.collection.Cache;
+import org.apache.niolex.commons.collection.CacheCodec;
+import org.apache.niolex.commons.codec.IntegerUtil;
+import org.apache.niolex.commons.test.Check;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The cache stores items in the pages of a {@link Volume}, with an in-memory index from key to
+ * the item location. So getting an item costs one page read.
+ * <br>
+ * The volume is used as a circular log of {@code maxPages} pages. New items are appended into the
+ * page in memory, and the page is written to the volume when it's full. When all the pages are
+ * used, we start from the first page again, and the items in the reused page are removed from the
+ * index. So the eviction policy is FIFO, and the old item of an updated key is simply left in the
+ * old page.
+ * <br>
+ * Every item is stored as: the key size, the value size, the key bytes and the value bytes. The
+ * keys and values are encoded by {@link CacheCodec}, an item larger than one page is not stored.
+ * <br>
+ * The index is not persisted, so the volume content is ignored when we open it again.
+ * If I/O error occurs, we log it and treat it as a cache miss. The file channel is closed forever
+ * when a thread using it is interrupted, so we open the volume again in that case, the other
+ * threads retry with the new volume.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class DiskCache<K, V> implements Cache<K, V>, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+
+    /**
+     * The number of bits used to store the offset inside a page in the item location.
+     */
+    private static final int OFFSET_BITS = 24;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+    /**
+     * The item header size, the key size and the value size.
+     */
+    private static final int ITEM_HEADER_SIZE = 8;
+
+    /**
+     * The index from key to the item location: the page sequence number and the offset inside the page.
+     */
+    private final ConcurrentHashMap<K, Long> index = new ConcurrentHashMap<K, Long>();
+
+    /**
+     * The keys stored in every page, used to clean the index when the page is reused. Guarded by the append lock.
+     */
+    private final List<List<K>> pageKeys;
+
+    /**
+     * The lock used to guard appending items.
+     */
+    private final Lock appendLock = new ReentrantLock();
+
+    /**
+     * The lock used to avoid reading a page when it's being written.
+     */
+    private final ReadWriteLock pageLock = new ReentrantReadWriteLock();
+
+    private final String fileName;
+    private final Page.Size pageSize;
+    private final int maxPages;
+    private final CacheCodec<K> keyCodec;
+    private final CacheCodec<V> valueCodec;
+
+    /**
+     * The page in memory used to append items.
+     */
+    private final Page writePage;
+
+    /**
+     * The sequence number of the page in memory, the physical page index is the sequence modulo max pages.
+     */
+    private volatile long writeSeq;
+
+    /**
+     * The next append offset in the page in memory. Guarded by the append lock.
+     */
+    private int writeOffset;
+
+    /**
+     * The volume, replaced when the channel is closed by an interrupted thread.
+     */
+    private volatile Volume volume;
+
+    /**
+     * Whether this cache is closed by user.
+     */
+    private volatile boolean closed;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create a disk cache stored in the specified volume file.
+     *
+     * @param fileName the volume file name
+     * @param pageSize the page size of a new volume, the old volume uses its own page size
+     * @param maxPages the max number of pages used in the volume
+     * @param keyCodec the codec used to encode keys
+     * @param valueCodec the codec used to encode values
+     * @throws IOException if failed to open the volume
+     */
+    public DiskCache(String fileName, Page.Size pageSize, int maxPages, CacheCodec<K> keyCodec,
+            CacheCodec<V> valueCodec) throws IOException {
+        super();
+        Check.lt(1, maxPages, "The parameter 'maxPages' must greater than 1.");
+        this.fileName = fileName;
+        this.volume = new Volume(fileName);
+        this.volume.initialize(pageSize);
+        this.pageSize = volume.getPageSize();
+        this.maxPages = maxPages;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.writePage = new Page(this.pageSize, 0);
+        this.pageKeys = new ArrayList<List<K>>(maxPages);
+        for (int i = 0; i < maxPages; ++i) {
+            pageKeys.add(new ArrayList<K>());
+        }
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        Long loc = index.get(key);
+        V v = null;
+        if (loc != null) {
+            try {
+                v = readItem(key, loc);
+            } catch (IOException e) {
+                LOG.warn("Failed to read key [{}] from disk reason - {}", key, e.toString());
+            }
+        }
+        if (v == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return v;
+    }
+
+    /**
+     * Read the item at the specified location.
+     *
+     * @param key the item key
+     * @param loc the item location
+     * @return the item value, or {@code null} if the location is not valid any more
+     * @throws IOException if failed to read the volume
+     */
+    protected V readItem(K key, long loc) throws IOException {
+        final long seq = loc >>> OFFSET_BITS;
+        final int offset = (int) (loc & OFFSET_MASK);
+        byte[] buf;
+        if (seq == writeSeq) {
+            // The page is still in memory.
+            appendLock.lock();
+            try {
+                if (seq != writeSeq) {
+                    return null;
+                }
+                return decodeItem(key, writePage.getBuf(), offset);
+            } finally {
+                appendLock.unlock();
+            }
+        } else {
+            pageLock.readLock().lock();
+            try {
+                // The physical page is reused by a newer page.
+                if (writeSeq - seq >= maxPages) {
+                    return null;
+                }
+                buf = readFromVolume(addressOf(seq));
+            } finally {
+                pageLock.readLock().unlock();
+            }
+        }
+        return decodeItem(key, buf, offset);
+    }
+
+    /**
+     * Read the page from the volume, open the volume again if the channel is closed by interrupt.
+     *
+     * @param address the page address
+     * @return the page buffer
+     * @throws IOException if failed to read the volume
+     */
+    private byte[] readFromVolume(long address) throws IOException {
+        Volume v = volume;
+        try {
+            return v.readPage(address).getBuf();
+        } catch (ClosedChannelException e) {
+            v = reopen(v, e);
+            return v.readPage(address).getBuf();
+        }
+    }
+
+    /**
+     * Write the page to the volume, open the volume again if the channel is closed by interrupt.
+     *
+     * @param p the page
+     * @throws IOException if failed to write the volume
+     */
+    private void writeToVolume(Page p) throws IOException {
+        Volume v = volume;
+        try {
+            v.writePage(p);
+        } catch (ClosedChannelException e) {
+            v = reopen(v, e);
+            v.writePage(p);
+        }
+    }
+
+    /**
+     * Replace the broken volume with a new one, if no other thread did it yet. The current thread
+     * can not retry if it's interrupted, the channel will be closed again.
+     *
+     * @param broken the volume with the closed channel
+     * @param e the exception thrown from the volume
+     * @return the new volume
+     * @throws IOException if the current thread is interrupted, or failed to open the volume
+     */
+    private synchronized Volume reopen(Volume broken, ClosedChannelException e) throws IOException {
+        if (closed) {
+            throw e;
+        }
+        if (volume == broken) {
+            LOG.warn("The volume channel of [{}] is closed, open it again.", fileName);
+            Volume v = new Volume(fileName);
+            v.initialize();
+            // The file of the broken volume is closed together with its channel.
+            volume = v;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw e;
+        }
+        return volume;
+    }
+
+    /**
+     * Decode the item value from the page buffer, and check the key.
+     *
+     * @param key the item key
+     * @param buf the page buffer
+     * @param offset the item offset
+     * @return the item value, or {@code null} if the key not match
+     */
+    protected V decodeItem(K key, byte[] buf, int offset) {
+        int klen = IntegerUtil.fourBytes(buf, offset);
+        int vlen = IntegerUtil.fourBytes(buf, offset + 4);
+        int start = offset + ITEM_HEADER_SIZE;
+        if (klen < 0 || vlen < 0 || start + klen + vlen > buf.length) {
+            return null;
+        }
+        byte[] k = new byte[klen];
+        System.arraycopy(buf, start, k, 0, klen);
+        if (!Arrays.equals(k, keyCodec.encode(key))) {
+            return null;
+        }
+        byte[] v = new byte[vlen];
+        System.arraycopy(buf, start + klen, v, 0, vlen);
+        return valueCodec.decode(v);
+    }
+
+    /**
+     * Append the item into the volume. We do not read the old value from disk, so this method
+     * always returns {@code null}.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        if (value == null) {
+            throw new NullPointerException("The parameter 'value' should not be null.");
+        }
+        byte[] k = keyCodec.encode(key);
+        byte[] v = valueCodec.encode(value);
+        int len = ITEM_HEADER_SIZE + k.length + v.length;
+        if (len > pageSize.size()) {
+            // Too large to store, remove the old one.
+            index.remove(key);
+            return null;
+        }
+        appendLock.lock();
+        try {
+            if (writeOffset + len > pageSize.size()) {
+                flushPage();
+            }
+            byte[] buf = writePage.getBuf();
+            IntegerUtil.encFourBytes(k.length, buf, writeOffset);
+            IntegerUtil.encFourBytes(v.length, buf, writeOffset + 4);
+            System.arraycopy(k, 0, buf, writeOffset + ITEM_HEADER_SIZE, k.length);
+            System.arraycopy(v, 0, buf, writeOffset + ITEM_HEADER_SIZE + k.length, v.length);
+            pageKeys.get(pageIndex(writeSeq)).add(key);
+            index.put(key, (writeSeq << OFFSET_BITS) | writeOffset);
+            writeOffset += len;
+        } catch (IOException e) {
+            index.remove(key);
+            LOG.warn("Failed to write key [{}] to disk reason - {}", key, e.toString());
+        } finally {
+            appendLock.unlock();
+        }
+        return null;
+    }
+
+    /**
+     * Write the page in memory to the volume, and start a new page. Must be called under the append lock.
+     *
+     * @throws IOException if failed to write the volume
+     */
+    protected void flushPage() throws IOException {
+        pageLock.writeLock().lock();
+        try {
+            writePage.setAddress(addressOf(writeSeq));
+            writeToVolume(writePage);
+        } finally {
+            pageLock.writeLock().unlock();
+        }
+        long seq = writeSeq + 1;
+        // Reuse the physical page, remove the old items from index.
+        long oldSeq = seq - maxPages;
+        List<K> keys = pageKeys.get(pageIndex(seq));
+        for (K key : keys) {
+            Long loc = index.get(key);
+            if (loc != null && (loc >>> OFFSET_BITS) == oldSeq) {
+                index.remove(key, loc);
+            }
+        }
+        keys.clear();
+        writeOffset = 0;
+        writeSeq = seq;
+    }
+
+    /**
+     * Remove the item from the index, the old value is read from disk.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("The parameter 'key' should not be null.");
+        }
+        Long loc = index.remove(key);
+        if (loc == null) {
+            return null;
+        }
+        try {
+            return readItem(key, loc);
+        } catch (IOException e) {
+            LOG.warn("Failed to read key [{}] from disk reason - {}", key, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Remove the item from the index without reading the old value.
+     *
+     * @param key the item key
+     * @return true if the item was in this cache
+     */
+    public boolean invalidate(K key) {
+        return index.remove(key) != null;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the number of gets found the item
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of gets not found the item
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Close the volume, all the items are lost.
+     *
+     * This is the override of super method.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            synchronized (this) {
+                closed = true;
+                index.clear();
+                volume.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @param seq the page sequence number
+     * @return the physical page index
+     */
+    private int pageIndex(long seq) {
+        return (int) (seq % maxPages);
+    }
+
+    /**
+     * @param seq the page sequence number
+     * @return the page address in the volume
+     */
+    private long addressOf(long seq) {
+        return (long) pageIndex(seq) * pageSize.size();
+    }
+
+}
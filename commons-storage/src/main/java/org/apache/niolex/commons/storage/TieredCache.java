@@ -0,0 +1,151 @@
+/**
+ * TieredCache.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.niolex.commons.collection.Cache;
+import org.apache.niolex.commons.collection.ConcurrentLRUCache;
+import org.apache.niolex.commons.collection.EvictionListener;
+
+/**
+ * The two levels cache: the items evicted from the on-heap {@link ConcurrentLRUCache} are demoted
+ * into the {@link DiskCache}, and the items found in the disk cache are promoted back to the heap.
+ * So the working set can be much larger than the heap, and a miss in heap costs one page read
+ * instead of a remote call.
+ * <br>
+ * The two levels are exclusive: an item is either in the heap or on the disk. The demotion is
+ * done in the thread which triggered the eviction.
+ *
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class TieredCache<K, V> implements Cache<K, V>, Closeable {
+
+    private final ConcurrentLRUCache<K, V> heapCache;
+    private final DiskCache<K, V> diskCache;
+
+    /**
+     * Create a two levels cache.
+     *
+     * @param heapCache the first level cache on heap, its eviction listener will be replaced
+     * @param diskCache the second level cache on disk
+     */
+    public TieredCache(ConcurrentLRUCache<K, V> heapCache, DiskCache<K, V> diskCache) {
+        super();
+        this.heapCache = heapCache;
+        this.diskCache = diskCache;
+        heapCache.setEvictionListener(new EvictionListener<K, V>() {
+            @Override
+            public void onEviction(K key, V value) {
+                // A newer item may be put into the heap after this one is evicted, the demoted
+                // item is stale then.
+                if (!TieredCache.this.heapCache.containsKey(key)) {
+                    TieredCache.this.diskCache.put(key, value);
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the item from the heap first, and then the disk. The item found on the disk is
+     * moved into the heap, unless another item is put into the heap concurrently, the newer
+     * one wins then.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#get(java.lang.Object)
+     */
+    @Override
+    public V get(K key) {
+        V v = heapCache.get(key);
+        if (v != null) {
+            return v;
+        }
+        v = diskCache.get(key);
+        if (v != null && diskCache.invalidate(key)) {
+            V cur = heapCache.putIfAbsent(key, v);
+            if (cur != null) {
+                return cur;
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Put the item into the heap, the old item on the disk is removed.
+     *
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#put(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public V put(K key, V value) {
+        diskCache.invalidate(key);
+        return heapCache.put(key, value);
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#remove(java.lang.Object)
+     */
+    @Override
+    public V remove(K key) {
+        V v = heapCache.remove(key);
+        V d = diskCache.remove(key);
+        return v != null ? v : d;
+    }
+
+    /**
+     * This is the override of super method.
+     * @see org.apache.niolex.commons.collection.Cache#size()
+     */
+    @Override
+    public int size() {
+        return heapCache.size() + diskCache.size();
+    }
+
+    /**
+     * @return the first level cache on heap
+     */
+    public ConcurrentLRUCache<K, V> getHeapCache() {
+        return heapCache;
+    }
+
+    /**
+     * @return the second level cache on disk
+     */
+    public DiskCache<K, V> getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Close the disk cache, all the items on the disk are lost.
+     *
+     * This is the override of super method.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        heapCache.setEvictionListener(null);
+        diskCache.close();
+    }
+
+}
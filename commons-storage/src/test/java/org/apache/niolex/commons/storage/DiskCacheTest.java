@@ -0,0 +1,186 @@
+/**
+ * DiskCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.niolex.commons.collection.CacheCodec;
+import org.apache.niolex.commons.file.DirUtil;
+import org.apache.niolex.commons.storage.Page.Size;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class DiskCacheTest {
+
+    static String PREX = System.getProperty("user.home") + "/storage-dc";
+    static String fileName = PREX + "/dc.dat";
+
+    private DiskCache<String, String> cache;
+
+    @BeforeClass
+    public static void setUp() {
+        DirUtil.mkdirsIfAbsent(PREX);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        DirUtil.delete(PREX, true);
+    }
+
+    @Before
+    public void open() throws Exception {
+        new File(fileName).delete();
+        cache = new DiskCache<String, String>(fileName, Size.S16K, 4, CacheCodec.StringCodec.INSTANCE,
+                CacheCodec.StringCodec.INSTANCE);
+    }
+
+    @After
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    private static String value(int i) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 1000) {
+            sb.append("value-").append(i).append('-');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testPutGet() throws Exception {
+        assertNull(cache.put("a", "b"));
+        assertEquals("b", cache.get("a"));
+        assertNull(cache.get("c"));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPagesOnDisk() throws Exception {
+        // About 15 items in one page, so the first pages are written to disk.
+        for (int i = 0; i < 40; ++i) {
+            cache.put("k" + i, value(i));
+        }
+        assertEquals(40, cache.size());
+        for (int i = 0; i < 40; ++i) {
+            assertEquals(value(i), cache.get("k" + i));
+        }
+        cache.put("k3", "new");
+        assertEquals("new", cache.get("k3"));
+        assertEquals(40, cache.size());
+    }
+
+    @Test
+    public void testInterrupted() throws Exception {
+        for (int i = 0; i < 40; ++i) {
+            cache.put("k" + i, value(i));
+        }
+        // The channel is closed by the interrupted read, it's a miss.
+        Thread.currentThread().interrupt();
+        try {
+            assertNull(cache.get("k1"));
+        } finally {
+            Thread.interrupted();
+        }
+        // The volume is opened again.
+        for (int i = 0; i < 40; ++i) {
+            assertEquals(value(i), cache.get("k" + i));
+        }
+        for (int i = 40; i < 80; ++i) {
+            cache.put("k" + i, value(i));
+        }
+        assertEquals(value(50), cache.get("k50"));
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        for (int i = 0; i < 200; ++i) {
+            cache.put("k" + i, value(i));
+        }
+        // At most 4 pages of items.
+        assertTrue(cache.size() < 64);
+        assertNull(cache.get("k0"));
+        assertEquals(value(199), cache.get("k199"));
+        int found = 0;
+        for (int i = 0; i < 200; ++i) {
+            String v = cache.get("k" + i);
+            if (v != null) {
+                assertEquals(value(i), v);
+                ++found;
+            }
+        }
+        assertEquals(cache.size(), found);
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        for (int i = 0; i < 20; ++i) {
+            cache.put("k" + i, value(i));
+        }
+        assertEquals(value(1), cache.remove("k1"));
+        assertNull(cache.remove("k1"));
+        assertNull(cache.get("k1"));
+        assertTrue(cache.invalidate("k19"));
+        assertFalse(cache.invalidate("k19"));
+        assertEquals(18, cache.size());
+    }
+
+    @Test
+    public void testTooLarge() throws Exception {
+        cache.put("big", "small");
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 17000) {
+            sb.append("0123456789");
+        }
+        cache.put("big", sb.toString());
+        assertNull(cache.get("big"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullKey() throws Exception {
+        cache.get(null);
+    }
+
+    @Test(expected=NullPointerException.class)
+    public void testNullValue() throws Exception {
+        cache.put("a", null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testInvalidPages() throws Exception {
+        new DiskCache<String, String>(fileName, Size.S16K, 1, CacheCodec.StringCodec.INSTANCE,
+                CacheCodec.StringCodec.INSTANCE);
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * TieredCacheTest.java
+ *
+ * Copyright 2026 the original author or authors.
+ *
+ * We licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.niolex.commons.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.niolex.commons.collection.CacheCodec;
+import org.apache.niolex.commons.collection.ConcurrentLRUCache;
+import org.apache.niolex.commons.file.DirUtil;
+import org.apache.niolex.commons.reflect.FieldUtil;
+import org.apache.niolex.commons.storage.Page.Size;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author <a href="mailto:xiejiyun@foxmail.com">Xie, Jiyun</a>
+ * @version 4.0.2
+ * @since Oct 18, 2026
+ */
+public class TieredCacheTest {
+
+    static String PREX = System.getProperty("user.home") + "/storage-tc";
+    static String fileName = PREX + "/tc.dat";
+
+    private TieredCache<String, String> cache;
+
+    @BeforeClass
+    public static void setUp() {
+        DirUtil.mkdirsIfAbsent(PREX);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        DirUtil.delete(PREX, true);
+    }
+
+    @Before
+    public void open() throws Exception {
+        new File(fileName).delete();
+        DiskCache<String, String> disk = new DiskCache<String, String>(fileName, Size.S16K, 64,
+                CacheCodec.StringCodec.INSTANCE, CacheCodec.StringCodec.INSTANCE);
+        cache = new TieredCache<String, String>(new ConcurrentLRUCache<String, String>(100), disk);
+    }
+
+    @After
+    public void close() throws Exception {
+        cache.close();
+    }
+
+    @Test
+    public void testDemoteAndPromote() throws Exception {
+        for (int i = 0; i < 1000; ++i) {
+            cache.put("k" + i, "v" + i);
+        }
+        assertEquals(1000, cache.size());
+        assertTrue(cache.getHeapCache().size() <= 100);
+        assertEquals(1000 - cache.getHeapCache().size(), cache.getDiskCache().size());
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals("v" + i, cache.get("k" + i));
+        }
+        assertEquals(1000, cache.size());
+        assertTrue(cache.getDiskCache().getHits() > 800);
+    }
+
+    @Test
+    public void testPutRemove() throws Exception {
+        for (int i = 0; i < 300; ++i) {
+            cache.put("k" + i, "v" + i);
+        }
+        assertNull(cache.getHeapCache().get("k0"));
+        assertEquals("v0", cache.getDiskCache().get("k0"));
+        cache.put("k0", "new");
+        assertNull(cache.getDiskCache().get("k0"));
+        assertEquals("new", cache.get("k0"));
+
+        assertEquals("v1", cache.remove("k1"));
+        assertNull(cache.get("k1"));
+        assertEquals("v299", cache.remove("k299"));
+        assertNull(cache.get("k299"));
+        assertEquals(298, cache.size());
+    }
+
+    @Test
+    public void testStaleDemotion() throws Exception {
+        cache.put("k0", "new");
+        // The old item is evicted after the new one is put.
+        cache.getHeapCache().getEvictionListener().onEviction("k0", "old");
+        assertNull(cache.getDiskCache().get("k0"));
+        cache.getHeapCache().getEvictionListener().onEviction("k1", "v1");
+        assertEquals("v1", cache.getDiskCache().get("k1"));
+        assertEquals("v1", cache.get("k1"));
+        assertNull(cache.getDiskCache().get("k1"));
+        assertEquals("new", cache.get("k0"));
+    }
+
+    @Test
+    public void testExpiredNotDemoted() throws Exception {
+        for (int i = 0; i < 100; ++i) {
+            cache.getHeapCache().put("e" + i, "v" + i, 1, 0);
+        }
+        Thread.sleep(20);
+        // The expired items are not reclaimed yet, they are evicted as victims.
+        FieldUtil.setValue(cache.getHeapCache(), "nextCleanUp", Long.MAX_VALUE);
+        for (int i = 0; i < 300; ++i) {
+            cache.put("k" + i, "v" + i);
+        }
+        for (int i = 0; i < 100; ++i) {
+            assertNull(cache.getDiskCache().get("e" + i));
+            assertNull(cache.get("e" + i));
+        }
+        assertEquals(300, cache.size());
+    }
+
+}